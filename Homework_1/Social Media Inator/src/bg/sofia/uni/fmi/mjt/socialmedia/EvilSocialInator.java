@@ -1,52 +1,86 @@
 package bg.sofia.uni.fmi.mjt.socialmedia;
 
+import bg.sofia.uni.fmi.mjt.socialmedia.activity.ActivityLog;
+import bg.sofia.uni.fmi.mjt.socialmedia.activity.ActivityLog.ActivityType;
 import bg.sofia.uni.fmi.mjt.socialmedia.content.Content;
 import bg.sofia.uni.fmi.mjt.socialmedia.content.ContentType;
 import bg.sofia.uni.fmi.mjt.socialmedia.content.Post;
 import bg.sofia.uni.fmi.mjt.socialmedia.content.Story;
-import bg.sofia.uni.fmi.mjt.socialmedia.customcomparators.PopularityComparator;
 import bg.sofia.uni.fmi.mjt.socialmedia.exceptions.ContentNotFoundException;
 import bg.sofia.uni.fmi.mjt.socialmedia.exceptions.NoUsersException;
 import bg.sofia.uni.fmi.mjt.socialmedia.exceptions.UsernameAlreadyExistsException;
 import bg.sofia.uni.fmi.mjt.socialmedia.exceptions.UsernameNotFoundException;
+import bg.sofia.uni.fmi.mjt.socialmedia.index.ExpiryWheel;
+import bg.sofia.uni.fmi.mjt.socialmedia.index.MentionIndex;
+import bg.sofia.uni.fmi.mjt.socialmedia.index.PopularityIndex;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.HashMap;
-import java.util.TreeMap;
-import java.util.Comparator;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content is removed from every index once it expires, by an {@link ExpiryWheel} which is advanced to the time
+ * of the clock on every call that publishes, changes or reads content. Content which is already expired when it
+ * is published is never added.
+ * <p>
+ * The platform is thread-safe. The shared indexes are concurrent maps and sets, and the counters of the content
+ * are atomic. The news feed and the activity log of a user are guarded by one of {@link #LOCK_STRIPES} locks
+ * chosen by the username, so calls for different users rarely wait for each other. The expiry wheel has a lock
+ * of its own, which is taken at most once per second to advance it and once per publication to schedule it.
+ */
 public class EvilSocialInator implements SocialMediaInator {
+    private static final int LOCK_STRIPES = 64;
+
+    private final Clock clock;
+    private final ExpiryWheel<Content> expiringContents;
+    private volatile long expiredUntilSecond;
+    private final Object[] userLocks;
     private Set<String> usernames;
     private Map<String, TreeSet<Content>> userNewsFeed;
     private Map<String, Content> allContents;
-    private Map<String, Integer> allMentions;
-    private Map<String, HashSet<Content>> allTags;
-    private Map<String, List<String>> activityLog;
+    private PopularityIndex popularContents;
+    private MentionIndex mentionedUsers;
+    private Map<String, Set<Content>> allTags;
+    private Map<String, ActivityLog> activityLog;
 
     public EvilSocialInator() {
-        userNewsFeed = new HashMap<>();
-        usernames = new TreeSet<>();
-        allContents = new HashMap<>();
-        allMentions = new TreeMap<>(Comparator.reverseOrder());
-        allTags = new HashMap<>();
-        activityLog = new HashMap<>();
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param clock the clock which decides when content expires and when likes and comments happen
+     */
+    public EvilSocialInator(Clock clock) {
+        this.clock = clock;
+        expiringContents = new ExpiryWheel<>(toSecond(now()));
+        expiredUntilSecond = expiringContents.currentSecond();
+        userLocks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            userLocks[i] = new Object();
+        }
+        userNewsFeed = new ConcurrentHashMap<>();
+        usernames = ConcurrentHashMap.newKeySet();
+        allContents = new ConcurrentHashMap<>();
+        popularContents = new PopularityIndex();
+        mentionedUsers = new MentionIndex();
+        allTags = new ConcurrentHashMap<>();
+        activityLog = new ConcurrentHashMap<>();
     }
 
     @Override
     public void register(String username) {
         verifyNullUsername(username);
-        verifyNotContainsUser(username);
-        usernames.add(username);
-        activityLog.put(username, new ArrayList<>());
+        addUser(username);
+        activityLog.putIfAbsent(username, new ActivityLog());
     }
 
     @Override
@@ -56,9 +90,9 @@ public class EvilSocialInator implements SocialMediaInator {
         verifyNullPushedOn(publishedOn);
         verifyNullDescription(description);
         verifyContainsUser(username);
+        expireContent();
         Content current = new Post(username, publishedOn, description);
         updateMentions(current);
-        updateTags(current);
         contentsActivityLogUpdate(username, publishedOn, current);
         properAddContent(username, current);
         return current.getId();
@@ -70,9 +104,9 @@ public class EvilSocialInator implements SocialMediaInator {
         verifyNullPushedOn(publishedOn);
         verifyNullDescription(description);
         verifyContainsUser(username);
+        expireContent();
         Content current = new Story(username, publishedOn, description);
         updateMentions(current);
-        updateTags(current);
         contentsActivityLogUpdate(username, publishedOn, current);
         properAddContent(username, current);
         return current.getId();
@@ -83,9 +117,11 @@ public class EvilSocialInator implements SocialMediaInator {
         verifyNullUsername(username);
         verifyNullId(id);
         verifyContainsUser(username);
-        verifyContainsContent(id);
-        allContents.get(id).incrementNumberOfLikes();
-        likeActivityLogUpdate(username, LocalDateTime.now(), id);
+        expireContent();
+        Content liked = findContent(id);
+        liked.incrementNumberOfLikes();
+        popularContents.update(liked);
+        likeActivityLogUpdate(username, now(), liked.getId());
     }
 
     @Override
@@ -94,32 +130,18 @@ public class EvilSocialInator implements SocialMediaInator {
         verifyNullId(id);
         verifyNullText(text);
         verifyContainsUser(username);
-        verifyContainsContent(id);
-        allContents.get(id).incrementNumberOfComments();
-        commentActivityLogUpdate(username, LocalDateTime.now(), id, text);
+        expireContent();
+        Content commented = findContent(id);
+        commented.incrementNumberOfComments();
+        popularContents.update(commented);
+        commentActivityLogUpdate(username, now(), commented.getId(), text);
     }
 
     @Override
     public Collection<Content> getNMostPopularContent(int n) {
         verifyPositiveArgument(n);
-        Comparator<Content> popularityComp = new PopularityComparator();
-        Set<Content> copy = new TreeSet<>(popularityComp);
-        if (allContents.isEmpty()) {
-            return copy;
-        }
-        copy.addAll(allContents.values());
-        Set<Content> toReturn = new TreeSet<>(popularityComp);
-        int counter = 0;
-        for (Content curr : copy) {
-            if (!curr.isExpired()) {
-                toReturn.add(curr);
-                counter++;
-            }
-            if (counter == n) {
-                break;
-            }
-        }
-        return toReturn;
+        expireContent();
+        return Collections.unmodifiableList(popularContents.mostPopular(n));
     }
 
     @Override
@@ -127,55 +149,74 @@ public class EvilSocialInator implements SocialMediaInator {
         verifyNullUsername(username);
         verifyPositiveArgument(n);
         verifyContainsUser(username);
-        if (!userNewsFeed.containsKey(username)) {
-            return new TreeSet<>();
-        }
-        Set<Content> userContent = new TreeSet<>(userNewsFeed.get(username));
-        Set<Content> toReturn = new TreeSet<>();
-        int counter = 0;
-        for (Content curr : userContent) {
-            if (!curr.isExpired()) {
-                toReturn.add(curr);
-                counter++;
+        expireContent();
+        List<Content> toReturn = new ArrayList<>();
+        synchronized (lockOf(username)) {
+            Set<Content> feed = userNewsFeed.get(username);
+            if (feed == null) {
+                return Collections.emptyList();
             }
-            if (counter == n) {
-                break;
+            for (Content curr : feed) {
+                if (toReturn.size() == n) {
+                    break;
+                }
+                toReturn.add(curr);
             }
         }
-        return toReturn;
+        return Collections.unmodifiableList(toReturn);
     }
 
     @Override
     public String getMostPopularUser() {
         verifyUsernamesAvailable();
-        Object maxEntry = Collections.max(allMentions.entrySet(),
-                Map.Entry.comparingByValue()).getKey();
-        return maxEntry.toString().substring(1);
+        return mentionedUsers.mostMentioned();
+    }
+
+    @Override
+    public List<String> getNMostPopularUsers(int n) {
+        verifyPositiveArgument(n);
+        verifyUsernamesAvailable();
+        return Collections.unmodifiableList(mentionedUsers.mostMentioned(n));
     }
 
     @Override
     public Collection<Content> findContentByTag(String tag) {
         verifyNullTag(tag);
-        if (allTags.get(tag) == null) {
+        expireContent();
+        Set<Content> tagged = allTags.get(tag);
+        if (tagged == null) {
             return Collections.emptyList();
         }
-        Set<Content> tagsToReturn = new HashSet<>();
-        for (Content curr : allTags.get(tag)) {
-            if (!curr.isExpired()) {
-                tagsToReturn.add(curr);
-            }
-        }
-        return tagsToReturn;
+        return Collections.unmodifiableSet(new HashSet<>(tagged));
     }
 
     @Override
     public List<String> getActivityLog(String username) {
+        return getActivityLog(username, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<String> getActivityLog(String username, int offset, int limit) {
         verifyNullUsername(username);
+        verifyNonNegativeArgument(offset, "Offset");
+        verifyNonNegativeArgument(limit, "Limit");
         verifyContainsUser(username);
-        if (!activityLog.containsKey(username)) {
-            return Collections.emptyList();
+        synchronized (lockOf(username)) {
+            ActivityLog userLog = activityLog.get(username);
+            return userLog == null ? Collections.emptyList() : userLog.newestFirst(offset, limit);
+        }
+    }
+
+    @Override
+    public List<String> getActivityLog(String username, LocalDateTime from, LocalDateTime to) {
+        verifyNullUsername(username);
+        verifyNullDate(from);
+        verifyNullDate(to);
+        verifyContainsUser(username);
+        synchronized (lockOf(username)) {
+            ActivityLog userLog = activityLog.get(username);
+            return userLog == null ? Collections.emptyList() : userLog.between(from, to);
         }
-        return activityLog.get(username);
     }
 
     private void verifyNullUsername(String username) {
@@ -185,7 +226,11 @@ public class EvilSocialInator implements SocialMediaInator {
     }
 
     private void verifyNullPushedOn(LocalDateTime publishedOn) {
-        if (publishedOn == null) {
+        verifyNullDate(publishedOn);
+    }
+
+    private void verifyNullDate(LocalDateTime dateTime) {
+        if (dateTime == null) {
             throw new IllegalArgumentException("Date is null");
         }
     }
@@ -214,21 +259,85 @@ public class EvilSocialInator implements SocialMediaInator {
         }
     }
 
+    /**
+     * Adds {@code current} to every index and then schedules its expiry, so that it is never expired before it is
+     * fully added
+     */
     private void properAddContent(String username, Content current) {
-        if (userNewsFeed.containsKey(username)) {
-            userNewsFeed.get(username).add(current);
-            allContents.put(current.getId(), current);
-        } else {
-            userNewsFeed.put(username, new TreeSet<>());
-            userNewsFeed.get(username).add(current);
-            allContents.put(current.getId(), current);
+        long expirySecond = expirySecond(current);
+        if (expirySecond <= expiredUntilSecond) {
+            return;
+        }
+        updateTags(current);
+        synchronized (lockOf(username)) {
+            userNewsFeed.computeIfAbsent(username, user -> new TreeSet<>()).add(current);
+        }
+        allContents.put(current.getId(), current);
+        popularContents.add(current);
+        boolean scheduled;
+        synchronized (expiringContents) {
+            scheduled = expiringContents.schedule(current, expirySecond);
+        }
+        if (!scheduled) {
+            removeContent(current);
+        }
+    }
+
+    private Object lockOf(String username) {
+        int hash = username.hashCode();
+        return userLocks[(hash ^ hash >>> 16) & LOCK_STRIPES - 1];
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    private static long toSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns the first second at which {@code content} is expired, that is, after its expiry moment
+     */
+    private static long expirySecond(Content content) {
+        return toSecond(content.getExpiresOn()) + 1;
+    }
+
+    private void expireContent() {
+        long nowSecond = toSecond(now());
+        if (nowSecond <= expiredUntilSecond) {
+            return;
+        }
+        synchronized (expiringContents) {
+            expiringContents.advance(nowSecond, this::removeContent);
+            expiredUntilSecond = expiringContents.currentSecond();
         }
     }
 
-    private void verifyContainsContent(String id) {
-        if (!allContents.containsKey(id)) {
+    private void removeContent(Content content) {
+        allContents.remove(content.getId());
+        popularContents.remove(content);
+        synchronized (lockOf(content.getUsername())) {
+            Set<Content> feed = userNewsFeed.get(content.getUsername());
+            feed.remove(content);
+            if (feed.isEmpty()) {
+                userNewsFeed.remove(content.getUsername());
+            }
+        }
+        for (String tag : content.getTags()) {
+            allTags.computeIfPresent(tag, (key, tagged) -> {
+                tagged.remove(content);
+                return tagged.isEmpty() ? null : tagged;
+            });
+        }
+    }
+
+    private Content findContent(String id) {
+        Content content = allContents.get(id);
+        if (content == null) {
             throw new ContentNotFoundException("Like: No such content found on the platform");
         }
+        return content;
     }
 
     private void verifyPositiveArgument(int n) {
@@ -237,6 +346,12 @@ public class EvilSocialInator implements SocialMediaInator {
         }
     }
 
+    private void verifyNonNegativeArgument(int argument, String name) {
+        if (argument < 0) {
+            throw new IllegalArgumentException(name + " should not be a negative number");
+        }
+    }
+
     private void verifyUsernamesAvailable() {
         if (usernames.isEmpty()) {
             throw new NoUsersException("No users in the social media");
@@ -249,20 +364,12 @@ public class EvilSocialInator implements SocialMediaInator {
         }
     }
 
-    private String dateTimeFormatter(LocalDateTime dateTime) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm:ss dd.MM.yy");
-        return formatter.format(dateTime);
-    }
-
     private void updateMentions(Content current) {
         Set<String> mentions = new HashSet<>(current.getMentions());
         for (String curr : mentions) {
-            if (usernames.contains(curr.substring(1))) {
-                if (allMentions.containsKey(curr)) {
-                    allMentions.replace(curr, allMentions.get(curr), allMentions.get(curr) + 1);
-                } else {
-                    allMentions.put(curr, 1);
-                }
+            String mentioned = curr.substring(1);
+            if (usernames.contains(mentioned)) {
+                mentionedUsers.mention(mentioned);
             }
         }
     }
@@ -270,56 +377,40 @@ public class EvilSocialInator implements SocialMediaInator {
     private void updateTags(Content current) {
         Set<String> tags = new HashSet<>(current.getTags());
         for (String curr : tags) {
-            if (allTags.containsKey(curr)) {
-                allTags.get(curr).add(current);
-            } else {
-                allTags.put(curr, new HashSet<>());
-                allTags.get(curr).add(current);
-            }
+            allTags.compute(curr, (key, tagged) -> {
+                Set<Content> updated = tagged == null ? ConcurrentHashMap.newKeySet() : tagged;
+                updated.add(current);
+                return updated;
+            });
         }
     }
 
     private void contentsActivityLogUpdate(String username, LocalDateTime publishedOn, Content current) {
-        String dateTime = dateTimeFormatter(publishedOn);
-        String typeOfContent = "";
-        if (current.getContentType() == ContentType.STORY) {
-            typeOfContent = "story";
-        } else if (current.getContentType() == ContentType.POST) {
-            typeOfContent = "post";
-        }
-        String currentActivity = dateTime + ": Created a " + typeOfContent + " with id " + current.getId();
-        if (activityLog.containsKey(username)) {
-            activityLog.get(username).add(currentActivity);
-        } else {
-            activityLog.put(username, new ArrayList<>());
-            activityLog.get(username).add(currentActivity);
-        }
+        ActivityType type = current.getContentType() == ContentType.STORY
+                ? ActivityType.CREATED_STORY
+                : ActivityType.CREATED_POST;
+        recordActivity(username, type, publishedOn, current.getId(), null);
     }
 
-    private void likeActivityLogUpdate(String username, LocalDateTime publishedOn, String id) {
-        String dateTime = dateTimeFormatter(publishedOn);
-        String currentActivity = dateTime + ": Liked a content with id " + id;
-        if (activityLog.containsKey(username)) {
-            activityLog.get(username).add(currentActivity);
-        } else {
-            activityLog.put(username, new ArrayList<>());
-            activityLog.get(username).add(currentActivity);
-        }
+    private void likeActivityLogUpdate(String username, LocalDateTime likedOn, String id) {
+        recordActivity(username, ActivityType.LIKED, likedOn, id, null);
+    }
+
+    private void commentActivityLogUpdate(String username, LocalDateTime commentedOn, String id, String description) {
+        recordActivity(username, ActivityType.COMMENTED, commentedOn, id, description);
     }
 
-    private void commentActivityLogUpdate(String username, LocalDateTime publishedOn, String id, String description) {
-        String dateTime = dateTimeFormatter(publishedOn);
-        String currentActivity = dateTime + ": Commented \"" + description + "\" on a content with id " + id;
-        if (activityLog.containsKey(username)) {
-            activityLog.get(username).add(currentActivity);
-        } else {
-            activityLog.put(username, new ArrayList<>());
-            activityLog.get(username).add(currentActivity);
+    private void recordActivity(String username, ActivityType type, LocalDateTime at, String id, String comment) {
+        synchronized (lockOf(username)) {
+            activityLog.computeIfAbsent(username, user -> new ActivityLog()).record(type, at, id, comment);
         }
     }
 
-    private void verifyNotContainsUser(String username) {
-        if (usernames.contains(username)) {
+    /**
+     * Adds {@code username} to the users, checking that it is not registered yet in the same atomic step
+     */
+    private void addUser(String username) {
+        if (!usernames.add(username)) {
             throw new UsernameAlreadyExistsException("Register: Username already exists");
         }
     }
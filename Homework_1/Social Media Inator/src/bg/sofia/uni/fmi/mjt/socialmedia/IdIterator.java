@@ -1,5 +1,25 @@
 package bg.sofia.uni.fmi.mjt.socialmedia;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Source of the auto-incremented part of the content ids, shared by all platforms.
+ * {@link #nextId()} may be called by many threads at once.
+ */
 public class IdIterator {
-    public static int id = 0;
+    private static final AtomicInteger ID = new AtomicInteger();
+
+    /**
+     * Atomically returns the current id and increments it
+     */
+    public static int nextId() {
+        return ID.getAndIncrement();
+    }
+
+    /**
+     * Starts the ids from 0 again, used by the tests
+     */
+    static void reset() {
+        ID.set(0);
+    }
 }
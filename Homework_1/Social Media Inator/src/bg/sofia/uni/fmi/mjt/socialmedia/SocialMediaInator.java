@@ -111,11 +111,27 @@ public interface SocialMediaInator {
     /**
      * Returns the username of the most popular user.
      * -> This is the user which was mentioned most times in stories and posts
+     * -> Users mentioned the same number of times are ordered by username
+     * -> If there are users in the platform but nobody was mentioned, null should be returned
      *
      * @throws NoUsersException if there are currently no users in the platform
      */
     String getMostPopularUser();
 
+    /**
+     * Returns the usernames of the {@code n} most popular users.
+     * -> The popularity of a user is the number of times the user was mentioned in stories and posts
+     * -> Users mentioned the same number of times are ordered by username
+     * -> Users who were never mentioned are not returned
+     * -> If less than {@code n} users were mentioned return as many as available
+     *
+     * @param n The number of users to be returned
+     * @return Unmodifiable list of usernames sorted by popularity in descending order
+     * @throws IllegalArgumentException If {@code n} is a negative number
+     * @throws NoUsersException         if there are currently no users in the platform
+     */
+    List<String> getNMostPopularUsers(int n);
+
     /**
      * Returns all posts and stories containing the tag {@code tag} in their description.
      * -> If there are no posts or stories with the given tag in the platform, an empty Collection should be returned
@@ -145,4 +161,35 @@ public interface SocialMediaInator {
      * @throws UsernameNotFoundException if a user with {@code username} does not exist in the platform
      */
     List<String> getActivityLog(String username);
+
+    /**
+     * Returns a page of the activity log of user {@code username}.
+     * -> The activities are in the format and the order of {@link #getActivityLog(String)}
+     * -> The page skips the {@code offset} newest activities and contains at most {@code limit} activities
+     * -> If there are fewer than {@code offset} activities, an empty List should be returned
+     *
+     * @param username
+     * @param offset   The number of newest activities to skip
+     * @param limit    The maximum number of activities to be returned
+     * @return List of activities in the format of {@link #getActivityLog(String)}
+     * @throws IllegalArgumentException  If {@code username} is null or {@code offset} or {@code limit} is a negative
+     *                                   number
+     * @throws UsernameNotFoundException if a user with {@code username} does not exist in the platform
+     */
+    List<String> getActivityLog(String username, int offset, int limit);
+
+    /**
+     * Returns the activities of user {@code username} which happened between {@code from} and {@code to}.
+     * -> Both bounds are inclusive and the times are compared with a precision of a second
+     * -> The activities are in the format and the order of {@link #getActivityLog(String)}
+     * -> If {@code from} is after {@code to}, an empty List should be returned
+     *
+     * @param username
+     * @param from     The earliest time of the activities to be returned
+     * @param to       The latest time of the activities to be returned
+     * @return List of activities in the format of {@link #getActivityLog(String)}
+     * @throws IllegalArgumentException  If any of the parameters is null
+     * @throws UsernameNotFoundException if a user with {@code username} does not exist in the platform
+     */
+    List<String> getActivityLog(String username, LocalDateTime from, LocalDateTime to);
 }
\ No newline at end of file
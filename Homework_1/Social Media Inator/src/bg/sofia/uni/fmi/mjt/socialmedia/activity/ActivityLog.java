@@ -0,0 +1,150 @@
+package bg.sofia.uni.fmi.mjt.socialmedia.activity;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Activity log of a single user. Every activity is kept as a compact record in parallel primitive arrays: its
+ * type, its time in epoch seconds, a reference to the id of the content and, for comments, a reference to the
+ * text of the comment. No string is built until the log is read, and then only for the activities returned.
+ * The records are kept in chronological order, which makes time range queries a binary search.
+ * Activities with the same second are kept in the order they were recorded.
+ * The log is not thread-safe.
+ */
+public class ActivityLog {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss dd.MM.yy");
+    private static final ActivityType[] TYPES = ActivityType.values();
+    private static final int INITIAL_CAPACITY = 8;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private long[] epochSeconds = new long[INITIAL_CAPACITY];
+    private String[] contentIds = new String[INITIAL_CAPACITY];
+    private String[] comments = new String[INITIAL_CAPACITY];
+    private int size;
+
+    public enum ActivityType {
+        CREATED_POST,
+        CREATED_STORY,
+        LIKED,
+        COMMENTED
+    }
+
+    /**
+     * Records an activity
+     *
+     * @param type      the type of the activity
+     * @param at        when the activity happened, kept with a precision of a second
+     * @param contentId the id of the content the activity is about
+     * @param comment   the text of the comment, or null if {@code type} is not {@link ActivityType#COMMENTED}
+     */
+    public void record(ActivityType type, LocalDateTime at, String contentId, String comment) {
+        long second = toSecond(at);
+        int position = upperBound(second);
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+            contentIds = Arrays.copyOf(contentIds, capacity);
+            comments = Arrays.copyOf(comments, capacity);
+        }
+        int moved = size - position;
+        if (moved > 0) {
+            System.arraycopy(types, position, types, position + 1, moved);
+            System.arraycopy(epochSeconds, position, epochSeconds, position + 1, moved);
+            System.arraycopy(contentIds, position, contentIds, position + 1, moved);
+            System.arraycopy(comments, position, comments, position + 1, moved);
+        }
+        types[position] = (byte) type.ordinal();
+        epochSeconds[position] = second;
+        contentIds[position] = contentId;
+        comments[position] = comment;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns up to {@code limit} formatted activities, newest first, skipping the {@code offset} newest ones
+     */
+    public List<String> newestFirst(int offset, int limit) {
+        int from = size - 1 - offset;
+        int to = from - Math.min(limit, from + 1);
+        List<String> activities = new ArrayList<>(Math.max(0, from - to));
+        for (int i = from; i > to; i--) {
+            activities.add(format(i));
+        }
+        return activities;
+    }
+
+    /**
+     * Returns the formatted activities which happened between {@code from} and {@code to}, both inclusive and
+     * compared with a precision of a second, newest first
+     */
+    public List<String> between(LocalDateTime from, LocalDateTime to) {
+        int first = lowerBound(toSecond(from));
+        int last = upperBound(toSecond(to)) - 1;
+        List<String> activities = new ArrayList<>(Math.max(0, last - first + 1));
+        for (int i = last; i >= first; i--) {
+            activities.add(format(i));
+        }
+        return activities;
+    }
+
+    private String format(int index) {
+        String dateTime = FORMATTER.format(LocalDateTime.ofEpochSecond(epochSeconds[index], 0, ZoneOffset.UTC));
+        return switch (TYPES[types[index]]) {
+            case CREATED_POST -> dateTime + ": Created a post with id " + contentIds[index];
+            case CREATED_STORY -> dateTime + ": Created a story with id " + contentIds[index];
+            case LIKED -> dateTime + ": Liked a content with id " + contentIds[index];
+            case COMMENTED -> dateTime + ": Commented \"" + comments[index] + "\" on a content with id "
+                    + contentIds[index];
+        };
+    }
+
+    /**
+     * Returns the index of the first record at {@code second} or later
+     */
+    private int lowerBound(long second) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (epochSeconds[middle] < second) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first record after {@code second}
+     */
+    private int upperBound(long second) {
+        if (size == 0 || epochSeconds[size - 1] <= second) {
+            return size;
+        }
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (epochSeconds[middle] <= second) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long toSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -7,15 +7,17 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 public abstract class BasicContent implements Content, Comparable<Content> {
     private String description;
     ContentType contentType;
     private String username;
     private String id;
+    private long sequenceNumber;
     private LocalDateTime publishedOn;
-    private int numberOfLikes;
-    private int numberOfComments;
+    private final LongAdder numberOfLikes = new LongAdder();
+    private final LongAdder numberOfComments = new LongAdder();
     private Set<String> tags;
     private Set<String> mentions;
     private String[] descriptionWords;
@@ -42,14 +44,12 @@ public abstract class BasicContent implements Content, Comparable<Content> {
     }
 
     BasicContent(String username, LocalDateTime publishedOn, String description) {
-        this.id = username + "-" + IdIterator.id;
-        IdIterator.id++;
+        this.sequenceNumber = IdIterator.nextId();
+        this.id = username + "-" + sequenceNumber;
         this.username = username;
         this.publishedOn = publishedOn;
         this.description = description;
         descriptionWords = description.split(" ");
-        numberOfLikes = 0;
-        numberOfComments = 0;
         mentions = new HashSet<>();
         tags = new HashSet<>();
         setTags();
@@ -58,12 +58,12 @@ public abstract class BasicContent implements Content, Comparable<Content> {
 
     @Override
     public int getNumberOfLikes() {
-        return this.numberOfLikes;
+        return numberOfLikes.intValue();
     }
 
     @Override
     public int getNumberOfComments() {
-        return this.numberOfComments;
+        return numberOfComments.intValue();
     }
 
     @Override
@@ -81,6 +81,7 @@ public abstract class BasicContent implements Content, Comparable<Content> {
         return this.mentions;
     }
 
+    @Override
     public String getUsername() {
         return username;
     }
@@ -103,12 +104,12 @@ public abstract class BasicContent implements Content, Comparable<Content> {
 
     @Override
     public void incrementNumberOfLikes() {
-        numberOfLikes++;
+        numberOfLikes.increment();
     }
 
     @Override
     public void incrementNumberOfComments() {
-        numberOfComments++;
+        numberOfComments.increment();
     }
 
     @Override
@@ -121,24 +122,24 @@ public abstract class BasicContent implements Content, Comparable<Content> {
         return this.publishedOn;
     }
 
+    /**
+     * Orders the newest content first, and content published at the same time in the order it was created
+     */
     @Override
     public int compareTo(Content other) {
-        if (this.getPublishedOn().isAfter(other.getPublishedOn())) {
-            return -1;
+        int byPublishedOn = other.getPublishedOn().compareTo(this.getPublishedOn());
+        if (byPublishedOn != 0) {
+            return byPublishedOn;
+        }
+        if (other instanceof BasicContent that) {
+            return Long.compare(this.sequenceNumber, that.sequenceNumber);
         }
-        return 1;
+        return this.getId().compareTo(other.getId());
     }
 
     @Override
-    public boolean isExpired() {
-        if (getContentType() == ContentType.POST
-                && getPublishedOn().plusDays(30).isBefore(LocalDateTime.now())) {
-            return true;
-        } else if (getContentType() == ContentType.STORY
-                && getPublishedOn().plusHours(24).isBefore(LocalDateTime.now())) {
-            return true;
-        }
-        return false;
+    public LocalDateTime getExpiresOn() {
+        return getPublishedOn().plus(getContentType().getLifetime());
     }
 
     public String getDescription() {
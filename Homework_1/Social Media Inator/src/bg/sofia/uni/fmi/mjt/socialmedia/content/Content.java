@@ -31,13 +31,21 @@ public interface Content extends Comparable<Content> {
      */
     Collection<String> getMentions();
 
+    /**
+     * Returns the username of the author.
+     */
+    String getUsername();
+
     LocalDateTime getPublishedOn();
 
     void incrementNumberOfLikes();
 
     void incrementNumberOfComments();
 
-    boolean isExpired();
+    /**
+     * Returns the moment after which the content is expired.
+     */
+    LocalDateTime getExpiresOn();
 
     ContentType getContentType();
 
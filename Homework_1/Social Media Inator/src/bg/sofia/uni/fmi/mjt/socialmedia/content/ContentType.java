@@ -1,7 +1,22 @@
 package bg.sofia.uni.fmi.mjt.socialmedia.content;
 
+import java.time.Duration;
+
 public enum ContentType {
-    STORY,
-    POST
+    STORY(Duration.ofHours(24)),
+    POST(Duration.ofDays(30));
+
+    private final Duration lifetime;
+
+    ContentType(Duration lifetime) {
+        this.lifetime = lifetime;
+    }
+
+    /**
+     * Returns how long content of this type is available after it is published
+     */
+    public Duration getLifetime() {
+        return lifetime;
+    }
 }
 
@@ -4,16 +4,21 @@ import bg.sofia.uni.fmi.mjt.socialmedia.content.Content;
 
 import java.util.Comparator;
 
+/**
+ * Orders content by the total number of likes and comments in descending order, and content with the same
+ * popularity by id, so that only the same content compares as equal
+ */
 public class PopularityComparator implements Comparator<Content> {
     @Override
     public int compare(Content o1, Content o2) {
-        if ((o1.getNumberOfLikes() + o1.getNumberOfComments())
-                < o2.getNumberOfLikes() + o2.getNumberOfLikes()) {
-            return 1;
-        } else if ((o1.getNumberOfLikes() + o1.getNumberOfComments())
-                < (o2.getNumberOfLikes() + o2.getNumberOfComments())) {
-            return 0;
+        int byPopularity = Long.compare(popularity(o2), popularity(o1));
+        if (byPopularity != 0) {
+            return byPopularity;
         }
-        return -1;
+        return o1.getId().compareTo(o2.getId());
+    }
+
+    private static long popularity(Content content) {
+        return (long) content.getNumberOfLikes() + content.getNumberOfComments();
     }
 }
@@ -0,0 +1,160 @@
+package bg.sofia.uni.fmi.mjt.socialmedia.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel of items which expire at a given second.
+ * Level L has 64 slots of 64^L seconds each, and an item is kept in the lowest level whose current 64-slot
+ * rotation contains its expiry, so four levels cover about 194 days ahead. Items further ahead wait in an
+ * overflow list until the top rotation reaches them. When time reaches a slot of a higher level, its items are
+ * moved down to the lower levels, so every item is moved at most once per level.
+ * Scheduling an item is O(1). Advancing jumps straight to the next occupied slot using a bit mask of the
+ * occupied slots of every level, so quiet periods cost nothing however long they are.
+ * The wheel is not thread-safe.
+ *
+ * @param <T> the type of the items
+ */
+public class ExpiryWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final int RANGE_BITS = SLOT_BITS * LEVELS;
+
+    private final List<List<Entry<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private final long[] occupiedSlots = new long[LEVELS];
+    private final List<Entry<T>> overflow = new ArrayList<>();
+    private long currentSecond;
+    private int size;
+
+    private record Entry<T>(T item, long expirySecond) {
+    }
+
+    /**
+     * @param startSecond the current time, items which expire at it or before it are not scheduled
+     */
+    public ExpiryWheel(long startSecond) {
+        currentSecond = startSecond;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(null);
+        }
+    }
+
+    /**
+     * Schedules {@code item} to expire at {@code expirySecond}
+     *
+     * @return false if {@code expirySecond} is not after the current time, in which case nothing is scheduled
+     */
+    public boolean schedule(T item, long expirySecond) {
+        if (expirySecond <= currentSecond) {
+            return false;
+        }
+        place(new Entry<>(item, expirySecond));
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the time forward to {@code nowSecond} and hands every item which expires at it or before it to
+     * {@code expired}, in the order of their expiry. Moving the time backwards has no effect.
+     */
+    public void advance(long nowSecond, Consumer<T> expired) {
+        while (currentSecond < nowSecond) {
+            long next = nextEventSecond();
+            if (next > nowSecond) {
+                currentSecond = nowSecond;
+                return;
+            }
+            currentSecond = next;
+            if (!overflow.isEmpty() && (next & ((1L << RANGE_BITS) - 1)) == 0) {
+                List<Entry<T>> waiting = new ArrayList<>(overflow);
+                overflow.clear();
+                for (Entry<T> curr : waiting) {
+                    place(curr);
+                }
+            }
+            for (int level = LEVELS - 1; level >= 0; level--) {
+                int slot = slotOf(next, level);
+                if ((occupiedSlots[level] & 1L << slot) != 0 && startOfSlot(next, level) == next) {
+                    List<Entry<T>> due = takeSlot(level, slot);
+                    for (Entry<T> curr : due) {
+                        if (curr.expirySecond() <= currentSecond) {
+                            size--;
+                            expired.accept(curr.item());
+                        } else {
+                            place(curr);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public long currentSecond() {
+        return currentSecond;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void place(Entry<T> entry) {
+        long expiry = entry.expirySecond();
+        for (int level = 0; level < LEVELS; level++) {
+            int rotationBits = SLOT_BITS * (level + 1);
+            if (expiry >> rotationBits == currentSecond >> rotationBits) {
+                int slot = slotOf(expiry, level);
+                int position = level * SLOTS + slot;
+                List<Entry<T>> entries = slots.get(position);
+                if (entries == null) {
+                    entries = new ArrayList<>();
+                    slots.set(position, entries);
+                }
+                entries.add(entry);
+                occupiedSlots[level] |= 1L << slot;
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private List<Entry<T>> takeSlot(int level, int slot) {
+        int position = level * SLOTS + slot;
+        List<Entry<T>> entries = slots.get(position);
+        slots.set(position, null);
+        occupiedSlots[level] &= ~(1L << slot);
+        return entries;
+    }
+
+    /**
+     * Returns the first second after the current one at which an occupied slot starts, or at which the overflow
+     * has to be placed again, or Long.MAX_VALUE if the wheel is empty
+     */
+    private long nextEventSecond() {
+        long next = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            // slots at and before the current one of a rotation are empty, their items were moved down or expired
+            long later = occupiedSlots[level] & (-2L << slotOf(currentSecond, level));
+            if (later != 0) {
+                int rotationBits = SLOT_BITS * (level + 1);
+                long rotationStart = currentSecond >> rotationBits << rotationBits;
+                next = Math.min(next, rotationStart + ((long) Long.numberOfTrailingZeros(later) << SLOT_BITS * level));
+            }
+        }
+        if (!overflow.isEmpty()) {
+            next = Math.min(next, (currentSecond >> RANGE_BITS) + 1 << RANGE_BITS);
+        }
+        return next;
+    }
+
+    private static int slotOf(long second, int level) {
+        return (int) (second >> SLOT_BITS * level) & SLOT_MASK;
+    }
+
+    private static long startOfSlot(long second, int level) {
+        int bits = SLOT_BITS * level;
+        return second >> bits << bits;
+    }
+}
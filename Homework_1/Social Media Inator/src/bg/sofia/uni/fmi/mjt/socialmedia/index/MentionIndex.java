@@ -0,0 +1,95 @@
+package bg.sofia.uni.fmi.mjt.socialmedia.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Usernames ordered by the number of times they were mentioned, in descending order.
+ * Users mentioned the same number of times are ordered by username, so the order is deterministic.
+ * Every mentioned user has one entry which is moved when the user is mentioned again, which costs O(log U),
+ * the most mentioned user is read in O(1) and the n most mentioned users in O(n).
+ * A mention holds the write lock while it moves an entry and reading the most mentioned users holds the read lock,
+ * so a reader sees every mentioned user exactly once, with the count of the last completed mention.
+ * Readers do not block each other, and {@link #mentions(String)} and {@link #size()} do not lock at all.
+ */
+public class MentionIndex {
+    private static final Comparator<Entry> MENTION_ORDER = Comparator.comparingLong(Entry::mentions)
+            .reversed()
+            .thenComparing(Entry::username);
+
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(MENTION_ORDER);
+    private final ConcurrentMap<String, Entry> entriesByUsername = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Entry(long mentions, String username) {
+    }
+
+    /**
+     * Counts one more mention of {@code username}
+     */
+    public void mention(String username) {
+        lock.writeLock().lock();
+        try {
+            entriesByUsername.compute(username, (key, previous) -> {
+                Entry current = new Entry(previous == null ? 1 : previous.mentions() + 1, username);
+                if (previous != null) {
+                    entries.remove(previous);
+                }
+                entries.add(current);
+                return current;
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of times {@code username} was mentioned
+     */
+    public long mentions(String username) {
+        Entry entry = entriesByUsername.get(username);
+        return entry == null ? 0 : entry.mentions();
+    }
+
+    /**
+     * Returns the most mentioned user, or null if nobody was mentioned
+     */
+    public String mostMentioned() {
+        lock.readLock().lock();
+        try {
+            return entries.isEmpty() ? null : entries.first().username();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code n} of the most mentioned users, in descending order of mentions
+     */
+    public List<String> mostMentioned(int n) {
+        List<String> mostMentioned = new ArrayList<>(Math.min(n, entriesByUsername.size()));
+        lock.readLock().lock();
+        try {
+            for (Entry curr : entries) {
+                if (mostMentioned.size() == n) {
+                    break;
+                }
+                mostMentioned.add(curr.username());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return mostMentioned;
+    }
+
+    public int size() {
+        return entriesByUsername.size();
+    }
+}
@@ -0,0 +1,115 @@
+package bg.sofia.uni.fmi.mjt.socialmedia.index;
+
+import bg.sofia.uni.fmi.mjt.socialmedia.content.Content;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Content ordered by popularity, the total number of likes and comments, in descending order.
+ * Content with the same popularity is ordered by id. Every content has one entry which holds the popularity
+ * the content had when it was last added or updated, so the order never depends on counters changing under it.
+ * A change of popularity moves the entry of the content instead of re-sorting everything, which costs
+ * O(log N), and the n most popular content is read in O(n).
+ * Changes hold the write lock while they move an entry and reading the most popular content holds the read lock,
+ * so a reader sees every added content exactly once, with the popularity of its last completed change.
+ * Readers of the same snapshot do not block each other, and {@link #size()} does not lock at all.
+ */
+public class PopularityIndex {
+    private static final Comparator<Entry> POPULARITY_ORDER = Comparator.comparingLong(Entry::popularity)
+            .reversed()
+            .thenComparing(Entry::id);
+
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(POPULARITY_ORDER);
+    private final ConcurrentMap<String, Entry> entriesById = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Entry(long popularity, String id, Content content) {
+        private static Entry of(Content content) {
+            return new Entry((long) content.getNumberOfLikes() + content.getNumberOfComments(), content.getId(),
+                    content);
+        }
+    }
+
+    /**
+     * Adds {@code content}, or updates its popularity if it is already added
+     */
+    public void add(Content content) {
+        lock.writeLock().lock();
+        try {
+            entriesById.compute(content.getId(), (id, previous) -> move(previous, content));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves {@code content} to the position of its current popularity, should be called after every like or
+     * comment. Content which is not added, e.g. because it was removed in the meantime, is not added back.
+     */
+    public void update(Content content) {
+        lock.writeLock().lock();
+        try {
+            entriesById.computeIfPresent(content.getId(), (id, previous) -> move(previous, content));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Entry move(Entry previous, Content content) {
+        Entry current = Entry.of(content);
+        if (previous != null) {
+            if (previous.popularity() == current.popularity()) {
+                return previous;
+            }
+            entries.remove(previous);
+        }
+        entries.add(current);
+        return current;
+    }
+
+    /**
+     * Removes {@code content}, if it is added
+     */
+    public void remove(Content content) {
+        lock.writeLock().lock();
+        try {
+            entriesById.computeIfPresent(content.getId(), (id, previous) -> {
+                entries.remove(previous);
+                return null;
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code n} of the most popular content, in descending order of popularity
+     */
+    public List<Content> mostPopular(int n) {
+        List<Content> mostPopular = new ArrayList<>(Math.min(n, entriesById.size()));
+        lock.readLock().lock();
+        try {
+            for (Entry curr : entries) {
+                if (mostPopular.size() == n) {
+                    break;
+                }
+                mostPopular.add(curr.content());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return mostPopular;
+    }
+
+    public int size() {
+        return entriesById.size();
+    }
+}
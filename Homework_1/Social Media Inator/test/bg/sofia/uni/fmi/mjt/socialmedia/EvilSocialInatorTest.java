@@ -8,23 +8,36 @@ import bg.sofia.uni.fmi.mjt.socialmedia.exceptions.UsernameNotFoundException;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 import static org.junit.Assert.*;
 
 public class EvilSocialInatorTest {
+    private static final int THREADS = 8;
 
     private EvilSocialInator testSocialInator;
 
     @Before
     public void setUp() {
         testSocialInator = new EvilSocialInator();
-        IdIterator.id = 0;
+        IdIterator.reset();
     }
 
     @Test
@@ -228,6 +241,31 @@ public class EvilSocialInatorTest {
         assertEquals(expectedIDs, gotIDs);
     }
 
+    @Test
+    public void TestGetNMostPopularContentSkipsExpiredContent() {
+        TestClock clock = new TestClock();
+        testSocialInator = new EvilSocialInator(clock);
+        LocalDateTime now = clock.now();
+
+        String username = "u1";
+        registerUser(username);
+        String expiredStoryID = testSocialInator.publishStory(username, now.minusHours(12), "desc1");
+        String postID = testSocialInator.publishPost(username, now, "desc2");
+        String storyID = testSocialInator.publishStory(username, now, "desc3");
+
+        testSocialInator.like(username, expiredStoryID);
+        testSocialInator.like(username, expiredStoryID);
+        testSocialInator.comment(username, "text", storyID);
+        clock.advance(Duration.ofHours(13));
+
+        Collection<String> gotIDs = new ArrayList<>();
+        for (Content content : testSocialInator.getNMostPopularContent(5)) {
+            gotIDs.add(content.getId());
+        }
+        assertEquals(List.of(storyID, postID), gotIDs);
+        assertTrue(testSocialInator.getNMostPopularContent(0).isEmpty());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void TestGetNMostRecentContentNegativeN() {
         registerUser("u1");
@@ -276,6 +314,41 @@ public class EvilSocialInatorTest {
         assertTrue(popularUser.equals(gotUser) || loser.equals(gotUser));
     }
 
+    @Test
+    public void TestGetMostPopularUserWhenNobodyMentioned() {
+        registerUser("u1");
+        testSocialInator.publishPost("u1", LocalDateTime.now(), "@nobody");
+
+        assertNull(testSocialInator.getMostPopularUser());
+        assertEquals(List.of(), testSocialInator.getNMostPopularUsers(3));
+    }
+
+    @Test
+    public void TestGetNMostPopularUsers() {
+        registerUser("u1");
+        registerUser("u2");
+        registerUser("u3");
+        registerUser("u4");
+        testSocialInator.publishPost("u1", LocalDateTime.now(), "@u3 @u3 @u2 @u4");
+        testSocialInator.publishStory("u1", LocalDateTime.now(), "@u3");
+        testSocialInator.publishStory("u2", LocalDateTime.now(), "@u4 @unknown");
+
+        assertEquals("u3", testSocialInator.getMostPopularUser());
+        assertEquals(List.of("u3", "u4", "u2"), testSocialInator.getNMostPopularUsers(10));
+        assertEquals(List.of("u3", "u4"), testSocialInator.getNMostPopularUsers(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void TestGetNMostPopularUsersNegativeN() {
+        registerUser("u1");
+        testSocialInator.getNMostPopularUsers(-1);
+    }
+
+    @Test(expected = NoUsersException.class)
+    public void TestGetNMostPopularUsersWhenNoUsers() {
+        testSocialInator.getNMostPopularUsers(1);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void TestFindContentByTagNullTag() {
         testSocialInator.findContentByTag(null);
@@ -301,8 +374,225 @@ public class EvilSocialInatorTest {
     }
 
 
-    //TODO Test expirations
+    @Test
+    public void TestStoryExpiresAfter24Hours() {
+        TestClock clock = new TestClock();
+        testSocialInator = new EvilSocialInator(clock);
+        String username = "u1";
+        registerUser(username);
+        String storyID = testSocialInator.publishStory(username, clock.now(), "story #tag");
+        String postID = testSocialInator.publishPost(username, clock.now().minusMinutes(1), "post #tag");
+
+        clock.advance(Duration.ofHours(24));
+        assertEquals(2, testSocialInator.findContentByTag("#tag").size());
+
+        clock.advance(Duration.ofSeconds(1));
+        assertEquals(List.of(postID), idsOf(testSocialInator.getNMostRecentContent(username, 5)));
+        assertEquals(List.of(postID), idsOf(testSocialInator.getNMostPopularContent(5)));
+        assertEquals(List.of(postID), idsOf(testSocialInator.findContentByTag("#tag")));
+        assertFalse(idsOf(testSocialInator.getNMostRecentContent(username, 5)).contains(storyID));
+    }
+
+    @Test
+    public void TestPostExpiresAfter30Days() {
+        TestClock clock = new TestClock();
+        testSocialInator = new EvilSocialInator(clock);
+        String username = "u1";
+        registerUser(username);
+        testSocialInator.publishPost(username, clock.now(), "post #tag");
+
+        clock.advance(Duration.ofDays(30));
+        assertEquals(1, testSocialInator.getNMostRecentContent(username, 5).size());
+
+        clock.advance(Duration.ofSeconds(1));
+        assertTrue(testSocialInator.getNMostRecentContent(username, 5).isEmpty());
+        assertTrue(testSocialInator.getNMostPopularContent(5).isEmpty());
+        assertTrue(testSocialInator.findContentByTag("#tag").isEmpty());
+    }
+
+    @Test(expected = ContentNotFoundException.class)
+    public void TestLikeExpiredContent() {
+        TestClock clock = new TestClock();
+        testSocialInator = new EvilSocialInator(clock);
+        String username = "u1";
+        registerUser(username);
+        String storyID = testSocialInator.publishStory(username, clock.now(), "story");
+
+        clock.advance(Duration.ofDays(2));
+        testSocialInator.like(username, storyID);
+    }
+
+    @Test
+    public void TestContentPublishedExpiredIsNotAdded() {
+        TestClock clock = new TestClock();
+        testSocialInator = new EvilSocialInator(clock);
+        String username = "u1";
+        registerUser(username);
+        testSocialInator.publishPost(username, clock.now().minusDays(31), "old #tag");
+
+        assertTrue(testSocialInator.getNMostRecentContent(username, 5).isEmpty());
+        assertTrue(testSocialInator.findContentByTag("#tag").isEmpty());
+        assertEquals(1, testSocialInator.getActivityLog(username).size());
+    }
+
+    @Test
+    public void TestGetActivityLogNewestFirstAndPaged() {
+        TestClock clock = new TestClock();
+        testSocialInator = new EvilSocialInator(clock);
+        String username = "u1";
+        registerUser(username);
+        String postID = testSocialInator.publishPost(username, clock.now(), "post");
+        clock.advance(Duration.ofMinutes(1));
+        testSocialInator.like(username, postID);
+        clock.advance(Duration.ofMinutes(1));
+        testSocialInator.comment(username, "first", postID);
+        clock.advance(Duration.ofMinutes(1));
+        testSocialInator.comment(username, "second", postID);
+
+        List<String> expected = List.of(
+                "10:18:30 01.04.20: Commented \"second\" on a content with id " + postID,
+                "10:17:30 01.04.20: Commented \"first\" on a content with id " + postID,
+                "10:16:30 01.04.20: Liked a content with id " + postID,
+                "10:15:30 01.04.20: Created a post with id " + postID);
+        assertEquals(expected, testSocialInator.getActivityLog(username));
+        assertEquals(expected.subList(1, 3), testSocialInator.getActivityLog(username, 1, 2));
+        assertEquals(List.of(), testSocialInator.getActivityLog(username, 4, 2));
+        assertEquals(expected.subList(1, 3), testSocialInator.getActivityLog(username,
+                clock.now().minusMinutes(2), clock.now().minusMinutes(1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void TestGetActivityLogNegativeOffset() {
+        registerUser("u1");
+        testSocialInator.getActivityLog("u1", -1, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void TestGetActivityLogNullRange() {
+        registerUser("u1");
+        testSocialInator.getActivityLog("u1", null, LocalDateTime.now());
+    }
+
+    @Test(expected = UsernameNotFoundException.class)
+    public void TestGetActivityLogPageWhenUserNotFound() {
+        testSocialInator.getActivityLog("non-existing", 0, 10);
+    }
+
+    @Test
+    public void TestConcurrentLikesAndCommentsAreNotLost() throws Exception {
+        String username = "u1";
+        registerUser(username);
+        String postID = testSocialInator.publishPost(username, LocalDateTime.now(), "post");
+        String otherID = testSocialInator.publishPost(username, LocalDateTime.now(), "other");
+        testSocialInator.like(username, otherID);
+
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < 500; i++) {
+                testSocialInator.like(username, postID);
+                testSocialInator.comment(username, "c" + i, postID);
+            }
+        });
+
+        Content post = testSocialInator.getNMostPopularContent(1).iterator().next();
+        assertEquals(postID, post.getId());
+        assertEquals(THREADS * 500, post.getNumberOfLikes());
+        assertEquals(THREADS * 500, post.getNumberOfComments());
+        assertEquals(2 + THREADS * 1000 + 1, testSocialInator.getActivityLog(username).size());
+    }
+
+    @Test
+    public void TestConcurrentPublishingGeneratesUniqueIds() throws Exception {
+        for (int thread = 0; thread < THREADS; thread++) {
+            registerUser("u" + thread);
+        }
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < 200; i++) {
+                ids.add(testSocialInator.publishPost("u" + thread, LocalDateTime.now(), "post #tag @u0"));
+            }
+        });
+
+        assertEquals(THREADS * 200, ids.size());
+        assertEquals(THREADS * 200, testSocialInator.findContentByTag("#tag").size());
+        assertEquals(200, testSocialInator.getNMostRecentContent("u3", 1000).size());
+        assertEquals("u0", testSocialInator.getMostPopularUser());
+    }
+
+    @Test
+    public void TestConcurrentRegisterOfSameUser() throws Exception {
+        AtomicInteger registered = new AtomicInteger();
+
+        runConcurrently(THREADS, thread -> {
+            try {
+                testSocialInator.register("u1");
+                registered.incrementAndGet();
+            } catch (UsernameAlreadyExistsException exception) {
+                // expected for all threads but one
+            }
+        });
+
+        assertEquals(1, registered.get());
+    }
+
     private void registerUser(String username) {
         testSocialInator.register(username);
     }
+
+    private static void runConcurrently(int threads, IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int curr = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.accept(curr);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<String> idsOf(Collection<Content> contents) {
+        List<String> ids = new ArrayList<>();
+        for (Content content : contents) {
+            ids.add(content.getId());
+        }
+        return ids;
+    }
+
+    private static class TestClock extends Clock {
+        private Instant instant = Instant.parse("2020-04-01T10:15:30Z");
+
+        LocalDateTime now() {
+            return LocalDateTime.now(this);
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
 }
@@ -0,0 +1,13 @@
+package bg.sofia.uni.fmi.mjt.socialmedia;
+
+/**
+ * Gives the tests of other packages access to {@link IdIterator#reset()}
+ */
+public final class TestIdIterator {
+    private TestIdIterator() {
+    }
+
+    public static void reset() {
+        IdIterator.reset();
+    }
+}
@@ -0,0 +1,104 @@
+package bg.sofia.uni.fmi.mjt.socialmedia.activity;
+
+import bg.sofia.uni.fmi.mjt.socialmedia.activity.ActivityLog.ActivityType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ActivityLogTest {
+    private static final LocalDateTime START = LocalDateTime.of(2020, 4, 1, 10, 15, 30);
+
+    private ActivityLog log;
+
+    @Before
+    public void setUp() {
+        log = new ActivityLog();
+    }
+
+    @Test
+    public void testFormatsEveryActivityType() {
+        log.record(ActivityType.CREATED_POST, START, "u1-0", null);
+        log.record(ActivityType.CREATED_STORY, START.plusSeconds(1), "u1-1", null);
+        log.record(ActivityType.LIKED, START.plusSeconds(2), "u2-2", null);
+        log.record(ActivityType.COMMENTED, START.plusSeconds(3), "u2-2", "nice");
+
+        assertEquals(List.of(
+                "10:15:33 01.04.20: Commented \"nice\" on a content with id u2-2",
+                "10:15:32 01.04.20: Liked a content with id u2-2",
+                "10:15:31 01.04.20: Created a story with id u1-1",
+                "10:15:30 01.04.20: Created a post with id u1-0"), log.newestFirst(0, 10));
+    }
+
+    @Test
+    public void testKeepsChronologicalOrderOfLateRecords() {
+        log.record(ActivityType.LIKED, START.plusMinutes(2), "late", null);
+        log.record(ActivityType.CREATED_POST, START, "early", null);
+        log.record(ActivityType.LIKED, START.plusMinutes(1), "middle", null);
+        log.record(ActivityType.LIKED, START.plusMinutes(1), "middle again", null);
+
+        assertEquals(List.of(
+                "10:17:30 01.04.20: Liked a content with id late",
+                "10:16:30 01.04.20: Liked a content with id middle again",
+                "10:16:30 01.04.20: Liked a content with id middle",
+                "10:15:30 01.04.20: Created a post with id early"), log.newestFirst(0, 10));
+    }
+
+    @Test
+    public void testPaging() {
+        for (int i = 0; i < 10; i++) {
+            log.record(ActivityType.LIKED, START.plusSeconds(i), "c" + i, null);
+        }
+
+        assertEquals(List.of(
+                "10:15:36 01.04.20: Liked a content with id c6",
+                "10:15:35 01.04.20: Liked a content with id c5"), log.newestFirst(3, 2));
+        assertEquals(1, log.newestFirst(9, 5).size());
+        assertEquals(List.of(), log.newestFirst(10, 5));
+        assertEquals(List.of(), log.newestFirst(Integer.MAX_VALUE, Integer.MAX_VALUE));
+        assertEquals(List.of(), log.newestFirst(0, 0));
+        assertEquals(10, log.newestFirst(0, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void testBetweenIsInclusive() {
+        for (int i = 0; i < 10; i++) {
+            log.record(ActivityType.LIKED, START.plusSeconds(i), "c" + i, null);
+        }
+
+        assertEquals(List.of(
+                "10:15:35 01.04.20: Liked a content with id c5",
+                "10:15:34 01.04.20: Liked a content with id c4",
+                "10:15:33 01.04.20: Liked a content with id c3"), log.between(START.plusSeconds(3), START.plusSeconds(5)));
+        assertEquals(10, log.between(START.minusDays(1), START.plusDays(1)).size());
+        assertEquals(List.of(), log.between(START.plusSeconds(5), START.plusSeconds(3)));
+        assertEquals(List.of(), log.between(START.plusDays(1), START.plusDays(2)));
+    }
+
+    @Test
+    public void testBetweenMatchesScan() {
+        Random random = new Random(11);
+        List<Integer> offsets = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int offset = random.nextInt(1000);
+            offsets.add(offset);
+            log.record(ActivityType.LIKED, START.plusSeconds(offset), "c" + i, null);
+        }
+        for (int i = 0; i < 100; i++) {
+            int from = random.nextInt(1100) - 50;
+            int to = from + random.nextInt(200);
+            long expected = offsets.stream().filter(offset -> offset >= from && offset <= to).count();
+            List<String> activities = log.between(START.plusSeconds(from), START.plusSeconds(to));
+            assertEquals(expected, activities.size());
+            for (int j = 1; j < activities.size(); j++) {
+                assertTrue(activities.get(j - 1).substring(0, 8).compareTo(activities.get(j).substring(0, 8)) >= 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package bg.sofia.uni.fmi.mjt.socialmedia.benchmark;
+
+import bg.sofia.uni.fmi.mjt.socialmedia.activity.ActivityLog;
+import bg.sofia.uni.fmi.mjt.socialmedia.activity.ActivityLog.ActivityType;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the retained heap and the cost of recording activities in {@link ActivityLog}s with the formatted
+ * strings which were kept before, and measures reading a page and a time range of a long log.
+ * <p>
+ * Usage: ActivityLogBenchmark [users] [activities per user]
+ */
+public class ActivityLogBenchmark {
+    private static final LocalDateTime START = LocalDateTime.of(2020, 4, 1, 10, 0);
+    private static final int PAGE_SIZE = 20;
+    private static final int READS = 10_000;
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int activitiesPerUser = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        List<ActivityLog> logs = new ArrayList<>(users);
+        for (int user = 0; user < users; user++) {
+            ActivityLog log = new ActivityLog();
+            for (int i = 0; i < activitiesPerUser; i++) {
+                log.record(typeOf(i), START.plusSeconds(i), "u" + user + "-" + i, i % 4 == 3 ? "nice" : null);
+            }
+            logs.add(log);
+        }
+        long compactNanos = System.nanoTime() - start;
+        long compactBytes = usedHeap() - heapBefore;
+
+        heapBefore = usedHeap();
+        start = System.nanoTime();
+        List<List<String>> formatted = new ArrayList<>(users);
+        for (int user = 0; user < users; user++) {
+            List<String> log = new ArrayList<>();
+            for (int i = 0; i < activitiesPerUser; i++) {
+                log.add(format(typeOf(i), START.plusSeconds(i), "u" + user + "-" + i));
+            }
+            formatted.add(log);
+        }
+        long formattedNanos = System.nanoTime() - start;
+        long formattedBytes = usedHeap() - heapBefore;
+
+        long activities = (long) users * activitiesPerUser;
+        System.out.printf("compact records    %8.1f MB, %6.1f bytes and %6.0f ns per activity%n",
+                mb(compactBytes), (double) compactBytes / activities, (double) compactNanos / activities);
+        System.out.printf("formatted strings  %8.1f MB, %6.1f bytes and %6.0f ns per activity%n",
+                mb(formattedBytes), (double) formattedBytes / activities, (double) formattedNanos / activities);
+
+        ActivityLog log = logs.get(0);
+        int read = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            read += log.newestFirst(i % activitiesPerUser, PAGE_SIZE).size();
+        }
+        long pageNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            LocalDateTime from = START.plusSeconds(i % activitiesPerUser);
+            read += log.between(from, from.plusSeconds(PAGE_SIZE - 1)).size();
+        }
+        long rangeNanos = System.nanoTime() - start;
+        System.out.printf("page of %d         %8.1f us%n", PAGE_SIZE, pageNanos / 1000.0 / READS);
+        System.out.printf("range of %d s      %8.1f us%n", PAGE_SIZE, rangeNanos / 1000.0 / READS);
+        System.out.println(read + formatted.size() + " read");
+    }
+
+    private static ActivityType typeOf(int i) {
+        return ActivityType.values()[i % ActivityType.values().length];
+    }
+
+    private static String format(ActivityType type, LocalDateTime at, String id) {
+        String time = at.format(DateTimeFormatter.ofPattern("HH:mm:ss dd.MM.yy"));
+        return switch (type) {
+            case CREATED_POST -> time + ": Created a post with id " + id;
+            case CREATED_STORY -> time + ": Created a story with id " + id;
+            case LIKED -> time + ": Liked a content with id " + id;
+            case COMMENTED -> time + ": Commented \"nice\" on a content with id " + id;
+        };
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
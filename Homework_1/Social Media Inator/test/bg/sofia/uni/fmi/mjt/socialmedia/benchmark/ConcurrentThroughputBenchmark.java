@@ -0,0 +1,198 @@
+package bg.sofia.uni.fmi.mjt.socialmedia.benchmark;
+
+import bg.sofia.uni.fmi.mjt.socialmedia.EvilSocialInator;
+import bg.sofia.uni.fmi.mjt.socialmedia.SocialMediaInator;
+import bg.sofia.uni.fmi.mjt.socialmedia.content.Content;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Throughput of a mixed workload, mostly likes and comments with some publishing and reads, run by a growing
+ * number of threads on one shared platform. The thread-safe platform is compared with the same platform behind a
+ * single global lock, which is how callers had to use it before. Every configuration is measured in several
+ * timed iterations after a warm-up, like a JMH throughput benchmark, and reported as operations per second.
+ * <p>
+ * Usage: ConcurrentThroughputBenchmark [max threads] [seconds per iteration]
+ */
+public class ConcurrentThroughputBenchmark {
+    private static final int USERS = 10_000;
+    private static final int INITIAL_POSTS = 100_000;
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int ITERATIONS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 2;
+        System.out.printf("%-16s %8s %14s %10s%n", "Platform", "threads", "ops/s", "error");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            measure("concurrent", threads, seconds, EvilSocialInator::new);
+            measure("global lock", threads, seconds, () -> new GloballyLocked(new EvilSocialInator()));
+        }
+    }
+
+    private static void measure(String name, int threads, double seconds, Supplier<SocialMediaInator> factory)
+            throws Exception {
+        SocialMediaInator socialMedia = factory.get();
+        AtomicReferenceArray<String> ids = populate(socialMedia);
+        double[] throughputs = new double[ITERATIONS];
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS + ITERATIONS; iteration++) {
+            double throughput = iterate(socialMedia, ids, threads, seconds);
+            if (iteration >= WARMUP_ITERATIONS) {
+                throughputs[iteration - WARMUP_ITERATIONS] = throughput;
+            }
+        }
+        double mean = 0;
+        for (double curr : throughputs) {
+            mean += curr / ITERATIONS;
+        }
+        double variance = 0;
+        for (double curr : throughputs) {
+            variance += (curr - mean) * (curr - mean) / (ITERATIONS - 1);
+        }
+        System.out.printf("%-16s %8d %14.0f %10.0f%n", name, threads, mean, Math.sqrt(variance));
+    }
+
+    private static AtomicReferenceArray<String> populate(SocialMediaInator socialMedia) {
+        for (int user = 0; user < USERS; user++) {
+            socialMedia.register("user" + user);
+        }
+        AtomicReferenceArray<String> ids = new AtomicReferenceArray<>(INITIAL_POSTS);
+        LocalDateTime now = LocalDateTime.now();
+        for (int post = 0; post < INITIAL_POSTS; post++) {
+            ids.set(post, socialMedia.publishPost("user" + post % USERS, now, "post @user" + post % 97
+                    + " #tag" + post % 100));
+        }
+        return ids;
+    }
+
+    private static double iterate(SocialMediaInator socialMedia, AtomicReferenceArray<String> ids, int threads,
+                                  double seconds) throws Exception {
+        LongAdder operations = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(threads);
+        List<Thread> workers = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            Thread worker = new Thread(() -> {
+                started.countDown();
+                long count = 0;
+                while (running.get()) {
+                    operate(socialMedia, ids);
+                    count++;
+                }
+                operations.add(count);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        started.await();
+        long start = System.nanoTime();
+        Thread.sleep((long) (seconds * 1000));
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void operate(SocialMediaInator socialMedia, AtomicReferenceArray<String> ids) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String user = "user" + random.nextInt(USERS);
+        int operation = random.nextInt(100);
+        if (operation < 60) {
+            socialMedia.like(user, ids.get(random.nextInt(ids.length())));
+        } else if (operation < 80) {
+            socialMedia.comment(user, "nice", ids.get(random.nextInt(ids.length())));
+        } else if (operation < 90) {
+            ids.set(random.nextInt(ids.length()), socialMedia.publishPost(user, LocalDateTime.now(), "new @" + user));
+        } else if (operation < 95) {
+            socialMedia.getNMostPopularContent(10);
+        } else {
+            socialMedia.getNMostRecentContent(user, 10);
+        }
+    }
+
+    /**
+     * Serializes every call to the platform, like a caller which cannot rely on the platform being thread-safe
+     */
+    private static class GloballyLocked implements SocialMediaInator {
+        private final SocialMediaInator delegate;
+
+        GloballyLocked(SocialMediaInator delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void register(String username) {
+            delegate.register(username);
+        }
+
+        @Override
+        public synchronized String publishPost(String username, LocalDateTime publishedOn, String description) {
+            return delegate.publishPost(username, publishedOn, description);
+        }
+
+        @Override
+        public synchronized String publishStory(String username, LocalDateTime publishedOn, String description) {
+            return delegate.publishStory(username, publishedOn, description);
+        }
+
+        @Override
+        public synchronized void like(String username, String id) {
+            delegate.like(username, id);
+        }
+
+        @Override
+        public synchronized void comment(String username, String text, String id) {
+            delegate.comment(username, text, id);
+        }
+
+        @Override
+        public synchronized Collection<Content> getNMostPopularContent(int n) {
+            return delegate.getNMostPopularContent(n);
+        }
+
+        @Override
+        public synchronized Collection<Content> getNMostRecentContent(String username, int n) {
+            return delegate.getNMostRecentContent(username, n);
+        }
+
+        @Override
+        public synchronized String getMostPopularUser() {
+            return delegate.getMostPopularUser();
+        }
+
+        @Override
+        public synchronized List<String> getNMostPopularUsers(int n) {
+            return delegate.getNMostPopularUsers(n);
+        }
+
+        @Override
+        public synchronized Collection<Content> findContentByTag(String tag) {
+            return delegate.findContentByTag(tag);
+        }
+
+        @Override
+        public synchronized List<String> getActivityLog(String username) {
+            return delegate.getActivityLog(username);
+        }
+
+        @Override
+        public synchronized List<String> getActivityLog(String username, int offset, int limit) {
+            return delegate.getActivityLog(username, offset, limit);
+        }
+
+        @Override
+        public synchronized List<String> getActivityLog(String username, LocalDateTime from, LocalDateTime to) {
+            return delegate.getActivityLog(username, from, to);
+        }
+    }
+}
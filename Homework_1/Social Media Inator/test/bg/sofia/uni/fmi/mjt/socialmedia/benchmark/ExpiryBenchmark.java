@@ -0,0 +1,79 @@
+package bg.sofia.uni.fmi.mjt.socialmedia.benchmark;
+
+import bg.sofia.uni.fmi.mjt.socialmedia.EvilSocialInator;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Simulates days of traffic on a platform whose clock is stepped by the benchmark. Every simulated minute a batch
+ * of stories and posts is published and the most popular content and a tag are read, while the expiry wheel
+ * removes old content. Prints the live content and the cost of the calls for every simulated day, both of which
+ * should level off once the first stories expire.
+ * <p>
+ * Usage: ExpiryBenchmark [days] [stories per minute] [posts per minute]
+ */
+public class ExpiryBenchmark {
+    private static final int USERS = 1000;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    public static void main(String[] args) {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int storiesPerMinute = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int postsPerMinute = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        SteppedClock clock = new SteppedClock();
+        EvilSocialInator socialMedia = new EvilSocialInator(clock);
+        for (int user = 0; user < USERS; user++) {
+            socialMedia.register("user" + user);
+        }
+        int published = 0;
+        for (int day = 1; day <= days; day++) {
+            long start = System.nanoTime();
+            int calls = 0;
+            for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+                LocalDateTime now = LocalDateTime.now(clock);
+                for (int i = 0; i < storiesPerMinute; i++) {
+                    socialMedia.publishStory("user" + published++ % USERS, now, "story #tag" + i % 10);
+                }
+                for (int i = 0; i < postsPerMinute; i++) {
+                    socialMedia.publishPost("user" + published++ % USERS, now, "post #tag" + i % 10);
+                }
+                socialMedia.getNMostPopularContent(10);
+                socialMedia.findContentByTag("#tag0");
+                calls += storiesPerMinute + postsPerMinute + 2;
+                clock.advance(Duration.ofMinutes(1));
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("day %3d: live content %8d, %8.3f us per call%n", day,
+                    socialMedia.getNMostPopularContent(Integer.MAX_VALUE).size(), elapsed / 1e3 / calls);
+        }
+    }
+
+    private static class SteppedClock extends Clock {
+        private Instant instant = Instant.parse("2020-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package bg.sofia.uni.fmi.mjt.socialmedia.benchmark;
+
+import bg.sofia.uni.fmi.mjt.socialmedia.index.MentionIndex;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Compares counting mentions in a {@link MentionIndex} and reading the most mentioned user with counting them
+ * in a map and scanning all of its entries with {@link Collections#max}, as was done before.
+ * <p>
+ * Usage: MentionBenchmark [users] [mentions] [reads]
+ */
+public class MentionBenchmark {
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int mentions = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int reads = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        String[] mentioned = new String[mentions];
+        Random random = new Random(3);
+        for (int i = 0; i < mentions; i++) {
+            // skewed towards a few popular users
+            int user = (int) (users * Math.pow(random.nextDouble(), 3));
+            mentioned[i] = "u" + user;
+        }
+
+        MentionIndex index = new MentionIndex();
+        long start = System.nanoTime();
+        for (String curr : mentioned) {
+            index.mention(curr);
+        }
+        long indexMentionNanos = System.nanoTime() - start;
+        String indexTop = null;
+        start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            indexTop = index.mostMentioned();
+        }
+        long indexReadNanos = System.nanoTime() - start;
+
+        Map<String, Integer> counts = new TreeMap<>();
+        start = System.nanoTime();
+        for (String curr : mentioned) {
+            counts.merge("@" + curr, 1, Integer::sum);
+        }
+        long mapMentionNanos = System.nanoTime() - start;
+        String scanTop = null;
+        start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            scanTop = Collections.max(counts.entrySet(), Map.Entry.comparingByValue()).getKey().substring(1);
+        }
+        long scanReadNanos = System.nanoTime() - start;
+
+        System.out.printf("mention index  %6.0f ns per mention, %10.3f us per most popular user (%s)%n",
+                (double) indexMentionNanos / mentions, indexReadNanos / 1000.0 / reads, indexTop);
+        System.out.printf("map and scan   %6.0f ns per mention, %10.3f us per most popular user (%s)%n",
+                (double) mapMentionNanos / mentions, scanReadNanos / 1000.0 / reads, scanTop);
+        System.out.println(index.mostMentioned(10));
+    }
+}
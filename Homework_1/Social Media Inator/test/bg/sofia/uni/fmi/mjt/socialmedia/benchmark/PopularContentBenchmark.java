@@ -0,0 +1,72 @@
+package bg.sofia.uni.fmi.mjt.socialmedia.benchmark;
+
+import bg.sofia.uni.fmi.mjt.socialmedia.EvilSocialInator;
+import bg.sofia.uni.fmi.mjt.socialmedia.SocialMediaInator;
+import bg.sofia.uni.fmi.mjt.socialmedia.content.Content;
+import bg.sofia.uni.fmi.mjt.socialmedia.customcomparators.PopularityComparator;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Measures getNMostPopularContent over a platform with many posts against a full sort of all content into a
+ * TreeSet, which is what every call used to do, and the cost of a like with the popularity index kept up to date.
+ * <p>
+ * Usage: PopularContentBenchmark [posts] [n]
+ */
+public class PopularContentBenchmark {
+    private static final int USERS = 1000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int posts = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Random random = new Random(42);
+
+        SocialMediaInator socialMedia = new EvilSocialInator();
+        for (int user = 0; user < USERS; user++) {
+            socialMedia.register("user" + user);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<String> ids = new ArrayList<>(posts);
+        for (int post = 0; post < posts; post++) {
+            ids.add(socialMedia.publishPost("user" + random.nextInt(USERS), now, "post #tag" + post % 100));
+        }
+
+        long likeStart = System.nanoTime();
+        int likes = posts * 2;
+        for (int like = 0; like < likes; like++) {
+            // skewed towards the first posts, like real popularity
+            int post = (int) (posts * Math.pow(random.nextDouble(), 3));
+            socialMedia.like("user" + random.nextInt(USERS), ids.get(post));
+        }
+        System.out.printf("like                     %10.3f us/op%n", (System.nanoTime() - likeStart) / 1e3 / likes);
+
+        List<Content> allContent = new ArrayList<>(socialMedia.getNMostPopularContent(posts));
+        measure("getNMostPopularContent", () -> socialMedia.getNMostPopularContent(n));
+        measure("TreeSet copy of all     ", () -> {
+            Set<Content> copy = new TreeSet<>(new PopularityComparator());
+            copy.addAll(allContent);
+            return copy;
+        });
+    }
+
+    private static void measure(String name, Supplier<?> operation) {
+        long best = Long.MAX_VALUE;
+        int checksum = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            checksum += System.identityHashCode(operation.get());
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        System.out.printf("%-24s %10.3f ms/op (checksum %d)%n", name, best / 1e6, checksum & 1);
+    }
+}
@@ -0,0 +1,111 @@
+package bg.sofia.uni.fmi.mjt.socialmedia.index;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExpiryWheelTest {
+    private static final long START = 1_585_736_130L;
+    private static final long DAY = 24 * 60 * 60;
+
+    @Test
+    public void testItemsExpireAtTheirSecond() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(START);
+        List<String> expired = new ArrayList<>();
+        assertTrue(wheel.schedule("story", START + DAY));
+        assertTrue(wheel.schedule("post", START + 30 * DAY));
+
+        wheel.advance(START + DAY - 1, expired::add);
+        assertEquals(List.of(), expired);
+        wheel.advance(START + DAY, expired::add);
+        assertEquals(List.of("story"), expired);
+        wheel.advance(START + 30 * DAY - 1, expired::add);
+        assertEquals(List.of("story"), expired);
+        wheel.advance(START + 30 * DAY, expired::add);
+        assertEquals(List.of("story", "post"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testScheduleInThePast() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(START);
+
+        assertFalse(wheel.schedule("expired", START));
+        assertFalse(wheel.schedule("long expired", START - DAY));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testAdvanceBackwardsHasNoEffect() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(START);
+        List<String> expired = new ArrayList<>();
+        wheel.schedule("story", START + 10);
+
+        wheel.advance(START - 100, expired::add);
+
+        assertEquals(START, wheel.currentSecond());
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void testItemsBeyondTheWheelRange() {
+        ExpiryWheel<String> wheel = new ExpiryWheel<>(START);
+        List<String> expired = new ArrayList<>();
+        wheel.schedule("far", START + 1000 * DAY);
+        wheel.schedule("near", START + 1);
+
+        wheel.advance(START + 1000 * DAY - 1, expired::add);
+        assertEquals(List.of("near"), expired);
+        wheel.advance(START + 1000 * DAY, expired::add);
+        assertEquals(List.of("near", "far"), expired);
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(3);
+        ExpiryWheel<Integer> wheel = new ExpiryWheel<>(START);
+        Map<Integer, Long> pending = new HashMap<>();
+        long now = START;
+        for (int round = 0; round < 2000; round++) {
+            for (int i = 0; i < 5; i++) {
+                int item = round * 5 + i;
+                long expiry = now + randomDelay(random);
+                if (wheel.schedule(item, expiry)) {
+                    pending.put(item, expiry);
+                }
+            }
+            now += randomDelay(random) / 8;
+            long time = now;
+            List<Long> expiries = new ArrayList<>();
+            wheel.advance(now, item -> {
+                long expiry = pending.remove(item);
+                assertTrue(expiry <= time);
+                expiries.add(expiry);
+            });
+            for (int i = 1; i < expiries.size(); i++) {
+                assertTrue(expiries.get(i - 1) <= expiries.get(i));
+            }
+            for (long expiry : pending.values()) {
+                assertTrue(expiry > now);
+            }
+            assertEquals(pending.size(), wheel.size());
+        }
+    }
+
+    private static long randomDelay(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> random.nextInt(64);
+            case 1 -> random.nextInt(5000);
+            case 2 -> random.nextInt((int) (40 * DAY));
+            default -> random.nextInt((int) (400 * DAY)) - DAY;
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package bg.sofia.uni.fmi.mjt.socialmedia.index;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class MentionIndexTest {
+    private MentionIndex index;
+
+    @Before
+    public void setUp() {
+        index = new MentionIndex();
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        assertNull(index.mostMentioned());
+        assertEquals(List.of(), index.mostMentioned(3));
+        assertEquals(0, index.mentions("u1"));
+    }
+
+    @Test
+    public void testMostMentionedFollowsMentions() {
+        index.mention("u1");
+        index.mention("u2");
+        index.mention("u2");
+
+        assertEquals("u2", index.mostMentioned());
+        assertEquals(List.of("u2", "u1"), index.mostMentioned(5));
+
+        index.mention("u1");
+        index.mention("u1");
+
+        assertEquals("u1", index.mostMentioned());
+        assertEquals(3, index.mentions("u1"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testTiesAreOrderedByUsername() {
+        index.mention("c");
+        index.mention("a");
+        index.mention("b");
+
+        assertEquals("a", index.mostMentioned());
+        assertEquals(List.of("a", "b"), index.mostMentioned(2));
+        assertEquals(List.of(), index.mostMentioned(0));
+    }
+
+    @Test
+    public void testMatchesFullSort() {
+        Random random = new Random(7);
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            String username = "u" + random.nextInt(300);
+            counts.merge(username, 1L, Long::sum);
+            index.mention(username);
+        }
+
+        List<String> expected = counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .limit(20)
+                .collect(Collectors.toList());
+        assertEquals(expected, index.mostMentioned(20));
+        assertEquals(expected.get(0), index.mostMentioned());
+    }
+
+    @Test
+    public void testReadersSeeEveryUserWhileItMoves() throws Exception {
+        int count = 200;
+        for (int i = 0; i < count; i++) {
+            index.mention("u" + i);
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 2; reader++) {
+                readers.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        List<String> mostMentioned = index.mostMentioned(count);
+                        assertEquals(count, mostMentioned.size());
+                        assertEquals(count, new HashSet<>(mostMentioned).size());
+                        assertNotNull(index.mostMentioned());
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < 2; writer++) {
+                int seed = writer;
+                writers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 20_000; i++) {
+                        index.mention("u" + random.nextInt(count));
+                    }
+                    return null;
+                }));
+            }
+            try {
+                for (Future<?> writer : writers) {
+                    writer.get();
+                }
+            } finally {
+                writing.set(false);
+            }
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(count + 40_000, index.mostMentioned(count).stream().mapToLong(index::mentions).sum());
+    }
+}
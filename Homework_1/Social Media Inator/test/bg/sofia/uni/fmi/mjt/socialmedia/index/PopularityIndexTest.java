@@ -0,0 +1,174 @@
+package bg.sofia.uni.fmi.mjt.socialmedia.index;
+
+import bg.sofia.uni.fmi.mjt.socialmedia.TestIdIterator;
+import bg.sofia.uni.fmi.mjt.socialmedia.content.Content;
+import bg.sofia.uni.fmi.mjt.socialmedia.content.Post;
+import bg.sofia.uni.fmi.mjt.socialmedia.content.Story;
+import bg.sofia.uni.fmi.mjt.socialmedia.customcomparators.PopularityComparator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PopularityIndexTest {
+    private PopularityIndex index;
+    private LocalDateTime now;
+
+    @Before
+    public void setUp() {
+        index = new PopularityIndex();
+        now = LocalDateTime.now();
+        TestIdIterator.reset();
+    }
+
+    @Test
+    public void testMostPopularFollowsUpdates() {
+        Content first = new Post("u1", now, "first");
+        Content second = new Story("u1", now, "second");
+        index.add(first);
+        index.add(second);
+
+        assertEquals(List.of(first, second), index.mostPopular(2));
+
+        second.incrementNumberOfLikes();
+        index.update(second);
+        assertEquals(List.of(second, first), index.mostPopular(2));
+
+        first.incrementNumberOfComments();
+        first.incrementNumberOfLikes();
+        index.update(first);
+        assertEquals(List.of(first, second), index.mostPopular(2));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testMostPopularLimit() {
+        Content first = new Post("u1", now, "first");
+        Content second = new Post("u1", now, "second");
+        Content third = new Post("u1", now, "third");
+        first.incrementNumberOfLikes();
+        for (Content curr : List.of(first, second, third)) {
+            index.add(curr);
+        }
+
+        assertEquals(List.of(first, second, third), index.mostPopular(5));
+        assertEquals(List.of(first), index.mostPopular(1));
+        assertEquals(List.of(), index.mostPopular(0));
+    }
+
+    @Test
+    public void testRemove() {
+        Content first = new Post("u1", now, "first");
+        Content second = new Post("u1", now, "second");
+        index.add(first);
+        index.add(second);
+
+        index.remove(first);
+        index.remove(first);
+
+        assertEquals(List.of(second), index.mostPopular(2));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testOrderMatchesPopularityComparator() {
+        Random random = new Random(7);
+        List<Content> contents = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Content curr = new Post("u" + random.nextInt(5), now, "post");
+            contents.add(curr);
+            index.add(curr);
+        }
+        for (int i = 0; i < 1000; i++) {
+            Content curr = contents.get(random.nextInt(contents.size()));
+            if (random.nextBoolean()) {
+                curr.incrementNumberOfLikes();
+            } else {
+                curr.incrementNumberOfComments();
+            }
+            index.update(curr);
+        }
+
+        List<Content> expected = new ArrayList<>(contents);
+        expected.sort(new PopularityComparator());
+        assertEquals(expected, index.mostPopular(contents.size()));
+    }
+
+    @Test
+    public void testReadersSeeEveryContentWhileItMoves() throws Exception {
+        int count = 200;
+        List<Content> contents = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Content curr = new Post("u1", now, "post");
+            contents.add(curr);
+            index.add(curr);
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 2; reader++) {
+                readers.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        List<Content> mostPopular = index.mostPopular(count);
+                        assertEquals(count, mostPopular.size());
+                        assertEquals(count, new HashSet<>(mostPopular).size());
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < 2; writer++) {
+                int half = writer;
+                writers.add(executor.submit(() -> {
+                    Random random = new Random(half);
+                    for (int i = 0; i < 20_000; i++) {
+                        // every writer changes its own half of the content, so the counters are not shared
+                        Content curr = contents.get(2 * random.nextInt(count / 2) + half);
+                        curr.incrementNumberOfLikes();
+                        index.update(curr);
+                    }
+                    return null;
+                }));
+            }
+            try {
+                for (Future<?> writer : writers) {
+                    writer.get();
+                }
+            } finally {
+                writing.set(false);
+            }
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPopularityComparatorIsConsistent() {
+        Content first = new Post("u1", now, "first");
+        Content second = new Post("u1", now, "second");
+        PopularityComparator comparator = new PopularityComparator();
+        second.incrementNumberOfLikes();
+        second.incrementNumberOfLikes();
+        first.incrementNumberOfComments();
+
+        assertEquals(0, comparator.compare(first, first));
+        assertTrue(comparator.compare(second, first) < 0);
+        assertTrue(comparator.compare(first, second) > 0);
+    }
+}
@@ -0,0 +1,778 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.index.LevenshteinReranker;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.WordAutomaton;
+import bg.sofia.uni.fmi.mjt.spellchecker.metrics.SpellCheckRecorder;
+import bg.sofia.uni.fmi.mjt.spellchecker.metrics.SpellCheckRecorder.Phase;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Base of the spell checkers. The dictionary and the stop words are loaded once, when the instance is created.
+ * Implementations which support it can add words to and remove words from the dictionary afterwards: every change
+ * builds a new copy of the dictionary which is published atomically, so readers are never blocked and every lookup
+ * sees either the old or the new dictionary as a whole. Every call keeps its analysis state (counters, findings,
+ * chunks) to itself, so a single instance can be shared by any number of threads.
+ */
+public abstract class AbstractSpellChecker implements SpellChecker, Verifications, StringReworker {
+    private static final int CHUNK_LINES = 1024;
+    private static final int CHUNK_CHARACTERS = 1 << 16;
+    private static final int PENDING_CHUNKS_PER_THREAD = 4;
+    private static final int BATCH_CHUNK_WORDS = 256;
+    private static final int OUTPUT_BUFFER_BYTES = 1 << 16;
+    private static final int MIN_COMPACTION_SIZE = 1024;
+    private static final int COMPACTION_DIVISOR = 8;
+    private static final String FINDINGS_FILE_PREFIX = "spellchecker-findings";
+    private static final FileAttribute<?> OWNER_ONLY =
+            PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"));
+
+    private final WordAutomaton stopwords;
+    private final Object dictionaryUpdateLock = new Object();
+    private volatile SuggestionCache suggestionCache;
+    private volatile SpellCheckRecorder recorder;
+    private volatile LevenshteinReranker reranker;
+    private volatile Path spillDirectory;
+
+    /**
+     * Verifies the readers and loads the stop words. Loading the dictionary is left to the concrete implementation.
+     *
+     * @param dictionaryReader a java.io.Reader input stream containing list of words which
+     *                         will serve as a dictionary for the tool
+     * @param stopwordsReader  a java.io.Reader input stream containing list of stopwords
+     */
+    protected AbstractSpellChecker(Reader dictionaryReader, Reader stopwordsReader) {
+        verifyNullDictionary(dictionaryReader);
+        verifyNullStopwords(stopwordsReader);
+        stopwords = WordAutomaton.build(readStopwords(stopwordsReader));
+    }
+
+    /**
+     * Uses {@code stopwords} as they are, e.g. when they are read from a precompiled dictionary snapshot or shared
+     * with another instance
+     *
+     * @param stopwords the automaton of already normalized stop words
+     */
+    protected AbstractSpellChecker(WordAutomaton stopwords) {
+        this.stopwords = stopwords;
+    }
+
+    private record AnalyzedChunk(List<String> lines, MetadataCounter counter, List<String> findings) {
+    }
+
+    @FunctionalInterface
+    private interface ChunkConsumer<T> {
+        void accept(T chunk) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface LineReader {
+        /**
+         * Returns the next line without its terminator, or null if the end of the text is reached
+         */
+        String readLine() throws IOException;
+    }
+
+    /**
+     * Returns whether {@code word} is contained in the dictionary of the concrete implementation.
+     * Implementations answer it from a {@link WordAutomaton} of their words.
+     *
+     * @param word an already cleaned up word
+     */
+    protected abstract boolean isDictionaryWord(String word);
+
+    /**
+     * Returns whether an overlay of {@code overlaySize} changes on top of a base of {@code baseSize} words has grown
+     * large enough to be folded into a new base
+     */
+    protected static boolean isOverlayTooLarge(int overlaySize, int baseSize) {
+        return overlaySize > Math.max(MIN_COMPACTION_SIZE, baseSize / COMPACTION_DIVISOR);
+    }
+
+    protected boolean isStopword(String word) {
+        return stopwords.contains(word);
+    }
+
+    /**
+     * Adds {@code cleanedWords} to the dictionary and publishes the new dictionary. Words which are already in the
+     * dictionary are ignored. Calls are serialized, so an implementation only races with readers.
+     *
+     * @param cleanedWords already cleaned up words, at least two characters long
+     * @throws UnsupportedOperationException if the dictionary of the implementation cannot be changed
+     */
+    protected void addDictionaryWords(String[] cleanedWords) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support dictionary updates");
+    }
+
+    /**
+     * Removes {@code cleanedWords} from the dictionary and publishes the new dictionary. Words which are not in the
+     * dictionary are ignored. Calls are serialized, so an implementation only races with readers.
+     *
+     * @param cleanedWords already cleaned up words, at least two characters long
+     * @throws UnsupportedOperationException if the dictionary of the implementation cannot be changed
+     */
+    protected void removeDictionaryWords(String[] cleanedWords) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support dictionary updates");
+    }
+
+    protected WordAutomaton stopwords() {
+        return stopwords;
+    }
+
+    /**
+     * Caches the suggestions made by analyze, so that a misspelled word repeated throughout a text is looked up
+     * only once. Replaces the cache enabled before, if any.
+     *
+     * @param capacity the maximum number of (word, suggestions count) entries
+     * @param policy   which entry to drop when the cache is full
+     * @return the new cache, e.g. to read its hit, miss and eviction counters
+     */
+    public SuggestionCache enableSuggestionCache(int capacity, SuggestionCache.EvictionPolicy policy) {
+        SuggestionCache cache = new SuggestionCache(capacity, policy);
+        suggestionCache = cache;
+        return cache;
+    }
+
+    public void disableSuggestionCache() {
+        suggestionCache = null;
+    }
+
+    /**
+     * Returns the enabled suggestion cache, or null if the suggestions are not cached
+     */
+    public SuggestionCache suggestionCache() {
+        return suggestionCache;
+    }
+
+    /**
+     * Reorders the {@code depth} most similar suggestions by their Levenshtein distance to the misspelled word,
+     * keeping the similarity order of suggestions at the same distance. Applies to the engines which rank by bigram
+     * similarity - SymSpell already ranks by edit distance and ignores it. Invalidates the suggestion cache.
+     *
+     * @param depth how many of the most similar words are reranked, at least the number of requested suggestions
+     */
+    public void enableReranking(int depth) {
+        reranker = new LevenshteinReranker(depth);
+        invalidateSuggestionCache();
+    }
+
+    public void disableReranking() {
+        reranker = null;
+        invalidateSuggestionCache();
+    }
+
+    /**
+     * Returns the second ranking stage of the suggestions, or null if they are ranked by similarity only
+     */
+    public LevenshteinReranker reranker() {
+        return reranker;
+    }
+
+    /**
+     * Reports the time analyze and metadata spend in every phase, the tokens they check and the suggestions the
+     * implementation makes to {@code recorder}. Replaces the recorder set before, if any.
+     *
+     * @param recorder the recorder, or null to stop measuring
+     */
+    public void setRecorder(SpellCheckRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Returns the recorder the measurements are reported to, or null if nothing is measured
+     */
+    public SpellCheckRecorder recorder() {
+        return recorder;
+    }
+
+    /**
+     * Adds {@code words} to the dictionary, cleaned up like the words of the dictionary reader. Lookups running
+     * concurrently are not blocked and see either the old or the new dictionary.
+     *
+     * @param words the words to add
+     * @throws UnsupportedOperationException if the dictionary of the implementation cannot be changed
+     */
+    public void addWords(Collection<String> words) {
+        String[] cleanedWords = cleanUpDictionaryWords(words);
+        synchronized (dictionaryUpdateLock) {
+            addDictionaryWords(cleanedWords);
+            dictionaryChanged();
+        }
+    }
+
+    /**
+     * Removes {@code words} from the dictionary, cleaned up like the words of the dictionary reader. Lookups running
+     * concurrently are not blocked and see either the old or the new dictionary.
+     *
+     * @param words the words to remove
+     * @throws UnsupportedOperationException if the dictionary of the implementation cannot be changed
+     */
+    public void removeWords(Collection<String> words) {
+        String[] cleanedWords = cleanUpDictionaryWords(words);
+        synchronized (dictionaryUpdateLock) {
+            removeDictionaryWords(cleanedWords);
+            dictionaryChanged();
+        }
+    }
+
+    /**
+     * Must be called by implementations whose dictionary changes after construction, once the change is visible
+     * to findClosestWords, so that no suggestions made against the old dictionary are served anymore
+     */
+    protected void dictionaryChanged() {
+        invalidateSuggestionCache();
+    }
+
+    private void invalidateSuggestionCache() {
+        SuggestionCache cache = suggestionCache;
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    /**
+     * Spills the findings of the streaming and file analyses to {@code directory} instead of the default directory
+     * for temporary files, e.g. to keep them off a shared directory. The files are readable by their owner only
+     * where the file system supports POSIX permissions and are deleted once the analysis ends, also when it fails.
+     *
+     * @param directory an existing directory, or null for the default directory for temporary files
+     */
+    public void setSpillDirectory(Path directory) {
+        if (directory != null && !Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("Spill directory is not a directory");
+        }
+        spillDirectory = directory;
+    }
+
+    /**
+     * Returns the directory the findings are spilled to, or null for the default directory for temporary files
+     */
+    public Path spillDirectory() {
+        return spillDirectory;
+    }
+
+    @Override
+    public void analyze(Reader textReader, Writer output, int suggestionsCount) {
+        verifyNullText(textReader);
+        validateSuggestedWords(suggestionsCount);
+        PhaseTimer timer = PhaseTimer.start(recorder);
+        try (var bufferedReader = new BufferedReader(textReader)) {
+            long readStart = PhaseTimer.now(timer);
+            List<String> textReaderToList = bufferedReader.lines().collect(Collectors.toList());
+            if (timer != null) {
+                timer.add(Phase.READ, readStart);
+            }
+            String returnString = createAnalyzeReportMessage(
+                    analyzeChunk(textReaderToList, 1, suggestionsCount, timer));
+            long writeStart = PhaseTimer.now(timer);
+            try (var bufferedWriter = new BufferedWriter(output)) {
+                bufferedWriter.write(returnString);
+            }
+            if (timer != null) {
+                timer.add(Phase.WRITE, writeStart);
+                timer.reportCall();
+            }
+
+        } catch (IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    /**
+     * Analyzes the text contained in {@code textReader} like {@link #analyze(Reader, Writer, int)}, but line by line,
+     * so the memory used is bounded by a chunk of lines instead of by the size of the text.
+     * The text is written to {@code output} as it is read and the findings are spilled to a temporary file,
+     * see {@link #setSpillDirectory(Path)}, which is appended after the metadata. Every line reports its own
+     * misspelled words, in the order in which they first appear on it.
+     *
+     * @param textReader       a java.io.Reader input stream containing some text
+     * @param output           java.io.Writer output stream containing the analysis result
+     * @param suggestionsCount The number of suggestions to be generated for each misspelled word in the text
+     */
+    public void analyzeStreaming(Reader textReader, Writer output, int suggestionsCount) {
+        verifyNullText(textReader);
+        validateSuggestedWords(suggestionsCount);
+        analyzeInChunks(textReader, output, suggestionsCount, null);
+    }
+
+    /**
+     * Analyzes the text contained in {@code textReader} like {@link #analyzeStreaming(Reader, Writer, int)},
+     * but checks line-aligned chunks of the text concurrently on {@code pool}. The chunks are merged back in
+     * their original order, so the output is byte-identical to the one of the sequential version.
+     * At most a few chunks per worker thread are kept in memory at a time.
+     *
+     * @param textReader       a java.io.Reader input stream containing some text
+     * @param output           java.io.Writer output stream containing the analysis result
+     * @param suggestionsCount The number of suggestions to be generated for each misspelled word in the text
+     * @param pool             the pool to check the chunks on
+     */
+    public void analyzeParallel(Reader textReader, Writer output, int suggestionsCount, ForkJoinPool pool) {
+        verifyNullText(textReader);
+        validateSuggestedWords(suggestionsCount);
+        verifyNullPool(pool);
+        analyzeInChunks(textReader, output, suggestionsCount, pool);
+    }
+
+    /**
+     * Analyzes the UTF-8 text of the file {@code text} like {@link #analyzeStreaming(Reader, Writer, int)} and
+     * writes the analysis, encoded in UTF-8, to the file {@code output}, which is created or truncated.
+     * The text is memory-mapped and its lines are decoded straight from the mapping, and the analysis is written
+     * through a buffered writer over the channel of {@code output}, which receives the spilled findings with a
+     * channel to channel transfer. Malformed input is replaced with U+FFFD.
+     * The text and the output must be different files, since the output is truncated before the text is read.
+     *
+     * @param text             the file containing the text
+     * @param output           the file to write the analysis result to
+     * @param suggestionsCount The number of suggestions to be generated for each misspelled word in the text
+     */
+    public void analyze(Path text, Path output, int suggestionsCount) {
+        verifyNullFile(text, "Text file is null");
+        verifyNullFile(output, "Output file is null");
+        verifyDifferentFiles(text, output);
+        validateSuggestedWords(suggestionsCount);
+        try (var lineReader = new MappedLineReader(text);
+             var outputChannel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING);
+             var outputWriter = Channels.newWriter(outputChannel, StandardCharsets.UTF_8.newEncoder(),
+                     OUTPUT_BUFFER_BYTES)) {
+            analyzeLines(lineReader::readLine, outputWriter, outputChannel, suggestionsCount, null);
+        } catch (IOException exception) {
+            throw new IllegalStateException("An error occurred when analyzing the text", exception);
+        }
+    }
+
+    /**
+     * Returns the {@code n} closest words to each of {@code words}, like {@link #findClosestWords(String, int)},
+     * scoring chunks of the words concurrently on the common pool
+     *
+     * @param words the words to find suggestions for
+     * @param n     the maximum number of suggestions for every word
+     * @return the suggestions of every distinct word, in the order in which the words first appear
+     */
+    public Map<String, List<String>> findClosestWords(Collection<String> words, int n) {
+        return findClosestWords(words, n, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns the {@code n} closest words to each of {@code words}, like {@link #findClosestWords(String, int)}.
+     * Words which are the same once cleaned up are looked up once, and chunks of the distinct cleaned up words
+     * are scored concurrently on {@code pool}.
+     *
+     * @param words the words to find suggestions for
+     * @param n     the maximum number of suggestions for every word
+     * @param pool  the pool to score the chunks on
+     * @return the suggestions of every distinct word, in the order in which the words first appear
+     */
+    public Map<String, List<String>> findClosestWords(Collection<String> words, int n, ForkJoinPool pool) {
+        if (words == null) {
+            throw new IllegalArgumentException("Words are null");
+        }
+        validateSuggestedWords(n);
+        verifyNullPool(pool);
+        Map<String, String> cleanedWords = new LinkedHashMap<>();
+        for (String curr : words) {
+            validateNullWord(curr);
+            cleanedWords.computeIfAbsent(curr, this::cleanUpString);
+        }
+        List<String> distinctCleanedWords = List.copyOf(new LinkedHashSet<>(cleanedWords.values()));
+        List<Future<List<List<String>>>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctCleanedWords.size(); from += BATCH_CHUNK_WORDS) {
+            List<String> chunk = distinctCleanedWords.subList(from,
+                    Math.min(from + BATCH_CHUNK_WORDS, distinctCleanedWords.size()));
+            chunks.add(pool.submit(() -> chunk.stream().map(word -> findClosestWords(word, n)).toList()));
+        }
+        Map<String, List<String>> suggestions = new HashMap<>();
+        int wordIndex = 0;
+        try {
+            for (Future<List<List<String>>> curr : chunks) {
+                for (List<String> currSuggestions : awaitChunk(curr)) {
+                    suggestions.put(distinctCleanedWords.get(wordIndex++), currSuggestions);
+                }
+            }
+        } finally {
+            for (Future<List<List<String>>> curr : chunks) {
+                curr.cancel(true);
+            }
+        }
+        Map<String, List<String>> closestWords = new LinkedHashMap<>();
+        cleanedWords.forEach((word, cleanedWord) -> closestWords.put(word,
+                new ArrayList<>(suggestions.get(cleanedWord))));
+        return closestWords;
+    }
+
+    /**
+     * Returns the metadata of the text contained in {@code textReader}, counting line-aligned chunks of the text
+     * concurrently on {@code pool}. The result is the same as the one of {@link #metadata(Reader)}.
+     *
+     * @param textReader a java.io.Reader input stream containing some text
+     * @param pool       the pool to count the chunks on
+     */
+    public Metadata metadataParallel(Reader textReader, ForkJoinPool pool) {
+        verifyNullText(textReader);
+        verifyNullPool(pool);
+        try (var bufferedReader = new BufferedReader(textReader)) {
+            return countInChunks(bufferedReader::readLine, pool);
+        } catch (IOException exception) {
+            throw new IllegalStateException("An error occurred when reading the text", exception);
+        }
+    }
+
+    /**
+     * Returns the metadata of the UTF-8 text of the file {@code text}, which is the same as the one of
+     * {@link #metadata(Reader)} over a UTF-8 reader of the file. The file is memory-mapped and counted chunk by
+     * chunk, so unlike {@link #metadata(Reader)} the memory used does not grow with the size of the file.
+     *
+     * @param text the file containing the text
+     */
+    public Metadata metadata(Path text) {
+        verifyNullFile(text, "Text file is null");
+        try (var lineReader = new MappedLineReader(text)) {
+            return countInChunks(lineReader::readLine, null);
+        } catch (IOException exception) {
+            throw new IllegalStateException("An error occurred when reading the text", exception);
+        }
+    }
+
+    @Override
+    public Metadata metadata(Reader textReader) {
+        verifyNullText(textReader);
+        PhaseTimer timer = PhaseTimer.start(recorder);
+        try (var bufferedReader = new BufferedReader(textReader)) {
+            long readStart = PhaseTimer.now(timer);
+            List<String> textReaderToList = bufferedReader.lines().collect(Collectors.toList());
+            if (timer != null) {
+                timer.add(Phase.READ, readStart);
+            }
+            Metadata metadata = countChunk(textReaderToList, 1, timer).toMetadata();
+            if (timer != null) {
+                timer.reportCall();
+            }
+            return metadata;
+        } catch (IOException exception) {
+            throw new IllegalStateException("An error occurred when reading the text", exception);
+        }
+    }
+
+    static String[] readStopwords(Reader stopwordsReader) {
+        try (var bufferedReader = new BufferedReader(stopwordsReader)) {
+            return bufferedReader.lines()
+                    .map(String::toLowerCase)
+                    .map(String::trim)
+                    .toArray(String[]::new);
+        } catch (IOException exception) {
+            throw new IllegalStateException("An error occurred when reading from stopwords", exception);
+        }
+    }
+
+    private String[] cleanUpDictionaryWords(Collection<String> words) {
+        if (words == null) {
+            throw new IllegalArgumentException("Words are null");
+        }
+        for (String curr : words) {
+            validateNullWord(curr);
+        }
+        return words.stream()
+                .map(this::cleanUpString)
+                .filter(x -> x.length() > 1)
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private String wrongWordsLineCreator(Token wrongWord, int suggestionsCount) {
+        SuggestionCache cache = suggestionCache;
+        List<String> suggestions = cache == null ? findClosestWords(wrongWord.word(), suggestionsCount)
+                : cache.get(wrongWord.word(), suggestionsCount, this::findClosestWords);
+        return "Line #" + wrongWord.line() + ", {" + wrongWord.word() + "} - Possible suggestions are {"
+                + String.join(", ", suggestions) + "}";
+    }
+
+    private String createAnalyzeReportMessage(AnalyzedChunk report) {
+        return String.join(System.lineSeparator(), report.lines()) + System.lineSeparator()
+                + "= = = Metadata = = =" + System.lineSeparator()
+                + report.counter().toMetadata().formattedMetadata() + System.lineSeparator()
+                + "= = = Findings = = =" + System.lineSeparator()
+                + String.join(System.lineSeparator(), report.findings());
+    }
+
+    /**
+     * Adds the characters, words and mistakes of {@code line} to {@code counter}
+     *
+     * @return the misspelled words of the line, at the position where each of them first appears
+     */
+    private Collection<Token> countLine(String line, int lineNumber, MetadataCounter counter, PhaseTimer timer) {
+        Map<String, Token> lineWrongWords = new LinkedHashMap<>();
+        long lineStart = PhaseTimer.now(timer);
+        int characters = Tokenizer.tokenize(line, lineNumber, token -> {
+            long tokenStart = PhaseTimer.now(timer);
+            if (!isStopword(token.word())) {
+                counter.addWord();
+                if (!isDictionaryWord(token.word())) {
+                    counter.addMistake();
+                    lineWrongWords.putIfAbsent(token.word(), token);
+                }
+            }
+            if (timer != null) {
+                timer.addToken(tokenStart);
+            }
+        });
+        if (timer != null) {
+            timer.endLine(lineStart);
+        }
+        counter.addCharacters(characters);
+        return lineWrongWords.values();
+    }
+
+    private void analyzeInChunks(Reader textReader, Writer output, int suggestionsCount, ForkJoinPool pool) {
+        try (var bufferedReader = new BufferedReader(textReader);
+             var bufferedWriter = new BufferedWriter(output)) {
+            analyzeLines(bufferedReader::readLine, bufferedWriter, null, suggestionsCount, pool);
+        } catch (IOException exception) {
+            throw new IllegalStateException("An error occurred when analyzing the text", exception);
+        }
+    }
+
+    /**
+     * Writes the text to {@code output} chunk by chunk and the findings to a temporary file,
+     * which is appended after the metadata. The chunks are checked on {@code pool}, or inline if it is null.
+     *
+     * @param outputChannel the channel {@code output} writes to, if the findings can be transferred to it directly,
+     *                      or null
+     */
+    private void analyzeLines(LineReader lineReader, Writer output, FileChannel outputChannel, int suggestionsCount,
+                              ForkJoinPool pool) throws IOException {
+        Path findingsFile = createFindingsFile();
+        try (var findingsWriter = Files.newBufferedWriter(findingsFile)) {
+            MetadataCounter counter = new MetadataCounter();
+            PhaseTimer timer = PhaseTimer.start(recorder);
+            boolean[] hasFindings = {false};
+            int lineCounter = forEachChunk(lineReader,
+                    (lines, firstLine) -> analyzeChunk(lines, firstLine, suggestionsCount, timer),
+                    chunk -> {
+                        long writeStart = PhaseTimer.now(timer);
+                        for (String currLine : chunk.lines()) {
+                            output.write(currLine);
+                            output.write(System.lineSeparator());
+                        }
+                        for (String currFinding : chunk.findings()) {
+                            if (hasFindings[0]) {
+                                findingsWriter.write(System.lineSeparator());
+                            }
+                            findingsWriter.write(currFinding);
+                            hasFindings[0] = true;
+                        }
+                        counter.add(chunk.counter());
+                        if (timer != null) {
+                            timer.add(Phase.WRITE, writeStart);
+                        }
+                    }, pool, timer);
+            long writeStart = PhaseTimer.now(timer);
+            if (lineCounter == 0) {
+                output.write(System.lineSeparator());
+            }
+            output.write("= = = Metadata = = =" + System.lineSeparator());
+            output.write(counter.toMetadata().formattedMetadata() + System.lineSeparator());
+            output.write("= = = Findings = = =" + System.lineSeparator());
+            findingsWriter.flush();
+            output.flush();
+            if (outputChannel == null) {
+                try (var findingsReader = Files.newBufferedReader(findingsFile)) {
+                    findingsReader.transferTo(output);
+                }
+                output.flush();
+            } else {
+                transferFindings(findingsFile, outputChannel);
+            }
+            if (timer != null) {
+                timer.add(Phase.WRITE, writeStart);
+                timer.reportCall();
+            }
+        } finally {
+            deleteFindingsFile(findingsFile);
+        }
+    }
+
+    private static void transferFindings(Path findingsFile, FileChannel outputChannel) throws IOException {
+        try (var findingsChannel = FileChannel.open(findingsFile, StandardOpenOption.READ)) {
+            long size = findingsChannel.size();
+            long transferred = 0;
+            while (transferred < size) {
+                transferred += findingsChannel.transferTo(transferred, size - transferred, outputChannel);
+            }
+        }
+    }
+
+    private Metadata countInChunks(LineReader lineReader, ForkJoinPool pool) throws IOException {
+        MetadataCounter counter = new MetadataCounter();
+        PhaseTimer timer = PhaseTimer.start(recorder);
+        forEachChunk(lineReader, (lines, firstLine) -> countChunk(lines, firstLine, timer), counter::add, pool,
+                timer);
+        if (timer != null) {
+            timer.reportCall();
+        }
+        return counter.toMetadata();
+    }
+
+    /**
+     * Splits the text of {@code lineReader} into line-aligned chunks, applies {@code task} to every chunk, either inline
+     * or on {@code pool}, and passes the results to {@code consumer} in the original order of the chunks.
+     * With a pool at most {@link #PENDING_CHUNKS_PER_THREAD} chunks per worker thread are in flight.
+     * Reading the lines is added to {@code timer}, if it is not null.
+     *
+     * @return the number of lines read
+     */
+    private <T> int forEachChunk(LineReader lineReader, BiFunction<List<String>, Integer, T> task,
+                                 ChunkConsumer<T> consumer, ForkJoinPool pool, PhaseTimer timer) throws IOException {
+        int maxPendingChunks = pool == null ? 1 : pool.getParallelism() * PENDING_CHUNKS_PER_THREAD;
+        Deque<Future<T>> pendingChunks = new ArrayDeque<>();
+        try {
+            int lineCounter = 0;
+            List<String> chunk = new ArrayList<>();
+            int chunkCharacters = 0;
+            String currLine;
+            while (true) {
+                long readStart = PhaseTimer.now(timer);
+                currLine = lineReader.readLine();
+                if (timer != null) {
+                    timer.add(Phase.READ, readStart);
+                }
+                if (currLine != null) {
+                    chunk.add(currLine);
+                    chunkCharacters += currLine.length();
+                }
+                boolean chunkFull = chunk.size() == CHUNK_LINES || chunkCharacters >= CHUNK_CHARACTERS;
+                if (!chunk.isEmpty() && (chunkFull || currLine == null)) {
+                    pendingChunks.add(submitChunk(task, chunk, lineCounter + 1, pool));
+                    lineCounter += chunk.size();
+                    chunk = new ArrayList<>();
+                    chunkCharacters = 0;
+                }
+                while (!pendingChunks.isEmpty() && (pendingChunks.size() >= maxPendingChunks || currLine == null)) {
+                    consumer.accept(awaitChunk(pendingChunks.poll()));
+                }
+                if (currLine == null) {
+                    return lineCounter;
+                }
+            }
+        } finally {
+            for (Future<T> curr : pendingChunks) {
+                curr.cancel(true);
+            }
+        }
+    }
+
+    private static <T> Future<T> submitChunk(BiFunction<List<String>, Integer, T> task, List<String> lines,
+                                             int firstLine, ForkJoinPool pool) {
+        if (pool == null) {
+            return CompletableFuture.completedFuture(task.apply(lines, firstLine));
+        }
+        return pool.submit(() -> task.apply(lines, firstLine));
+    }
+
+    private static <T> T awaitChunk(Future<T> chunk) {
+        try {
+            return chunk.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a chunk of the text", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (exception.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("An error occurred when checking a chunk of the text", exception);
+        }
+    }
+
+    /**
+     * Checks {@code lines} and makes the suggestions for their misspelled words. The phases are measured by a timer
+     * of the chunk, which is reported to the recorder of {@code callTimer} once the chunk is done.
+     */
+    private AnalyzedChunk analyzeChunk(List<String> lines, int firstLine, int suggestionsCount,
+                                       PhaseTimer callTimer) {
+        PhaseTimer timer = PhaseTimer.forChunk(callTimer);
+        MetadataCounter counter = new MetadataCounter();
+        List<String> findings = new ArrayList<>();
+        int lineCounter = firstLine;
+        for (String currLine : lines) {
+            for (Token currWrongWord : countLine(currLine, lineCounter++, counter, timer)) {
+                long suggestStart = PhaseTimer.now(timer);
+                findings.add(wrongWordsLineCreator(currWrongWord, suggestionsCount));
+                if (timer != null) {
+                    timer.add(Phase.SUGGEST, suggestStart);
+                }
+            }
+        }
+        if (timer != null) {
+            timer.report();
+        }
+        return new AnalyzedChunk(lines, counter, findings);
+    }
+
+    private MetadataCounter countChunk(List<String> lines, int firstLine, PhaseTimer callTimer) {
+        PhaseTimer timer = PhaseTimer.forChunk(callTimer);
+        MetadataCounter counter = new MetadataCounter();
+        int lineCounter = firstLine;
+        for (String currLine : lines) {
+            countLine(currLine, lineCounter++, counter, timer);
+        }
+        if (timer != null) {
+            timer.report();
+        }
+        return counter;
+    }
+
+    private Path createFindingsFile() {
+        Path directory = spillDirectory;
+        try {
+            if (directory == null) {
+                return Files.createTempFile(FINDINGS_FILE_PREFIX, ".txt", ownerOnly(Path.of("")));
+            }
+            return Files.createTempFile(directory, FINDINGS_FILE_PREFIX, ".txt", ownerOnly(directory));
+        } catch (IOException exception) {
+            throw new IllegalStateException("An error occurred when creating a temporary findings file", exception);
+        }
+    }
+
+    private static FileAttribute<?>[] ownerOnly(Path directory) {
+        if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return new FileAttribute<?>[0];
+        }
+        return new FileAttribute<?>[] {OWNER_ONLY};
+    }
+
+    private void deleteFindingsFile(Path findingsFile) {
+        try {
+            Files.deleteIfExists(findingsFile);
+        } catch (IOException exception) {
+            findingsFile.toFile().deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.index.BigramBitmaps;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.BigramIndex;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.DictionarySnapshot;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.LevenshteinReranker;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.OverlayAutomaton;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.OverlayIndex;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.OverlayScorer;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.SimilarityScorer;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.WordAutomaton;
+import bg.sofia.uni.fmi.mjt.spellchecker.metrics.SpellCheckRecorder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Spell checker over an immutable {@link BigramIndex}, which is shared by all threads using the instance.
+ * The only mutable state, the working memory of the {@link SimilarityScorer}, is kept per thread.
+ * Dictionary membership is answered by a {@link WordAutomaton} of the same words.
+ * With bitmap scoring enabled at construction and the vector kernel available, see
+ * {@link BigramBitmaps#isVectorSupported()}, the base is also laid out in {@link BigramBitmaps}, which its scorers
+ * score in SIMD lanes instead of walking the postings. The bitmaps cost about 100 bytes of heap per word and are
+ * rebuilt with every new base, so they are never built for instances served from a snapshot.
+ * <p>
+ * Added and removed words are kept in a small {@link OverlayIndex} and {@link OverlayAutomaton} on top of the index
+ * and the automaton, which are rebuilt on every change. Once an overlay grows past a fraction of its base, both are
+ * folded into a new base.
+ * <p>
+ * Tenants created by a {@link SpellCheckerRegistry} share the index, the automaton and the scorers of a base
+ * instance and keep only their overlays and stop words, so their overlays are never folded into a private copy
+ * of the base.
+ */
+public class IndexedSpellChecker extends AbstractSpellChecker {
+    private final boolean sharedBase;
+    private final boolean bitmapScoring;
+    private volatile Dictionary dictionary;
+
+    /**
+     * A published version of the dictionary with the per-thread scorers of its words. The scorers of the base
+     * are shared by all versions with the same base, because their working memory grows with the base.
+     */
+    private record Dictionary(OverlayIndex index, OverlayAutomaton words, ThreadLocal<SimilarityScorer> baseScorers,
+                              ThreadLocal<OverlayScorer> scorers) {
+        private static Dictionary of(BigramIndex base, WordAutomaton words, boolean bitmapScoring) {
+            BigramBitmaps bitmaps = bitmapScoring && BigramBitmaps.isVectorSupported()
+                    ? BigramBitmaps.build(base)
+                    : null;
+            return of(OverlayIndex.of(base), OverlayAutomaton.of(words),
+                    ThreadLocal.withInitial(() -> new SimilarityScorer(base, true, bitmaps)));
+        }
+
+        private static Dictionary of(OverlayIndex index, OverlayAutomaton words,
+                                     ThreadLocal<SimilarityScorer> baseScorers) {
+            return new Dictionary(index, words, baseScorers,
+                    ThreadLocal.withInitial(() -> new OverlayScorer(index, baseScorers.get())));
+        }
+
+        private Dictionary withChanges(OverlayIndex changedIndex, OverlayAutomaton changedWords,
+                                       boolean compactable, boolean bitmapScoring) {
+            if (compactable && isOverlayTooLarge(changedIndex.overlaySize(), changedIndex.base().wordCount())) {
+                return of(changedIndex.compacted(), changedWords.compacted(), bitmapScoring);
+            }
+            return of(changedIndex, changedWords, baseScorers);
+        }
+    }
+
+    /**
+     * Creates a new instance of IndexedSpellChecker, based on a dictionary of words and stop words.
+     * The dictionary is kept in a packed {@link BigramIndex} instead of nested maps.
+     *
+     * @param dictionaryReader a java.io.Reader input stream containing list of words which
+     *                         will serve as a dictionary for the tool
+     * @param stopwordsReader  a java.io.Reader input stream containing list of stopwords
+     */
+    public IndexedSpellChecker(Reader dictionaryReader, Reader stopwordsReader) {
+        this(dictionaryReader, stopwordsReader, false);
+    }
+
+    /**
+     * Creates a new instance of IndexedSpellChecker, based on a dictionary of words and stop words
+     *
+     * @param dictionaryReader a java.io.Reader input stream containing list of words which
+     *                         will serve as a dictionary for the tool
+     * @param stopwordsReader  a java.io.Reader input stream containing list of stopwords
+     * @param bitmapScoring    whether the base is also laid out in {@link BigramBitmaps} and scored in SIMD lanes,
+     *                         which only takes effect when {@link BigramBitmaps#isVectorSupported()}
+     */
+    public IndexedSpellChecker(Reader dictionaryReader, Reader stopwordsReader, boolean bitmapScoring) {
+        super(dictionaryReader, stopwordsReader);
+        sharedBase = false;
+        this.bitmapScoring = bitmapScoring;
+        String[] cleanedWords = reworkDictionary(dictionaryReader);
+        dictionary = Dictionary.of(BigramIndex.build(cleanedWords), WordAutomaton.build(cleanedWords), bitmapScoring);
+    }
+
+    private IndexedSpellChecker(DictionarySnapshot snapshot) {
+        super(snapshot.stopwords());
+        sharedBase = false;
+        bitmapScoring = false;
+        dictionary = Dictionary.of(snapshot.index(), snapshot.words(), false);
+    }
+
+    /**
+     * Creates a tenant of {@code base}, which starts with the words of {@code base} and the given stop words.
+     * The index, the automaton and the per-thread scorers of {@code base} are shared, the tenant only owns its
+     * overlays.
+     *
+     * @param base      the instance whose index and automaton are shared, its overlays are not
+     * @param stopwords the automaton of the already normalized stop words of the tenant
+     */
+    IndexedSpellChecker(IndexedSpellChecker base, WordAutomaton stopwords) {
+        super(stopwords);
+        sharedBase = true;
+        bitmapScoring = false;
+        Dictionary baseDictionary = base.dictionary;
+        dictionary = Dictionary.of(OverlayIndex.of(baseDictionary.index().base()),
+                OverlayAutomaton.of(baseDictionary.words().base()), baseDictionary.baseScorers());
+    }
+
+    /**
+     * Creates a new instance of IndexedSpellChecker from a snapshot written by {@link #writeSnapshot(Path)}.
+     * The snapshot is memory-mapped and the dictionary is served from the mapping without being rebuilt.
+     *
+     * @param snapshot the path of the snapshot file
+     */
+    public static IndexedSpellChecker fromSnapshot(Path snapshot) {
+        return new IndexedSpellChecker(DictionarySnapshot.map(snapshot));
+    }
+
+    /**
+     * Writes the compiled dictionary, including the added and removed words, and the stop words of this instance
+     * to {@code snapshot}, so that later instances can be created with {@link #fromSnapshot(Path)}
+     *
+     * @param snapshot the path of the snapshot file
+     */
+    public void writeSnapshot(Path snapshot) {
+        Dictionary current = dictionary;
+        OverlayIndex index = current.index();
+        OverlayAutomaton words = current.words();
+        DictionarySnapshot.write(snapshot, index.overlaySize() == 0 ? index.base() : index.compacted(),
+                words.overlaySize() == 0 ? words.base() : words.compacted(), stopwords());
+    }
+
+    @Override
+    public List<String> findClosestWords(String word, int n) {
+        validateNullWord(word);
+        validateSuggestedWords(n);
+        OverlayScorer scorer = dictionary.scorers().get();
+        SpellCheckRecorder currRecorder = recorder();
+        if (currRecorder == null) {
+            return closestWords(scorer, cleanUpString(word), n);
+        }
+        long start = System.nanoTime();
+        long scoredBefore = scorer.scoredCandidates();
+        List<String> closestWords = closestWords(scorer, cleanUpString(word), n);
+        currRecorder.recordSuggestion(System.nanoTime() - start, (int) (scorer.scoredCandidates() - scoredBefore));
+        return closestWords;
+    }
+
+    private List<String> closestWords(OverlayScorer scorer, String cleanedWord, int n) {
+        LevenshteinReranker currReranker = reranker();
+        if (currReranker == null) {
+            return scorer.findClosestWords(cleanedWord, n);
+        }
+        return currReranker.rerank(cleanedWord, scorer.findClosestWords(cleanedWord, currReranker.candidatesCount(n)),
+                n);
+    }
+
+    /**
+     * Returns the index under the overlay of this instance, which is the same for all tenants of a base
+     */
+    BigramIndex baseIndex() {
+        return dictionary.index().base();
+    }
+
+    /**
+     * Returns the automaton under the overlay of this instance, which is the same for all tenants of a base
+     */
+    WordAutomaton baseWords() {
+        return dictionary.words().base();
+    }
+
+    /**
+     * Returns the number of added and removed words kept on top of {@link #baseIndex()}
+     */
+    int overlaySize() {
+        return dictionary.index().overlaySize();
+    }
+
+    @Override
+    protected boolean isDictionaryWord(String word) {
+        return dictionary.words().contains(word);
+    }
+
+    @Override
+    protected void addDictionaryWords(String[] cleanedWords) {
+        Dictionary current = dictionary;
+        dictionary = current.withChanges(current.index().withAddedWords(cleanedWords),
+                current.words().withAddedWords(cleanedWords), !sharedBase, bitmapScoring);
+    }
+
+    @Override
+    protected void removeDictionaryWords(String[] cleanedWords) {
+        Dictionary current = dictionary;
+        dictionary = current.withChanges(current.index().withRemovedWords(cleanedWords),
+                current.words().withRemovedWords(cleanedWords), !sharedBase, bitmapScoring);
+    }
+
+    private String[] reworkDictionary(Reader dictionaryReader) {
+        try (var bufferedReader = new BufferedReader(dictionaryReader)) {
+            return bufferedReader.lines()
+                    .map(this::cleanUpString)
+                    .filter(x -> x.length() > 1)
+                    .toArray(String[]::new);
+        } catch (IOException exception) {
+            throw new IllegalStateException("An error occurred when reading from dictionary", exception);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a UTF-8 file through memory-mapped windows, splitting them like
+ * {@link java.io.BufferedReader#readLine()}. The bytes of a window are copied to a small chunk in bulk and every
+ * line is decoded from the chunk directly into its string, so there is no char buffer between the file and the
+ * tokenizer. Line terminators never occur inside a multi-byte UTF-8 sequence, so lines can be cut on bytes.
+ * Malformed input is replaced with U+FFFD, like by an {@link java.io.InputStreamReader}.
+ * Files larger than 2 GB are mapped window by window. The mappings are released by the garbage collector.
+ */
+final class MappedLineReader implements Closeable {
+    private static final long WINDOW_BYTES = 1L << 28;
+    private static final int CHUNK_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowBytes;
+    private long windowStart;
+    private MappedByteBuffer window;
+    private byte[] chunk;
+    private int position;
+    private int limit;
+    private boolean skipLineFeed;
+
+    MappedLineReader(Path file) throws IOException {
+        this(file, WINDOW_BYTES, CHUNK_BYTES);
+    }
+
+    /**
+     * @param windowBytes the size of the mapped windows
+     * @param chunkBytes  the initial size of the chunk the lines are decoded from
+     */
+    MappedLineReader(Path file, long windowBytes, int chunkBytes) throws IOException {
+        this.windowBytes = windowBytes;
+        this.chunk = new byte[chunkBytes];
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            size = channel.size();
+            window = map(0);
+        } catch (IOException | RuntimeException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Returns the next line without its terminator, or null if the end of the file is reached
+     */
+    String readLine() throws IOException {
+        if (skipLineFeed) {
+            skipLineFeed = false;
+            if ((position < limit || fill()) && chunk[position] == '\n') {
+                position++;
+            }
+        }
+        int scanned = position;
+        while (true) {
+            for (; scanned < limit; scanned++) {
+                byte curr = chunk[scanned];
+                if (curr == '\n' || curr == '\r') {
+                    String line = new String(chunk, position, scanned - position, StandardCharsets.UTF_8);
+                    position = scanned + 1;
+                    skipLineFeed = curr == '\r';
+                    return line;
+                }
+            }
+            int pending = scanned - position;
+            if (!fill()) {
+                if (pending == 0) {
+                    return null;
+                }
+                String line = new String(chunk, position, pending, StandardCharsets.UTF_8);
+                position = limit;
+                return line;
+            }
+            scanned = position + pending;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Moves the unread bytes to the front of the chunk, growing it if a line does not fit, and appends the next
+     * bytes of the file after them
+     *
+     * @return whether any bytes were appended
+     */
+    private boolean fill() throws IOException {
+        int pending = limit - position;
+        if (pending == chunk.length) {
+            chunk = Arrays.copyOf(chunk, chunk.length * 2);
+        }
+        System.arraycopy(chunk, position, chunk, 0, pending);
+        position = 0;
+        limit = pending;
+        if (!window.hasRemaining()) {
+            long next = windowStart + window.limit();
+            if (next == size) {
+                return false;
+            }
+            window = map(next);
+        }
+        int count = Math.min(chunk.length - limit, window.remaining());
+        window.get(chunk, limit, count);
+        limit += count;
+        return true;
+    }
+
+    private MappedByteBuffer map(long start) throws IOException {
+        windowStart = start;
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowBytes, size - start));
+    }
+}
@@ -0,0 +1,32 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+/**
+ * Mutable accumulator of the {@link Metadata} counters, filled in line by line.
+ */
+class MetadataCounter {
+    private int characters;
+    private int words;
+    private int mistakes;
+
+    void addCharacters(int count) {
+        characters += count;
+    }
+
+    void addWord() {
+        words++;
+    }
+
+    void addMistake() {
+        mistakes++;
+    }
+
+    void add(MetadataCounter other) {
+        characters += other.characters;
+        words += other.words;
+        mistakes += other.mistakes;
+    }
+
+    Metadata toMetadata() {
+        return new Metadata(characters, words, mistakes);
+    }
+}
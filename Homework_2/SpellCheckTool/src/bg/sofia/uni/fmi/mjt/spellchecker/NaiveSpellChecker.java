@@ -1,11 +1,13 @@
 package bg.sofia.uni.fmi.mjt.spellchecker;
 
+import bg.sofia.uni.fmi.mjt.spellchecker.index.LevenshteinReranker;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.OverlayAutomaton;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.WordAutomaton;
+import bg.sofia.uni.fmi.mjt.spellchecker.metrics.SpellCheckRecorder;
+
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
-import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -14,15 +16,31 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-public class NaiveSpellChecker implements SpellChecker, Verifications, StringReworker {
-    private Map<String, Map<String, Integer>> dictionaryWordGrams; // <word, <gram, gramCount>>
-    private Set<String> stopwords;
-    private Map<String, Map<String, Integer>> gramsToWords; //<gram, <word, gramCount>>
-    private Set<String> wrongWords;
+public class NaiveSpellChecker extends AbstractSpellChecker {
+    private volatile Dictionary dictionary;
+
+    /**
+     * A published version of the dictionary. Membership is answered by the automaton of the words.
+     * The postings of the grams changed since the last compaction are kept on top of the base postings, and both
+     * maps and all their values are unmodifiable, so a change copies only the small map of changed grams and the
+     * postings of the grams of the changed words. The grams of the words are shared by all versions between two
+     * compactions and only ever added to: the grams of a word never change and a version only looks up the words
+     * of its own postings. A compaction, which is done together with the one of the automaton, folds the changed
+     * grams into new base postings and drops the grams of the removed words.
+     */
+    private record Dictionary(OverlayAutomaton words,
+                              ConcurrentMap<String, Map<String, Integer>> dictionaryWordGrams, // <word, <gram, count>>
+                              Map<String, Map<String, Integer>> gramsToWords, //<gram, <word, gramCount>>
+                              Map<String, Map<String, Integer>> changedGrams) { //<gram, <word, gramCount>>
+        private Map<String, Integer> wordsWithGram(String gram) {
+            Map<String, Integer> changed = changedGrams.get(gram);
+            return changed != null ? changed : gramsToWords.getOrDefault(gram, Map.of());
+        }
+    }
 
     /**
      * Creates a new instance of NaiveSpellCheckTool, based on a dictionary of words and stop words
@@ -33,68 +51,117 @@ public class NaiveSpellChecker implements SpellChecker, Verifications, StringRew
      */
 
     public NaiveSpellChecker(Reader dictionaryReader, Reader stopwordsReader) {
-        verifyNullDictionary(dictionaryReader);
-        verifyNullStopwords(stopwordsReader);
-        reworkDictionary(dictionaryReader);
-        reworkStopwords(stopwordsReader);
-        gramsToWords = new HashMap<>();
-        setGramsToWords();
+        super(dictionaryReader, stopwordsReader);
+        Map<String, Map<String, Integer>> dictionaryWordGrams = reworkDictionary(dictionaryReader);
+        OverlayAutomaton words = OverlayAutomaton.of(
+                WordAutomaton.build(dictionaryWordGrams.keySet().toArray(String[]::new)));
+        dictionary = new Dictionary(words, new ConcurrentHashMap<>(dictionaryWordGrams),
+                createGramsToWords(dictionaryWordGrams), Map.of());
     }
 
     @Override
-    public void analyze(Reader textReader, Writer output, int suggestionsCount) {
-        verifyNullText(textReader);
-        validateSuggestedWords(suggestionsCount);
-        try (var bufferedReader = new BufferedReader(textReader)) {
-            List<String> textReaderToList = bufferedReader.lines().collect(Collectors.toList());
-            String returnString = createAnalyzeReportMessage(textReaderToList, suggestionsCount);
-            try (var bufferedWriter = new BufferedWriter(output)) {
-                bufferedWriter.write(returnString);
-            }
-
-        } catch (IOException exception) {
-            exception.printStackTrace();
+    public List<String> findClosestWords(String word, int n) {
+        validateNullWord(word);
+        validateSuggestedWords(n);
+        SpellCheckRecorder currRecorder = recorder();
+        long start = currRecorder == null ? 0 : System.nanoTime();
+        Dictionary current = dictionary;
+        Set<String> similarWords = new HashSet<>();
+        var thisWordGrams = getWordGrams(word);
+        for (String currGram : thisWordGrams.keySet()) {
+            similarWords.addAll(current.wordsWithGram(currGram).keySet());
+        }
+        LevenshteinReranker currReranker = reranker();
+        List<String> suggestedWords;
+        if (currReranker == null) {
+            suggestedWords = mostSimilarWords(word, similarWords, current.dictionaryWordGrams(), n);
+        } else {
+            suggestedWords = currReranker.rerank(cleanUpString(word), rankedWords(word, similarWords,
+                    current.dictionaryWordGrams(), currReranker.candidatesCount(n)), n);
         }
+        if (currRecorder != null) {
+            currRecorder.recordSuggestion(System.nanoTime() - start, similarWords.size());
+        }
+        return suggestedWords;
     }
 
     @Override
-    public Metadata metadata(Reader textReader) {
-        verifyNullText(textReader);
-        try (var bufferedReader = new BufferedReader(textReader)) {
-            List<String> textReaderToList = bufferedReader.lines().collect(Collectors.toList());
-            wrongWords = new HashSet<>();
-            return createMetadata(textReaderToList);
-        } catch (IOException exception) {
-            throw new IllegalStateException("An error occurred when reading the text", exception);
-        }
+    protected boolean isDictionaryWord(String word) {
+        return dictionary.words().contains(word);
     }
 
     @Override
-    public List<String> findClosestWords(String word, int n) {
-        validateNullWord(word);
-        validateSuggestedWords(n);
-        Set<String> similarWords = new HashSet<>();
-        var thisWordGrams = getWordGrams(word);
-        for (String currGram : thisWordGrams.keySet()) {
-            if (gramsToWords.containsKey(currGram)) {
-                similarWords.addAll(gramsToWords.get(currGram).keySet());
+    protected void addDictionaryWords(String[] cleanedWords) {
+        Dictionary current = dictionary;
+        Map<String, Map<String, Integer>> changedGrams = new HashMap<>();
+        for (String currWord : cleanedWords) {
+            if (current.words().contains(currWord)) {
+                continue;
             }
+            Map<String, Integer> currWordGrams = current.dictionaryWordGrams().computeIfAbsent(currWord,
+                    x -> Collections.unmodifiableMap(getWordGrams(x)));
+            currWordGrams.forEach((gram, count) -> copyOfWords(gram, current, changedGrams).put(currWord, count));
         }
-        Map<Double, String> similarityMap = new TreeMap<>(Collections.reverseOrder());
-        calculateSimularity(word, similarWords, similarityMap);
-        int counter = 1;
-        List<String> suggestedWords = new ArrayList<>();
-        for (Map.Entry<Double, String> currEntry : similarityMap.entrySet()) {
-            if (counter > n) {
-                break;
+        publish(current, current.words().withAddedWords(cleanedWords), changedGrams);
+    }
+
+    @Override
+    protected void removeDictionaryWords(String[] cleanedWords) {
+        Dictionary current = dictionary;
+        Map<String, Map<String, Integer>> changedGrams = new HashMap<>();
+        for (String currWord : cleanedWords) {
+            if (current.words().contains(currWord)) {
+                current.dictionaryWordGrams().get(currWord).keySet()
+                        .forEach(gram -> copyOfWords(gram, current, changedGrams).remove(currWord));
             }
-            suggestedWords.add(currEntry.getValue());
-            counter++;
         }
-        return suggestedWords;
+        publish(current, current.words().withRemovedWords(cleanedWords), changedGrams);
+    }
+
+    /**
+     * Returns the modifiable copy of the words of {@code gram} for the dictionary being built
+     */
+    private static Map<String, Integer> copyOfWords(String gram, Dictionary current,
+                                                    Map<String, Map<String, Integer>> changedGrams) {
+        return changedGrams.computeIfAbsent(gram, x -> new TreeMap<>(current.wordsWithGram(x)));
     }
 
-    private void setGramsToWords() {
+    private void publish(Dictionary current, OverlayAutomaton words, Map<String, Map<String, Integer>> changedGrams) {
+        Map<String, Map<String, Integer>> allChangedGrams = new HashMap<>(current.changedGrams());
+        changedGrams.forEach((gram, gramWords) -> allChangedGrams.put(gram, Collections.unmodifiableMap(gramWords)));
+        if (isOverlayTooLarge(words.overlaySize(), words.base().wordCount())) {
+            dictionary = compacted(words.compacted(), current, allChangedGrams);
+        } else {
+            dictionary = new Dictionary(words, current.dictionaryWordGrams(), current.gramsToWords(),
+                    Collections.unmodifiableMap(allChangedGrams));
+        }
+    }
+
+    /**
+     * Returns a dictionary with the words of {@code words}, whose base postings are the ones of {@code current}
+     * with {@code changedGrams} applied
+     */
+    private static Dictionary compacted(WordAutomaton words, Dictionary current,
+                                        Map<String, Map<String, Integer>> changedGrams) {
+        ConcurrentMap<String, Map<String, Integer>> dictionaryWordGrams = new ConcurrentHashMap<>();
+        for (String currWord : words.words()) {
+            dictionaryWordGrams.put(currWord, current.dictionaryWordGrams().get(currWord));
+        }
+        Map<String, Map<String, Integer>> gramsToWords = new HashMap<>(current.gramsToWords());
+        changedGrams.forEach((gram, gramWords) -> {
+            if (gramWords.isEmpty()) {
+                gramsToWords.remove(gram);
+            } else {
+                gramsToWords.put(gram, gramWords);
+            }
+        });
+        return new Dictionary(OverlayAutomaton.of(words), dictionaryWordGrams,
+                Collections.unmodifiableMap(gramsToWords), Map.of());
+    }
+
+    private static Map<String, Map<String, Integer>> createGramsToWords(
+            Map<String, Map<String, Integer>> dictionaryWordGrams) {
+        Map<String, Map<String, Integer>> gramsToWords = new HashMap<>();
         for (String currWord : dictionaryWordGrams.keySet()) {
             for (String currGram : dictionaryWordGrams.get(currWord).keySet()) {
                 if (!gramsToWords.containsKey(currGram)) {
@@ -104,25 +171,12 @@ public class NaiveSpellChecker implements SpellChecker, Verifications, StringRew
                         dictionaryWordGrams.get(currWord).get(currGram));
             }
         }
+        gramsToWords.replaceAll((gram, words) -> Collections.unmodifiableMap(words));
+        return Collections.unmodifiableMap(gramsToWords);
     }
 
-
-    private String wrongWordsLineCreator(String word, int line, int suggestionsCount) {
-        String toReturn = "Line #" + line
-                + ", {" + word + "} - Possible suggestions are {";
-        List<String> suggestedWords = findClosestWords(word, suggestionsCount);
-        if (suggestedWords.isEmpty()) {
-            return toReturn + "}";
-        }
-        for (int i = 0; i < suggestedWords.size() - 1; i++) {
-            toReturn = toReturn + suggestedWords.get(i) + ", ";
-        }
-        toReturn = toReturn + suggestedWords.get(suggestedWords.size() - 1) + "}";
-        return toReturn;
-    }
-
-    private void reworkDictionary(Reader dictionaryReader) {
-        dictionaryWordGrams = new HashMap<>();
+    private Map<String, Map<String, Integer>> reworkDictionary(Reader dictionaryReader) {
+        Map<String, Map<String, Integer>> dictionaryWordGrams = new HashMap<>();
         try (var bufferedReader = new BufferedReader(dictionaryReader)) {
             List<String> readerToList = bufferedReader.lines().collect(Collectors.toList());
             List<String> cleanedList = readerToList.stream()
@@ -130,84 +184,62 @@ public class NaiveSpellChecker implements SpellChecker, Verifications, StringRew
                     .filter(x -> x.length() > 1)
                     .collect(Collectors.toList());
             for (String curr : cleanedList) {
-                dictionaryWordGrams.put(curr, new HashMap<>(getWordGrams(curr)));
+                dictionaryWordGrams.put(curr, Collections.unmodifiableMap(getWordGrams(curr)));
             }
+            return Collections.unmodifiableMap(dictionaryWordGrams);
         } catch (IOException exception) {
             throw new IllegalStateException("An error occurred when reading from dictionary", exception);
         }
     }
 
-    private void reworkStopwords(Reader stopwordsReader) {
-        stopwords = new TreeSet<>();
-        try (var bufferedReader = new BufferedReader(stopwordsReader)) {
-            List<String> readerToList = bufferedReader.lines().collect(Collectors.toList());
-            stopwords = readerToList.stream()
-                    .map(String::toLowerCase)
-                    .map(String::trim)
-                    .collect(Collectors.toSet());
-
-        } catch (IOException exception) {
-            throw new IllegalStateException("An error occurred when reading from stopwords", exception);
-        }
-    }
-
-    private String createAnalyzeReportMessage(List<String> textReaderToList, int suggestionsCount) {
-        String returnString = String.join(System.lineSeparator(), textReaderToList)
-                .concat(System.lineSeparator());
-        returnString = returnString.concat("= = = Metadata = = =" + System.lineSeparator());
-        Metadata textReaderMetadata;
-        textReaderMetadata = metadata(new StringReader(String.join(System.lineSeparator(), textReaderToList)));
-        returnString = returnString.concat(textReaderMetadata.formattedMetadata() + System.lineSeparator());
-        returnString = returnString.concat("= = = Findings = = =" + System.lineSeparator());
-        int lineCounter = 1;
-        List<String> wrongWordLines = new ArrayList<>();
-        for (String currLine : textReaderToList) {
-            for (String currWrongWord : wrongWords) {
-                if (currLine.toLowerCase().contains(currWrongWord)) {
-                    wrongWordLines.add(wrongWordsLineCreator(currWrongWord, lineCounter, suggestionsCount));
-                }
+    private List<String> mostSimilarWords(String word, Set<String> similarWords,
+                                          Map<String, Map<String, Integer>> dictionaryWordGrams, int n) {
+        Map<Double, String> similarityMap = new TreeMap<>(Collections.reverseOrder());
+        calculateSimularity(word, similarWords, similarityMap, dictionaryWordGrams);
+        int counter = 1;
+        List<String> suggestedWords = new ArrayList<>();
+        for (Map.Entry<Double, String> currEntry : similarityMap.entrySet()) {
+            if (counter > n) {
+                break;
             }
-            lineCounter++;
+            suggestedWords.add(currEntry.getValue());
+            counter++;
         }
-        String wrongWordLinesTogether = wrongWordLines.stream()
-                .collect(Collectors.joining(System.lineSeparator()));
-        returnString = returnString + wrongWordLinesTogether;
-        return returnString;
+        return suggestedWords;
     }
 
-    private Metadata createMetadata(List<String> textReaderToList) {
-        int characters = 0;
-        int words = 0;
-        int mistakes = 0;
-        List<String> textReaderWords = textReaderToList.stream()
-                .flatMap(line -> Stream.of(line.split("\\s+")))
-                .map(this::cleanUpString)
-                .filter(x -> !x.isBlank())
-                .collect(Collectors.toList());
-        for (String curr : textReaderWords) {
-            if (!stopwords.contains(curr)) {
-                words++;
-            }
-            if (!stopwords.contains(curr) && !dictionaryWordGrams.containsKey(curr)) {
-                mistakes++;
-                wrongWords.add(curr);
-            }
-        }
-        for (String curr : textReaderToList) {
-            curr = curr.replaceAll("\\s+", "");
-            characters = characters + curr.length();
+    /**
+     * Returns the {@code count} words of {@code similarWords} most similar to {@code word}, ordered by similarity and
+     * then by word. Unlike in the similarity map, words with the same similarity are all kept.
+     */
+    private List<String> rankedWords(String word, Set<String> similarWords,
+                                     Map<String, Map<String, Integer>> dictionaryWordGrams, int count) {
+        double wordLength = getVectorLength(word);
+        Map<String, Double> similarities = new HashMap<>();
+        for (String currWord : similarWords) {
+            similarities.put(currWord, similarity(word, wordLength, currWord, dictionaryWordGrams));
         }
-        return new Metadata(characters, words, mistakes);
+        return similarities.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(count)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
     }
 
-    private void calculateSimularity(String word, Set<String> similarWords, Map<Double, String> similarityMap) {
+    private void calculateSimularity(String word, Set<String> similarWords, Map<Double, String> similarityMap,
+                                     Map<String, Map<String, Integer>> dictionaryWordGrams) {
         double wordLength = getVectorLength(word);
         for (String currWord : similarWords) {
-            double currWordLength = getVectorLength(currWord);
-            double multiplication = getVectorMultiplication(word, currWord, dictionaryWordGrams);
-            double result = multiplication / (wordLength * currWordLength);
-            similarityMap.put(result, currWord);
+            similarityMap.put(similarity(word, wordLength, currWord, dictionaryWordGrams), currWord);
         }
     }
 
+    private double similarity(String word, double wordLength, String dictionaryWord,
+                              Map<String, Map<String, Integer>> dictionaryWordGrams) {
+        double dictionaryWordLength = getVectorLength(dictionaryWord);
+        double multiplication = getVectorMultiplication(word, dictionaryWord, dictionaryWordGrams);
+        return multiplication / (wordLength * dictionaryWordLength);
+    }
+
 }
@@ -0,0 +1,94 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.metrics.SpellCheckRecorder;
+import bg.sofia.uni.fmi.mjt.spellchecker.metrics.SpellCheckRecorder.Phase;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the time a call, or a chunk of a call, spends in every phase and hands it to a
+ * {@link SpellCheckRecorder} in one go, so that the recorder is called a few times per chunk instead of per token.
+ * A timer is used by a single thread, the timers of the chunks of a call only share its token count.
+ * Without a recorder there is no timer at all, and the static helpers turn every measurement into a null check.
+ */
+final class PhaseTimer {
+    private static final Phase[] PHASES = Phase.values();
+
+    private final SpellCheckRecorder recorder;
+    private final LongAdder callTokens;
+    private final long start = System.nanoTime();
+    private final long[] nanos = new long[PHASES.length];
+    private long tokens;
+    private long lineMembershipNanos;
+
+    private PhaseTimer(SpellCheckRecorder recorder, LongAdder callTokens) {
+        this.recorder = recorder;
+        this.callTokens = callTokens;
+    }
+
+    /**
+     * Returns the timer of a new analyze or metadata call, or null if {@code recorder} is null
+     */
+    static PhaseTimer start(SpellCheckRecorder recorder) {
+        return recorder == null ? null : new PhaseTimer(recorder, new LongAdder());
+    }
+
+    /**
+     * Returns a timer for a chunk of the call of {@code callTimer}, or null if {@code callTimer} is null
+     */
+    static PhaseTimer forChunk(PhaseTimer callTimer) {
+        return callTimer == null ? null : new PhaseTimer(callTimer.recorder, callTimer.callTokens);
+    }
+
+    /**
+     * Returns the start of a measurement, which is only read if {@code timer} is not null
+     */
+    static long now(PhaseTimer timer) {
+        return timer == null ? 0 : System.nanoTime();
+    }
+
+    void add(Phase phase, long startNanos) {
+        nanos[phase.ordinal()] += System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Adds the membership check of a token which started at {@code startNanos}
+     */
+    void addToken(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        nanos[Phase.MEMBERSHIP.ordinal()] += elapsed;
+        lineMembershipNanos += elapsed;
+        tokens++;
+    }
+
+    /**
+     * Adds the tokenization of a line which started at {@code startNanos}, that is, the time spent on the line
+     * outside of the membership checks of its tokens
+     */
+    void endLine(long startNanos) {
+        nanos[Phase.TOKENIZE.ordinal()] += System.nanoTime() - startNanos - lineMembershipNanos;
+        lineMembershipNanos = 0;
+    }
+
+    /**
+     * Hands the phase times measured so far to the recorder and the tokens to the call
+     */
+    void report() {
+        for (Phase phase : PHASES) {
+            if (nanos[phase.ordinal()] > 0) {
+                recorder.recordPhase(phase, nanos[phase.ordinal()]);
+                nanos[phase.ordinal()] = 0;
+            }
+        }
+        callTokens.add(tokens);
+        tokens = 0;
+    }
+
+    /**
+     * Reports the remaining phase times and the whole call, once all of its chunks are reported
+     */
+    void reportCall() {
+        report();
+        recorder.recordText(System.nanoTime() - start, callTokens.sum());
+    }
+}
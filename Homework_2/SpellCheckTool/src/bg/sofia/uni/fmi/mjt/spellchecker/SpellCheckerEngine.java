@@ -0,0 +1,46 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import java.io.Reader;
+
+/**
+ * The available spell checker implementations. All of them produce the same report format and differ only in how
+ * the suggestions are found and ranked.
+ */
+public enum SpellCheckerEngine {
+    /**
+     * Bigram cosine similarity over nested maps, see {@link NaiveSpellChecker}
+     */
+    NAIVE {
+        @Override
+        public AbstractSpellChecker create(Reader dictionaryReader, Reader stopwordsReader) {
+            return new NaiveSpellChecker(dictionaryReader, stopwordsReader);
+        }
+    },
+    /**
+     * Bigram cosine similarity over a packed index, see {@link IndexedSpellChecker}
+     */
+    INDEXED {
+        @Override
+        public AbstractSpellChecker create(Reader dictionaryReader, Reader stopwordsReader) {
+            return new IndexedSpellChecker(dictionaryReader, stopwordsReader);
+        }
+    },
+    /**
+     * Edit distance over a deletion-neighbourhood index, see {@link SymSpellChecker}
+     */
+    SYMSPELL {
+        @Override
+        public AbstractSpellChecker create(Reader dictionaryReader, Reader stopwordsReader) {
+            return new SymSpellChecker(dictionaryReader, stopwordsReader);
+        }
+    };
+
+    /**
+     * Creates a spell checker of this kind, based on a dictionary of words and stop words
+     *
+     * @param dictionaryReader a java.io.Reader input stream containing list of words which
+     *                         will serve as a dictionary for the tool
+     * @param stopwordsReader  a java.io.Reader input stream containing list of stopwords
+     */
+    public abstract AbstractSpellChecker create(Reader dictionaryReader, Reader stopwordsReader);
+}
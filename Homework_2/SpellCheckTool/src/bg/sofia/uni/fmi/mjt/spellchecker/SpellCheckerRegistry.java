@@ -0,0 +1,96 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.index.WordAutomaton;
+
+import java.io.Reader;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of spell checkers for many tenants over a few shared dictionaries, e.g. one per language.
+ * A base dictionary is loaded once into an {@link IndexedSpellChecker}, which is never handed out. Every tenant
+ * gets its own checker which shares the index and the word automaton of its base and the per-thread working
+ * memory of its scorers, and keeps only its added and removed words and its stop words. The memory of a tenant
+ * grows with the size of its overlay, not with the size of the base.
+ * The registry is thread-safe.
+ */
+public class SpellCheckerRegistry implements Verifications {
+    private final ConcurrentMap<String, IndexedSpellChecker> bases = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, IndexedSpellChecker> tenants = new ConcurrentHashMap<>();
+
+    /**
+     * Loads a base dictionary, which tenants can be created from afterwards
+     *
+     * @param baseName         the name of the base, e.g. the language of the dictionary
+     * @param dictionaryReader a java.io.Reader input stream containing list of words
+     * @param stopwordsReader  a java.io.Reader input stream containing the default stop words of the tenants
+     */
+    public void registerBase(String baseName, Reader dictionaryReader, Reader stopwordsReader) {
+        verifyNullName(baseName, "Base name is null");
+        if (bases.containsKey(baseName)) {
+            throw new IllegalArgumentException("Base " + baseName + " is already registered");
+        }
+        IndexedSpellChecker base = new IndexedSpellChecker(dictionaryReader, stopwordsReader);
+        if (bases.putIfAbsent(baseName, base) != null) {
+            throw new IllegalArgumentException("Base " + baseName + " is already registered");
+        }
+    }
+
+    /**
+     * Creates the spell checker of a tenant from a registered base. The returned checker can be changed with
+     * {@link AbstractSpellChecker#addWords(Collection)} and {@link AbstractSpellChecker#removeWords(Collection)}
+     * without affecting the base or the other tenants.
+     *
+     * @param tenantName      the name of the tenant
+     * @param baseName        the name of a registered base
+     * @param words           the words the tenant adds to the base dictionary
+     * @param stopwordsReader the stop words of the tenant, or null to use the stop words of the base
+     * @return the spell checker of the tenant
+     */
+    public IndexedSpellChecker registerTenant(String tenantName, String baseName, Collection<String> words,
+                                              Reader stopwordsReader) {
+        verifyNullName(tenantName, "Tenant name is null");
+        verifyNullName(baseName, "Base name is null");
+        IndexedSpellChecker base = bases.get(baseName);
+        if (base == null) {
+            throw new IllegalArgumentException("Base " + baseName + " is not registered");
+        }
+        WordAutomaton stopwords = stopwordsReader == null
+                ? base.stopwords()
+                : WordAutomaton.build(AbstractSpellChecker.readStopwords(stopwordsReader));
+        IndexedSpellChecker tenant = new IndexedSpellChecker(base, stopwords);
+        tenant.addWords(words);
+        if (tenants.putIfAbsent(tenantName, tenant) != null) {
+            throw new IllegalArgumentException("Tenant " + tenantName + " is already registered");
+        }
+        return tenant;
+    }
+
+    /**
+     * Returns the spell checker of {@code tenantName}, or null if there is no such tenant
+     */
+    public IndexedSpellChecker tenant(String tenantName) {
+        verifyNullName(tenantName, "Tenant name is null");
+        return tenants.get(tenantName);
+    }
+
+    /**
+     * Removes a tenant, the checkers already handed out keep working
+     *
+     * @return whether the tenant was registered
+     */
+    public boolean removeTenant(String tenantName) {
+        verifyNullName(tenantName, "Tenant name is null");
+        return tenants.remove(tenantName) != null;
+    }
+
+    public Set<String> baseNames() {
+        return Set.copyOf(bases.keySet());
+    }
+
+    public Set<String> tenantNames() {
+        return Set.copyOf(tenants.keySet());
+    }
+}
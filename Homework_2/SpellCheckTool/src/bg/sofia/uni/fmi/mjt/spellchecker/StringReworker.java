@@ -5,10 +5,7 @@ import java.util.Map;
 
 public interface StringReworker {
     default String cleanUpString(String toClean) {
-        return toClean.toLowerCase()
-                .trim()
-                .replaceAll("^[^a-zA-Z0-9\\s]+|[^a-zA-Z0-9\\s]+$", "");
-
+        return Tokenizer.normalize(toClean);
     }
 
     default Map<String, Integer> getWordGrams(String word) {
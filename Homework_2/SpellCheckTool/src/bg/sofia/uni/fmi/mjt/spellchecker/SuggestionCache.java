@@ -0,0 +1,281 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Bounded cache of the suggestions of a spell checker, keyed by the normalized misspelled word and the number of
+ * suggestions. The entries are spread over independently locked segments, each of which evicts by the configured
+ * {@link EvictionPolicy} once it is full, so the cache can be used by any number of threads.
+ * Two threads missing the same key at the same time both compute the suggestions, the second result replaces the
+ * first one.
+ * <p>
+ * A cache is created by {@link AbstractSpellChecker#enableSuggestionCache(int, EvictionPolicy)} and invalidated by
+ * its spell checker whenever the dictionary changes. Suggestions computed against the old dictionary,
+ * which are still being computed while it is invalidated, are never stored.
+ */
+public final class SuggestionCache {
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
+    private final int capacity;
+    private final EvictionPolicy policy;
+    private final Segment[] segments;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * How a full cache chooses the entry to drop
+     */
+    public enum EvictionPolicy {
+        /**
+         * Drops the least recently used entry
+         */
+        LRU,
+        /**
+         * Drops the least frequently used entry, the least recently used one among equally frequent entries
+         */
+        LFU
+    }
+
+    /**
+     * Snapshot of the counters of a cache. The counters are read one by one, so a snapshot taken while the cache is
+     * in use is only approximately consistent.
+     *
+     * @param hits      the lookups answered from the cache
+     * @param misses    the lookups which had to compute the suggestions
+     * @param evictions the entries dropped to make room for new ones
+     * @param size      the number of entries in the cache
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+        /**
+         * Returns the fraction of the lookups answered from the cache, 0 if there were no lookups
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private record Key(String word, int n) {
+    }
+
+    private static final class LfuEntry {
+        private List<String> suggestions;
+        private int frequency;
+
+        private LfuEntry(List<String> suggestions) {
+            this.suggestions = suggestions;
+        }
+    }
+
+    SuggestionCache(int capacity, EvictionPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Eviction policy is null");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        int segmentCount = Math.max(1, Math.min(MAX_SEGMENTS, capacity / MIN_SEGMENT_CAPACITY));
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int segmentCapacity = capacity / segmentCount + (i < capacity % segmentCount ? 1 : 0);
+            segments[i] = policy == EvictionPolicy.LRU ? new LruSegment(segmentCapacity)
+                    : new LfuSegment(segmentCapacity);
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public EvictionPolicy policy() {
+        return policy;
+    }
+
+    public Stats stats() {
+        int size = 0;
+        for (Segment curr : segments) {
+            size += curr.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    /**
+     * Returns the cached suggestions for {@code cleanedWord}, computing and caching them with {@code loader}
+     * if they are missing
+     *
+     * @return an unmodifiable list of suggestions
+     */
+    List<String> get(String cleanedWord, int n, BiFunction<String, Integer, List<String>> loader) {
+        Key key = new Key(cleanedWord, n);
+        Segment segment = segments[Math.floorMod(spread(key.hashCode()), segments.length)];
+        long loadGeneration = generation.get();
+        List<String> suggestions = segment.get(key);
+        if (suggestions != null) {
+            hits.increment();
+            return suggestions;
+        }
+        misses.increment();
+        suggestions = List.copyOf(loader.apply(cleanedWord, n));
+        segment.put(key, suggestions, loadGeneration);
+        return suggestions;
+    }
+
+    /**
+     * Drops all entries. Loads which started before the call do not store their results.
+     */
+    void invalidate() {
+        generation.incrementAndGet();
+        for (Segment curr : segments) {
+            curr.clear();
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private abstract class Segment {
+        protected final int capacity;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        abstract List<String> get(Key key);
+
+        /**
+         * Stores {@code suggestions} unless the cache was invalidated since {@code loadGeneration}
+         */
+        final synchronized void put(Key key, List<String> suggestions, long loadGeneration) {
+            if (generation.get() == loadGeneration) {
+                store(key, suggestions);
+            }
+        }
+
+        protected abstract void store(Key key, List<String> suggestions);
+
+        abstract void clear();
+
+        abstract int size();
+    }
+
+    private final class LruSegment extends Segment {
+        private final LinkedHashMap<Key, List<String>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        LruSegment(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        synchronized List<String> get(Key key) {
+            return entries.get(key);
+        }
+
+        @Override
+        protected void store(Key key, List<String> suggestions) {
+            if (entries.put(key, suggestions) == null && entries.size() > capacity) {
+                Key eldest = entries.keySet().iterator().next();
+                entries.remove(eldest);
+                evictions.increment();
+            }
+        }
+
+        @Override
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        @Override
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Constant time LFU: every entry knows its use count and the keys are grouped by use count,
+     * in the order of their last use
+     */
+    private final class LfuSegment extends Segment {
+        private final Map<Key, LfuEntry> entries = new HashMap<>();
+        private final Map<Integer, LinkedHashSet<Key>> keysByFrequency = new HashMap<>();
+        private int minFrequency;
+
+        LfuSegment(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        synchronized List<String> get(Key key) {
+            LfuEntry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            touch(key, entry);
+            return entry.suggestions;
+        }
+
+        @Override
+        protected void store(Key key, List<String> suggestions) {
+            LfuEntry entry = entries.get(key);
+            if (entry != null) {
+                entry.suggestions = suggestions;
+                touch(key, entry);
+                return;
+            }
+            if (entries.size() == capacity) {
+                LinkedHashSet<Key> leastFrequent = keysByFrequency.get(minFrequency);
+                Key evicted = leastFrequent.iterator().next();
+                removeKey(evicted, minFrequency);
+                entries.remove(evicted);
+                evictions.increment();
+            }
+            entry = new LfuEntry(suggestions);
+            entries.put(key, entry);
+            touch(key, entry);
+            minFrequency = 1;
+        }
+
+        private void touch(Key key, LfuEntry entry) {
+            if (entry.frequency > 0) {
+                removeKey(key, entry.frequency);
+                if (entry.frequency == minFrequency && !keysByFrequency.containsKey(minFrequency)) {
+                    minFrequency++;
+                }
+            }
+            entry.frequency++;
+            keysByFrequency.computeIfAbsent(entry.frequency, frequency -> new LinkedHashSet<>()).add(key);
+        }
+
+        private void removeKey(Key key, int frequency) {
+            LinkedHashSet<Key> keys = keysByFrequency.get(frequency);
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByFrequency.remove(frequency);
+            }
+        }
+
+        @Override
+        synchronized void clear() {
+            entries.clear();
+            keysByFrequency.clear();
+            minFrequency = 0;
+        }
+
+        @Override
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
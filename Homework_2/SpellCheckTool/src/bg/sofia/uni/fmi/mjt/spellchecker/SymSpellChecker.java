@@ -0,0 +1,108 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.index.DeletionIndex;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.OverlayAutomaton;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.OverlayDeletionIndex;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.WordAutomaton;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Spell checker which suggests the dictionary words with the smallest edit distance instead of the ones with the
+ * most similar bigram vectors. Suggestions come from a precomputed {@link DeletionIndex}, so only the few words
+ * sharing a delete with the misspelled word are ever compared to it. Words further than the maximum edit distance
+ * are never suggested. Dictionary membership is answered by a {@link WordAutomaton} of the same words.
+ * <p>
+ * Added and removed words are kept in a small {@link OverlayDeletionIndex} and {@link OverlayAutomaton} on top of
+ * the index and the automaton, which are rebuilt on every change. Once an overlay grows past a fraction of its base,
+ * both are folded into a new base.
+ */
+public class SymSpellChecker extends AbstractSpellChecker {
+    public static final int DEFAULT_MAX_EDIT_DISTANCE = 2;
+    private static final int PREFIX_LENGTH = 7;
+
+    private volatile Dictionary dictionary;
+
+    /**
+     * A published version of the dictionary
+     */
+    private record Dictionary(OverlayDeletionIndex index, OverlayAutomaton words) {
+        private Dictionary withChanges(OverlayDeletionIndex changedIndex, OverlayAutomaton changedWords) {
+            if (isOverlayTooLarge(changedIndex.overlaySize(), changedIndex.base().wordCount())) {
+                return new Dictionary(OverlayDeletionIndex.of(changedIndex.compacted()),
+                        OverlayAutomaton.of(changedWords.compacted()));
+            }
+            return new Dictionary(changedIndex, changedWords);
+        }
+    }
+
+    /**
+     * Creates a new instance of SymSpellChecker which suggests words up to {@link #DEFAULT_MAX_EDIT_DISTANCE} edits
+     * away, based on a dictionary of words and stop words
+     *
+     * @param dictionaryReader a java.io.Reader input stream containing list of words which
+     *                         will serve as a dictionary for the tool
+     * @param stopwordsReader  a java.io.Reader input stream containing list of stopwords
+     */
+    public SymSpellChecker(Reader dictionaryReader, Reader stopwordsReader) {
+        this(dictionaryReader, stopwordsReader, DEFAULT_MAX_EDIT_DISTANCE);
+    }
+
+    /**
+     * Creates a new instance of SymSpellChecker, based on a dictionary of words and stop words
+     *
+     * @param dictionaryReader a java.io.Reader input stream containing list of words which
+     *                         will serve as a dictionary for the tool
+     * @param stopwordsReader  a java.io.Reader input stream containing list of stopwords
+     * @param maxEditDistance  the largest edit distance of a suggestion, smaller than 7
+     */
+    public SymSpellChecker(Reader dictionaryReader, Reader stopwordsReader, int maxEditDistance) {
+        super(dictionaryReader, stopwordsReader);
+        if (maxEditDistance < 0 || maxEditDistance >= PREFIX_LENGTH) {
+            throw new IllegalArgumentException("Maximum edit distance must be between 0 and " + (PREFIX_LENGTH - 1));
+        }
+        String[] cleanedWords = reworkDictionary(dictionaryReader);
+        dictionary = new Dictionary(OverlayDeletionIndex.of(DeletionIndex.build(cleanedWords, maxEditDistance,
+                PREFIX_LENGTH)), OverlayAutomaton.of(WordAutomaton.build(cleanedWords)));
+    }
+
+    @Override
+    public List<String> findClosestWords(String word, int n) {
+        validateNullWord(word);
+        validateSuggestedWords(n);
+        return dictionary.index().findClosestWords(cleanUpString(word), n);
+    }
+
+    @Override
+    protected boolean isDictionaryWord(String word) {
+        return dictionary.words().contains(word);
+    }
+
+    @Override
+    protected void addDictionaryWords(String[] cleanedWords) {
+        Dictionary current = dictionary;
+        dictionary = current.withChanges(current.index().withAddedWords(cleanedWords),
+                current.words().withAddedWords(cleanedWords));
+    }
+
+    @Override
+    protected void removeDictionaryWords(String[] cleanedWords) {
+        Dictionary current = dictionary;
+        dictionary = current.withChanges(current.index().withRemovedWords(cleanedWords),
+                current.words().withRemovedWords(cleanedWords));
+    }
+
+    private String[] reworkDictionary(Reader dictionaryReader) {
+        try (var bufferedReader = new BufferedReader(dictionaryReader)) {
+            return bufferedReader.lines()
+                    .map(this::cleanUpString)
+                    .filter(x -> x.length() > 1)
+                    .toArray(String[]::new);
+        } catch (IOException exception) {
+            throw new IllegalStateException("An error occurred when reading from dictionary", exception);
+        }
+    }
+}
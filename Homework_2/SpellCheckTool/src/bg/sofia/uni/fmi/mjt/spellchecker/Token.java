@@ -0,0 +1,11 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+/**
+ * A normalized word of a text together with its position.
+ *
+ * @param word   the cleaned up word
+ * @param line   the number of the line the word is on, starting from 1
+ * @param column the position of the first character of the whitespace-delimited token in the line, starting from 1
+ */
+record Token(String word, int line, int column) {
+}
@@ -0,0 +1,103 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import java.util.function.Consumer;
+
+/**
+ * Single-pass, regex-free tokenizer. A line is scanned once: whitespace (the characters matched by {@code \s})
+ * separates the tokens, every token is normalized like {@link StringReworker#cleanUpString(String)} and the
+ * non-whitespace characters are counted along the way.
+ */
+final class Tokenizer {
+    private Tokenizer() {
+    }
+
+    /**
+     * Emits the non-empty normalized tokens of {@code line} to {@code tokens}, in the order in which they appear
+     *
+     * @param line       the line to scan
+     * @param lineNumber the number of the line, recorded in every token
+     * @param tokens     receives the tokens
+     * @return the number of non-whitespace characters in the line
+     */
+    static int tokenize(String line, int lineNumber, Consumer<Token> tokens) {
+        int characters = 0;
+        int length = line.length();
+        int position = 0;
+        while (position < length) {
+            while (position < length && isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            int start = position;
+            boolean ascii = true;
+            while (position < length && !isWhitespace(line.charAt(position))) {
+                ascii &= line.charAt(position) < 0x80;
+                position++;
+            }
+            characters += position - start;
+            if (start == position) {
+                continue;
+            }
+            String word = ascii ? normalizeAscii(line, start, position) : normalize(line.substring(start, position));
+            if (!word.isEmpty()) {
+                tokens.accept(new Token(word, lineNumber, start + 1));
+            }
+        }
+        return characters;
+    }
+
+    /**
+     * Lower cases {@code text}, trims it and strips the characters which are neither ASCII letters and digits
+     * nor whitespace from both of its ends
+     */
+    static String normalize(String text) {
+        String lowerCase = text.toLowerCase();
+        int start = 0;
+        int end = lowerCase.length();
+        while (start < end && lowerCase.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && lowerCase.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        while (start < end && isStripped(lowerCase.charAt(start))) {
+            start++;
+        }
+        while (end > start && isStripped(lowerCase.charAt(end - 1))) {
+            end--;
+        }
+        return lowerCase.substring(start, end);
+    }
+
+    private static String normalizeAscii(String line, int start, int end) {
+        while (start < end && !isLetterOrDigit(line.charAt(start))) {
+            start++;
+        }
+        while (end > start && !isLetterOrDigit(line.charAt(end - 1))) {
+            end--;
+        }
+        for (int i = start; i < end; i++) {
+            if (line.charAt(i) >= 'A' && line.charAt(i) <= 'Z') {
+                char[] lowerCase = new char[end - start];
+                for (int j = start; j < end; j++) {
+                    char curr = line.charAt(j);
+                    lowerCase[j - start] = curr >= 'A' && curr <= 'Z' ? (char) (curr + ('a' - 'A')) : curr;
+                }
+                return new String(lowerCase);
+            }
+        }
+        return line.substring(start, end);
+    }
+
+    private static boolean isStripped(char symbol) {
+        return !isLetterOrDigit(symbol) && !isWhitespace(symbol);
+    }
+
+    private static boolean isLetterOrDigit(char symbol) {
+        return symbol >= 'a' && symbol <= 'z' || symbol >= 'A' && symbol <= 'Z' || symbol >= '0' && symbol <= '9';
+    }
+
+    private static boolean isWhitespace(char symbol) {
+        return symbol == ' ' || symbol == '\t' || symbol == '\n' || symbol == '\u000B' || symbol == '\f'
+                || symbol == '\r';
+    }
+}
@@ -1,6 +1,10 @@
 package bg.sofia.uni.fmi.mjt.spellchecker;
 
+import java.io.IOException;
 import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
 
 public interface Verifications {
     default void verifyNullDictionary(Reader dictionaryReader) {
@@ -37,4 +41,34 @@ public interface Verifications {
             throw new IllegalArgumentException(exceptionMessage);
         }
     }
+
+    default void verifyNullFile(Path file, String exceptionMessage) {
+        if (file == null) {
+            throw new IllegalArgumentException(exceptionMessage);
+        }
+    }
+
+    default void verifyDifferentFiles(Path text, Path output) {
+        try {
+            if (text.equals(output) || Files.exists(text) && Files.exists(output) && Files.isSameFile(text, output)) {
+                String exceptionMessage = "Text and output are the same file";
+                throw new IllegalArgumentException(exceptionMessage);
+            }
+        } catch (IOException exception) {
+            throw new IllegalStateException("An error occurred when comparing the text and output files", exception);
+        }
+    }
+
+    default void verifyNullPool(ForkJoinPool pool) {
+        if (pool == null) {
+            String exceptionMessage = "Pool is null";
+            throw new IllegalArgumentException(exceptionMessage);
+        }
+    }
+
+    default void verifyNullName(String name, String exceptionMessage) {
+        if (name == null) {
+            throw new IllegalArgumentException(exceptionMessage);
+        }
+    }
 }
@@ -0,0 +1,223 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+/**
+ * Dense, one bit per gram bigram vectors of the words of a {@link BigramIndex}, stored transposed for scoring many
+ * words at once with SIMD lanes.
+ * The words of every length partition of the index, see {@link BigramIndex#partition(int)}, are numbered in word id
+ * order. For every gram of a partition there is a
+ * bitmap over those numbers with the words which have the gram, and a gram which occurs up to k times in a word of
+ * the partition has k such layers: layer j marks the words with at least j occurrences, so the count of a gram in
+ * a word is the number of layers marking it. The dot product of the query with every word of the partition is then
+ * the sum of the layers of the query grams, each weighted by the count of its gram in the query.
+ * <p>
+ * The bitmaps are scored one block of {@link #BLOCK_WORDS} words at a time, one long per 64 words. The weighted
+ * layers of a block are summed into bit planes - plane i holds bit i of the dot product of every word of the block -
+ * with carry-save additions, and the words whose dot product is above a threshold are picked out of the planes with
+ * a bitwise comparison. Both steps are plain AND, OR and XOR over the longs of the block, which the
+ * jdk.incubator.vector API runs in SIMD lanes when {@link #isVectorSupported()} and a scalar loop runs otherwise.
+ * The vector kernel is compiled from the optional vector source folder, so the module builds and runs without it.
+ * The dot products are exact, the same as the ones accumulated from the postings.
+ * <p>
+ * Instances are immutable and can be shared by all scorers of the same index.
+ */
+public final class BigramBitmaps {
+    /**
+     * The number of longs of a bitmap scored at once, as many as fit in a 512-bit vector
+     */
+    public static final int BLOCK_LONGS = 8;
+    public static final int BLOCK_WORDS = BLOCK_LONGS * Long.SIZE;
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "bg.sofia.uni.fmi.mjt.spellchecker.index.VectorBitmaps";
+    private static final int MIN_VECTOR_LANES = 4;
+    private static final BlockKernel KERNEL = loadVectorKernel();
+
+    private final BigramIndex index;
+    private final int[][] partitionWords; // partition -> ids of its words, in ascending order
+    private final int[] layerStarts; // (gram id, partition) -> first long of the first layer of the gram
+    private final long[][] partitionLayers; // partition -> the layers of all grams of the partition
+
+    private BigramBitmaps(BigramIndex index, int[][] partitionWords, int[] layerStarts, long[][] partitionLayers) {
+        this.index = index;
+        this.partitionWords = partitionWords;
+        this.layerStarts = layerStarts;
+        this.partitionLayers = partitionLayers;
+    }
+
+    /**
+     * Returns whether blocks are scored with vector instructions: the vector kernel is compiled, the
+     * jdk.incubator.vector module is resolved, e.g. with {@code --add-modules jdk.incubator.vector}, and the
+     * preferred long vector has at least 4 lanes, as with AVX2 or AVX-512
+     */
+    public static boolean isVectorSupported() {
+        return KERNEL != null;
+    }
+
+    /**
+     * Builds the bitmaps of the words of {@code index}
+     *
+     * @param index the index whose words are laid out, which is not kept up to date with the bitmaps
+     */
+    public static BigramBitmaps build(BigramIndex index) {
+        if (index == null) {
+            throw new IllegalArgumentException("Index is null");
+        }
+        int stride = index.lastPartition() + 2;
+        int[] partitionSizes = new int[stride];
+        int[] positions = new int[index.wordCount()]; // word id -> number within its partition
+        int[] wordPartitions = new int[index.wordCount()];
+        for (int wordId = 0; wordId < index.wordCount(); wordId++) {
+            int length = 1;
+            for (int i = index.wordGramStart(wordId); i < index.wordGramEnd(wordId); i++) {
+                length += index.wordGramCount(i);
+            }
+            wordPartitions[wordId] = BigramIndex.partition(length);
+            positions[wordId] = partitionSizes[wordPartitions[wordId]]++;
+        }
+        int[][] partitionWords = new int[stride][];
+        for (int partition = 0; partition < stride; partition++) {
+            partitionWords[partition] = new int[partitionSizes[partition]];
+        }
+        for (int wordId = 0; wordId < index.wordCount(); wordId++) {
+            partitionWords[wordPartitions[wordId]][positions[wordId]] = wordId;
+        }
+
+        int[] layerStarts = new int[index.gramCount() * stride];
+        int[] partitionLongs = new int[stride];
+        for (int gramId = 0; gramId < index.gramCount(); gramId++) {
+            for (int partition = 2; partition < stride; partition++) {
+                layerStarts[gramId * stride + partition] = partitionLongs[partition];
+                partitionLongs[partition] += index.maxGramCount(gramId, partition)
+                        * bitmapLongs(partitionSizes[partition]);
+            }
+        }
+        long[][] partitionLayers = new long[stride][];
+        for (int partition = 0; partition < stride; partition++) {
+            partitionLayers[partition] = new long[partitionLongs[partition]];
+        }
+        for (int gramId = 0; gramId < index.gramCount(); gramId++) {
+            for (int partition = 2; partition < stride; partition++) {
+                int layerLongs = bitmapLongs(partitionSizes[partition]);
+                int end = index.postingStart(gramId, partition + 1);
+                for (int position = index.postingStart(gramId, partition); position < end; position++) {
+                    int bit = positions[index.postingWord(position)];
+                    int layerStart = layerStarts[gramId * stride + partition];
+                    for (int layer = 0; layer < index.postingCount(position); layer++) {
+                        partitionLayers[partition][layerStart + layer * layerLongs + bit / Long.SIZE] |= 1L << bit;
+                    }
+                }
+            }
+        }
+        return new BigramBitmaps(index, partitionWords, layerStarts, partitionLayers);
+    }
+
+    public BigramIndex index() {
+        return index;
+    }
+
+    /**
+     * Returns the number of blocks of the words of {@code partition}
+     */
+    public int blockCount(int partition) {
+        return bitmapLongs(partitionWords[partition].length) / BLOCK_LONGS;
+    }
+
+    /**
+     * Returns the id of the word with the given number within {@code partition}
+     */
+    public int word(int partition, int number) {
+        return partitionWords[partition][number];
+    }
+
+    /**
+     * Returns the position of the first long of layer {@code layer} of {@code gramId} in {@code partition}.
+     * The gram has {@link BigramIndex#maxGramCount(int, int)} layers in the partition.
+     */
+    public int layerStart(int gramId, int partition, int layer) {
+        return layerStarts[gramId * (index.lastPartition() + 2) + partition]
+                + layer * bitmapLongs(partitionWords[partition].length);
+    }
+
+    /**
+     * Sums weighted layers of a block of {@code partition} into bit planes and picks out the words whose sum is above
+     * {@code limit}
+     *
+     * @param partition    the partition of the words of the block
+     * @param block        the block within the partition
+     * @param layers       the starts of the layers to sum, see {@link #layerStart(int, int, int)}
+     * @param weights      the weight of every layer
+     * @param layersCount  the number of layers to sum
+     * @param planesCount  the number of bit planes, enough to hold the largest possible sum
+     * @param limit        the sum the words must exceed
+     * @param planes       output array of {@code planesCount} planes of {@link #BLOCK_LONGS} longs
+     * @param above        output array of {@link #BLOCK_LONGS} longs marking the words whose sum is above the limit
+     * @return whether any word of the block is above {@code limit}
+     */
+    boolean sumLayers(int partition, int block, int[] layers, int[] weights, int layersCount, int planesCount,
+                      int limit, long[] planes, long[] above) {
+        long[] bitmaps = partitionLayers[partition];
+        int offset = block * BLOCK_LONGS;
+        if (KERNEL != null) {
+            return KERNEL.sumLayers(bitmaps, offset, layers, weights, layersCount, planesCount, limit, planes, above);
+        }
+        boolean aboveLimit = false;
+        for (int lane = 0; lane < BLOCK_LONGS; lane++) {
+            for (int plane = 0; plane < planesCount; plane++) {
+                planes[plane * BLOCK_LONGS + lane] = 0;
+            }
+            for (int layer = 0; layer < layersCount; layer++) {
+                long bits = bitmaps[layers[layer] + offset + lane];
+                for (int weightBit = 0; weights[layer] >>> weightBit != 0; weightBit++) {
+                    if ((weights[layer] >>> weightBit & 1) == 0) {
+                        continue;
+                    }
+                    long carry = bits;
+                    for (int plane = weightBit; plane < planesCount; plane++) {
+                        long sum = planes[plane * BLOCK_LONGS + lane];
+                        planes[plane * BLOCK_LONGS + lane] = sum ^ carry;
+                        carry &= sum;
+                    }
+                }
+            }
+            long greater = 0;
+            long equal = -1L;
+            for (int plane = planesCount - 1; plane >= 0; plane--) {
+                long bits = planes[plane * BLOCK_LONGS + lane];
+                if ((limit >>> plane & 1) == 0) {
+                    greater |= equal & bits;
+                    equal &= ~bits;
+                } else {
+                    equal &= bits;
+                }
+            }
+            above[lane] = greater;
+            aboveLimit |= greater != 0;
+        }
+        return aboveLimit;
+    }
+
+    /**
+     * Loads the vector kernel, or returns null if the module is not resolved, the kernel is not compiled or the
+     * vectors are too narrow to pay off
+     */
+    private static BlockKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            BlockKernel kernel = Class.forName(VECTOR_KERNEL).asSubclass(BlockKernel.class)
+                    .getDeclaredConstructor()
+                    .newInstance();
+            return kernel.lanes() >= MIN_VECTOR_LANES ? kernel : null;
+        } catch (ReflectiveOperationException | LinkageError exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the number of longs of a bitmap over {@code words} words, padded to whole blocks
+     */
+    private static int bitmapLongs(int words) {
+        return (words + BLOCK_WORDS - 1) / BLOCK_WORDS * BLOCK_LONGS;
+    }
+}
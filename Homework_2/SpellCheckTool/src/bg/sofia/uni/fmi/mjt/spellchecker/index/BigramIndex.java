@@ -0,0 +1,521 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+/**
+ * Packed, primitive-only bigram index over a dictionary of already cleaned up words.
+ * Words are kept sorted, so a word id is its position in the concatenated {@link #wordChars}. Every bigram is packed
+ * into a single int (first char in the high 16 bits, second char in the low 16 bits) and mapped to a
+ * dense gram id through the sorted {@link #gramKeys} array.
+ * Both directions are stored in CSR layout:
+ * gram id -> (word id, gram count) postings and word id -> (gram id, gram count) vectors.
+ * The postings of every gram are partitioned by word length (ordered by length, then by word id), so a scorer
+ * can walk only the words of a given length. Words longer than {@link #MAX_PARTITIONED_LENGTH} characters are rare
+ * and share the last partition, so the partition tables stay small whatever the longest word is. For every
+ * partition the index keeps the smallest vector length and, per gram, the largest count of that gram, which bound
+ * the similarity any word of that partition can reach.
+ * The euclidean length of every word vector is computed once at build time.
+ * <p>
+ * All sections are primitive buffers: an index built in memory wraps heap arrays, while an index read from a
+ * {@link DictionarySnapshot} is a set of views over the mapped file, so nothing is copied to the heap.
+ */
+public final class BigramIndex {
+    /**
+     * The longest word length with a partition of its own, longer words share the partition of this length
+     */
+    public static final int MAX_PARTITIONED_LENGTH = 32;
+
+    private static final int ALIGNMENT = Double.BYTES;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+
+    private final int wordCount;
+    private final IntBuffer wordOffsets; // word id -> range in wordChars
+    private final CharBuffer wordChars;
+    private final IntBuffer gramKeys;
+
+    private final int maxWordLength;
+    private final int lastPartition;
+    private final IntBuffer partitionOffsets; // (gram id, partition) -> first posting of that partition
+    private final ShortBuffer partitionMaxCounts; // (gram id, partition) -> largest count in those postings
+    private final IntBuffer postingWords;
+    private final ShortBuffer postingCounts;
+
+    private final IntBuffer wordGramOffsets; // word id -> range in wordGramIds/wordGramCounts
+    private final IntBuffer wordGramIds;
+    private final ShortBuffer wordGramCounts;
+    private final DoubleBuffer wordLengths;
+
+    private final DoubleBuffer partitionMinWordLengths; // partition -> smallest vector length
+
+    private BigramIndex(int maxWordLength, IntBuffer wordOffsets, CharBuffer wordChars, IntBuffer gramKeys,
+                        IntBuffer partitionOffsets, ShortBuffer partitionMaxCounts,
+                        IntBuffer postingWords, ShortBuffer postingCounts,
+                        IntBuffer wordGramOffsets, IntBuffer wordGramIds, ShortBuffer wordGramCounts,
+                        DoubleBuffer wordLengths, DoubleBuffer partitionMinWordLengths) {
+        this.wordCount = wordOffsets.capacity() - 1;
+        this.maxWordLength = maxWordLength;
+        this.lastPartition = partition(maxWordLength);
+        this.wordOffsets = wordOffsets;
+        this.wordChars = wordChars;
+        this.gramKeys = gramKeys;
+        this.partitionOffsets = partitionOffsets;
+        this.partitionMaxCounts = partitionMaxCounts;
+        this.postingWords = postingWords;
+        this.postingCounts = postingCounts;
+        this.wordGramOffsets = wordGramOffsets;
+        this.wordGramIds = wordGramIds;
+        this.wordGramCounts = wordGramCounts;
+        this.wordLengths = wordLengths;
+        this.partitionMinWordLengths = partitionMinWordLengths;
+    }
+
+    /**
+     * Builds an index over {@code dictionaryWords}. The words are expected to be cleaned up already,
+     * duplicates are dropped.
+     *
+     * @param dictionaryWords the words of the dictionary
+     * @return the built index
+     */
+    public static BigramIndex build(String[] dictionaryWords) {
+        if (dictionaryWords == null) {
+            throw new IllegalArgumentException("Dictionary words are null");
+        }
+        String[] words = sortedDistinct(dictionaryWords);
+
+        int maxLength = 0;
+        int totalGrams = 0;
+        int totalChars = 0;
+        for (String curr : words) {
+            maxLength = Math.max(maxLength, curr.length());
+            totalGrams += Math.max(curr.length() - 1, 0);
+            totalChars += curr.length();
+        }
+
+        int[] wordOffsets = new int[words.length + 1];
+        char[] wordChars = new char[totalChars];
+        int[] wordGramOffsets = new int[words.length + 1];
+        int[] wordGramKeys = new int[totalGrams];
+        short[] wordGramCounts = new short[totalGrams];
+        int[] scratchKeys = new int[maxLength];
+        int[] scratchCounts = new int[maxLength];
+        int size = 0;
+        for (int wordId = 0; wordId < words.length; wordId++) {
+            words[wordId].getChars(0, words[wordId].length(), wordChars, wordOffsets[wordId]);
+            wordOffsets[wordId + 1] = wordOffsets[wordId] + words[wordId].length();
+            int distinct = collectGrams(words[wordId], scratchKeys, scratchCounts);
+            for (int i = 0; i < distinct; i++) {
+                wordGramKeys[size] = scratchKeys[i];
+                wordGramCounts[size] = toShortCount(scratchCounts[i]);
+                size++;
+            }
+            wordGramOffsets[wordId + 1] = size;
+        }
+
+        int[] gramKeys = sortedDistinct(Arrays.copyOf(wordGramKeys, size));
+        int stride = partition(maxLength) + 2;
+        int[] wordGramIds = new int[size];
+        int[] partitionOffsets = new int[partitionSlots(gramKeys.length, maxLength)];
+        for (int wordId = 0; wordId < words.length; wordId++) {
+            for (int i = wordGramOffsets[wordId]; i < wordGramOffsets[wordId + 1]; i++) {
+                wordGramIds[i] = Arrays.binarySearch(gramKeys, wordGramKeys[i]);
+                partitionOffsets[wordGramIds[i] * stride + partition(words[wordId].length()) + 1]++;
+            }
+        }
+        for (int i = 0; i < partitionOffsets.length - 1; i++) {
+            partitionOffsets[i + 1] += partitionOffsets[i];
+        }
+
+        int[] postingWords = new int[size];
+        short[] postingCounts = new short[size];
+        int[] fill = Arrays.copyOf(partitionOffsets, partitionOffsets.length);
+        for (int wordId = 0; wordId < words.length; wordId++) {
+            for (int i = wordGramOffsets[wordId]; i < wordGramOffsets[wordId + 1]; i++) {
+                int position = fill[wordGramIds[i] * stride + partition(words[wordId].length())]++;
+                postingWords[position] = wordId;
+                postingCounts[position] = wordGramCounts[i];
+            }
+        }
+
+        double[] wordLengths = new double[words.length];
+        double[] partitionMinWordLengths = new double[partition(maxLength) + 1];
+        short[] partitionMaxCounts = new short[partitionOffsets.length];
+        Arrays.fill(partitionMinWordLengths, Double.POSITIVE_INFINITY);
+        for (int wordId = 0; wordId < words.length; wordId++) {
+            int partition = partition(words[wordId].length());
+            double sum = 0;
+            for (int i = wordGramOffsets[wordId]; i < wordGramOffsets[wordId + 1]; i++) {
+                sum += (double) wordGramCounts[i] * wordGramCounts[i];
+                int slot = wordGramIds[i] * stride + partition;
+                partitionMaxCounts[slot] = (short) Math.max(partitionMaxCounts[slot], wordGramCounts[i]);
+            }
+            wordLengths[wordId] = Math.sqrt(sum);
+            partitionMinWordLengths[partition] = Math.min(partitionMinWordLengths[partition], wordLengths[wordId]);
+        }
+
+        return new BigramIndex(maxLength, IntBuffer.wrap(wordOffsets), CharBuffer.wrap(wordChars),
+                IntBuffer.wrap(gramKeys), IntBuffer.wrap(partitionOffsets), ShortBuffer.wrap(partitionMaxCounts),
+                IntBuffer.wrap(postingWords), ShortBuffer.wrap(postingCounts), IntBuffer.wrap(wordGramOffsets),
+                IntBuffer.wrap(wordGramIds), ShortBuffer.wrap(Arrays.copyOf(wordGramCounts, size)),
+                DoubleBuffer.wrap(wordLengths), DoubleBuffer.wrap(partitionMinWordLengths));
+    }
+
+    /**
+     * Packs the bigram formed by {@code first} and {@code second} into a single int.
+     */
+    public static int gramKey(char first, char second) {
+        return (first << Character.SIZE) | second;
+    }
+
+    /**
+     * Collects the distinct bigrams of {@code word} sorted by key, together with how many times each one occurs.
+     *
+     * @param word   the word to split into bigrams
+     * @param keys   output array for the packed bigrams, at least {@code word.length()} long
+     * @param counts output array for the bigram counts, at least {@code word.length()} long
+     * @return the number of distinct bigrams written to {@code keys} and {@code counts}
+     */
+    public static int collectGrams(String word, int[] keys, int[] counts) {
+        int grams = word.length() - 1;
+        if (grams <= 0) {
+            return 0;
+        }
+        for (int i = 0; i < grams; i++) {
+            keys[i] = gramKey(word.charAt(i), word.charAt(i + 1));
+        }
+        Arrays.sort(keys, 0, grams);
+        int distinct = 0;
+        for (int i = 0; i < grams; i++) {
+            if (distinct > 0 && keys[distinct - 1] == keys[i]) {
+                counts[distinct - 1]++;
+            } else {
+                keys[distinct] = keys[i];
+                counts[distinct] = 1;
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+
+    public int wordCount() {
+        return wordCount;
+    }
+
+    public int gramCount() {
+        return gramKeys.capacity();
+    }
+
+    public String word(int wordId) {
+        int start = wordOffsets.get(wordId);
+        return wordChars.slice(start, wordOffsets.get(wordId + 1) - start).toString();
+    }
+
+    /**
+     * Returns the id of {@code word}, or a negative number if it is not in the dictionary
+     */
+    public int wordId(String word) {
+        int low = 0;
+        int high = wordCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareWord(middle, word);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    public boolean containsWord(String word) {
+        return wordId(word) >= 0;
+    }
+
+    /**
+     * Returns the dense id of the packed bigram {@code gramKey}, or a negative number if no dictionary word has it
+     */
+    public int gramId(int gramKey) {
+        int low = 0;
+        int high = gramKeys.capacity() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int key = gramKeys.get(middle);
+            if (key < gramKey) {
+                low = middle + 1;
+            } else if (key > gramKey) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    public int maxWordLength() {
+        return maxWordLength;
+    }
+
+    /**
+     * Returns the partition of the words with {@code wordLength} characters: the length itself, or
+     * {@link #MAX_PARTITIONED_LENGTH} for longer words
+     */
+    public static int partition(int wordLength) {
+        return Math.min(wordLength, MAX_PARTITIONED_LENGTH);
+    }
+
+    /**
+     * Returns the partition of the longest words, partitions range from 0 to this one inclusive
+     */
+    public int lastPartition() {
+        return lastPartition;
+    }
+
+    /**
+     * Returns the length of the longest word {@code partition} can hold
+     */
+    public int maxWordLength(int partition) {
+        return partition == lastPartition ? maxWordLength : partition;
+    }
+
+    public int postingStart(int gramId) {
+        return postingStart(gramId, 0);
+    }
+
+    public int postingEnd(int gramId) {
+        return postingStart(gramId, lastPartition + 1);
+    }
+
+    /**
+     * Returns the position of the first posting of {@code gramId} whose word is in {@code partition} or a later one.
+     * The postings of the words of {@code partition} end at {@code postingStart(gramId, partition + 1)}.
+     *
+     * @param gramId    the id of the gram
+     * @param partition a partition between 0 and {@code lastPartition() + 1} inclusive
+     */
+    public int postingStart(int gramId, int partition) {
+        return partitionOffsets.get(gramId * (lastPartition + 2) + partition);
+    }
+
+    public int postingWord(int position) {
+        return postingWords.get(position);
+    }
+
+    public int postingCount(int position) {
+        return postingCounts.get(position);
+    }
+
+    public int wordGramStart(int wordId) {
+        return wordGramOffsets.get(wordId);
+    }
+
+    public int wordGramEnd(int wordId) {
+        return wordGramOffsets.get(wordId + 1);
+    }
+
+    public int wordGramId(int position) {
+        return wordGramIds.get(position);
+    }
+
+    public int wordGramCount(int position) {
+        return wordGramCounts.get(position);
+    }
+
+    /**
+     * Returns the euclidean length of the bigram vector of the word with id {@code wordId}
+     */
+    public double wordLength(int wordId) {
+        return wordLengths.get(wordId);
+    }
+
+    /**
+     * Returns the smallest vector length among the words of {@code partition},
+     * or positive infinity if there are no such words
+     */
+    public double minWordLength(int partition) {
+        return partitionMinWordLengths.get(partition);
+    }
+
+    /**
+     * Returns the largest number of times {@code gramId} occurs in a word of {@code partition}
+     */
+    public int maxGramCount(int gramId, int partition) {
+        return partitionMaxCounts.get(gramId * (lastPartition + 2) + partition);
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeTo(ByteBuffer)} needs
+     */
+    int serializedSize() {
+        int size = HEADER_BYTES;
+        for (Buffer curr : sections()) {
+            size = align(size) + curr.capacity() * elementSize(curr);
+        }
+        return size;
+    }
+
+    /**
+     * Writes the index to {@code target}, starting at its position. Every section is aligned to
+     * {@link #ALIGNMENT} bytes relative to the start of the index.
+     */
+    void writeTo(ByteBuffer target) {
+        ByteBuffer section = target.slice().order(target.order());
+        section.putInt(maxWordLength);
+        section.putInt(wordCount);
+        section.putInt(wordChars.capacity());
+        section.putInt(gramKeys.capacity());
+        section.putInt(postingWords.capacity());
+        for (Buffer curr : sections()) {
+            section.position(align(section.position()));
+            if (curr instanceof IntBuffer ints) {
+                section.asIntBuffer().put(ints.duplicate().clear());
+            } else if (curr instanceof ShortBuffer shorts) {
+                section.asShortBuffer().put(shorts.duplicate().clear());
+            } else if (curr instanceof CharBuffer chars) {
+                section.asCharBuffer().put(chars.duplicate().clear());
+            } else {
+                section.asDoubleBuffer().put(((DoubleBuffer) curr).duplicate().clear());
+            }
+            section.position(section.position() + curr.capacity() * elementSize(curr));
+        }
+        target.position(target.position() + section.position());
+    }
+
+    /**
+     * Reads an index written by {@link #writeTo(ByteBuffer)} from {@code source}, starting at its position.
+     * The sections of the returned index are views over {@code source}, nothing is copied.
+     */
+    static BigramIndex readFrom(ByteBuffer source) {
+        ByteBuffer section = source.slice().order(source.order());
+        int maxLength = section.getInt();
+        int words = section.getInt();
+        int chars = section.getInt();
+        int grams = section.getInt();
+        int postings = section.getInt();
+        IntBuffer wordOffsets = ints(section, words + 1);
+        CharBuffer wordChars = chars(section, chars);
+        IntBuffer gramKeys = ints(section, grams);
+        IntBuffer partitionOffsets = ints(section, partitionSlots(grams, maxLength));
+        ShortBuffer partitionMaxCounts = shorts(section, partitionOffsets.capacity());
+        IntBuffer postingWords = ints(section, postings);
+        ShortBuffer postingCounts = shorts(section, postings);
+        IntBuffer wordGramOffsets = ints(section, words + 1);
+        IntBuffer wordGramIds = ints(section, postings);
+        ShortBuffer wordGramCounts = shorts(section, postings);
+        DoubleBuffer wordLengths = doubles(section, words);
+        DoubleBuffer partitionMinWordLengths = doubles(section, partition(maxLength) + 1);
+        source.position(source.position() + section.position());
+        return new BigramIndex(maxLength, wordOffsets, wordChars, gramKeys, partitionOffsets, partitionMaxCounts,
+                postingWords, postingCounts, wordGramOffsets, wordGramIds, wordGramCounts, wordLengths,
+                partitionMinWordLengths);
+    }
+
+    /**
+     * Returns the sections in the order in which they are serialized
+     */
+    private Buffer[] sections() {
+        return new Buffer[] {
+            wordOffsets, wordChars, gramKeys, partitionOffsets, partitionMaxCounts, postingWords, postingCounts,
+            wordGramOffsets, wordGramIds, wordGramCounts, wordLengths, partitionMinWordLengths
+        };
+    }
+
+    private int compareWord(int wordId, String word) {
+        int start = wordOffsets.get(wordId);
+        int length = wordOffsets.get(wordId + 1) - start;
+        int common = Math.min(length, word.length());
+        for (int i = 0; i < common; i++) {
+            char curr = wordChars.get(start + i);
+            if (curr != word.charAt(i)) {
+                return curr - word.charAt(i);
+            }
+        }
+        return length - word.length();
+    }
+
+    private static IntBuffer ints(ByteBuffer source, int count) {
+        return view(source, count * Integer.BYTES).asIntBuffer();
+    }
+
+    private static ShortBuffer shorts(ByteBuffer source, int count) {
+        return view(source, count * Short.BYTES).asShortBuffer();
+    }
+
+    private static CharBuffer chars(ByteBuffer source, int count) {
+        return view(source, count * Character.BYTES).asCharBuffer();
+    }
+
+    private static DoubleBuffer doubles(ByteBuffer source, int count) {
+        return view(source, count * Double.BYTES).asDoubleBuffer();
+    }
+
+    private static ByteBuffer view(ByteBuffer source, int bytes) {
+        int start = align(source.position());
+        ByteBuffer view = source.slice(start, bytes).order(source.order());
+        source.position(start + bytes);
+        return view;
+    }
+
+    private static int align(int position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static int elementSize(Buffer buffer) {
+        if (buffer instanceof IntBuffer) {
+            return Integer.BYTES;
+        }
+        if (buffer instanceof DoubleBuffer) {
+            return Double.BYTES;
+        }
+        return Short.BYTES;
+    }
+
+    private static String[] sortedDistinct(String[] values) {
+        String[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int size = 0;
+        for (String curr : sorted) {
+            if (size == 0 || !sorted[size - 1].equals(curr)) {
+                sorted[size++] = curr;
+            }
+        }
+        return Arrays.copyOf(sorted, size);
+    }
+
+    private static int[] sortedDistinct(int[] values) {
+        Arrays.sort(values);
+        int size = 0;
+        for (int curr : values) {
+            if (size == 0 || values[size - 1] != curr) {
+                values[size++] = curr;
+            }
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Returns the number of entries of the partition tables of {@code grams} grams, one per gram and partition plus
+     * the end of the last one
+     */
+    private static int partitionSlots(int grams, int maxWordLength) {
+        long slots = (long) grams * (partition(maxWordLength) + 2) + 1;
+        if (slots > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Dictionary has too many distinct bigrams");
+        }
+        return (int) slots;
+    }
+
+    private static short toShortCount(int count) {
+        if (count > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Bigram occurs too many times in a single word");
+        }
+        return (short) count;
+    }
+}
@@ -0,0 +1,19 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+/**
+ * Sums the weighted layers of one block of {@link BigramBitmaps} in SIMD lanes. The implementation is compiled from
+ * an optional source folder and loaded by name, so that the module builds without the jdk.incubator.vector module.
+ */
+interface BlockKernel {
+    /**
+     * Returns the number of longs processed by one vector instruction
+     */
+    int lanes();
+
+    /**
+     * See {@link BigramBitmaps#sumLayers(int, int, int[], int[], int, int, int, long[], long[])}, with the layers
+     * starting at {@code offset} in {@code bitmaps}
+     */
+    boolean sumLayers(long[] bitmaps, int offset, int[] layers, int[] weights, int layersCount, int planesCount,
+                      int limit, long[] planes, long[] above);
+}
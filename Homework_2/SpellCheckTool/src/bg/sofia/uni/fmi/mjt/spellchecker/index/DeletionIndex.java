@@ -0,0 +1,204 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * SymSpell-style deletion-neighbourhood index over a dictionary of already cleaned up words.
+ * Every word is indexed under all the strings obtained by deleting up to {@code maxEditDistance} characters
+ * from its first {@code prefixLength} characters. Two words within {@code maxEditDistance} of each other always
+ * share such a delete, so a query only has to generate the deletes of its own prefix, look them up and verify the
+ * few words found with {@link EditDistance}.
+ * <p>
+ * Deletes are not stored as strings: the index keeps their sorted distinct hash codes and, in CSR layout,
+ * the ids of the words indexed under every hash. Hash collisions only add candidates, which the verification drops.
+ * Instances are immutable and can be shared by any number of threads.
+ */
+public final class DeletionIndex {
+    private final int maxEditDistance;
+    private final int prefixLength;
+    private final String[] words;
+    private final int[] deleteHashes;
+    private final int[] deleteOffsets; // delete hash id -> range in deleteWords
+    private final int[] deleteWords;
+
+    private DeletionIndex(int maxEditDistance, int prefixLength, String[] words,
+                          int[] deleteHashes, int[] deleteOffsets, int[] deleteWords) {
+        this.maxEditDistance = maxEditDistance;
+        this.prefixLength = prefixLength;
+        this.words = words;
+        this.deleteHashes = deleteHashes;
+        this.deleteOffsets = deleteOffsets;
+        this.deleteWords = deleteWords;
+    }
+
+    /**
+     * Builds an index over {@code dictionaryWords}. The words are expected to be cleaned up already,
+     * duplicates are dropped.
+     *
+     * @param dictionaryWords the words of the dictionary
+     * @param maxEditDistance the largest edit distance of a suggestion
+     * @param prefixLength    how many leading characters of every word are used to generate its deletes
+     * @return the built index
+     */
+    public static DeletionIndex build(String[] dictionaryWords, int maxEditDistance, int prefixLength) {
+        if (dictionaryWords == null) {
+            throw new IllegalArgumentException("Dictionary words are null");
+        }
+        if (maxEditDistance < 0 || prefixLength <= maxEditDistance) {
+            throw new IllegalArgumentException("Prefix length must be larger than the non-negative edit distance");
+        }
+        String[] words = Arrays.stream(dictionaryWords).distinct().sorted().toArray(String[]::new);
+
+        long[] entries = new long[words.length];
+        int size = 0;
+        for (int wordId = 0; wordId < words.length; wordId++) {
+            for (String delete : deletes(prefix(words[wordId], prefixLength), maxEditDistance)) {
+                if (size == entries.length) {
+                    entries = Arrays.copyOf(entries, entries.length * 2);
+                }
+                entries[size++] = ((long) delete.hashCode() << Integer.SIZE) | wordId;
+            }
+        }
+        Arrays.sort(entries, 0, size);
+
+        int[] deleteHashes = new int[size];
+        int[] deleteOffsets = new int[size + 1];
+        int[] deleteWords = new int[size];
+        int hashes = 0;
+        int postings = 0;
+        for (int i = 0; i < size; i++) {
+            if (i > 0 && entries[i] == entries[i - 1]) {
+                continue;
+            }
+            int hash = (int) (entries[i] >> Integer.SIZE);
+            if (hashes == 0 || deleteHashes[hashes - 1] != hash) {
+                deleteHashes[hashes++] = hash;
+            }
+            deleteWords[postings++] = (int) entries[i];
+            deleteOffsets[hashes] = postings;
+        }
+        return new DeletionIndex(maxEditDistance, prefixLength, words, Arrays.copyOf(deleteHashes, hashes),
+                Arrays.copyOf(deleteOffsets, hashes + 1), Arrays.copyOf(deleteWords, postings));
+    }
+
+    public int wordCount() {
+        return words.length;
+    }
+
+    public int maxEditDistance() {
+        return maxEditDistance;
+    }
+
+    public int prefixLength() {
+        return prefixLength;
+    }
+
+    /**
+     * Returns the id of {@code word}, or a negative number if it is not in the index. Ids follow the alphabetical
+     * order of the words.
+     */
+    public int wordId(String word) {
+        return Arrays.binarySearch(words, word);
+    }
+
+    public String word(int wordId) {
+        return words[wordId];
+    }
+
+    public boolean containsWord(String word) {
+        return wordId(word) >= 0;
+    }
+
+    /**
+     * Returns up to {@code n} dictionary words within {@link #maxEditDistance()} of {@code cleanedWord},
+     * ordered by edit distance and then alphabetically
+     *
+     * @param cleanedWord an already cleaned up word
+     * @param n           the maximum number of words to return
+     */
+    public List<String> findClosestWords(String cleanedWord, int n) {
+        return findClosestWords(cleanedWord, n, new BitSet());
+    }
+
+    /**
+     * Returns up to {@code n} dictionary words within {@link #maxEditDistance()} of {@code cleanedWord}, except the
+     * words with the ids in {@code excludedWords}, ordered by edit distance and then alphabetically
+     *
+     * @param cleanedWord   an already cleaned up word
+     * @param n             the maximum number of words to return
+     * @param excludedWords the ids of the words which are never returned
+     */
+    public List<String> findClosestWords(String cleanedWord, int n, BitSet excludedWords) {
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+        String prefix = prefix(cleanedWord, prefixLength);
+        Set<String> seenDeletes = new HashSet<>();
+        Set<Integer> seenWords = new HashSet<>();
+        Queue<String> pendingDeletes = new ArrayDeque<>();
+        List<Long> found = new ArrayList<>();
+        seenDeletes.add(prefix);
+        pendingDeletes.add(prefix);
+        while (!pendingDeletes.isEmpty()) {
+            String delete = pendingDeletes.poll();
+            int hashId = Arrays.binarySearch(deleteHashes, delete.hashCode());
+            for (int position = hashId < 0 ? 0 : deleteOffsets[hashId];
+                 hashId >= 0 && position < deleteOffsets[hashId + 1]; position++) {
+                int wordId = deleteWords[position];
+                if (!excludedWords.get(wordId) && seenWords.add(wordId)) {
+                    int distance = EditDistance.boundedDistance(cleanedWord, words[wordId], maxEditDistance);
+                    if (distance <= maxEditDistance) {
+                        found.add(((long) distance << Integer.SIZE) | wordId);
+                    }
+                }
+            }
+            if (prefix.length() - delete.length() < maxEditDistance) {
+                for (int i = 0; i < delete.length(); i++) {
+                    String next = delete.substring(0, i) + delete.substring(i + 1);
+                    if (seenDeletes.add(next)) {
+                        pendingDeletes.add(next);
+                    }
+                }
+            }
+        }
+        found.sort(null);
+        List<String> closestWords = new ArrayList<>();
+        for (int i = 0; i < Math.min(n, found.size()); i++) {
+            closestWords.add(words[(int) (long) found.get(i)]);
+        }
+        return closestWords;
+    }
+
+    private static String prefix(String word, int prefixLength) {
+        return word.length() > prefixLength ? word.substring(0, prefixLength) : word;
+    }
+
+    /**
+     * Returns {@code word} and every distinct string obtained by deleting up to {@code maxDeletes} of its characters
+     */
+    private static Set<String> deletes(String word, int maxDeletes) {
+        Set<String> deletes = new HashSet<>();
+        deletes.add(word);
+        Set<String> level = Set.of(word);
+        for (int deleted = 0; deleted < maxDeletes; deleted++) {
+            Set<String> nextLevel = new HashSet<>();
+            for (String curr : level) {
+                for (int i = 0; i < curr.length(); i++) {
+                    String next = curr.substring(0, i) + curr.substring(i + 1);
+                    if (deletes.add(next)) {
+                        nextLevel.add(next);
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+        return deletes;
+    }
+}
@@ -0,0 +1,142 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Versioned binary snapshot of a compiled dictionary: the {@link BigramIndex} (cleaned words, postings, norms and
+ * partition bounds), the {@link WordAutomaton} of the same words and the automaton of the stop words.
+ * A snapshot is memory-mapped when it is read and all three are served straight from the mapping, so opening it
+ * costs neither parsing nor rebuilding any heap structure.
+ * <p>
+ * Layout, little-endian: magic, format version, the index sections (each aligned to 8 bytes), the dictionary
+ * automaton sections and the stop words automaton sections (each aligned to 4 bytes). A snapshot written with
+ * a different format version is rejected.
+ */
+public final class DictionarySnapshot {
+    public static final int FORMAT_VERSION = 2;
+
+    private static final int MAGIC = 0x4B435053; // "SPCK" in little-endian
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private final BigramIndex index;
+    private final WordAutomaton words;
+    private final WordAutomaton stopwords;
+
+    private DictionarySnapshot(BigramIndex index, WordAutomaton words, WordAutomaton stopwords) {
+        this.index = index;
+        this.words = words;
+        this.stopwords = stopwords;
+    }
+
+    /**
+     * Writes {@code index}, {@code words} and {@code stopwords} to {@code file}, replacing it. The snapshot is written
+     * to a temporary file next to {@code file}, which is then moved over it, so a reader never maps a partly written
+     * snapshot and instances which already mapped the previous one keep serving it.
+     *
+     * @param file      the snapshot file
+     * @param index     the compiled dictionary
+     * @param words     the automaton of the words of {@code index}
+     * @param stopwords the automaton of the already normalized stop words
+     */
+    public static void write(Path file, BigramIndex index, WordAutomaton words, WordAutomaton stopwords) {
+        if (file == null || index == null || words == null || stopwords == null) {
+            throw new IllegalArgumentException("Snapshot file, index, words and stopwords must not be null");
+        }
+        if (index.wordCount() != words.wordCount()) {
+            throw new IllegalArgumentException("Index and words automaton have different words");
+        }
+        long size = 2L * Integer.BYTES + index.serializedSize() + words.serializedSize()
+                + stopwords.serializedSize();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Dictionary is too large for a snapshot");
+        }
+        Path temporary = null;
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.order(BYTE_ORDER);
+                buffer.putInt(MAGIC);
+                buffer.putInt(FORMAT_VERSION);
+                index.writeTo(buffer);
+                words.writeTo(buffer);
+                stopwords.writeTo(buffer);
+                buffer.force();
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            temporary = null;
+        } catch (IOException exception) {
+            throw new IllegalStateException("An error occurred when writing the snapshot", exception);
+        } finally {
+            deleteQuietly(temporary);
+        }
+    }
+
+    private static void deleteQuietly(Path temporary) {
+        if (temporary == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporary);
+        } catch (IOException exception) {
+            // only a leftover temporary file, the failure of the write is reported anyway
+        }
+    }
+
+    /**
+     * Memory-maps {@code file} and returns the snapshot stored in it
+     *
+     * @param file a file written by {@link #write(Path, BigramIndex, WordAutomaton, WordAutomaton)}
+     */
+    public static DictionarySnapshot map(Path file) {
+        if (file == null) {
+            throw new IllegalArgumentException("Snapshot file is null");
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException exception) {
+            throw new IllegalStateException("An error occurred when reading the snapshot", exception);
+        }
+        buffer.order(BYTE_ORDER);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("File is not a dictionary snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported snapshot version " + version
+                        + ", expected " + FORMAT_VERSION);
+            }
+            BigramIndex index = BigramIndex.readFrom(buffer);
+            WordAutomaton words = WordAutomaton.readFrom(buffer);
+            WordAutomaton stopwords = WordAutomaton.readFrom(buffer);
+            return new DictionarySnapshot(index, words, stopwords);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException exception) {
+            throw new IllegalArgumentException("Dictionary snapshot is truncated", exception);
+        }
+    }
+
+    public BigramIndex index() {
+        return index;
+    }
+
+    public WordAutomaton words() {
+        return words;
+    }
+
+    public WordAutomaton stopwords() {
+        return stopwords;
+    }
+}
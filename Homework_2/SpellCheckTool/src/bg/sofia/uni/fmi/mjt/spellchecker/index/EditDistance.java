@@ -0,0 +1,55 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+/**
+ * Optimal string alignment distance: the Levenshtein distance extended with transpositions of adjacent characters,
+ * where no substring is edited more than once.
+ */
+public final class EditDistance {
+    private EditDistance() {
+    }
+
+    /**
+     * Returns the distance between {@code first} and {@code second}, or {@code maxDistance + 1} as soon as it is
+     * known to be larger than {@code maxDistance}
+     *
+     * @param first       the first word
+     * @param second      the second word
+     * @param maxDistance the largest distance of interest
+     */
+    public static int boundedDistance(String first, String second, int maxDistance) {
+        int firstLength = first.length();
+        int secondLength = second.length();
+        if (Math.abs(firstLength - secondLength) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previousPrevious = new int[secondLength + 1];
+        int[] previous = new int[secondLength + 1];
+        int[] current = new int[secondLength + 1];
+        for (int j = 0; j <= secondLength; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= firstLength; i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            char firstChar = first.charAt(i - 1);
+            for (int j = 1; j <= secondLength; j++) {
+                char secondChar = second.charAt(j - 1);
+                int cost = firstChar == secondChar ? 0 : 1;
+                int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && firstChar == second.charAt(j - 2) && first.charAt(i - 2) == secondChar) {
+                    distance = Math.min(distance, previousPrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMinimum = Math.min(rowMinimum, distance);
+            }
+            if (rowMinimum > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[secondLength], maxDistance + 1);
+    }
+}
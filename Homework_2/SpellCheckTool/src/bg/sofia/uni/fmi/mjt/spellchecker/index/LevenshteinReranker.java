@@ -0,0 +1,172 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Second ranking stage for the suggestions of a similarity ranking: the best candidates of the first stage are
+ * ordered by their Levenshtein distance to the query, and candidates at the same distance keep their first-stage
+ * order. The distances are computed with Myers' bit-parallel algorithm, which keeps a column of the dynamic
+ * programming matrix in two 64-bit words and advances it by a character of the candidate in a dozen word
+ * operations, so a query of up to 64 characters costs O(candidate length). Longer queries fall back to the
+ * dynamic programming recurrence.
+ * Instances are immutable and can be shared by any number of threads.
+ */
+public final class LevenshteinReranker {
+    private static final int ASCII = 128;
+
+    private final int depth;
+
+    /**
+     * @param depth how many of the best first-stage candidates should be reranked, at least the number of
+     *              requested suggestions
+     */
+    public LevenshteinReranker(int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Rerank depth must be positive");
+        }
+        this.depth = depth;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Returns how many first-stage candidates should be passed to {@link #rerank(String, List, int)} for {@code n}
+     * suggestions
+     */
+    public int candidatesCount(int n) {
+        return n == 0 ? 0 : Math.max(n, depth);
+    }
+
+    /**
+     * Orders {@code candidates} by their distance to {@code cleanedWord} and returns the first {@code n} of them
+     *
+     * @param cleanedWord an already cleaned up word
+     * @param candidates  the candidates in descending order of their first-stage score
+     * @param n           the maximum number of words to return
+     */
+    public List<String> rerank(String cleanedWord, List<String> candidates, int n) {
+        Pattern pattern = new Pattern(cleanedWord);
+        long[] order = new long[candidates.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = (long) pattern.distance(candidates.get(i)) << Integer.SIZE | i;
+        }
+        Arrays.sort(order);
+        List<String> reranked = new ArrayList<>(Math.min(n, order.length));
+        for (int i = 0; i < Math.min(n, order.length); i++) {
+            reranked.add(candidates.get((int) order[i]));
+        }
+        return reranked;
+    }
+
+    /**
+     * Returns the Levenshtein distance between {@code first} and {@code second}
+     */
+    public static int distance(String first, String second) {
+        return new Pattern(first).distance(second);
+    }
+
+    /**
+     * A query with the bit masks of the positions of each of its characters, built once and matched against
+     * every candidate
+     */
+    private static final class Pattern {
+        private final String word;
+        private final long[] asciiMasks = new long[ASCII];
+        private char[] otherChars = new char[0];
+        private long[] otherMasks = new long[0];
+
+        private Pattern(String word) {
+            this.word = word;
+            if (word.length() > Long.SIZE) {
+                return;
+            }
+            for (int i = 0; i < word.length(); i++) {
+                char curr = word.charAt(i);
+                if (curr < ASCII) {
+                    asciiMasks[curr] |= 1L << i;
+                } else {
+                    addOtherMask(curr, 1L << i);
+                }
+            }
+        }
+
+        private int distance(String text) {
+            int length = word.length();
+            if (length == 0) {
+                return text.length();
+            }
+            if (length > Long.SIZE) {
+                return dynamicDistance(word, text);
+            }
+            long last = 1L << (length - 1);
+            long positiveVertical = -1L;
+            long negativeVertical = 0;
+            int score = length;
+            for (int j = 0; j < text.length(); j++) {
+                long equal = mask(text.charAt(j));
+                long verticalChange = equal | negativeVertical;
+                long horizontalChange = (((equal & positiveVertical) + positiveVertical) ^ positiveVertical) | equal;
+                long positiveHorizontal = negativeVertical | ~(horizontalChange | positiveVertical);
+                long negativeHorizontal = positiveVertical & horizontalChange;
+                if ((positiveHorizontal & last) != 0) {
+                    score++;
+                } else if ((negativeHorizontal & last) != 0) {
+                    score--;
+                }
+                positiveHorizontal = positiveHorizontal << 1 | 1;
+                negativeHorizontal <<= 1;
+                positiveVertical = negativeHorizontal | ~(verticalChange | positiveHorizontal);
+                negativeVertical = positiveHorizontal & verticalChange;
+            }
+            return score;
+        }
+
+        private long mask(char symbol) {
+            if (symbol < ASCII) {
+                return asciiMasks[symbol];
+            }
+            for (int i = 0; i < otherChars.length; i++) {
+                if (otherChars[i] == symbol) {
+                    return otherMasks[i];
+                }
+            }
+            return 0;
+        }
+
+        private void addOtherMask(char symbol, long bit) {
+            for (int i = 0; i < otherChars.length; i++) {
+                if (otherChars[i] == symbol) {
+                    otherMasks[i] |= bit;
+                    return;
+                }
+            }
+            otherChars = Arrays.copyOf(otherChars, otherChars.length + 1);
+            otherMasks = Arrays.copyOf(otherMasks, otherMasks.length + 1);
+            otherChars[otherChars.length - 1] = symbol;
+            otherMasks[otherMasks.length - 1] = bit;
+        }
+
+        private static int dynamicDistance(String first, String second) {
+            int[] previous = new int[second.length() + 1];
+            int[] current = new int[second.length() + 1];
+            for (int j = 0; j <= second.length(); j++) {
+                previous[j] = j;
+            }
+            for (int i = 1; i <= first.length(); i++) {
+                current[0] = i;
+                for (int j = 1; j <= second.length(); j++) {
+                    int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                    current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                }
+                int[] recycled = previous;
+                previous = current;
+                current = recycled;
+            }
+            return previous[second.length()];
+        }
+    }
+}
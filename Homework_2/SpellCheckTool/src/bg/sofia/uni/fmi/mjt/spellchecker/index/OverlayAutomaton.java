@@ -0,0 +1,116 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Dictionary membership made of a large base {@link WordAutomaton} and a small overlay of changes to it: the added
+ * words which the base does not accept and the base words which were removed. Adding or removing words copies only
+ * the overlay, so the cost of a change grows with the size of the overlay and not with the size of the base.
+ * <p>
+ * Instances are immutable: every change returns a new instance which shares the base with this one. Folding a grown
+ * overlay into a new base with {@link #compacted()} is left to the owner, which knows whether the base is shared.
+ */
+public final class OverlayAutomaton {
+    private final WordAutomaton base;
+    private final Set<String> addedWords;
+    private final Set<String> removedWords;
+
+    private OverlayAutomaton(WordAutomaton base, Set<String> addedWords, Set<String> removedWords) {
+        this.base = base;
+        this.addedWords = addedWords;
+        this.removedWords = removedWords;
+    }
+
+    /**
+     * Returns a dictionary with exactly the words of {@code base}
+     *
+     * @param base the base automaton, which is never modified
+     */
+    public static OverlayAutomaton of(WordAutomaton base) {
+        if (base == null) {
+            throw new IllegalArgumentException("Base automaton is null");
+        }
+        return new OverlayAutomaton(base, Set.of(), Set.of());
+    }
+
+    public WordAutomaton base() {
+        return base;
+    }
+
+    /**
+     * Returns the number of added and removed words
+     */
+    public int overlaySize() {
+        return addedWords.size() + removedWords.size();
+    }
+
+    public int wordCount() {
+        return base.wordCount() - removedWords.size() + addedWords.size();
+    }
+
+    public boolean contains(String word) {
+        return base.contains(word) ? !removedWords.contains(word) : addedWords.contains(word);
+    }
+
+    /**
+     * Returns a dictionary which also contains {@code words}
+     *
+     * @param words already cleaned up words
+     */
+    public OverlayAutomaton withAddedWords(String[] words) {
+        verifyWords(words);
+        Set<String> added = new HashSet<>(addedWords);
+        Set<String> removed = new HashSet<>(removedWords);
+        for (String curr : words) {
+            if (base.contains(curr)) {
+                removed.remove(curr);
+            } else {
+                added.add(curr);
+            }
+        }
+        return new OverlayAutomaton(base, Set.copyOf(added), Set.copyOf(removed));
+    }
+
+    /**
+     * Returns a dictionary which does not contain {@code words}. Words which are not in the dictionary are ignored.
+     *
+     * @param words already cleaned up words
+     */
+    public OverlayAutomaton withRemovedWords(String[] words) {
+        verifyWords(words);
+        Set<String> added = new HashSet<>(addedWords);
+        Set<String> removed = new HashSet<>(removedWords);
+        for (String curr : words) {
+            if (base.contains(curr)) {
+                removed.add(curr);
+            } else {
+                added.remove(curr);
+            }
+        }
+        return new OverlayAutomaton(base, Set.copyOf(added), Set.copyOf(removed));
+    }
+
+    /**
+     * Builds a single automaton with the words of this dictionary
+     */
+    public WordAutomaton compacted() {
+        List<String> words = new ArrayList<>(wordCount());
+        for (String curr : base.words()) {
+            if (!removedWords.contains(curr)) {
+                words.add(curr);
+            }
+        }
+        words.addAll(addedWords);
+        return WordAutomaton.build(words.toArray(String[]::new));
+    }
+
+    private static void verifyWords(String[] words) {
+        if (words == null || Arrays.stream(words).anyMatch(x -> x == null)) {
+            throw new IllegalArgumentException("Words are null");
+        }
+    }
+}
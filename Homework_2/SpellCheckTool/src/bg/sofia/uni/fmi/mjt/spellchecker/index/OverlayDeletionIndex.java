@@ -0,0 +1,162 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Dictionary made of a large base {@link DeletionIndex} and a small overlay of changes to it: a second index with
+ * the added words and the ids of the removed base words. Adding or removing words rebuilds only the overlay,
+ * so the cost of a change grows with the size of the overlay and not with the size of the base.
+ * <p>
+ * Instances are immutable: every change returns a new instance which shares the base with this one, so readers
+ * holding an instance always see the same words while a change is being prepared. Folding a grown overlay into
+ * a new base with {@link #compacted()} is left to the owner.
+ */
+public final class OverlayDeletionIndex {
+    private static final BitSet NO_REMOVED_WORDS = new BitSet();
+
+    private final DeletionIndex base;
+    private final DeletionIndex addedWords;
+    private final BitSet removedWords; // ids of base words, never modified once the instance is created
+
+    private OverlayDeletionIndex(DeletionIndex base, DeletionIndex addedWords, BitSet removedWords) {
+        this.base = base;
+        this.addedWords = addedWords;
+        this.removedWords = removedWords;
+    }
+
+    /**
+     * Returns a dictionary with exactly the words of {@code base}
+     *
+     * @param base the base index, which is never modified
+     */
+    public static OverlayDeletionIndex of(DeletionIndex base) {
+        if (base == null) {
+            throw new IllegalArgumentException("Base index is null");
+        }
+        return new OverlayDeletionIndex(base, DeletionIndex.build(new String[0], base.maxEditDistance(),
+                base.prefixLength()), NO_REMOVED_WORDS);
+    }
+
+    public DeletionIndex base() {
+        return base;
+    }
+
+    /**
+     * Returns the number of added and removed words
+     */
+    public int overlaySize() {
+        return addedWords.wordCount() + removedWords.cardinality();
+    }
+
+    public int wordCount() {
+        return base.wordCount() - removedWords.cardinality() + addedWords.wordCount();
+    }
+
+    public boolean containsWord(String word) {
+        int wordId = base.wordId(word);
+        return wordId >= 0 ? !removedWords.get(wordId) : addedWords.containsWord(word);
+    }
+
+    /**
+     * Returns up to {@code n} words within the maximum edit distance of {@code cleanedWord}, ordered by edit
+     * distance and then alphabetically, the same as the ones of {@link #compacted()}
+     *
+     * @param cleanedWord an already cleaned up word
+     * @param n           the maximum number of words to return
+     */
+    public List<String> findClosestWords(String cleanedWord, int n) {
+        List<String> closestWords = base.findClosestWords(cleanedWord, n, removedWords);
+        if (addedWords.wordCount() == 0) {
+            return closestWords;
+        }
+        closestWords.addAll(addedWords.findClosestWords(cleanedWord, n));
+        closestWords.sort(Comparator.comparingInt((String x) -> EditDistance.boundedDistance(cleanedWord, x,
+                base.maxEditDistance())).thenComparing(Comparator.naturalOrder()));
+        return closestWords.size() > n ? new ArrayList<>(closestWords.subList(0, n)) : closestWords;
+    }
+
+    /**
+     * Returns a dictionary which also contains {@code words}
+     *
+     * @param words already cleaned up words
+     */
+    public OverlayDeletionIndex withAddedWords(String[] words) {
+        verifyWords(words);
+        BitSet removed = (BitSet) removedWords.clone();
+        Set<String> added = addedWordSet();
+        for (String curr : words) {
+            int wordId = base.wordId(curr);
+            if (wordId >= 0) {
+                removed.clear(wordId);
+            } else {
+                added.add(curr);
+            }
+        }
+        return withOverlay(added, removed);
+    }
+
+    /**
+     * Returns a dictionary which does not contain {@code words}. Words which are not in the dictionary are ignored.
+     *
+     * @param words already cleaned up words
+     */
+    public OverlayDeletionIndex withRemovedWords(String[] words) {
+        verifyWords(words);
+        BitSet removed = (BitSet) removedWords.clone();
+        Set<String> added = addedWordSet();
+        for (String curr : words) {
+            int wordId = base.wordId(curr);
+            if (wordId >= 0) {
+                removed.set(wordId);
+            } else {
+                added.remove(curr);
+            }
+        }
+        return withOverlay(added, removed);
+    }
+
+    /**
+     * Builds a single index with the words of this dictionary
+     */
+    public DeletionIndex compacted() {
+        String[] words = new String[wordCount()];
+        int size = 0;
+        for (int wordId = 0; wordId < base.wordCount(); wordId++) {
+            if (!removedWords.get(wordId)) {
+                words[size++] = base.word(wordId);
+            }
+        }
+        for (int wordId = 0; wordId < addedWords.wordCount(); wordId++) {
+            words[size++] = addedWords.word(wordId);
+        }
+        return DeletionIndex.build(words, base.maxEditDistance(), base.prefixLength());
+    }
+
+    private OverlayDeletionIndex withOverlay(Set<String> added, BitSet removed) {
+        DeletionIndex newAddedWords = added.size() == addedWords.wordCount() && added.stream()
+                .allMatch(addedWords::containsWord)
+                ? addedWords
+                : DeletionIndex.build(added.toArray(String[]::new), base.maxEditDistance(), base.prefixLength());
+        return new OverlayDeletionIndex(base, newAddedWords, removed.isEmpty() ? NO_REMOVED_WORDS : removed);
+    }
+
+    private Set<String> addedWordSet() {
+        Set<String> added = new LinkedHashSet<>();
+        for (int wordId = 0; wordId < addedWords.wordCount(); wordId++) {
+            added.add(addedWords.word(wordId));
+        }
+        return added;
+    }
+
+    private static void verifyWords(String[] words) {
+        if (words == null || Arrays.stream(words).anyMatch(x -> x == null)) {
+            throw new IllegalArgumentException("Words are null");
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Dictionary made of a large base {@link BigramIndex} and a small overlay of changes to it: a second index with
+ * the added words and the ids of the removed base words. Adding or removing words rebuilds only the overlay,
+ * so the cost of a change grows with the size of the overlay and not with the size of the base.
+ * <p>
+ * Instances are immutable: every change returns a new instance which shares the base with this one, so readers
+ * holding an instance always see the same words while a change is being prepared. Folding a grown overlay into
+ * a new base with {@link #compacted()} is left to the owner, which knows whether the base is shared.
+ */
+public final class OverlayIndex {
+    private static final BitSet NO_REMOVED_WORDS = new BitSet();
+
+    private final BigramIndex base;
+    private final BigramIndex addedWords;
+    private final BitSet removedWords; // ids of base words, never modified once the instance is created
+
+    private OverlayIndex(BigramIndex base, BigramIndex addedWords, BitSet removedWords) {
+        this.base = base;
+        this.addedWords = addedWords;
+        this.removedWords = removedWords;
+    }
+
+    /**
+     * Returns a dictionary with exactly the words of {@code base}
+     *
+     * @param base the base index, which is never modified
+     */
+    public static OverlayIndex of(BigramIndex base) {
+        if (base == null) {
+            throw new IllegalArgumentException("Base index is null");
+        }
+        return new OverlayIndex(base, BigramIndex.build(new String[0]), NO_REMOVED_WORDS);
+    }
+
+    public BigramIndex base() {
+        return base;
+    }
+
+    public BigramIndex addedWords() {
+        return addedWords;
+    }
+
+    /**
+     * Returns the ids of the base words which are not part of the dictionary anymore. The set must not be modified.
+     */
+    public BitSet removedWords() {
+        return removedWords;
+    }
+
+    /**
+     * Returns the number of added and removed words
+     */
+    public int overlaySize() {
+        return addedWords.wordCount() + removedWords.cardinality();
+    }
+
+    public int wordCount() {
+        return base.wordCount() - removedWords.cardinality() + addedWords.wordCount();
+    }
+
+    public boolean containsWord(String word) {
+        int wordId = base.wordId(word);
+        return wordId >= 0 ? !removedWords.get(wordId) : addedWords.containsWord(word);
+    }
+
+    /**
+     * Returns a dictionary which also contains {@code words}
+     *
+     * @param words already cleaned up words
+     */
+    public OverlayIndex withAddedWords(String[] words) {
+        verifyWords(words);
+        BitSet removed = (BitSet) removedWords.clone();
+        Set<String> added = addedWordSet();
+        for (String curr : words) {
+            int wordId = base.wordId(curr);
+            if (wordId >= 0) {
+                removed.clear(wordId);
+            } else {
+                added.add(curr);
+            }
+        }
+        return withOverlay(added, removed);
+    }
+
+    /**
+     * Returns a dictionary which does not contain {@code words}. Words which are not in the dictionary are ignored.
+     *
+     * @param words already cleaned up words
+     */
+    public OverlayIndex withRemovedWords(String[] words) {
+        verifyWords(words);
+        BitSet removed = (BitSet) removedWords.clone();
+        Set<String> added = addedWordSet();
+        for (String curr : words) {
+            int wordId = base.wordId(curr);
+            if (wordId >= 0) {
+                removed.set(wordId);
+            } else {
+                added.remove(curr);
+            }
+        }
+        return withOverlay(added, removed);
+    }
+
+    /**
+     * Builds a single index with the words of this dictionary
+     */
+    public BigramIndex compacted() {
+        String[] words = new String[wordCount()];
+        int size = 0;
+        for (int wordId = 0; wordId < base.wordCount(); wordId++) {
+            if (!removedWords.get(wordId)) {
+                words[size++] = base.word(wordId);
+            }
+        }
+        for (int wordId = 0; wordId < addedWords.wordCount(); wordId++) {
+            words[size++] = addedWords.word(wordId);
+        }
+        return BigramIndex.build(words);
+    }
+
+    private OverlayIndex withOverlay(Set<String> added, BitSet removed) {
+        BigramIndex newAddedWords = added.size() == addedWords.wordCount() && added.stream()
+                .allMatch(addedWords::containsWord) ? addedWords : BigramIndex.build(added.toArray(String[]::new));
+        return new OverlayIndex(base, newAddedWords, removed.isEmpty() ? NO_REMOVED_WORDS : removed);
+    }
+
+    private Set<String> addedWordSet() {
+        Set<String> added = new LinkedHashSet<>();
+        for (int wordId = 0; wordId < addedWords.wordCount(); wordId++) {
+            added.add(addedWords.word(wordId));
+        }
+        return added;
+    }
+
+    private static void verifyWords(String[] words) {
+        if (words == null || Arrays.stream(words).anyMatch(x -> x == null)) {
+            throw new IllegalArgumentException("Words are null");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ranks the words of an {@link OverlayIndex} by cosine similarity to a query word, like a {@link SimilarityScorer}
+ * over its compacted index would. The base is scored without its removed words, the added words are scored on
+ * their own and the two rankings are merged by score and then by word.
+ * Instances are not thread-safe - use one scorer per thread.
+ */
+public final class OverlayScorer {
+    private final OverlayIndex index;
+    private final SimilarityScorer baseScorer;
+    private final SimilarityScorer addedWordsScorer;
+
+    /**
+     * @param index      the index to score words from
+     * @param baseScorer a scorer of the base of {@code index}. Its working memory is large, so it is passed in to
+     *                   be reused by the scorers of all dictionaries sharing the same base
+     */
+    public OverlayScorer(OverlayIndex index, SimilarityScorer baseScorer) {
+        if (index == null) {
+            throw new IllegalArgumentException("Index is null");
+        }
+        if (baseScorer == null) {
+            throw new IllegalArgumentException("Base scorer is null");
+        }
+        this.index = index;
+        this.baseScorer = baseScorer;
+        this.addedWordsScorer = new SimilarityScorer(index.addedWords());
+    }
+
+    /**
+     * Returns the {@code n} dictionary words closest to {@code cleanedWord}, sorted in descending order
+     *
+     * @param cleanedWord an already cleaned up word
+     * @param n           the maximum number of words to return
+     */
+    public List<String> findClosestWords(String cleanedWord, int n) {
+        if (index.overlaySize() == 0) {
+            return baseScorer.findClosestWords(cleanedWord, n);
+        }
+        List<SimilarityScorer.ScoredWord> fromBase = baseScorer.findClosestScoredWords(cleanedWord, n,
+                index.removedWords().isEmpty() ? null : index.removedWords());
+        List<SimilarityScorer.ScoredWord> fromAdded = addedWordsScorer.findClosestScoredWords(cleanedWord, n, null);
+        List<String> closestWords = new ArrayList<>();
+        int baseIndex = 0;
+        int addedIndex = 0;
+        while (closestWords.size() < n && (baseIndex < fromBase.size() || addedIndex < fromAdded.size())) {
+            if (addedIndex == fromAdded.size()
+                    || baseIndex < fromBase.size() && isBetter(fromBase.get(baseIndex), fromAdded.get(addedIndex))) {
+                closestWords.add(fromBase.get(baseIndex++).word());
+            } else {
+                closestWords.add(fromAdded.get(addedIndex++).word());
+            }
+        }
+        return closestWords;
+    }
+
+    /**
+     * Returns the total number of candidates whose score was computed by the scorers of the base and of the added
+     * words. The scorer of the base may be shared, so only the difference between two calls is meaningful.
+     */
+    public long scoredCandidates() {
+        return baseScorer.scoredCandidates() + addedWordsScorer.scoredCandidates();
+    }
+
+    private static boolean isBetter(SimilarityScorer.ScoredWord first, SimilarityScorer.ScoredWord second) {
+        if (first.score() != second.score()) {
+            return first.score() > second.score();
+        }
+        return first.word().compareTo(second.word()) < 0;
+    }
+}
@@ -0,0 +1,416 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Ranks the words of a {@link BigramIndex} by cosine similarity of their bigram vectors to a query word.
+ * The query vector is built once per call, dot products are accumulated by walking the postings of the query
+ * bigrams and the best {@code n} candidates are kept in a bounded heap. All working memory is owned by the
+ * scorer and reused between calls, so nothing is allocated per candidate.
+ * Equal scores are ordered by word, so no candidate is lost on a tie.
+ * <p>
+ * The postings are walked one word length partition at a time, see {@link BigramIndex#partition(int)}.
+ * With pruning enabled the partitions are visited
+ * in descending order of the best score a word of that length could reach, and once the heap is full and the
+ * bound of the next partition is below the worst kept score, the remaining partitions are skipped.
+ * Within a partition, a candidate whose dot product is too small to beat the worst kept score even with the
+ * shortest vector of the partition is dropped before its own vector length is read.
+ * <p>
+ * Given {@link BigramBitmaps} of the index, a partition is scored block by block instead of by walking the postings:
+ * the dot products of all words of a block are summed from the bitmaps of the query grams in SIMD lanes and only
+ * the words above the pruning threshold are scored. The dot products are the same exact integers on both paths.
+ * The result is always the same as the exhaustive ranking.
+ * Instances are not thread-safe - use one scorer per thread.
+ */
+public final class SimilarityScorer {
+    private final BigramIndex index;
+    private final boolean pruning;
+    private final BigramBitmaps bitmaps; // null to walk the postings
+    private final int[] dotProducts; // word id -> dot product with the current query
+    private final int[] candidates;
+    private int candidatesCount;
+    private long scoredCandidates;
+
+    private final double[] partitionBounds; // partition -> upper bound of the score of its words
+    private final int[] partitionOrder;
+
+    private int[] queryGrams = new int[0]; // gram ids in ascending order
+    private int[] queryCounts = new int[0];
+    private int queryGramsCount;
+
+    // min-heap on (score, -word id): the root is the worst of the best words found so far
+    private int[] heapWords = new int[0];
+    private double[] heapScores = new double[0];
+    private int heapSize;
+
+    private BitSet excludedWords; // word ids never offered to the heap, or null
+
+    // the bitmap layers of the query grams in the current partition and the bit planes of the current block
+    private int[] layers = new int[0];
+    private int[] layerWeights = new int[0];
+    private long[] planes = new long[0];
+    private final long[] wordsAboveLimit = new long[BigramBitmaps.BLOCK_LONGS];
+
+    /**
+     * A ranked word together with its cosine similarity to the query
+     */
+    public record ScoredWord(String word, double score) {
+    }
+
+    public SimilarityScorer(BigramIndex index) {
+        this(index, true);
+    }
+
+    /**
+     * @param index   the index to score words from
+     * @param pruning whether candidates which provably cannot enter the result should be skipped
+     */
+    public SimilarityScorer(BigramIndex index, boolean pruning) {
+        this(index, pruning, null);
+    }
+
+    /**
+     * @param index   the index to score words from
+     * @param pruning whether candidates which provably cannot enter the result should be skipped
+     * @param bitmaps the bitmaps of the words of {@code index}, shared by its scorers, or null to walk the postings
+     *                of the index. Bitmaps pay off when {@link BigramBitmaps#isVectorSupported()}
+     */
+    public SimilarityScorer(BigramIndex index, boolean pruning, BigramBitmaps bitmaps) {
+        if (index == null) {
+            throw new IllegalArgumentException("Index is null");
+        }
+        if (bitmaps != null && bitmaps.index() != index) {
+            throw new IllegalArgumentException("Bitmaps are not built from the scored index");
+        }
+        this.index = index;
+        this.pruning = pruning;
+        this.bitmaps = bitmaps;
+        this.dotProducts = new int[index.wordCount()];
+        this.candidates = new int[index.wordCount()];
+        this.partitionBounds = new double[index.lastPartition() + 1];
+        this.partitionOrder = new int[index.lastPartition() + 1];
+    }
+
+    /**
+     * Returns the {@code n} dictionary words closest to {@code cleanedWord}, sorted in descending order
+     *
+     * @param cleanedWord an already cleaned up word
+     * @param n           the maximum number of words to return
+     */
+    public List<String> findClosestWords(String cleanedWord, int n) {
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+        rank(cleanedWord, n, null);
+        String[] sorted = new String[heapSize];
+        while (heapSize > 0) {
+            sorted[heapSize - 1] = index.word(heapWords[0]);
+            popHeap();
+        }
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    /**
+     * Returns the {@code n} dictionary words closest to {@code cleanedWord} with their scores, sorted in descending
+     * order of score and then by word, leaving out the words whose ids are set in {@code excludedWords}.
+     * The scores allow merging the results of several indexes.
+     *
+     * @param cleanedWord   an already cleaned up word
+     * @param n             the maximum number of words to return
+     * @param excludedWords the ids of the words which must not be returned, or null
+     */
+    public List<ScoredWord> findClosestScoredWords(String cleanedWord, int n, BitSet excludedWords) {
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+        rank(cleanedWord, n, excludedWords);
+        ScoredWord[] sorted = new ScoredWord[heapSize];
+        while (heapSize > 0) {
+            sorted[heapSize - 1] = new ScoredWord(index.word(heapWords[0]), heapScores[0]);
+            popHeap();
+        }
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    /**
+     * Returns the total number of candidates whose score was computed by this scorer
+     */
+    public long scoredCandidates() {
+        return scoredCandidates;
+    }
+
+    /**
+     * Leaves the best {@code n} words in the heap
+     */
+    private void rank(String cleanedWord, int n, BitSet excludedWords) {
+        this.excludedWords = excludedWords;
+        double queryLength = buildQuery(cleanedWord);
+        ensureHeapCapacity(n);
+        heapSize = 0;
+        int partitions = orderPartitions(queryLength);
+        for (int i = 0; i < partitions; i++) {
+            int partition = partitionOrder[i];
+            if (pruning && heapSize == n && partitionBounds[partition] < heapScores[0]) {
+                break;
+            }
+            if (bitmaps == null) {
+                scorePartition(partition, queryLength, n);
+            } else {
+                scoreBlocks(partition, queryLength, n);
+            }
+        }
+        this.excludedWords = null;
+    }
+
+    private double buildQuery(String cleanedWord) {
+        if (queryGrams.length < cleanedWord.length()) {
+            queryGrams = new int[cleanedWord.length()];
+            queryCounts = new int[cleanedWord.length()];
+        }
+        int distinct = BigramIndex.collectGrams(cleanedWord, queryGrams, queryCounts);
+        double sum = 0;
+        int known = 0;
+        for (int i = 0; i < distinct; i++) {
+            sum += (double) queryCounts[i] * queryCounts[i];
+            int gramId = index.gramId(queryGrams[i]);
+            if (gramId >= 0) {
+                queryGrams[known] = gramId;
+                queryCounts[known] = queryCounts[i];
+                known++;
+            }
+        }
+        queryGramsCount = known;
+        return Math.sqrt(sum);
+    }
+
+    /**
+     * Computes an upper bound of the score for every partition which has postings for the query grams
+     * and orders those partitions by descending bound. Without pruning the partitions are kept in ascending order.
+     * A word with T = length - 1 grams has a vector at least {@code minWordLength} long and its dot product
+     * with the query is at most max(queryCount) * T, as well as at most the sum of queryCount * maxGramCount
+     * over the grams of its partition. The length is the longest one of the partition.
+     */
+    private int orderPartitions(double queryLength) {
+        int maxQueryCount = 0;
+        for (int i = 0; i < queryGramsCount; i++) {
+            maxQueryCount = Math.max(maxQueryCount, queryCounts[i]);
+        }
+        int partitions = 0;
+        for (int partition = 2; partition <= index.lastPartition(); partition++) {
+            int sharedDotProduct = 0;
+            for (int i = 0; i < queryGramsCount; i++) {
+                sharedDotProduct += queryCounts[i] * index.maxGramCount(queryGrams[i], partition);
+            }
+            if (sharedDotProduct == 0) {
+                continue;
+            }
+            long maxGramsDotProduct = (long) maxQueryCount * (index.maxWordLength(partition) - 1);
+            int maxDotProduct = (int) Math.min(maxGramsDotProduct, sharedDotProduct);
+            partitionBounds[partition] = maxDotProduct / (queryLength * index.minWordLength(partition));
+            int position = partitions++;
+            while (pruning && position > 0
+                    && partitionBounds[partitionOrder[position - 1]] < partitionBounds[partition]) {
+                partitionOrder[position] = partitionOrder[position - 1];
+                position--;
+            }
+            partitionOrder[position] = partition;
+        }
+        return partitions;
+    }
+
+    private void scorePartition(int partition, double queryLength, int n) {
+        candidatesCount = 0;
+        for (int i = 0; i < queryGramsCount; i++) {
+            int gramId = queryGrams[i];
+            int queryCount = queryCounts[i];
+            int end = index.postingStart(gramId, partition + 1);
+            for (int position = index.postingStart(gramId, partition); position < end; position++) {
+                int wordId = index.postingWord(position);
+                if (dotProducts[wordId] == 0) {
+                    candidates[candidatesCount++] = wordId;
+                }
+                dotProducts[wordId] += queryCount * index.postingCount(position);
+            }
+        }
+        double minDenominator = queryLength * index.minWordLength(partition);
+        double threshold = Double.NaN;
+        int rejectedDotProduct = -1;
+        for (int i = 0; i < candidatesCount; i++) {
+            int wordId = candidates[i];
+            int dotProduct = dotProducts[wordId];
+            dotProducts[wordId] = 0;
+            if (excludedWords != null && excludedWords.get(wordId)) {
+                continue;
+            }
+            if (pruning && heapSize == n) {
+                if (heapScores[0] != threshold) {
+                    threshold = heapScores[0];
+                    rejectedDotProduct = largestDotProductBelow(threshold, minDenominator);
+                }
+                if (dotProduct <= rejectedDotProduct) {
+                    continue;
+                }
+            }
+            double score = dotProduct / (queryLength * index.wordLength(wordId));
+            offer(wordId, score, n);
+            scoredCandidates++;
+        }
+    }
+
+    private void scoreBlocks(int partition, double queryLength, int n) {
+        int layersCount = 0;
+        int maxDotProduct = 0;
+        for (int i = 0; i < queryGramsCount; i++) {
+            int maxCount = index.maxGramCount(queryGrams[i], partition);
+            ensureLayersCapacity(layersCount + maxCount);
+            for (int layer = 0; layer < maxCount; layer++) {
+                layers[layersCount] = bitmaps.layerStart(queryGrams[i], partition, layer);
+                layerWeights[layersCount] = queryCounts[i];
+                layersCount++;
+            }
+            maxDotProduct += queryCounts[i] * maxCount;
+        }
+        int planesCount = Integer.SIZE - Integer.numberOfLeadingZeros(maxDotProduct);
+        if (planes.length < planesCount * BigramBitmaps.BLOCK_LONGS) {
+            planes = new long[planesCount * BigramBitmaps.BLOCK_LONGS];
+        }
+
+        double minDenominator = queryLength * index.minWordLength(partition);
+        double threshold = Double.NaN;
+        int rejectedDotProduct = 0;
+        for (int block = 0; block < bitmaps.blockCount(partition); block++) {
+            if (pruning && heapSize == n && heapScores[0] != threshold) {
+                threshold = heapScores[0];
+                rejectedDotProduct = Math.max(largestDotProductBelow(threshold, minDenominator), 0);
+                if (rejectedDotProduct >= maxDotProduct) {
+                    return;
+                }
+            }
+            if (bitmaps.sumLayers(partition, block, layers, layerWeights, layersCount, planesCount,
+                    rejectedDotProduct, planes, wordsAboveLimit)) {
+                scoreWordsAboveLimit(partition, block, planesCount, queryLength, n);
+            }
+        }
+    }
+
+    private void scoreWordsAboveLimit(int partition, int block, int planesCount, double queryLength, int n) {
+        for (int lane = 0; lane < BigramBitmaps.BLOCK_LONGS; lane++) {
+            for (long words = wordsAboveLimit[lane]; words != 0; words &= words - 1) {
+                int bit = Long.numberOfTrailingZeros(words);
+                int wordId = bitmaps.word(partition,
+                        (block * BigramBitmaps.BLOCK_LONGS + lane) * Long.SIZE + bit);
+                if (excludedWords != null && excludedWords.get(wordId)) {
+                    continue;
+                }
+                int dotProduct = 0;
+                for (int plane = 0; plane < planesCount; plane++) {
+                    dotProduct |= (int) (planes[plane * BigramBitmaps.BLOCK_LONGS + lane] >>> bit & 1) << plane;
+                }
+                double score = dotProduct / (queryLength * index.wordLength(wordId));
+                offer(wordId, score, n);
+                scoredCandidates++;
+            }
+        }
+    }
+
+    private void ensureLayersCapacity(int capacity) {
+        if (layers.length < capacity) {
+            layers = Arrays.copyOf(layers, Math.max(capacity, 2 * layers.length));
+            layerWeights = Arrays.copyOf(layerWeights, layers.length);
+        }
+    }
+
+    /**
+     * Returns the largest dot product whose score is below {@code score} even for the shortest vector of the
+     * partition, whose product with the query length is {@code minDenominator}, or -1 if there is none.
+     * A candidate with at most this dot product cannot enter a full heap with {@code score} at its root,
+     * so its own vector length does not have to be read.
+     */
+    private static int largestDotProductBelow(double score, double minDenominator) {
+        int dotProduct = (int) Math.max(-1, Math.min(Math.floor(score * minDenominator), Integer.MAX_VALUE - 1));
+        while (dotProduct >= 0 && dotProduct / minDenominator >= score) {
+            dotProduct--;
+        }
+        while (dotProduct + 1 < Integer.MAX_VALUE && (dotProduct + 1) / minDenominator < score) {
+            dotProduct++;
+        }
+        return dotProduct;
+    }
+
+    private void offer(int wordId, double score, int n) {
+        if (heapSize < n) {
+            heapWords[heapSize] = wordId;
+            heapScores[heapSize] = score;
+            siftUp(heapSize++);
+        } else if (isWorse(heapWords[0], heapScores[0], wordId, score)) {
+            heapWords[0] = wordId;
+            heapScores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    private void popHeap() {
+        heapSize--;
+        heapWords[0] = heapWords[heapSize];
+        heapScores[0] = heapScores[heapSize];
+        siftDown(0);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!isWorse(heapWords[position], heapScores[position], heapWords[parent], heapScores[parent])) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int worst = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < heapSize && isWorse(heapWords[left], heapScores[left], heapWords[worst], heapScores[worst])) {
+                worst = left;
+            }
+            if (right < heapSize
+                    && isWorse(heapWords[right], heapScores[right], heapWords[worst], heapScores[worst])) {
+                worst = right;
+            }
+            if (worst == position) {
+                return;
+            }
+            swap(position, worst);
+            position = worst;
+        }
+    }
+
+    private static boolean isWorse(int firstWord, double firstScore, int secondWord, double secondScore) {
+        if (firstScore != secondScore) {
+            return firstScore < secondScore;
+        }
+        return firstWord > secondWord;
+    }
+
+    private void swap(int first, int second) {
+        int word = heapWords[first];
+        heapWords[first] = heapWords[second];
+        heapWords[second] = word;
+        double score = heapScores[first];
+        heapScores[first] = heapScores[second];
+        heapScores[second] = score;
+    }
+
+    private void ensureHeapCapacity(int n) {
+        int capacity = Math.min(n, index.wordCount());
+        if (heapWords.length < capacity) {
+            heapWords = new int[capacity];
+            heapScores = new double[capacity];
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal acyclic automaton (DAWG) over a set of words, for membership tests and prefix enumeration.
+ * Words sharing a prefix share its states, and words sharing a suffix share the states of the suffix, so the
+ * automaton is usually much smaller than a hash set of the same words.
+ * <p>
+ * The automaton is built incrementally from the sorted words (Daciuk et al., 2000): every new word only adds the
+ * states of its suffix after the prefix it shares with the previous word, and the states of the previous word
+ * which can no longer change are replaced by an equivalent registered state, if any. Once built, the states are
+ * packed into primitive buffers in CSR layout: state -> range of transitions, sorted by label.
+ * Like a {@link BigramIndex}, an automaton built in memory wraps heap arrays, while an automaton read from a
+ * {@link DictionarySnapshot} is a set of views over the mapped file.
+ * Instances are immutable and can be shared by any number of threads.
+ */
+public final class WordAutomaton {
+    private static final int ROOT = 0;
+    private static final int ALIGNMENT = Integer.BYTES;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    private final int wordCount;
+    private final IntBuffer transitionOffsets; // state -> range in labels and targets
+    private final CharBuffer labels;
+    private final IntBuffer targets;
+    private final ByteBuffer finalStates; // state -> 1 if the state accepts, 0 otherwise
+
+    private WordAutomaton(int wordCount, IntBuffer transitionOffsets, CharBuffer labels, IntBuffer targets,
+                          ByteBuffer finalStates) {
+        this.wordCount = wordCount;
+        this.transitionOffsets = transitionOffsets;
+        this.labels = labels;
+        this.targets = targets;
+        this.finalStates = finalStates;
+    }
+
+    /**
+     * State of the automaton while it is built. Transitions are appended in ascending label order, because the
+     * words are added in ascending order.
+     */
+    private static final class BuildState {
+        private char[] labels = new char[0];
+        private BuildState[] targets = new BuildState[0];
+        private int transitions;
+        private boolean isFinal;
+        private int id = -1; // set once the state is registered and can no longer change
+
+        private void addTransition(char label, BuildState target) {
+            if (transitions == labels.length) {
+                int capacity = Math.max(2, transitions * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+            }
+            labels[transitions] = label;
+            targets[transitions] = target;
+            transitions++;
+        }
+
+        private BuildState lastTarget() {
+            return transitions == 0 ? null : targets[transitions - 1];
+        }
+
+        /**
+         * Two registered states are equivalent if they have the same finality and the same transitions to the
+         * same registered states
+         */
+        private String signature() {
+            StringBuilder signature = new StringBuilder(transitions * 3 + 1);
+            signature.append(isFinal ? '1' : '0');
+            for (int i = 0; i < transitions; i++) {
+                signature.append(labels[i]).append((char) (targets[i].id >>> Character.SIZE))
+                        .append((char) targets[i].id);
+            }
+            return signature.toString();
+        }
+    }
+
+    /**
+     * Builds an automaton accepting exactly {@code words}. Duplicates are dropped.
+     *
+     * @param words the words to accept
+     * @return the built automaton
+     */
+    public static WordAutomaton build(String[] words) {
+        if (words == null) {
+            throw new IllegalArgumentException("Words are null");
+        }
+        String[] sortedWords = Arrays.stream(words).distinct().sorted().toArray(String[]::new);
+        Map<String, BuildState> register = new HashMap<>();
+        List<BuildState> registered = new ArrayList<>();
+        BuildState root = new BuildState();
+        String previous = "";
+        for (String curr : sortedWords) {
+            int common = commonPrefixLength(previous, curr);
+            BuildState state = root;
+            for (int i = 0; i < common; i++) {
+                state = state.lastTarget();
+            }
+            replaceOrRegister(state, register, registered);
+            for (int i = common; i < curr.length(); i++) {
+                BuildState next = new BuildState();
+                state.addTransition(curr.charAt(i), next);
+                state = next;
+            }
+            state.isFinal = true;
+            previous = curr;
+        }
+        replaceOrRegister(root, register, registered);
+        register(root, register, registered);
+        return pack(root, registered, sortedWords.length);
+    }
+
+    public int wordCount() {
+        return wordCount;
+    }
+
+    public int stateCount() {
+        return finalStates.capacity();
+    }
+
+    public int transitionCount() {
+        return labels.capacity();
+    }
+
+    /**
+     * Returns the number of bytes taken by the buffers of the automaton
+     */
+    public long sizeInBytes() {
+        return (long) transitionOffsets.capacity() * Integer.BYTES + (long) labels.capacity() * Character.BYTES
+                + (long) targets.capacity() * Integer.BYTES + finalStates.capacity();
+    }
+
+    public boolean contains(String word) {
+        int state = walk(word);
+        return state >= 0 && isFinal(state);
+    }
+
+    /**
+     * Returns all accepted words, in ascending order
+     */
+    public List<String> words() {
+        return wordsWithPrefix("", wordCount);
+    }
+
+    /**
+     * Returns up to {@code limit} accepted words starting with {@code prefix}, in ascending order
+     *
+     * @param prefix the prefix of the words, the empty string for all words
+     * @param limit  the maximum number of words to return
+     */
+    public List<String> wordsWithPrefix(String prefix, int limit) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix is null");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must be non-negative");
+        }
+        List<String> words = new ArrayList<>();
+        int state = walk(prefix);
+        if (state >= 0 && limit > 0) {
+            collect(state, new StringBuilder(prefix), words, limit);
+        }
+        return words;
+    }
+
+    /**
+     * Returns the state reached by reading {@code word} from the root, or -1 if there is no such state
+     */
+    private int walk(String word) {
+        int state = ROOT;
+        for (int i = 0; i < word.length() && state >= 0; i++) {
+            state = transition(state, word.charAt(i));
+        }
+        return state;
+    }
+
+    private int transition(int state, char label) {
+        int low = transitionOffsets.get(state);
+        int high = transitionOffsets.get(state + 1) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char curr = labels.get(middle);
+            if (curr < label) {
+                low = middle + 1;
+            } else if (curr > label) {
+                high = middle - 1;
+            } else {
+                return targets.get(middle);
+            }
+        }
+        return -1;
+    }
+
+    private boolean isFinal(int state) {
+        return finalStates.get(state) != 0;
+    }
+
+    private void collect(int state, StringBuilder word, List<String> words, int limit) {
+        if (isFinal(state)) {
+            words.add(word.toString());
+        }
+        int end = transitionOffsets.get(state + 1);
+        for (int i = transitionOffsets.get(state); i < end && words.size() < limit; i++) {
+            word.append(labels.get(i));
+            collect(targets.get(i), word, words, limit);
+            word.setLength(word.length() - 1);
+        }
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeTo(ByteBuffer)} needs
+     */
+    int serializedSize() {
+        int size = HEADER_BYTES;
+        for (Buffer curr : sections()) {
+            size = align(size) + curr.capacity() * elementSize(curr);
+        }
+        return align(size);
+    }
+
+    /**
+     * Writes the automaton to {@code target}, starting at its position. Every section is aligned to
+     * {@link #ALIGNMENT} bytes relative to the start of the automaton.
+     */
+    void writeTo(ByteBuffer target) {
+        ByteBuffer section = target.slice().order(target.order());
+        section.putInt(wordCount);
+        section.putInt(stateCount());
+        section.putInt(transitionCount());
+        for (Buffer curr : sections()) {
+            section.position(align(section.position()));
+            if (curr instanceof IntBuffer ints) {
+                section.asIntBuffer().put(ints.duplicate().clear());
+            } else if (curr instanceof CharBuffer chars) {
+                section.asCharBuffer().put(chars.duplicate().clear());
+            } else {
+                section.duplicate().put(((ByteBuffer) curr).duplicate().clear());
+            }
+            section.position(section.position() + curr.capacity() * elementSize(curr));
+        }
+        target.position(target.position() + align(section.position()));
+    }
+
+    /**
+     * Reads an automaton written by {@link #writeTo(ByteBuffer)} from {@code source}, starting at its position.
+     * The sections of the returned automaton are views over {@code source}, nothing is copied.
+     */
+    static WordAutomaton readFrom(ByteBuffer source) {
+        ByteBuffer section = source.slice().order(source.order());
+        int words = section.getInt();
+        int states = section.getInt();
+        int transitions = section.getInt();
+        IntBuffer transitionOffsets = view(section, (states + 1) * Integer.BYTES).asIntBuffer();
+        CharBuffer labels = view(section, transitions * Character.BYTES).asCharBuffer();
+        IntBuffer targets = view(section, transitions * Integer.BYTES).asIntBuffer();
+        ByteBuffer finalStates = view(section, states);
+        source.position(source.position() + align(section.position()));
+        return new WordAutomaton(words, transitionOffsets, labels, targets, finalStates);
+    }
+
+    /**
+     * Returns the sections in the order in which they are serialized
+     */
+    private Buffer[] sections() {
+        return new Buffer[] {transitionOffsets, labels, targets, finalStates};
+    }
+
+    private static ByteBuffer view(ByteBuffer source, int bytes) {
+        int start = align(source.position());
+        ByteBuffer view = source.slice(start, bytes).order(source.order());
+        source.position(start + bytes);
+        return view;
+    }
+
+    private static int align(int position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static int elementSize(Buffer buffer) {
+        if (buffer instanceof IntBuffer) {
+            return Integer.BYTES;
+        }
+        if (buffer instanceof CharBuffer) {
+            return Character.BYTES;
+        }
+        return Byte.BYTES;
+    }
+
+    private static int commonPrefixLength(String first, String second) {
+        int length = Math.min(first.length(), second.length());
+        int common = 0;
+        while (common < length && first.charAt(common) == second.charAt(common)) {
+            common++;
+        }
+        return common;
+    }
+
+    /**
+     * Minimizes the path of the last added word below {@code state}: from the deepest state up, every state
+     * is replaced by an equivalent registered state, or registered itself if there is none
+     */
+    private static void replaceOrRegister(BuildState state, Map<String, BuildState> register,
+                                          List<BuildState> registered) {
+        BuildState child = state.lastTarget();
+        if (child == null || child.id >= 0) {
+            return;
+        }
+        replaceOrRegister(child, register, registered);
+        BuildState equivalent = register.get(child.signature());
+        if (equivalent != null) {
+            state.targets[state.transitions - 1] = equivalent;
+        } else {
+            register(child, register, registered);
+        }
+    }
+
+    private static void register(BuildState state, Map<String, BuildState> register, List<BuildState> registered) {
+        state.id = registered.size();
+        registered.add(state);
+        register.put(state.signature(), state);
+    }
+
+    /**
+     * Packs the registered states with the root as state 0. Every registered state is reachable, because a
+     * state replaced by an equivalent one is never registered.
+     */
+    private static WordAutomaton pack(BuildState root, List<BuildState> registered, int wordCount) {
+        int states = registered.size();
+        int[] packedIds = new int[states];
+        packedIds[root.id] = ROOT;
+        int nextId = 1;
+        for (BuildState curr : registered) {
+            if (curr != root) {
+                packedIds[curr.id] = nextId++;
+            }
+        }
+        BuildState[] byPackedId = new BuildState[states];
+        int transitions = 0;
+        for (BuildState curr : registered) {
+            byPackedId[packedIds[curr.id]] = curr;
+            transitions += curr.transitions;
+        }
+        int[] transitionOffsets = new int[states + 1];
+        char[] labels = new char[transitions];
+        int[] targets = new int[transitions];
+        byte[] finalStates = new byte[states];
+        int position = 0;
+        for (int state = 0; state < states; state++) {
+            BuildState curr = byPackedId[state];
+            finalStates[state] = (byte) (curr.isFinal ? 1 : 0);
+            for (int i = 0; i < curr.transitions; i++) {
+                labels[position] = curr.labels[i];
+                targets[position] = packedIds[curr.targets[i].id];
+                position++;
+            }
+            transitionOffsets[state + 1] = position;
+        }
+        return new WordAutomaton(wordCount, IntBuffer.wrap(transitionOffsets), CharBuffer.wrap(labels),
+                IntBuffer.wrap(targets), ByteBuffer.wrap(finalStates));
+    }
+}
@@ -0,0 +1,216 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link SpellCheckRecorder} which aggregates the measurements in memory: the total time of every phase,
+ * the tokens per second of whole texts and histograms of the suggestion latency and of the candidates scored
+ * per suggestion. The aggregates can be read directly or through JMX after {@link #register(String)}.
+ * Recording never blocks, so one instance can be shared by several spell checkers.
+ */
+public class SpellCheckMetrics implements SpellCheckRecorder, SpellCheckMetricsMBean {
+    private static final String DOMAIN = "bg.sofia.uni.fmi.mjt.spellchecker";
+
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final LongAdder textNanos = new LongAdder();
+    private final LongAdder texts = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final Histogram suggestionNanos = new Histogram();
+    private final Histogram candidates = new Histogram();
+    private ObjectName objectName;
+
+    public SpellCheckMetrics() {
+        for (int phase = 0; phase < phaseNanos.length; phase++) {
+            phaseNanos[phase] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void recordPhase(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()].add(nanos);
+    }
+
+    @Override
+    public void recordSuggestion(long nanos, int candidates) {
+        suggestionNanos.record(nanos);
+        this.candidates.record(candidates);
+    }
+
+    @Override
+    public void recordText(long nanos, long tokens) {
+        textNanos.add(nanos);
+        texts.increment();
+        this.tokens.add(tokens);
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server as
+     * {@code bg.sofia.uni.fmi.mjt.spellchecker:type=SpellCheckMetrics,name=<name>}
+     *
+     * @return the name of the MBean
+     * @throws IllegalStateException if these metrics or other ones with the same name are already registered
+     */
+    public synchronized ObjectName register(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name is null");
+        }
+        if (objectName != null) {
+            throw new IllegalStateException("Metrics are already registered as " + objectName);
+        }
+        try {
+            ObjectName newName = new ObjectName(DOMAIN + ":type=SpellCheckMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, newName);
+            objectName = newName;
+            return newName;
+        } catch (MalformedObjectNameException exception) {
+            throw new IllegalArgumentException("Invalid metrics name " + name, exception);
+        } catch (InstanceAlreadyExistsException | MBeanRegistrationException | NotCompliantMBeanException exception) {
+            throw new IllegalStateException("Could not register metrics " + name, exception);
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, does nothing if they are not registered
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(objectName);
+        } catch (InstanceNotFoundException exception) {
+            // already removed by someone else
+        } catch (MBeanRegistrationException exception) {
+            throw new IllegalStateException("Could not unregister metrics " + objectName, exception);
+        } finally {
+            objectName = null;
+        }
+    }
+
+    public long phaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()].sum();
+    }
+
+    public Histogram suggestionNanos() {
+        return suggestionNanos;
+    }
+
+    public Histogram candidates() {
+        return candidates;
+    }
+
+    @Override
+    public long getReadMillis() {
+        return phaseMillis(Phase.READ);
+    }
+
+    @Override
+    public long getTokenizeMillis() {
+        return phaseMillis(Phase.TOKENIZE);
+    }
+
+    @Override
+    public long getMembershipMillis() {
+        return phaseMillis(Phase.MEMBERSHIP);
+    }
+
+    @Override
+    public long getSuggestMillis() {
+        return phaseMillis(Phase.SUGGEST);
+    }
+
+    @Override
+    public long getWriteMillis() {
+        return phaseMillis(Phase.WRITE);
+    }
+
+    @Override
+    public long getTexts() {
+        return texts.sum();
+    }
+
+    @Override
+    public long getTokens() {
+        return tokens.sum();
+    }
+
+    @Override
+    public double getTokensPerSecond() {
+        long nanos = textNanos.sum();
+        return nanos == 0 ? 0 : tokens.sum() * 1e9 / nanos;
+    }
+
+    @Override
+    public long getSuggestions() {
+        return suggestionNanos.count();
+    }
+
+    @Override
+    public long getSuggestionLatencyP50Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(suggestionNanos.percentile(0.50));
+    }
+
+    @Override
+    public long getSuggestionLatencyP90Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(suggestionNanos.percentile(0.90));
+    }
+
+    @Override
+    public long getSuggestionLatencyP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(suggestionNanos.percentile(0.99));
+    }
+
+    @Override
+    public long getSuggestionLatencyMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(suggestionNanos.max());
+    }
+
+    @Override
+    public double getCandidatesMean() {
+        return candidates.mean();
+    }
+
+    @Override
+    public long getCandidatesP50() {
+        return candidates.percentile(0.50);
+    }
+
+    @Override
+    public long getCandidatesP99() {
+        return candidates.percentile(0.99);
+    }
+
+    @Override
+    public long getCandidatesMax() {
+        return candidates.max();
+    }
+
+    /**
+     * Clears all measurements. Measurements recorded while resetting may be partially lost.
+     */
+    @Override
+    public void reset() {
+        for (LongAdder nanos : phaseNanos) {
+            nanos.reset();
+        }
+        textNanos.reset();
+        texts.reset();
+        tokens.reset();
+        suggestionNanos.reset();
+        candidates.reset();
+    }
+
+    private long phaseMillis(Phase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(phaseNanos(phase));
+    }
+}
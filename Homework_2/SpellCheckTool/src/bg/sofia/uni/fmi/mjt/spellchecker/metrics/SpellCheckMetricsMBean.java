@@ -0,0 +1,45 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.metrics;
+
+/**
+ * JMX view of {@link SpellCheckMetrics}. Times are in milliseconds, latencies in microseconds.
+ */
+public interface SpellCheckMetricsMBean {
+    long getReadMillis();
+
+    long getTokenizeMillis();
+
+    long getMembershipMillis();
+
+    long getSuggestMillis();
+
+    long getWriteMillis();
+
+    long getTexts();
+
+    long getTokens();
+
+    /**
+     * Tokens per second of the time spent in analyze and metadata calls
+     */
+    double getTokensPerSecond();
+
+    long getSuggestions();
+
+    long getSuggestionLatencyP50Micros();
+
+    long getSuggestionLatencyP90Micros();
+
+    long getSuggestionLatencyP99Micros();
+
+    long getSuggestionLatencyMaxMicros();
+
+    double getCandidatesMean();
+
+    long getCandidatesP50();
+
+    long getCandidatesP99();
+
+    long getCandidatesMax();
+
+    void reset();
+}
@@ -0,0 +1,60 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.metrics;
+
+/**
+ * Receives the measurements of a spell checker, see
+ * {@link bg.sofia.uni.fmi.mjt.spellchecker.AbstractSpellChecker#setRecorder(SpellCheckRecorder)}.
+ * The phases of a text are reported once per chunk of lines, not per token, but the methods may still be called
+ * by many threads at once, so implementations must be thread-safe and cheap.
+ */
+public interface SpellCheckRecorder {
+    /**
+     * The phases of analyze and metadata. A token is first cut out of its line and normalized, which is
+     * {@link #TOKENIZE}, and then looked up in the stop words and the dictionary, which is {@link #MEMBERSHIP}.
+     */
+    enum Phase {
+        /**
+         * Reading the lines of the text
+         */
+        READ,
+        /**
+         * Splitting the lines into normalized tokens
+         */
+        TOKENIZE,
+        /**
+         * Looking the tokens up in the stop words and the dictionary
+         */
+        MEMBERSHIP,
+        /**
+         * Finding the suggestions for the misspelled words, including the ones served from the suggestion cache
+         */
+        SUGGEST,
+        /**
+         * Writing the text and the report to the output
+         */
+        WRITE
+    }
+
+    /**
+     * Records time spent in {@code phase} while checking a text
+     *
+     * @param phase the phase
+     * @param nanos the time spent, in nanoseconds
+     */
+    void recordPhase(Phase phase, long nanos);
+
+    /**
+     * Records a findClosestWords call
+     *
+     * @param nanos      how long the call took, in nanoseconds
+     * @param candidates how many dictionary words were scored to find the suggestions
+     */
+    void recordSuggestion(long nanos, int candidates);
+
+    /**
+     * Records a completed analyze or metadata call
+     *
+     * @param nanos  how long the call took, in nanoseconds
+     * @param tokens how many tokens, including stop words, the text had
+     */
+    void recordText(long nanos, long tokens);
+}
@@ -0,0 +1,93 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.server;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format shared by {@link SpellCheckServer} and {@link SpellCheckClient}. Every message is a frame:
+ * the length of the payload (int), the type of the frame (byte) and the payload.
+ * <p>
+ * A request is a frame whose type is the command and whose payload holds its integer arguments, followed by the
+ * text or word of the request in any number of {@link #DATA} frames and an {@link #END} frame, so its size is not
+ * limited by the size of a frame. A response is any number of {@link #DATA} frames followed by exactly one terminal
+ * frame: {@link #END}, or {@link #INVALID_ARGUMENT} or {@link #FAILURE} with the UTF-8 message of the error.
+ * Every {@link #DATA} frame holds at most {@link #MAX_DATA_CHARS} UTF-8 characters and never splits a surrogate
+ * pair, so it can be decoded on its own.
+ * A connection serves its requests one at a time, in the order in which they were sent.
+ */
+final class Protocol {
+    static final byte METADATA = 1; // arguments: none, data: text, response: characters, words and mistakes as ints
+    static final byte ANALYZE = 2; // arguments: suggestions count, data: text, response: the report, in chunks
+    static final byte CLOSEST_WORDS = 3; // arguments: n, data: word, response: the words separated by '\n'
+
+    static final byte DATA = 1;
+    static final byte END = 2;
+    static final byte INVALID_ARGUMENT = 3;
+    static final byte FAILURE = 4;
+
+    static final int HEADER_BYTES = Integer.BYTES + 1;
+    static final int MAX_PAYLOAD_BYTES = 1 << 26;
+    static final int MAX_DATA_CHARS = 1 << 14;
+
+    private Protocol() {
+    }
+
+    record Frame(byte type, ByteBuffer payload) {
+        String text() {
+            return StandardCharsets.UTF_8.decode(payload.duplicate()).toString();
+        }
+    }
+
+    static ByteBuffer frame(byte type, byte[] payload) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        frame.putInt(payload.length).put(type).put(payload);
+        return frame.flip();
+    }
+
+    static ByteBuffer frame(byte type, int argument) {
+        return frame(type, ByteBuffer.allocate(Integer.BYTES).putInt(argument).array());
+    }
+
+    static ByteBuffer frame(byte type, String text) {
+        return frame(type, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns whether a response frame is the last one of its response
+     */
+    static boolean isTerminal(ByteBuffer frame) {
+        return frame.get(Integer.BYTES) != DATA;
+    }
+
+    static void write(SocketChannel channel, ByteBuffer frame) throws IOException {
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    /**
+     * Reads the next frame from a blocking channel
+     */
+    static Frame read(SocketChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, header);
+        int length = header.getInt(0);
+        if (length < 0 || length > MAX_PAYLOAD_BYTES) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(channel, payload);
+        return new Frame(header.get(Integer.BYTES), payload.flip());
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed by the server");
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.server;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.Metadata;
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.Verifications;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * {@link SpellChecker} backed by a {@link SpellCheckServer}. The client keeps a pool of up to
+ * {@code maxConnections} connections which are reused between calls, and a call waits while all of them are busy.
+ * An instance can be shared by any number of threads. The text of a request is sent by a separate thread while the
+ * response is read, since the server stops reading a request while it is behind on writing its response.
+ * <p>
+ * Invalid arguments are reported with an {@link IllegalArgumentException}, like by a local spell checker.
+ * A failure of the server is reported with an {@link IllegalStateException} and a broken connection with an
+ * {@link UncheckedIOException}.
+ */
+public class SpellCheckClient implements SpellChecker, Verifications, AutoCloseable {
+    private final InetSocketAddress address;
+    private final Semaphore connectionPermits;
+    private final BlockingQueue<SocketChannel> idleConnections = new LinkedBlockingQueue<>();
+    private final ExecutorService requestWriters = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "spell-check-request-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean closed;
+
+    @FunctionalInterface
+    private interface DataConsumer {
+        void accept(Protocol.Frame frame) throws IOException;
+    }
+
+    /**
+     * @param host           the host of the server
+     * @param port           the port of the server
+     * @param maxConnections the maximum number of connections open at the same time
+     */
+    public SpellCheckClient(String host, int port, int maxConnections) {
+        if (host == null) {
+            throw new IllegalArgumentException("Host is null");
+        }
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("Number of connections must be positive");
+        }
+        this.address = new InetSocketAddress(host, port);
+        this.connectionPermits = new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * Sends the text to the server while it is being read and writes the report to {@code output} while it is being
+     * received. The output is flushed, but not closed.
+     */
+    @Override
+    public void analyze(Reader textReader, Writer output, int suggestionsCount) {
+        verifyNullText(textReader);
+        validateSuggestedWords(suggestionsCount);
+        call(Protocol.frame(Protocol.ANALYZE, suggestionsCount), textReader, frame -> output.write(frame.text()));
+        try {
+            output.flush();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("An error occurred when writing the analysis", exception);
+        }
+    }
+
+    @Override
+    public Metadata metadata(Reader textReader) {
+        verifyNullText(textReader);
+        Metadata[] metadata = new Metadata[1];
+        call(Protocol.frame(Protocol.METADATA, new byte[0]), textReader, frame -> metadata[0] =
+                new Metadata(frame.payload().getInt(), frame.payload().getInt(), frame.payload().getInt()));
+        return metadata[0];
+    }
+
+    @Override
+    public List<String> findClosestWords(String word, int n) {
+        validateNullWord(word);
+        validateSuggestedWords(n);
+        List<String> words = new ArrayList<>();
+        call(Protocol.frame(Protocol.CLOSEST_WORDS, n), new StringReader(word), frame -> {
+            String text = frame.text();
+            if (!text.isEmpty()) {
+                words.addAll(Arrays.asList(text.split("\n")));
+            }
+        });
+        return words;
+    }
+
+    /**
+     * Closes the idle connections. Connections in use are closed once their call completes.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        requestWriters.shutdown();
+        SocketChannel channel;
+        while ((channel = idleConnections.poll()) != null) {
+            closeQuietly(channel);
+        }
+    }
+
+    /**
+     * Sends the {@code command} frame followed by {@code text} on a pooled connection and passes every data frame of
+     * the response to {@code consumer}. The text is closed.
+     */
+    private void call(ByteBuffer command, Reader text, DataConsumer consumer) {
+        if (closed) {
+            throw new IllegalStateException("Client is closed");
+        }
+        acquirePermit();
+        SocketChannel channel = null;
+        boolean reusable = false;
+        try (text) {
+            channel = idleConnections.poll();
+            if (channel == null) {
+                channel = SocketChannel.open(address);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            Future<Void> request = requestWriters.submit(requestWriter(channel, command, text));
+            Protocol.Frame frame = receiveResponse(channel, consumer, request);
+            awaitRequest(request);
+            switch (frame.type()) {
+                case Protocol.END -> reusable = true;
+                case Protocol.INVALID_ARGUMENT -> {
+                    reusable = true;
+                    throw new IllegalArgumentException(frame.text());
+                }
+                case Protocol.FAILURE -> {
+                    reusable = true;
+                    throw new IllegalStateException("Server failed: " + frame.text());
+                }
+                default -> throw new IOException("Unknown frame type " + frame.type());
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("An error occurred when calling the spell check server", exception);
+        } finally {
+            release(channel, reusable);
+        }
+    }
+
+    /**
+     * Passes the data frames of the response to {@code consumer} and returns the frame which ends it. If the response
+     * cannot be received, the connection is closed and the request is waited for, so that the text is not read
+     * anymore once this returns. A failure to read the text is then reported instead.
+     */
+    private static Protocol.Frame receiveResponse(SocketChannel channel, DataConsumer consumer, Future<Void> request)
+            throws IOException {
+        try {
+            Protocol.Frame frame = Protocol.read(channel);
+            while (frame.type() == Protocol.DATA) {
+                consumer.accept(frame);
+                frame = Protocol.read(channel);
+            }
+            return frame;
+        } catch (IOException | RuntimeException exception) {
+            closeQuietly(channel);
+            try {
+                awaitRequest(request);
+            } catch (IOException requestException) {
+                // the connection is broken, which is reported anyway
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Returns a task which sends the {@code command} frame followed by {@code text}. The connection is closed if the
+     * request cannot be sent, so that the response is not waited for.
+     */
+    private static Callable<Void> requestWriter(SocketChannel channel, ByteBuffer command, Reader text) {
+        return () -> {
+            try {
+                Protocol.write(channel, command);
+                writeText(channel, text);
+                Protocol.write(channel, Protocol.frame(Protocol.END, new byte[0]));
+                return null;
+            } catch (IOException | RuntimeException exception) {
+                closeQuietly(channel);
+                throw exception;
+            }
+        };
+    }
+
+    /**
+     * Waits until the request is sent and rethrows the exception it failed with, if any
+     */
+    private static void awaitRequest(Future<Void> request) throws IOException {
+        try {
+            request.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending the request", exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to send the request", exception.getCause());
+        }
+    }
+
+    private void acquirePermit() {
+        try {
+            connectionPermits.acquire();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a connection", exception);
+        }
+    }
+
+    private void release(SocketChannel channel, boolean reusable) {
+        if (channel != null) {
+            if (reusable && !closed) {
+                idleConnections.add(channel);
+            } else {
+                closeQuietly(channel);
+            }
+        }
+        connectionPermits.release();
+        if (closed) {
+            close();
+        }
+    }
+
+    /**
+     * Sends {@code text} as {@link Protocol#DATA} frames of at most {@link Protocol#MAX_DATA_CHARS} characters.
+     * A surrogate pair is never split between two frames, so every frame can be decoded on its own.
+     */
+    private static void writeText(SocketChannel channel, Reader text) throws IOException {
+        char[] chunk = new char[Protocol.MAX_DATA_CHARS];
+        int length = readChunk(text, chunk, 0);
+        while (length == chunk.length) {
+            int end = Character.isHighSurrogate(chunk[length - 1]) ? length - 1 : length;
+            Protocol.write(channel, Protocol.frame(Protocol.DATA, new String(chunk, 0, end)));
+            if (end < length) {
+                chunk[0] = chunk[end];
+            }
+            length = readChunk(text, chunk, length - end);
+        }
+        if (length > 0) {
+            Protocol.write(channel, Protocol.frame(Protocol.DATA, new String(chunk, 0, length)));
+        }
+    }
+
+    /**
+     * Reads from {@code text} after the first {@code length} characters of {@code chunk} until it is full or the
+     * text ends, and returns the number of characters in it
+     */
+    private static int readChunk(Reader text, char[] chunk, int length) {
+        try {
+            int read;
+            while (length < chunk.length && (read = text.read(chunk, length, chunk.length - length)) >= 0) {
+                length += read;
+            }
+            return length;
+        } catch (IOException exception) {
+            throw new IllegalStateException("An error occurred when reading the text", exception);
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException exception) {
+            // the connection is dropped anyway
+        }
+    }
+}
@@ -0,0 +1,601 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.server;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.AbstractSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.Metadata;
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellCheckerEngine;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves a single {@link SpellChecker} over TCP, so that many services can share one loaded dictionary.
+ * See {@link Protocol} for the wire format and {@link SpellCheckClient} for the client.
+ * <p>
+ * One selector thread accepts connections, reads the requests and writes the responses without ever blocking.
+ * Every request is handed to a fixed pool of worker threads as soon as its command is read, and its text is passed
+ * to the worker while it is being received. The workers run the spell checker and queue the frames of the response
+ * on their connection. The queue of every connection is bounded, so a worker streaming a large report to a slow
+ * client waits for the client instead of buffering the whole report. The text passed to a worker is bounded the
+ * same way: while the worker is behind, no more data is read from the connection, so a fast client waits for the
+ * worker instead of the server buffering the whole text.
+ * Once a request of a connection is received, no more data is read from it until the request is served.
+ */
+public class SpellCheckServer implements AutoCloseable {
+    private static final String SERVER_HOST = "localhost";
+    private static final int DEFAULT_PORT = 7777;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_QUEUED_FRAMES = 16;
+    private static final int MAX_QUEUED_CHUNKS = 16;
+    private static final long QUEUE_POLL_MILLIS = 100;
+
+    private final SpellChecker spellChecker;
+    private final int workers;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final ExecutorService workerPool;
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final Queue<Connection> pendingReads = new ConcurrentLinkedQueue<>();
+    private final Thread selectorThread;
+    private volatile boolean running;
+
+    /**
+     * State of a client connection. Everything but the output queue and the closed flag is only used by the
+     * selector thread.
+     */
+    private static final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final BlockingQueue<ByteBuffer> output = new ArrayBlockingQueue<>(MAX_QUEUED_FRAMES);
+        private ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+        private ByteBuffer writing;
+        private RequestText receiving; // the text of the request being received, null between requests
+        private boolean busy; // a request is being served
+        private volatile boolean closed;
+
+        private Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Binds a server for {@code spellChecker} to {@code port} on localhost. Requests are served once it is started.
+     *
+     * @param spellChecker the spell checker to serve, which must be safe to share between threads
+     * @param port         the port to listen on, 0 for any free port
+     * @param workers      the number of threads running the spell checker
+     */
+    public SpellCheckServer(SpellChecker spellChecker, int port, int workers) {
+        if (spellChecker == null) {
+            throw new IllegalArgumentException("Spell checker is null");
+        }
+        if (port < 0 || port > 0xFFFF) {
+            throw new IllegalArgumentException("Port must be between 0 and 65535");
+        }
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Number of workers must be positive");
+        }
+        this.spellChecker = spellChecker;
+        this.workers = workers;
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(SERVER_HOST, port));
+            serverChannel.configureBlocking(false);
+            selector = Selector.open();
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Server failed to bind to port " + port, exception);
+        }
+        workerPool = Executors.newFixedThreadPool(workers);
+        selectorThread = new Thread(this::run, "spell-check-selector");
+    }
+
+    /**
+     * Starts a server with the given dictionary and stop words, which runs until the process is stopped.
+     * Arguments: dictionary path, stop words path, [port], [workers], [engine]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SpellCheckServer <dictionary> <stopwords> [port] [workers] [engine]");
+            return;
+        }
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PORT;
+        int workers = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        SpellCheckerEngine engine = args.length > 4 ? SpellCheckerEngine.valueOf(args[4]) : SpellCheckerEngine.INDEXED;
+        try (Reader dictionary = new FileReader(args[0], StandardCharsets.UTF_8);
+             Reader stopwords = new FileReader(args[1], StandardCharsets.UTF_8)) {
+            SpellCheckServer server = new SpellCheckServer(engine.create(dictionary, stopwords), port, workers);
+            server.start();
+            System.out.println("Spell check server listening on port " + server.port());
+        }
+    }
+
+    public void start() {
+        if (running) {
+            throw new IllegalStateException("Server is already started");
+        }
+        running = true;
+        selectorThread.start();
+    }
+
+    /**
+     * Returns the port the server is bound to
+     */
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int workers() {
+        return workers;
+    }
+
+    /**
+     * Stops accepting requests, closes all connections and waits for the worker threads to finish
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        workerPool.shutdownNow();
+        try {
+            if (selectorThread.isAlive()) {
+                selectorThread.join();
+            } else {
+                closeSelector();
+            }
+            workerPool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Connection pending;
+                while ((pending = pendingWrites.poll()) != null) {
+                    if (pending.key.isValid()) {
+                        pending.key.interestOps(pending.key.interestOps() | SelectionKey.OP_WRITE);
+                    }
+                }
+                while ((pending = pendingReads.poll()) != null) {
+                    resumeReading(pending);
+                }
+                Iterator<SelectionKey> keyIterator = selector.selectedKeys().iterator();
+                while (keyIterator.hasNext()) {
+                    SelectionKey key = keyIterator.next();
+                    keyIterator.remove();
+                    handle(key);
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Server selector failed", exception);
+        } finally {
+            closeSelector();
+        }
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                read(connection);
+            }
+            if (key.isValid() && key.isWritable()) {
+                write(connection);
+            }
+        } catch (IOException exception) {
+            close(connection);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+    }
+
+    /**
+     * Reads from {@code connection} again once the worker has taken some of the text of its request
+     */
+    private void resumeReading(Connection connection) {
+        if (!connection.key.isValid()) {
+            return;
+        }
+        connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_READ);
+        try {
+            dispatch(connection);
+        } catch (IOException exception) {
+            close(connection);
+        }
+    }
+
+    private void read(Connection connection) throws IOException {
+        if (!connection.input.hasRemaining()) {
+            connection.input = grow(connection.input, connection.input.capacity() * 2);
+        }
+        if (connection.channel.read(connection.input) < 0) {
+            close(connection);
+            return;
+        }
+        dispatch(connection);
+    }
+
+    /**
+     * Handles the complete frames read from {@code connection}: the command of a request is handed to a worker,
+     * unless one of the requests of the connection is being served, and the text which follows it is passed to the
+     * worker until the end of the request. Reading stops while the worker is behind on the text.
+     */
+    private void dispatch(Connection connection) throws IOException {
+        while (connection.receiving != null || !connection.busy) {
+            if (connection.receiving != null && connection.receiving.pauseIfFull()) {
+                break;
+            }
+            ByteBuffer frame = nextFrame(connection);
+            if (frame == null) {
+                return;
+            }
+            byte type = frame.get();
+            if (connection.receiving == null) {
+                RequestText text = new RequestText(connection);
+                connection.receiving = text;
+                connection.busy = true;
+                workerPool.execute(() -> serve(connection, type, frame, text));
+            } else if (type == Protocol.DATA) {
+                connection.receiving.add(StandardCharsets.UTF_8.decode(frame).toString());
+            } else if (type == Protocol.END) {
+                connection.receiving.finish();
+                connection.receiving = null;
+            } else {
+                throw new IOException("Unexpected frame type " + type);
+            }
+        }
+        connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+    }
+
+    /**
+     * Takes the next frame out of the input of {@code connection}, without its length, or returns null if it is not
+     * completely read yet
+     */
+    private static ByteBuffer nextFrame(Connection connection) throws IOException {
+        ByteBuffer input = connection.input;
+        if (input.position() < Protocol.HEADER_BYTES) {
+            return null;
+        }
+        int length = input.getInt(0);
+        if (length < 0 || length > Protocol.MAX_PAYLOAD_BYTES) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        int frameBytes = Protocol.HEADER_BYTES + length;
+        if (input.position() < frameBytes) {
+            if (input.capacity() < frameBytes) {
+                connection.input = grow(input, frameBytes);
+            }
+            return null;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(frameBytes - Integer.BYTES);
+        frame.put(input.slice(Integer.BYTES, frame.capacity())).flip();
+        input.flip().position(frameBytes);
+        input.compact();
+        return frame;
+    }
+
+    private void write(Connection connection) throws IOException {
+        while (true) {
+            if (connection.writing == null) {
+                connection.writing = connection.output.poll();
+                if (connection.writing == null) {
+                    connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+            connection.channel.write(connection.writing);
+            if (connection.writing.hasRemaining()) {
+                return;
+            }
+            boolean responseDone = Protocol.isTerminal(connection.writing);
+            connection.writing = null;
+            if (responseDone) {
+                connection.busy = false;
+                connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_READ);
+                dispatch(connection);
+            }
+        }
+    }
+
+    private void serve(Connection connection, byte command, ByteBuffer arguments, RequestText text) {
+        try (text) {
+            switch (command) {
+                case Protocol.METADATA -> {
+                    Metadata metadata = spellChecker.metadata(text);
+                    ByteBuffer payload = ByteBuffer.allocate(3 * Integer.BYTES);
+                    payload.putInt(metadata.characters()).putInt(metadata.words()).putInt(metadata.mistakes());
+                    send(connection, Protocol.frame(Protocol.DATA, payload.array()));
+                }
+                case Protocol.ANALYZE -> analyze(connection, arguments.getInt(), text);
+                case Protocol.CLOSEST_WORDS -> {
+                    int n = arguments.getInt();
+                    List<String> words = spellChecker.findClosestWords(text.readAll(), n);
+                    send(connection, Protocol.frame(Protocol.DATA, String.join("\n", words)));
+                }
+                default -> throw new IllegalArgumentException("Unknown command " + command);
+            }
+            send(connection, Protocol.frame(Protocol.END, new byte[0]));
+        } catch (ConnectionClosedException exception) {
+            // nobody is waiting for the response anymore
+        } catch (IllegalArgumentException exception) {
+            sendError(connection, Protocol.INVALID_ARGUMENT, exception);
+        } catch (RuntimeException exception) {
+            sendError(connection, Protocol.FAILURE, exception);
+        }
+    }
+
+    private void analyze(Connection connection, int suggestionsCount, Reader text) {
+        Writer output = new ResponseWriter(connection);
+        if (spellChecker instanceof AbstractSpellChecker streamingSpellChecker) {
+            streamingSpellChecker.analyzeStreaming(text, output, suggestionsCount);
+        } else {
+            spellChecker.analyze(text, output, suggestionsCount);
+        }
+        try {
+            output.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void sendError(Connection connection, byte type, RuntimeException exception) {
+        String message = exception.getMessage() == null ? exception.getClass().getName() : exception.getMessage();
+        try {
+            send(connection, Protocol.frame(type, message));
+        } catch (ConnectionClosedException closedException) {
+            // nobody is waiting for the response anymore
+        }
+    }
+
+    /**
+     * Queues {@code frame} on {@code connection}, waiting while its queue is full, and asks the selector to write it
+     */
+    private void send(Connection connection, ByteBuffer frame) {
+        try {
+            while (!connection.output.offer(frame, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (connection.closed) {
+                    throw new ConnectionClosedException();
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionClosedException();
+        }
+        pendingWrites.add(connection);
+        selector.wakeup();
+    }
+
+    private void close(Connection connection) {
+        connection.closed = true;
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException exception) {
+            // the connection is dropped anyway
+        }
+    }
+
+    private void closeSelector() {
+        if (!selector.isOpen()) {
+            return;
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection connection) {
+                close(connection);
+            }
+        }
+        try {
+            selector.close();
+            serverChannel.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Server failed to stop", exception);
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int capacity) {
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        return grown.put(buffer);
+    }
+
+    private static final class ConnectionClosedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * The text of a request, passed from the selector thread to the worker serving the request while it is being
+     * received. At most {@link #MAX_QUEUED_CHUNKS} received chunks wait for the worker: once they are queued the
+     * selector pauses reading from the connection, and the worker resumes it when it takes a chunk or is done.
+     * Chunks received after the worker is done are dropped.
+     */
+    private final class RequestText extends Reader {
+        private static final String END_OF_TEXT = new String(); // compared by identity
+
+        private final Connection connection;
+        private final BlockingQueue<String> chunks = new ArrayBlockingQueue<>(MAX_QUEUED_CHUNKS);
+        private final AtomicBoolean paused = new AtomicBoolean();
+        private String chunk = "";
+        private int position;
+        private volatile boolean closed;
+
+        private RequestText(Connection connection) {
+            this.connection = connection;
+        }
+
+        private void add(String received) {
+            if (!closed) {
+                chunks.add(received);
+            }
+        }
+
+        private void finish() {
+            chunks.add(END_OF_TEXT);
+        }
+
+        /**
+         * Called by the selector thread before passing the next frame. Returns true if no more chunks can be queued,
+         * in which case the worker resumes reading from the connection once it takes one.
+         */
+        private boolean pauseIfFull() {
+            if (chunks.remainingCapacity() > 0) {
+                return false;
+            }
+            paused.set(true);
+            // the worker may have taken a chunk before seeing the pause, then it is undone here
+            return chunks.remainingCapacity() == 0 || !paused.compareAndSet(true, false);
+        }
+
+        private void resumeIfPaused() {
+            if (paused.compareAndSet(true, false)) {
+                pendingReads.add(connection);
+                selector.wakeup();
+            }
+        }
+
+        /**
+         * Reads the rest of the text, waiting until it is received
+         */
+        private String readAll() {
+            StringBuilder text = new StringBuilder();
+            char[] buffer = new char[Protocol.MAX_DATA_CHARS];
+            int read;
+            while ((read = read(buffer, 0, buffer.length)) >= 0) {
+                text.append(buffer, 0, read);
+            }
+            return text.toString();
+        }
+
+        /**
+         * Reads characters of the text, waiting while none are received, and throws a
+         * {@link ConnectionClosedException} if the connection is closed in the meantime
+         */
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            while (position == chunk.length()) {
+                if (chunk == END_OF_TEXT) {
+                    return -1;
+                }
+                chunk = take();
+                position = 0;
+            }
+            int count = Math.min(length, chunk.length() - position);
+            chunk.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        private String take() {
+            try {
+                String next;
+                while ((next = chunks.poll(QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                    if (connection.closed) {
+                        throw new ConnectionClosedException();
+                    }
+                }
+                resumeIfPaused();
+                return next;
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new ConnectionClosedException();
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            chunks.clear();
+            resumeIfPaused();
+        }
+    }
+
+    /**
+     * Sends everything written to it as {@link Protocol#DATA} frames of at most {@link Protocol#MAX_DATA_CHARS}
+     * characters. A surrogate pair is never split between two frames, so every frame can be decoded on its own.
+     */
+    private final class ResponseWriter extends Writer {
+        private final Connection connection;
+        private final StringBuilder pending = new StringBuilder();
+
+        private ResponseWriter(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            for (int written = 0; written < length; ) {
+                int count = Math.min(length - written, Protocol.MAX_DATA_CHARS - pending.length());
+                pending.append(buffer, offset + written, count);
+                written += count;
+                if (pending.length() >= Protocol.MAX_DATA_CHARS) {
+                    sendPending();
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+            sendPending();
+        }
+
+        @Override
+        public void close() {
+            sendPending();
+        }
+
+        private void sendPending() {
+            int end = pending.length();
+            if (end > 1 && Character.isHighSurrogate(pending.charAt(end - 1))) {
+                end--;
+            }
+            if (end == 0 || end == 1 && Character.isHighSurrogate(pending.charAt(0))) {
+                return;
+            }
+            send(connection, Protocol.frame(Protocol.DATA, pending.substring(0, end)));
+            pending.delete(0, end);
+        }
+    }
+}
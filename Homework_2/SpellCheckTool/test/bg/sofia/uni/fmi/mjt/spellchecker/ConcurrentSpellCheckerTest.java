@@ -0,0 +1,171 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentSpellCheckerTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 50;
+    private static final String stopwords = """
+            is
+            a
+            the
+            """;
+
+    @Test
+    public void testSharedIndexedSpellCheckerUnderConcurrentRequests() throws Exception {
+        stress(new IndexedSpellChecker(new StringReader(dictionary(3000)), new StringReader(stopwords)));
+    }
+
+    @Test
+    public void testSharedNaiveSpellCheckerUnderConcurrentRequests() throws Exception {
+        stress(new NaiveSpellChecker(new StringReader(dictionary(300)), new StringReader(stopwords)));
+    }
+
+    @Test
+    public void testReadersSeeWholeDictionaryVersionsWhileWordsAreUpdated() throws Exception {
+        updateWhileReading(new IndexedSpellChecker(new StringReader(dictionary(3000)), new StringReader(stopwords)));
+        updateWhileReading(new NaiveSpellChecker(new StringReader(dictionary(300)), new StringReader(stopwords)));
+        updateWhileReading(new SymSpellChecker(new StringReader(dictionary(3000)), new StringReader(stopwords)));
+    }
+
+    /**
+     * Adds and removes a batch of words over and over while other threads look up suggestions and check that
+     * every result is the one of the dictionary either with or without the whole batch
+     */
+    private static void updateWhileReading(AbstractSpellChecker spellChecker) throws Exception {
+        List<String> batch = List.of("abcdef", "abcdff", "abcfef", "bcdefa");
+        String query = "abcdeff";
+        List<String> withoutBatch = spellChecker.findClosestWords(query, 4);
+        spellChecker.addWords(batch);
+        List<String> withBatch = spellChecker.findClosestWords(query, 4);
+        spellChecker.removeWords(batch);
+        assertTrue(!withBatch.equals(withoutBatch));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicBoolean updating = new AtomicBoolean(true);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit((Callable<Void>) () -> {
+                    while (updating.get()) {
+                        List<String> suggestions = spellChecker.findClosestWords(query, 4);
+                        assertTrue(suggestions.toString(),
+                                suggestions.equals(withoutBatch) || suggestions.equals(withBatch));
+                    }
+                    return null;
+                }));
+            }
+            for (int round = 0; round < ROUNDS; round++) {
+                spellChecker.addWords(batch);
+                spellChecker.removeWords(batch);
+            }
+            updating.set(false);
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            updating.set(false);
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+    }
+
+    /**
+     * Runs findClosestWords, metadata and analyze on {@code spellChecker} from many threads at once and checks
+     * every result against the one computed by a single thread
+     */
+    private static void stress(SpellChecker spellChecker) throws Exception {
+        Random random = new Random(326);
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int line = 0; line < 20; line++) {
+                for (int word = 0; word < 6; word++) {
+                    text.append(randomWord(random)).append(word % 3 == 2 ? ", " : " ");
+                }
+                text.append(System.lineSeparator());
+            }
+            texts.add(text.toString());
+        }
+        List<String> expectedReports = new ArrayList<>();
+        List<Metadata> expectedMetadata = new ArrayList<>();
+        for (String text : texts) {
+            expectedReports.add(analyze(spellChecker, text));
+            expectedMetadata.add(spellChecker.metadata(new StringReader(text)));
+        }
+        List<String> queries = List.of(randomWord(random), randomWord(random), randomWord(random));
+        List<List<String>> expectedSuggestions = new ArrayList<>();
+        for (String query : queries) {
+            expectedSuggestions.add(spellChecker.findClosestWords(query, 4));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                results.add(executor.submit((Callable<Void>) () -> {
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        int text = (thread + round) % texts.size();
+                        int query = (thread + round) % queries.size();
+                        assertEquals(expectedSuggestions.get(query),
+                                spellChecker.findClosestWords(queries.get(query), 4));
+                        assertEquals(expectedMetadata.get(text),
+                                spellChecker.metadata(new StringReader(texts.get(text))));
+                        assertEquals(expectedReports.get(text), analyze(spellChecker, texts.get(text)));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+    }
+
+    private static String analyze(SpellChecker spellChecker, String text) {
+        StringWriter output = new StringWriter();
+        spellChecker.analyze(new StringReader(text), output, 3);
+        return output.toString();
+    }
+
+    private static String dictionary(int size) {
+        Random random = new Random(13);
+        StringBuilder dictionary = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            dictionary.append(randomWord(random)).append(System.lineSeparator());
+        }
+        return dictionary.toString();
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 2 + random.nextInt(7);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,378 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.metrics.SpellCheckMetrics;
+import bg.sofia.uni.fmi.mjt.spellchecker.metrics.SpellCheckRecorder;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IndexedSpellCheckerTest {
+    private static final String dictionaryWords = """
+                        
+            valio
+            123
+            hello
+            you
+            there
+            Nostradamus
+            football
+            ball12-3
+            asdf
+            EnglishMan
+            New
+            York
+            pitch
+            stupid
+            FMI
+            JAVA
+            hello
+            """;
+    private static final String stopwords = """
+            is
+            a
+            to
+            be
+            or
+            not
+            the
+            there
+            there's
+            are
+            he
+            she
+            it
+            I
+            who
+            val
+            """;
+    private SpellChecker indexedSpellChecker;
+    private SpellChecker naiveSpellChecker;
+
+    @Before
+    public void createSpellCheckers() {
+        indexedSpellChecker = new IndexedSpellChecker(new StringReader(dictionaryWords),
+                new StringReader(stopwords));
+        naiveSpellChecker = new NaiveSpellChecker(new StringReader(dictionaryWords),
+                new StringReader(stopwords));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorWithNullDictionary() {
+        new IndexedSpellChecker(null, new StringReader(stopwords));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindClosestWordsWithNegativeCounter() {
+        indexedSpellChecker.findClosestWords("valio", -1);
+    }
+
+    @Test
+    public void testFindClosestWordsWithShortWord() {
+        assertTrue(indexedSpellChecker.findClosestWords("v", 3).isEmpty());
+        assertTrue(indexedSpellChecker.findClosestWords(" @$#%%$% ", 3).isEmpty());
+    }
+
+    @Test
+    public void testFindClosestWordsWithRegularWords() {
+        assertEquals(List.of("valio"), indexedSpellChecker.findClosestWords("valioo", 1));
+        assertEquals(List.of("you"), indexedSpellChecker.findClosestWords("out", 1));
+        List<String> closestToBall = indexedSpellChecker.findClosestWords("ball", 2);
+        assertTrue(closestToBall.contains("football"));
+        assertEquals(2, closestToBall.size());
+    }
+
+    @Test
+    public void testFindClosestWordsKeepsTiedWords() {
+        assertEquals(List.of("ball12-3", "football", "hello", "valio"),
+                indexedSpellChecker.findClosestWords("ball", 4));
+    }
+
+    @Test
+    public void testFindClosestWordsWithZeroCounter() {
+        assertTrue(indexedSpellChecker.findClosestWords("valio", 0).isEmpty());
+    }
+
+    @Test
+    public void testFindClosestWordsMatchesNaiveSpellChecker() {
+        for (String word : List.of("valioo", "footbal", "nostradamos", "javaa", "Stupidd", "pich", "englsh")) {
+            assertEquals(naiveSpellChecker.findClosestWords(word, 3), indexedSpellChecker.findClosestWords(word, 3));
+        }
+    }
+
+    @Test
+    public void testMetadataMatchesNaiveSpellChecker() {
+        String text = "####!a 12)##### A****!  " + System.lineSeparator()
+                + "()()() 23 abc 09abc *123# hello Hello, new-york";
+        assertEquals(naiveSpellChecker.metadata(new StringReader(text)),
+                indexedSpellChecker.metadata(new StringReader(text)));
+    }
+
+    @Test
+    public void testAnalyzeWithSimpleText() {
+        String text = "Studying JaVa in fmi feels like" + System.lineSeparator()
+                + "englishMan in NEW YORK";
+        Writer writer = new StringWriter();
+        indexedSpellChecker.analyze(new StringReader(text), writer, 2);
+        Writer expected = new StringWriter();
+        naiveSpellChecker.analyze(new StringReader(text), expected, 2);
+        assertEquals(expected.toString(), writer.toString());
+    }
+
+    @Test
+    public void testAnalyzeParallelMatchesAnalyzeStreaming() {
+        String text = longText();
+        IndexedSpellChecker spellChecker = (IndexedSpellChecker) indexedSpellChecker;
+        Writer expected = new StringWriter();
+        spellChecker.analyzeStreaming(new StringReader(text), expected, 2);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Writer writer = new StringWriter();
+            spellChecker.analyzeParallel(new StringReader(text), writer, 2, pool);
+            assertEquals(expected.toString(), writer.toString());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testAnalyzeParallelWithEmptyText() {
+        IndexedSpellChecker spellChecker = (IndexedSpellChecker) indexedSpellChecker;
+        Writer expected = new StringWriter();
+        spellChecker.analyzeStreaming(new StringReader(""), expected, 2);
+        Writer writer = new StringWriter();
+        spellChecker.analyzeParallel(new StringReader(""), writer, 2, ForkJoinPool.commonPool());
+        assertEquals(expected.toString(), writer.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAnalyzeParallelWithNullPool() {
+        ((IndexedSpellChecker) indexedSpellChecker).analyzeParallel(new StringReader(""), new StringWriter(), 2, null);
+    }
+
+    @Test
+    public void testMetadataParallelMatchesMetadata() {
+        String text = longText();
+        assertEquals(indexedSpellChecker.metadata(new StringReader(text)),
+                ((IndexedSpellChecker) indexedSpellChecker).metadataParallel(new StringReader(text),
+                        ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void testBatchFindClosestWordsMatchesSingleWordCalls() {
+        List<String> words = List.of("valioo", "footbal", "Footbal!", "nostradamos", "javaa", "valioo", "Stupidd",
+                "pich", "englsh", "hellp", "yrok", "q", "");
+        Map<String, List<String>> closestWords = ((IndexedSpellChecker) indexedSpellChecker)
+                .findClosestWords(words, 3);
+        assertEquals(new ArrayList<>(new LinkedHashSet<>(words)), new ArrayList<>(closestWords.keySet()));
+        for (String word : words) {
+            assertEquals(word, indexedSpellChecker.findClosestWords(word, 3), closestWords.get(word));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchFindClosestWordsWithNullWord() {
+        ((IndexedSpellChecker) indexedSpellChecker).findClosestWords(Arrays.asList("valio", null), 3);
+    }
+
+    @Test
+    public void testAddAndRemoveWordsMatchesRebuiltDictionary() {
+        IndexedSpellChecker spellChecker = (IndexedSpellChecker) indexedSpellChecker;
+        spellChecker.addWords(List.of("Footbal!", "studying", "feels", "hello", "q"));
+        spellChecker.removeWords(List.of("JAVA", "missing"));
+        SpellChecker rebuilt = new IndexedSpellChecker(new StringReader(dictionaryWords.replace("JAVA\n", "")
+                + "footbal\nstudying\nfeels\n"), new StringReader(stopwords));
+
+        String text = "Studying JaVa in fmi feels like" + System.lineSeparator()
+                + "englishMan in NEW YORK, there's a footbal";
+        Writer expected = new StringWriter();
+        rebuilt.analyze(new StringReader(text), expected, 3);
+        Writer writer = new StringWriter();
+        spellChecker.analyze(new StringReader(text), writer, 3);
+        assertEquals(expected.toString(), writer.toString());
+        for (String word : List.of("footbl", "javaa", "studyng", "feel", "hellp")) {
+            assertEquals(word, rebuilt.findClosestWords(word, 3), spellChecker.findClosestWords(word, 3));
+        }
+    }
+
+    @Test
+    public void testRemoveWordsInvalidatesSuggestionCache() {
+        IndexedSpellChecker spellChecker = (IndexedSpellChecker) indexedSpellChecker;
+        spellChecker.enableSuggestionCache(16, SuggestionCache.EvictionPolicy.LRU);
+        Writer before = new StringWriter();
+        spellChecker.analyze(new StringReader("footbal"), before, 1);
+        assertTrue(before.toString().contains("{football}"));
+
+        spellChecker.removeWords(List.of("football"));
+        Writer after = new StringWriter();
+        spellChecker.analyze(new StringReader("footbal"), after, 1);
+        assertTrue(after.toString().contains("{ball12-3}"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddNullWords() {
+        ((IndexedSpellChecker) indexedSpellChecker).addWords(null);
+    }
+
+    @Test
+    public void testRecorderCountsTokensOfAllChunks() {
+        IndexedSpellChecker spellChecker = (IndexedSpellChecker) indexedSpellChecker;
+        String text = longText();
+        SpellCheckMetrics sequential = new SpellCheckMetrics();
+        spellChecker.setRecorder(sequential);
+        spellChecker.metadata(new StringReader(text));
+        SpellCheckMetrics parallel = new SpellCheckMetrics();
+        spellChecker.setRecorder(parallel);
+        spellChecker.metadataParallel(new StringReader(text), new ForkJoinPool(4));
+
+        assertEquals(1, parallel.getTexts());
+        assertTrue(sequential.getTokens() > 0);
+        assertEquals(sequential.getTokens(), parallel.getTokens());
+        assertTrue(parallel.phaseNanos(SpellCheckRecorder.Phase.MEMBERSHIP) > 0);
+        assertEquals(0, parallel.getSuggestions());
+
+        spellChecker.findClosestWords("footbal", 1);
+        assertEquals(1, parallel.getSuggestions());
+        assertTrue(parallel.candidates().max() > 0);
+    }
+
+    @Test
+    public void testPathOverloadsMatchReaderOverloads() throws IOException {
+        IndexedSpellChecker spellChecker = (IndexedSpellChecker) indexedSpellChecker;
+        Path text = Files.createTempFile("analyze-text", ".txt");
+        Path output = Files.createTempFile("analyze-output", ".txt");
+        try {
+            for (String currText : List.of("", "footbal", "hello\r\nfootbal is\rjavaa\n\n", longText())) {
+                Files.writeString(text, currText);
+                Writer expected = new StringWriter();
+                spellChecker.analyze(new StringReader(currText), expected, 2);
+                spellChecker.analyze(text, output, 2);
+                assertEquals(expected.toString(), Files.readString(output));
+                assertEquals(spellChecker.metadata(new StringReader(currText)), spellChecker.metadata(text));
+            }
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    public void testAnalyzeRejectsTheTextFileAsOutput() throws IOException {
+        IndexedSpellChecker spellChecker = (IndexedSpellChecker) indexedSpellChecker;
+        Path text = Files.createTempFile("analyze-text", ".txt");
+        try {
+            Files.writeString(text, "footbal");
+            for (Path output : List.of(text, text.getParent().resolve(".").resolve(text.getFileName()))) {
+                try {
+                    spellChecker.analyze(text, output, 2);
+                    fail("The text file must be rejected as output");
+                } catch (IllegalArgumentException exception) {
+                    assertEquals("footbal", Files.readString(text));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(text);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAnalyzeNullOutputFile() throws IOException {
+        Path text = Files.createTempFile("analyze-text", ".txt");
+        try {
+            ((IndexedSpellChecker) indexedSpellChecker).analyze(text, null, 2);
+        } finally {
+            Files.deleteIfExists(text);
+        }
+    }
+
+    @Test
+    public void testRerankingOrdersByEditDistanceLikeNaive() {
+        String words = dictionaryWords + "hell\nhallo\nhelo\nballot\n";
+        AbstractSpellChecker indexed = new IndexedSpellChecker(new StringReader(words), new StringReader(stopwords));
+        AbstractSpellChecker naive = new NaiveSpellChecker(new StringReader(words), new StringReader(stopwords));
+        assertEquals(List.of("helo", "hello", "hell"), indexed.findClosestWords("helol", 3));
+
+        indexed.enableReranking(8);
+        naive.enableReranking(8);
+        assertEquals(List.of("helo", "hell", "hello"), indexed.findClosestWords("helol", 3));
+        for (String word : List.of("hel", "balloo", "halo", "footbll", "yorkk", "javaa", "")) {
+            assertEquals(word, naive.findClosestWords(word, 3), indexed.findClosestWords(word, 3));
+        }
+        assertEquals(List.of(), indexed.findClosestWords("helol", 0));
+
+        indexed.disableReranking();
+        assertEquals(List.of("helo", "hello", "hell"), indexed.findClosestWords("helol", 3));
+    }
+
+    @Test
+    public void testEnableRerankingInvalidatesSuggestionCache() {
+        String words = dictionaryWords + "hell\nhelo\n";
+        AbstractSpellChecker spellChecker = new IndexedSpellChecker(new StringReader(words),
+                new StringReader(stopwords));
+        spellChecker.enableSuggestionCache(16, SuggestionCache.EvictionPolicy.LRU);
+        Writer before = new StringWriter();
+        spellChecker.analyze(new StringReader("helol"), before, 3);
+        assertTrue(before.toString().contains("{helo, hello, hell}"));
+
+        spellChecker.enableReranking(8);
+        Writer after = new StringWriter();
+        spellChecker.analyze(new StringReader("helol"), after, 3);
+        assertTrue(after.toString().contains("{helo, hell, hello}"));
+    }
+
+    private static String longText() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append("Studying JaVa in fmi feels like line ").append(i).append(System.lineSeparator())
+                    .append("englishMan in NEW YORK, footbal and hello").append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void testBitmapScoringSuggestsTheSameWords() {
+        String words = dictionaryWords + "hell\nhallo\nhelo\nballot\n";
+        AbstractSpellChecker bitmapped = new IndexedSpellChecker(new StringReader(words),
+                new StringReader(stopwords), true);
+        AbstractSpellChecker postings = new IndexedSpellChecker(new StringReader(words), new StringReader(stopwords));
+        bitmapped.addWords(List.of("helio"));
+        postings.addWords(List.of("helio"));
+        for (String word : List.of("helol", "hel", "balloo", "halo", "footbll", "yorkk", "javaa")) {
+            assertEquals(word, postings.findClosestWords(word, 3), bitmapped.findClosestWords(word, 3));
+        }
+    }
+
+    @Test
+    public void testSpellCheckerFromSnapshotMatchesTextDictionary() throws IOException {
+        Path snapshot = Files.createTempFile("dictionary-snapshot", ".bin");
+        try {
+            ((IndexedSpellChecker) indexedSpellChecker).writeSnapshot(snapshot);
+            SpellChecker fromSnapshot = IndexedSpellChecker.fromSnapshot(snapshot);
+            String text = "Studying JaVa in fmi feels like" + System.lineSeparator()
+                    + "englishMan in NEW YORK, there's a footbal";
+            Writer expected = new StringWriter();
+            indexedSpellChecker.analyze(new StringReader(text), expected, 3);
+            Writer writer = new StringWriter();
+            fromSnapshot.analyze(new StringReader(text), writer, 3);
+            assertEquals(expected.toString(), writer.toString());
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+}
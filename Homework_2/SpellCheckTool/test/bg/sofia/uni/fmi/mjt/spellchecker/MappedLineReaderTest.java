@@ -0,0 +1,80 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MappedLineReaderTest {
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("mapped-lines", ".txt");
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testLineTerminatorsMatchBufferedReader() throws IOException {
+        for (String text : List.of("", "\n", "\r", "\r\n", "a", "a\n", "a\r\nb", "a\r\rb\n\n", "\n\na\r",
+                "line one\r\nline two\nline three\rline four")) {
+            assertLines(text, 3, 2);
+            assertLines(text, 1 << 20, 1 << 10);
+        }
+    }
+
+    @Test
+    public void testWindowAndChunkBoundaries() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("r\u00E9sum\u00E9 \u4E2D\u6587 \uD83D\uDE00 ").append(i).append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 97 == 0) {
+                text.append("x".repeat(300)).append('\r');
+            }
+        }
+        for (long windowBytes : new long[] {5, 64, 1 << 20}) {
+            for (int chunkBytes : new int[] {1, 5, 16, 1 << 16}) {
+                assertLines(text.toString(), windowBytes, chunkBytes);
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedInputIsReplaced() throws IOException {
+        Files.write(file, new byte[] {'a', (byte) 0xC3, '\n', (byte) 0xFF, 'b'});
+        try (MappedLineReader reader = new MappedLineReader(file)) {
+            assertEquals("a\uFFFD", reader.readLine());
+            assertEquals("\uFFFDb", reader.readLine());
+            assertNull(reader.readLine());
+        }
+    }
+
+    private void assertLines(String text, long windowBytes, int chunkBytes) throws IOException {
+        Files.writeString(file, text);
+        List<String> expected;
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            expected = reader.lines().toList();
+        }
+        List<String> lines = new ArrayList<>();
+        try (MappedLineReader reader = new MappedLineReader(file, windowBytes, chunkBytes)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        assertEquals(windowBytes + "/" + chunkBytes + ": " + text, expected, lines);
+    }
+}
@@ -1,5 +1,8 @@
 package bg.sofia.uni.fmi.mjt.spellchecker;
 
+import bg.sofia.uni.fmi.mjt.spellchecker.metrics.SpellCheckMetrics;
+import bg.sofia.uni.fmi.mjt.spellchecker.metrics.SpellCheckRecorder;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -10,11 +13,21 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class NaiveSpellCheckerTest {
     private static final String dictionaryWords = """
@@ -127,14 +140,29 @@ public class NaiveSpellCheckerTest {
                 + "= = = Metadata = = =" + System.lineSeparator()
                 + "45 characters, 10 words, 5 spelling issue(s) found" + System.lineSeparator()
                 + "= = = Findings = = =" + System.lineSeparator()
-                + "Line #1, {feels} - Possible suggestions are {hello}" + System.lineSeparator()
                 + "Line #1, {studying} - Possible suggestions are {stupid, englishman}" + System.lineSeparator()
                 + "Line #1, {in} - Possible suggestions are {}" + System.lineSeparator()
+                + "Line #1, {feels} - Possible suggestions are {hello}" + System.lineSeparator()
                 + "Line #1, {like} - Possible suggestions are {valio, englishman}" + System.lineSeparator()
                 + "Line #2, {in} - Possible suggestions are {}";
         assertEquals(expected, writer.toString());
     }
 
+    @Test
+    public void testAnalyzeDoesNotReportWordsContainedInOtherWords() {
+        String reader = "in" + System.lineSeparator() + "pitching";
+        Writer writer = new StringWriter();
+        testSpellChecker.analyze(new StringReader(reader), writer, 0);
+        String expected = "in" + System.lineSeparator()
+                + "pitching" + System.lineSeparator()
+                + "= = = Metadata = = =" + System.lineSeparator()
+                + "10 characters, 2 words, 2 spelling issue(s) found" + System.lineSeparator()
+                + "= = = Findings = = =" + System.lineSeparator()
+                + "Line #1, {in} - Possible suggestions are {}" + System.lineSeparator()
+                + "Line #2, {pitching} - Possible suggestions are {}";
+        assertEquals(expected, writer.toString());
+    }
+
     @Test
     public void testAnalyzeWithComplicateText() {
         String reader = "D^ar assistant, " + System.lineSeparator()
@@ -153,12 +181,12 @@ public class NaiveSpellCheckerTest {
                 + "Line #1, {d^ar} - Possible suggestions are {}" + System.lineSeparator()
                 + "Line #1, {assistant} - Possible suggestions are {englishman, asdf, stupid}"
                 + System.lineSeparator()
-                + "Line #2, {with} - Possible suggestions are {pitch}" + System.lineSeparator()
                 + "Line #2, {currently} - Possible suggestions are {there, englishman}" + System.lineSeparator()
                 + "Line #2, {struggling} - Possible suggestions are {englishman, nostradamus, valio}"
                 + System.lineSeparator()
-                + "Line #3, {playing} - Possible suggestions are {englishman}" + System.lineSeparator()
+                + "Line #2, {with} - Possible suggestions are {pitch}" + System.lineSeparator()
                 + "Line #3, {while} - Possible suggestions are {}" + System.lineSeparator()
+                + "Line #3, {playing} - Possible suggestions are {englishman}" + System.lineSeparator()
                 + "Line #3, {foot0ball} - Possible suggestions are {football, ball12-3, valio}"
                 + System.lineSeparator()
                 + "Line #3, {on} - Possible suggestions are {}" + System.lineSeparator()
@@ -167,6 +195,88 @@ public class NaiveSpellCheckerTest {
         assertEquals(expected, writer.toString());
     }
 
+    @Test
+    public void testAnalyzeStreamingWithEmptyText() {
+        NaiveSpellChecker spellChecker = new NaiveSpellChecker(new StringReader(dictionaryWords),
+                new StringReader(stopwords));
+        Writer returnMessage = new StringWriter();
+        spellChecker.analyzeStreaming(new StringReader(""), returnMessage, 2);
+        String expected = System.lineSeparator()
+                + "= = = Metadata = = =" + System.lineSeparator()
+                + new Metadata(0, 0, 0).formattedMetadata() + System.lineSeparator()
+                + "= = = Findings = = =" + System.lineSeparator();
+        assertEquals(expected, returnMessage.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAnalyzeStreamingWithNegativeSuggestionCounter() {
+        NaiveSpellChecker spellChecker = new NaiveSpellChecker(new StringReader(dictionaryWords),
+                new StringReader(stopwords));
+        spellChecker.analyzeStreaming(new StringReader(""), new StringWriter(), -1);
+    }
+
+    @Test
+    public void testAnalyzeStreamingWithSimpleText() {
+        NaiveSpellChecker spellChecker = new NaiveSpellChecker(new StringReader(dictionaryWords),
+                new StringReader(stopwords));
+        String reader = "Studying JaVa in fmi feels like" + System.lineSeparator()
+                + "englishMan in NEW YORK";
+        Writer writer = new StringWriter();
+        spellChecker.analyzeStreaming(new StringReader(reader), writer, 2);
+        String expected = "Studying JaVa in fmi feels like" + System.lineSeparator()
+                + "englishMan in NEW YORK" + System.lineSeparator()
+                + "= = = Metadata = = =" + System.lineSeparator()
+                + "45 characters, 10 words, 5 spelling issue(s) found" + System.lineSeparator()
+                + "= = = Findings = = =" + System.lineSeparator()
+                + "Line #1, {studying} - Possible suggestions are {stupid, englishman}" + System.lineSeparator()
+                + "Line #1, {in} - Possible suggestions are {}" + System.lineSeparator()
+                + "Line #1, {feels} - Possible suggestions are {hello}" + System.lineSeparator()
+                + "Line #1, {like} - Possible suggestions are {valio, englishman}" + System.lineSeparator()
+                + "Line #2, {in} - Possible suggestions are {}";
+        assertEquals(expected, writer.toString());
+    }
+
+    @Test
+    public void testFindingsAreSpilledOwnerOnlyAndDeletedWhenAnalysisFails() throws IOException {
+        NaiveSpellChecker spellChecker = new NaiveSpellChecker(new StringReader(dictionaryWords),
+                new StringReader(stopwords));
+        Path spillDirectory = Files.createTempDirectory("spill");
+        spellChecker.setSpillDirectory(spillDirectory);
+        boolean posix = spillDirectory.getFileSystem().supportedFileAttributeViews().contains("posix");
+        Map<Path, Set<PosixFilePermission>> spilledFiles = new HashMap<>();
+        Writer failingOutput = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                try (var files = Files.list(spillDirectory)) {
+                    for (Path curr : files.toList()) {
+                        spilledFiles.put(curr, posix ? Files.getPosixFilePermissions(curr) : Set.of());
+                    }
+                }
+                throw new IOException("Disk is full");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            spellChecker.analyzeStreaming(new StringReader("Studying JaVa in fmi feels like"), failingOutput, 2);
+            fail("The analysis must fail with its output");
+        } catch (IllegalStateException exception) {
+            assertEquals(List.of(posix ? PosixFilePermissions.fromString("rw-------") : Set.of()),
+                    new ArrayList<>(spilledFiles.values()));
+            try (var files = Files.list(spillDirectory)) {
+                assertEquals(0, files.count());
+            }
+        } finally {
+            Files.deleteIfExists(spillDirectory);
+        }
+    }
+
     @Test
     public void testMetadataWithSimpleText() {
         String testString = "Let's check if this text returns right:" + System.lineSeparator()
@@ -266,6 +376,69 @@ public class NaiveSpellCheckerTest {
         assertEquals(1, thirdWordList.size());
     }
 
+    @Test
+    public void testAddAndRemoveWords() {
+        NaiveSpellChecker spellChecker = (NaiveSpellChecker) testSpellChecker;
+        String text = "Studying JaVa";
+        assertEquals(1, spellChecker.metadata(new StringReader(text)).mistakes());
+
+        spellChecker.addWords(List.of("Studying", "javascript"));
+        assertEquals(0, spellChecker.metadata(new StringReader(text)).mistakes());
+        assertEquals(List.of("javascript"), spellChecker.findClosestWords("javascrip", 1));
+
+        spellChecker.removeWords(List.of("JAVA", "javascript", "missing"));
+        assertEquals(1, spellChecker.metadata(new StringReader(text)).mistakes());
+        assertEquals(List.of("asdf"), spellChecker.findClosestWords("javascrip", 1));
+        assertTrue(spellChecker.findClosestWords("jav", 3).isEmpty());
+    }
+
+    @Test
+    public void testUpdatesPastCompactionMatchRebuiltDictionary() {
+        NaiveSpellChecker spellChecker = (NaiveSpellChecker) testSpellChecker;
+        Random random = new Random(326);
+        TreeSet<String> generated = new TreeSet<>();
+        while (generated.size() < 1500) {
+            StringBuilder word = new StringBuilder();
+            for (int i = 0, length = 3 + random.nextInt(5); i < length; i++) {
+                word.append((char) ('a' + random.nextInt(6)));
+            }
+            generated.add(word.toString());
+        }
+        List<String> added = new ArrayList<>(generated);
+        for (int from = 0; from < added.size(); from += 100) {
+            spellChecker.addWords(added.subList(from, from + 100));
+        }
+        spellChecker.removeWords(added.subList(0, 200));
+        SpellChecker rebuilt = new NaiveSpellChecker(new StringReader(dictionaryWords
+                + String.join(System.lineSeparator(), added.subList(200, added.size()))), new StringReader(stopwords));
+
+        for (String word : List.of("abcde", "fedcb", "aabbf", "valioo", added.get(0), added.get(700))) {
+            assertEquals(word, rebuilt.findClosestWords(word, 5), spellChecker.findClosestWords(word, 5));
+        }
+    }
+
+    @Test
+    public void testRecorderReceivesPhasesAndSuggestions() {
+        NaiveSpellChecker spellChecker = (NaiveSpellChecker) testSpellChecker;
+        SpellCheckMetrics metrics = new SpellCheckMetrics();
+        spellChecker.setRecorder(metrics);
+        String text = "hello is footbal" + System.lineSeparator() + "valioo";
+        spellChecker.analyze(new StringReader(text), new StringWriter(), 2);
+
+        assertEquals(1, metrics.getTexts());
+        assertEquals(4, metrics.getTokens());
+        assertEquals(2, metrics.getSuggestions());
+        assertTrue(metrics.candidates().max() > 0);
+        for (SpellCheckRecorder.Phase phase : SpellCheckRecorder.Phase.values()) {
+            assertTrue(phase.name(), metrics.phaseNanos(phase) > 0);
+        }
+
+        spellChecker.setRecorder(null);
+        spellChecker.analyze(new StringReader(text), new StringWriter(), 2);
+        assertEquals(1, metrics.getTexts());
+        assertEquals(2, metrics.getSuggestions());
+    }
+
     @Test
     public void testCleanUpFunction() {
         StringReworker reworker = new NaiveSpellChecker(new StringReader(dictionaryWords),
@@ -0,0 +1,140 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SpellCheckerRegistryTest {
+    private static final String dictionaryWords = """
+            hello
+            help
+            yellow
+            football
+            pitch
+            """;
+    private static final String stopwords = """
+            is
+            a
+            the
+            """;
+
+    private SpellCheckerRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new SpellCheckerRegistry();
+        registry.registerBase("en", new StringReader(dictionaryWords), new StringReader(stopwords));
+    }
+
+    @Test
+    public void testTenantsSeeBaseAndOwnWordsOnly() {
+        IndexedSpellChecker first = registry.registerTenant("first", "en", List.of("kubernetes"), null);
+        IndexedSpellChecker second = registry.registerTenant("second", "en", List.of("terraform"), null);
+
+        assertEquals(List.of("kubernetes"), first.findClosestWords("kubernetis", 1));
+        assertEquals(List.of("terraform"), second.findClosestWords("teraform", 1));
+        assertEquals(0, first.metadata(new StringReader("hello kubernetes")).mistakes());
+        assertEquals(1, first.metadata(new StringReader("hello terraform")).mistakes());
+        assertEquals(1, second.metadata(new StringReader("hello kubernetes")).mistakes());
+    }
+
+    @Test
+    public void testTenantsShareBaseIndex() {
+        IndexedSpellChecker first = registry.registerTenant("first", "en", List.of("kubernetes"), null);
+        IndexedSpellChecker second = registry.registerTenant("second", "en", List.of(), null);
+
+        assertSame(first.baseIndex(), second.baseIndex());
+        assertSame(first.baseWords(), second.baseWords());
+        assertEquals(1, first.overlaySize());
+        assertEquals(0, second.overlaySize());
+    }
+
+    @Test
+    public void testTenantOverlayIsNeverCompactedIntoPrivateIndex() {
+        IndexedSpellChecker small = registry.registerTenant("small", "en", List.of(), null);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            words.add("word" + Integer.toString(i, Character.MAX_RADIX));
+        }
+        IndexedSpellChecker large = registry.registerTenant("large", "en", words, null);
+
+        assertSame(small.baseIndex(), large.baseIndex());
+        assertEquals(words.size(), large.overlaySize());
+        assertEquals(0, large.metadata(new StringReader("hello word1z")).mistakes());
+    }
+
+    @Test
+    public void testTenantChangesDoNotLeakIntoOtherTenants() {
+        IndexedSpellChecker first = registry.registerTenant("first", "en", List.of(), null);
+        IndexedSpellChecker second = registry.registerTenant("second", "en", List.of(), null);
+
+        first.removeWords(List.of("hello"));
+
+        assertEquals(1, first.metadata(new StringReader("hello")).mistakes());
+        assertEquals(0, second.metadata(new StringReader("hello")).mistakes());
+        assertSame(first.baseIndex(), second.baseIndex());
+    }
+
+    @Test
+    public void testTenantStopwords() {
+        IndexedSpellChecker inherited = registry.registerTenant("inherited", "en", List.of(), null);
+        IndexedSpellChecker own = registry.registerTenant("own", "en", List.of(), new StringReader("Zorg\n"));
+
+        assertEquals(new Metadata(11, 2, 2), inherited.metadata(new StringReader("zorg zorg the")));
+        assertEquals(new Metadata(11, 1, 1), own.metadata(new StringReader("zorg zorg the")));
+    }
+
+    @Test
+    public void testTenantMatchesStandaloneChecker() {
+        IndexedSpellChecker tenant = registry.registerTenant("tenant", "en", List.of("kubernetes", "helm"), null);
+        IndexedSpellChecker standalone = new IndexedSpellChecker(
+                new StringReader(dictionaryWords + "kubernetes\nhelm\n"), new StringReader(stopwords));
+
+        for (String word : List.of("helo", "hlep", "yelow", "kubernets", "pich")) {
+            assertEquals(standalone.findClosestWords(word, 3), tenant.findClosestWords(word, 3));
+        }
+    }
+
+    @Test
+    public void testLookupAndRemoval() {
+        IndexedSpellChecker tenant = registry.registerTenant("tenant", "en", List.of(), null);
+
+        assertSame(tenant, registry.tenant("tenant"));
+        assertEquals(Set.of("tenant"), registry.tenantNames());
+        assertEquals(Set.of("en"), registry.baseNames());
+        assertTrue(registry.removeTenant("tenant"));
+        assertFalse(registry.removeTenant("tenant"));
+        assertNull(registry.tenant("tenant"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterTenantOfUnknownBase() {
+        registry.registerTenant("tenant", "de", List.of(), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterDuplicateTenant() {
+        registry.registerTenant("tenant", "en", List.of(), null);
+        registry.registerTenant("tenant", "en", List.of(), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterDuplicateBase() {
+        registry.registerBase("en", new StringReader(dictionaryWords), new StringReader(stopwords));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterTenantNullWords() {
+        registry.registerTenant("tenant", "en", null, null);
+    }
+}
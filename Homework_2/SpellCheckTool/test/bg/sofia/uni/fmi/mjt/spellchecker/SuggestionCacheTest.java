@@ -0,0 +1,121 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SuggestionCacheTest {
+    private static final String dictionaryWords = """
+            hello
+            help
+            world
+            java
+            """;
+    private static final String stopwords = """
+            is
+            a
+            """;
+
+    @Test
+    public void testRepeatedLookupIsAHit() {
+        SuggestionCache cache = new SuggestionCache(10, SuggestionCache.EvictionPolicy.LRU);
+        List<String> loads = new ArrayList<>();
+        cache.get("helo", 2, (word, n) -> load(loads, word));
+        cache.get("helo", 2, (word, n) -> load(loads, word));
+        cache.get("helo", 3, (word, n) -> load(loads, word));
+
+        assertEquals(List.of("helo", "helo"), loads);
+        assertEquals(new SuggestionCache.Stats(1, 2, 0, 2), cache.stats());
+        assertEquals(1.0 / 3, cache.stats().hitRate(), 1e-9);
+    }
+
+    @Test
+    public void testLruEvictsLeastRecentlyUsed() {
+        SuggestionCache cache = new SuggestionCache(2, SuggestionCache.EvictionPolicy.LRU);
+        List<String> loads = new ArrayList<>();
+        cache.get("a", 1, (word, n) -> load(loads, word));
+        cache.get("b", 1, (word, n) -> load(loads, word));
+        cache.get("a", 1, (word, n) -> load(loads, word));
+        cache.get("c", 1, (word, n) -> load(loads, word));
+        cache.get("a", 1, (word, n) -> load(loads, word));
+        cache.get("b", 1, (word, n) -> load(loads, word));
+
+        assertEquals(List.of("a", "b", "c", "b"), loads);
+        assertEquals(2, cache.stats().evictions());
+    }
+
+    @Test
+    public void testLfuEvictsLeastFrequentlyUsed() {
+        SuggestionCache cache = new SuggestionCache(2, SuggestionCache.EvictionPolicy.LFU);
+        List<String> loads = new ArrayList<>();
+        cache.get("a", 1, (word, n) -> load(loads, word));
+        cache.get("a", 1, (word, n) -> load(loads, word));
+        cache.get("b", 1, (word, n) -> load(loads, word));
+        cache.get("c", 1, (word, n) -> load(loads, word));
+        cache.get("a", 1, (word, n) -> load(loads, word));
+        cache.get("c", 1, (word, n) -> load(loads, word));
+        cache.get("b", 1, (word, n) -> load(loads, word));
+
+        assertEquals(List.of("a", "b", "c", "b"), loads);
+        assertEquals(2, cache.stats().evictions());
+    }
+
+    @Test
+    public void testInvalidateDropsEntriesAndLoadsInFlight() {
+        SuggestionCache cache = new SuggestionCache(10, SuggestionCache.EvictionPolicy.LFU);
+        List<String> loads = new ArrayList<>();
+        cache.get("a", 1, (word, n) -> load(loads, word));
+        cache.invalidate();
+        cache.get("a", 1, (word, n) -> {
+            cache.invalidate();
+            return load(loads, word);
+        });
+        cache.get("a", 1, (word, n) -> load(loads, word));
+
+        assertEquals(List.of("a", "a", "a"), loads);
+        assertEquals(1, cache.stats().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveCapacity() {
+        new SuggestionCache(0, SuggestionCache.EvictionPolicy.LRU);
+    }
+
+    @Test
+    public void testAnalyzeWithCacheMatchesAnalyzeWithout() {
+        AbstractSpellChecker spellChecker = new IndexedSpellChecker(new StringReader(dictionaryWords),
+                new StringReader(stopwords));
+        String text = """
+                helo wrld, helo
+                helo is a jva
+                wrld helo""";
+        String expected = analyze(spellChecker, text);
+        SuggestionCache cache = spellChecker.enableSuggestionCache(100, SuggestionCache.EvictionPolicy.LRU);
+
+        assertSame(cache, spellChecker.suggestionCache());
+        assertEquals(expected, analyze(spellChecker, text));
+        assertEquals(new SuggestionCache.Stats(3, 3, 0, 3), cache.stats());
+
+        spellChecker.disableSuggestionCache();
+        assertNull(spellChecker.suggestionCache());
+        assertEquals(expected, analyze(spellChecker, text));
+    }
+
+    private static List<String> load(List<String> loads, String word) {
+        loads.add(word);
+        return List.of(word);
+    }
+
+    private static String analyze(SpellChecker spellChecker, String text) {
+        StringWriter output = new StringWriter();
+        spellChecker.analyze(new StringReader(text), output, 2);
+        return output.toString();
+    }
+}
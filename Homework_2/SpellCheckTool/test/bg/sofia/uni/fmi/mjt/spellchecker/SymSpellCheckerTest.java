@@ -0,0 +1,120 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SymSpellCheckerTest {
+    private static final String dictionaryWords = """
+            valio
+            123
+            hello
+            hell
+            help
+            you
+            there
+            Nostradamus
+            football
+            EnglishMan
+            New
+            York
+            pitch
+            stupid
+            FMI
+            JAVA
+            """;
+    private static final String stopwords = """
+            is
+            a
+            the
+            in
+            """;
+    private SpellChecker spellChecker;
+
+    @Before
+    public void createSpellChecker() {
+        spellChecker = SpellCheckerEngine.SYMSPELL.create(new StringReader(dictionaryWords),
+                new StringReader(stopwords));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorWithNullDictionary() {
+        new SymSpellChecker(null, new StringReader(stopwords));
+    }
+
+    @Test
+    public void testAddAndRemoveWordsMatchesRebuiltDictionary() {
+        SymSpellChecker symSpellChecker = (SymSpellChecker) spellChecker;
+        symSpellChecker.addWords(List.of("Helm!", "studying", "feels", "hello", "q"));
+        symSpellChecker.removeWords(List.of("hell", "missing"));
+        SpellChecker rebuilt = new SymSpellChecker(new StringReader(dictionaryWords.replace("hell\n", "")
+                + "helm\nstudying\nfeels\n"), new StringReader(stopwords));
+
+        String text = "Helo JaVa in fmi feels like" + System.lineSeparator() + "englishMan in NEW YOKR, studyng";
+        Writer expected = new StringWriter();
+        rebuilt.analyze(new StringReader(text), expected, 3);
+        Writer writer = new StringWriter();
+        symSpellChecker.analyze(new StringReader(text), writer, 3);
+        assertEquals(expected.toString(), writer.toString());
+        for (String word : List.of("helo", "hel", "studyng", "feel", "yokr")) {
+            assertEquals(word, rebuilt.findClosestWords(word, 3), symSpellChecker.findClosestWords(word, 3));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorWithNegativeEditDistance() {
+        new SymSpellChecker(new StringReader(dictionaryWords), new StringReader(stopwords), -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindClosestWordsWithNegativeCounter() {
+        spellChecker.findClosestWords("hello", -1);
+    }
+
+    @Test
+    public void testFindClosestWordsOrdersByEditDistanceThenAlphabetically() {
+        assertEquals(List.of("hell", "hello", "help"), spellChecker.findClosestWords("Helo", 5));
+        assertEquals(List.of("hell"), spellChecker.findClosestWords("helo", 1));
+    }
+
+    @Test
+    public void testFindClosestWordsWithTransposition() {
+        assertEquals(List.of("football"), spellChecker.findClosestWords("footblal", 3));
+        assertEquals(List.of("nostradamus"), spellChecker.findClosestWords("nostrdaamus", 3));
+    }
+
+    @Test
+    public void testFindClosestWordsSkipsWordsTooFarAway() {
+        assertTrue(spellChecker.findClosestWords("qwerty", 3).isEmpty());
+        assertTrue(spellChecker.findClosestWords("hello", 0).isEmpty());
+    }
+
+    @Test
+    public void testFindClosestWordsWithSmallerEditDistance() {
+        SpellChecker strict = new SymSpellChecker(new StringReader(dictionaryWords), new StringReader(stopwords), 1);
+        assertEquals(List.of("stupid"), strict.findClosestWords("stupd", 3));
+        assertTrue(strict.findClosestWords("stpd", 3).isEmpty());
+    }
+
+    @Test
+    public void testAnalyzeUsesTheCommonReportFormat() {
+        String text = "Helo JaVa in fmi" + System.lineSeparator() + "englishMan in NEW YOKR";
+        Writer writer = new StringWriter();
+        spellChecker.analyze(new StringReader(text), writer, 2);
+        String expected = "Helo JaVa in fmi" + System.lineSeparator()
+                + "englishMan in NEW YOKR" + System.lineSeparator()
+                + "= = = Metadata = = =" + System.lineSeparator()
+                + "32 characters, 6 words, 2 spelling issue(s) found" + System.lineSeparator()
+                + "= = = Findings = = =" + System.lineSeparator()
+                + "Line #1, {helo} - Possible suggestions are {hell, hello}" + System.lineSeparator()
+                + "Line #2, {yokr} - Possible suggestions are {york, you}";
+        assertEquals(expected, writer.toString());
+    }
+}
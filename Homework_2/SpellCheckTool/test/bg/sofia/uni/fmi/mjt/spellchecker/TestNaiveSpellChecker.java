@@ -181,7 +181,7 @@ public class TestNaiveSpellChecker {
 
     @Test(expected = IllegalArgumentException.class)
     public void testMetadataWithNull() {
-        spellChecker.metadata(null);
+        spellChecker.metadata((Reader) null);
     }
 
     @Test
@@ -0,0 +1,60 @@
+package bg.sofia.uni.fmi.mjt.spellchecker;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TokenizerTest {
+    private static String regexCleanUp(String toClean) {
+        return toClean.toLowerCase()
+                .trim()
+                .replaceAll("^[^a-zA-Z0-9\\s]+|[^a-zA-Z0-9\\s]+$", "");
+    }
+
+    @Test
+    public void testTokenizeRecordsPositions() {
+        List<Token> tokens = new ArrayList<>();
+        Tokenizer.tokenize("  Hello, (World)!\tfoo", 3, tokens::add);
+        assertEquals(List.of(new Token("hello", 3, 3), new Token("world", 3, 10), new Token("foo", 3, 19)),
+                tokens);
+    }
+
+    @Test
+    public void testTokenizeSkipsTokensWithoutLettersOrDigits() {
+        List<Token> tokens = new ArrayList<>();
+        Tokenizer.tokenize("^@#& a*b ()", 1, tokens::add);
+        assertEquals(List.of(new Token("a*b", 1, 6)), tokens);
+    }
+
+    @Test
+    public void testTokenizeCountsNonWhitespaceCharacters() {
+        String line = " \t ab,c \u000B\f d$ \u00A0x ";
+        assertEquals(line.replaceAll("\\s+", "").length(), Tokenizer.tokenize(line, 1, token -> { }));
+    }
+
+    @Test
+    public void testTokenizeMatchesSplitAndCleanUp() {
+        String line = "D^ar  assistant, He (Valio) is$ #e%%y Chri\u00DFtmas! \u00C0la-\u00E7arte --- 123";
+        List<String> expected = new ArrayList<>();
+        for (String curr : line.split("\\s+")) {
+            String cleaned = regexCleanUp(curr);
+            if (!cleaned.isEmpty()) {
+                expected.add(cleaned);
+            }
+        }
+        List<String> words = new ArrayList<>();
+        Tokenizer.tokenize(line, 1, token -> words.add(token.word()));
+        assertEquals(expected, words);
+    }
+
+    @Test
+    public void testNormalizeMatchesRegexCleanUp() {
+        for (String word : List.of("", "  ", "Hello", "!!Hello??", " ! a b ! ", "(New York)", "\u00C0b\u00E7!",
+                "\u0130stanbul", "--", "a-b")) {
+            assertEquals(regexCleanUp(word), Tokenizer.normalize(word));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.IndexedSpellChecker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Compares looking up a bulk of misspelled tokens one findClosestWords call at a time with the batch API,
+ * both on a single worker, which only removes the repeated lookups, and on the common pool.
+ * Like in a real bulk-correction job, the tokens repeat: they are drawn from a smaller set of misspelled words.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class BatchSuggestionBenchmark {
+    private static final int SUGGESTIONS = 5;
+    private static final int TOKENS = 3000;
+    private static final int DISTINCT_WORDS = 1000;
+    private static final int RUNS = 3;
+
+    public static void main(String[] args) throws IOException {
+        IndexedSpellChecker spellChecker = (IndexedSpellChecker) SuggestionLatencyBenchmark.create(false);
+        List<String> distinctWords = SuggestionLatencyBenchmark.misspelledWords(DISTINCT_WORDS);
+        Random random = new Random(326);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < TOKENS; i++) {
+            words.add(distinctWords.get(random.nextInt(distinctWords.size())));
+        }
+        ForkJoinPool singleWorker = new ForkJoinPool(1);
+        try {
+            for (int run = 0; run < RUNS; run++) {
+                measure("one by one", () -> {
+                    for (String word : words) {
+                        spellChecker.findClosestWords(word, SUGGESTIONS);
+                    }
+                });
+                measure("batch, 1 worker", () -> spellChecker.findClosestWords(words, SUGGESTIONS, singleWorker));
+                measure("batch, common pool", () -> spellChecker.findClosestWords(words, SUGGESTIONS));
+            }
+        } finally {
+            singleWorker.shutdown();
+        }
+    }
+
+    private static void measure(String name, Runnable lookup) {
+        long start = System.nanoTime();
+        lookup.run();
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-20s %6d ms, %8.0f tokens/s%n", name, nanos / 1_000_000, TOKENS / (nanos / 1e9));
+    }
+}
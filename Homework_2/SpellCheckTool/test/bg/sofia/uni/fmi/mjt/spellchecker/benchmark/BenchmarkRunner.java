@@ -0,0 +1,77 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+
+/**
+ * Minimal JMH-style harness for the benchmarks of this package. Every benchmark runs a number of warm-up
+ * iterations, whose results are discarded, followed by measured iterations of at least {@link #ITERATION_NANOS}
+ * each. The results of the operations are consumed by a blackhole, so they cannot be optimized away.
+ * Allocation is measured with the per-thread allocation counter of the JVM (the source of JMH's gc.alloc.rate).
+ * Results are printed as time per operation with the standard deviation between iterations,
+ * allocated bytes per operation and the allocation rate.
+ */
+class BenchmarkRunner {
+    private static final long ITERATION_NANOS = 1_000_000_000L;
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final String filter;
+    private volatile int blackhole;
+
+    /**
+     * @param filter only benchmarks whose name contains it are run, all of them if it is empty
+     */
+    BenchmarkRunner(String filter) {
+        this.filter = filter;
+        System.out.printf("%-60s %12s %10s %14s %10s%n", "Benchmark", "ms/op", "error", "alloc B/op", "MB/s");
+    }
+
+    /**
+     * Measures {@code operation}, which must be single-threaded for the allocation counters to be exact
+     */
+    void run(String name, int warmupIterations, int iterations, Callable<?> operation) throws Exception {
+        if (!name.contains(filter)) {
+            return;
+        }
+        for (int i = 0; i < warmupIterations; i++) {
+            iterate(operation);
+        }
+        double[] millisPerOperation = new double[iterations];
+        long operations = 0;
+        long allocatedBytes = 0;
+        long nanos = 0;
+        for (int i = 0; i < iterations; i++) {
+            long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            long count = iterate(operation);
+            long elapsed = System.nanoTime() - start;
+            allocatedBytes += THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            operations += count;
+            nanos += elapsed;
+            millisPerOperation[i] = elapsed / 1e6 / count;
+        }
+        double mean = nanos / 1e6 / operations;
+        double variance = 0;
+        for (double curr : millisPerOperation) {
+            variance += (curr - mean) * (curr - mean);
+        }
+        double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : Double.NaN;
+        System.out.printf("%-60s %12.4f %10.4f %14d %10.1f%n", name, mean, error,
+                allocatedBytes / operations, allocatedBytes / (1024.0 * 1024.0) / (nanos / 1e9));
+    }
+
+    private long iterate(Callable<?> operation) throws Exception {
+        long deadline = System.nanoTime() + ITERATION_NANOS;
+        long count = 0;
+        do {
+            consume(operation.call());
+            count++;
+        } while (System.nanoTime() < deadline);
+        return count;
+    }
+
+    private void consume(Object result) {
+        blackhole ^= System.identityHashCode(result);
+    }
+}
@@ -0,0 +1,58 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.StringReworker;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.BigramIndex;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.SimilarityScorer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the number of scored candidates and the latency of exhaustive and pruned scoring,
+ * and checks that both return the same words.
+ * Run from the module directory so that resources/dictionary.txt can be found.
+ */
+public class CandidatePruningBenchmark {
+    private static final String DICTIONARY_PATH = "resources/dictionary.txt";
+    private static final int SUGGESTIONS = 5;
+    private static final int QUERIES = 2000;
+
+    public static void main(String[] args) throws IOException {
+        StringReworker reworker = new StringReworker() { };
+        String[] words = Files.readAllLines(Path.of(DICTIONARY_PATH)).stream()
+                .map(reworker::cleanUpString)
+                .filter(x -> x.length() > 1)
+                .toArray(String[]::new);
+        BigramIndex index = BigramIndex.build(words);
+        List<String> queries = SuggestionLatencyBenchmark.misspelledWords(QUERIES).stream()
+                .map(reworker::cleanUpString)
+                .toList();
+
+        SimilarityScorer exhaustive = new SimilarityScorer(index, false);
+        SimilarityScorer pruned = new SimilarityScorer(index, true);
+        for (String query : queries) {
+            if (!exhaustive.findClosestWords(query, SUGGESTIONS).equals(pruned.findClosestWords(query, SUGGESTIONS))) {
+                throw new IllegalStateException("Pruned ranking differs for " + query);
+            }
+        }
+        measure("exhaustive", exhaustive, queries);
+        measure("pruned", pruned, queries);
+    }
+
+    private static void measure(String name, SimilarityScorer scorer, List<String> queries) {
+        long candidatesBefore = scorer.scoredCandidates();
+        long[] nanos = new long[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            long start = System.nanoTime();
+            scorer.findClosestWords(queries.get(i), SUGGESTIONS);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-10s candidates/query %8.0f, p50 %7.3f ms, p99 %7.3f ms%n", name,
+                (scorer.scoredCandidates() - candidatesBefore) / (double) queries.size(),
+                SuggestionLatencyBenchmark.percentile(nanos, 0.50), SuggestionLatencyBenchmark.percentile(nanos, 0.99));
+    }
+}
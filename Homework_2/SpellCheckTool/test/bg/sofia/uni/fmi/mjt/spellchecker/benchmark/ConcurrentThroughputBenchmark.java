@@ -0,0 +1,64 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellChecker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the findClosestWords throughput of a single IndexedSpellChecker shared by a growing number of threads.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class ConcurrentThroughputBenchmark {
+    private static final int SUGGESTIONS = 5;
+    private static final int QUERIES = 1000;
+    private static final long DURATION_MILLIS = 5_000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        SpellChecker spellChecker = SuggestionLatencyBenchmark.create(false);
+        List<String> queries = SuggestionLatencyBenchmark.misspelledWords(QUERIES);
+        measure(spellChecker, queries, 1);
+        int maxThreads = 2 * Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double throughput = measure(spellChecker, queries, threads);
+            System.out.printf("%3d threads: %9.1f queries/s%n", threads, throughput);
+        }
+    }
+
+    /**
+     * Returns the number of queries per second answered by {@code threads} threads sharing {@code spellChecker}
+     */
+    private static double measure(SpellChecker spellChecker, List<String> queries, int threads)
+            throws InterruptedException {
+        LongAdder answered = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int offset = i * queries.size() / threads;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException exception) {
+                    return;
+                }
+                for (int position = offset; System.nanoTime() < deadline[0]; position++) {
+                    spellChecker.findClosestWords(queries.get(position % queries.size()), SUGGESTIONS);
+                    answered.increment();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        long begin = System.nanoTime();
+        deadline[0] = begin + DURATION_MILLIS * 1_000_000;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return answered.sum() / ((System.nanoTime() - begin) / 1e9);
+    }
+}
@@ -0,0 +1,54 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.IndexedSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.NaiveSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellChecker;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.BiFunction;
+
+/**
+ * Compares the retained heap and the construction time of the map based and the index based spell checkers.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class DictionaryFootprintBenchmark {
+    private static final String DICTIONARY_PATH = "resources/dictionary.txt";
+    private static final String STOPWORDS_PATH = "resources/stopwords.txt";
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        measure("NaiveSpellChecker", NaiveSpellChecker::new);
+        measure("IndexedSpellChecker", IndexedSpellChecker::new);
+    }
+
+    private static void measure(String name, BiFunction<Reader, Reader, SpellChecker> factory) throws IOException {
+        long bestMillis = Long.MAX_VALUE;
+        long retainedBytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long heapBefore = usedHeap();
+            long start = System.nanoTime();
+            SpellChecker spellChecker;
+            try (Reader dictionary = new FileReader(DICTIONARY_PATH);
+                 Reader stopwords = new FileReader(STOPWORDS_PATH)) {
+                spellChecker = factory.apply(dictionary, stopwords);
+            }
+            bestMillis = Math.min(bestMillis, (System.nanoTime() - start) / 1_000_000);
+            retainedBytes = usedHeap() - heapBefore;
+            if (spellChecker.findClosestWords("hello", 1).isEmpty()) {
+                throw new IllegalStateException("The dictionary was not loaded");
+            }
+        }
+        System.out.printf("%-20s construction %6d ms, retained heap %7.1f MB%n",
+                name, bestMillis, retainedBytes / (1024.0 * 1024.0));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
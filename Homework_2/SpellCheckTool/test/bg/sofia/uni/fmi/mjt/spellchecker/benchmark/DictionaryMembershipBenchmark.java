@@ -0,0 +1,123 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.StringReworker;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.BigramIndex;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.WordAutomaton;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Compares the structures which can answer "is this a dictionary word": the word to grams map of
+ * NaiveSpellChecker, a HashSet, a TreeSet, the BigramIndex of IndexedSpellChecker and the WordAutomaton.
+ * For every structure it prints its build time, the heap retained by it, including the strings it keeps,
+ * and the time of {@link #LOOKUPS} lookups of which half are dictionary words and half misspelled words.
+ * Every lookup uses a fresh copy of the word, like the tokens of a text, so no hash code is cached.
+ * Run from the module directory so that resources/dictionary.txt can be found.
+ */
+public class DictionaryMembershipBenchmark {
+    private static final String DICTIONARY_PATH = "resources/dictionary.txt";
+    private static final int LOOKUPS = 10_000;
+    private static final StringReworker REWORKER = new StringReworker() {
+    };
+
+    public static void main(String[] args) throws Exception {
+        List<String> words = cleanedWords();
+        Random random = new Random(326);
+        String[] queries = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String word = words.get(random.nextInt(words.size()));
+            queries[i] = i % 2 == 0 || word.length() < 3 ? word : SuggestionLatencyBenchmark.misspell(word, random);
+        }
+
+        Map<String, Predicate<String>> lookups = new HashMap<>();
+        List<String> names = List.of("HashMap<word, grams>", "HashSet", "TreeSet", "BigramIndex", "WordAutomaton");
+        measureMemory(names.get(0), () -> {
+            Map<String, Map<String, Integer>> wordGrams = new HashMap<>();
+            for (String curr : cleanedWords()) {
+                wordGrams.put(curr, Collections.unmodifiableMap(REWORKER.getWordGrams(curr)));
+            }
+            lookups.put(names.get(0), wordGrams::containsKey);
+            return wordGrams;
+        });
+        measureMemory(names.get(1), () -> {
+            HashSet<String> set = new HashSet<>(cleanedWords());
+            lookups.put(names.get(1), set::contains);
+            return set;
+        });
+        measureMemory(names.get(2), () -> {
+            TreeSet<String> set = new TreeSet<>(cleanedWords());
+            lookups.put(names.get(2), set::contains);
+            return set;
+        });
+        measureMemory(names.get(3), () -> {
+            BigramIndex index = BigramIndex.build(cleanedWords().toArray(String[]::new));
+            lookups.put(names.get(3), index::containsWord);
+            return index;
+        });
+        measureMemory(names.get(4), () -> {
+            WordAutomaton automaton = WordAutomaton.build(cleanedWords().toArray(String[]::new));
+            System.out.printf("%-22s %d states, %d transitions, %.1f MB of arrays%n", "", automaton.stateCount(),
+                    automaton.transitionCount(), automaton.sizeInBytes() / (1024.0 * 1024.0));
+            lookups.put(names.get(4), automaton::contains);
+            return automaton;
+        });
+
+        BenchmarkRunner runner = new BenchmarkRunner(args.length > 0 ? args[0] : "");
+        for (String name : names) {
+            Predicate<String> lookup = lookups.get(name);
+            runner.run("contains x" + LOOKUPS + "/" + name, 2, 5, () -> {
+                int found = 0;
+                for (String query : queries) {
+                    found += lookup.test(new String(query)) ? 1 : 0;
+                }
+                return found;
+            });
+        }
+    }
+
+    private static List<String> cleanedWords() {
+        try {
+            List<String> words = new ArrayList<>();
+            for (String line : Files.readAllLines(Path.of(DICTIONARY_PATH))) {
+                String word = REWORKER.cleanUpString(line);
+                if (word.length() > 1) {
+                    words.add(word);
+                }
+            }
+            return words;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static void measureMemory(String name, Supplier<Object> builder) {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        builder.get();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long after = usedHeap();
+        System.out.printf("%-22s built in %5d ms, retains %7.1f MB%n", name, millis,
+                (after - before) / (1024.0 * 1024.0));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
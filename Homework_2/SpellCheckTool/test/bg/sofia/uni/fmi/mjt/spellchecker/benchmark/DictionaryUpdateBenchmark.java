@@ -0,0 +1,63 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.AbstractSpellChecker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares pushing a small vocabulary into a spell checker with addWords/removeWords to rebuilding the spell checker
+ * from the dictionary file, and measures the suggestion latency once the vocabulary is in.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class DictionaryUpdateBenchmark {
+    private static final int VOCABULARY_WORDS = 200;
+    private static final int UPDATES = 10;
+    private static final int QUERIES = 300;
+
+    public static void main(String[] args) throws IOException {
+        List<String> queries = SuggestionLatencyBenchmark.misspelledWords(QUERIES);
+        for (boolean naive : new boolean[] {true, false}) {
+            String name = naive ? "NaiveSpellChecker" : "IndexedSpellChecker";
+            long start = System.nanoTime();
+            AbstractSpellChecker spellChecker = (AbstractSpellChecker) SuggestionLatencyBenchmark.create(naive);
+            System.out.printf("%-20s rebuild %10.1f ms%n", name, (System.nanoTime() - start) / 1e6);
+            SuggestionLatencyBenchmark.measure(name, spellChecker, queries);
+
+            Random random = new Random(326);
+            long addNanos = 0;
+            long removeNanos = 0;
+            for (int update = 0; update < UPDATES; update++) {
+                List<String> vocabulary = vocabulary(random);
+                start = System.nanoTime();
+                spellChecker.addWords(vocabulary);
+                addNanos += System.nanoTime() - start;
+                start = System.nanoTime();
+                spellChecker.removeWords(vocabulary);
+                removeNanos += System.nanoTime() - start;
+            }
+            System.out.printf("%-20s addWords x%d %6.1f ms, removeWords x%d %6.1f ms%n", name, VOCABULARY_WORDS,
+                    addNanos / 1e6 / UPDATES, VOCABULARY_WORDS, removeNanos / 1e6 / UPDATES);
+            spellChecker.addWords(vocabulary(random));
+            SuggestionLatencyBenchmark.measure(name + " + vocabulary", spellChecker, queries);
+        }
+    }
+
+    /**
+     * Returns made up domain terms, which are not in the dictionary
+     */
+    private static List<String> vocabulary(Random random) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < VOCABULARY_WORDS; i++) {
+            StringBuilder word = new StringBuilder("x");
+            int length = 4 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+}
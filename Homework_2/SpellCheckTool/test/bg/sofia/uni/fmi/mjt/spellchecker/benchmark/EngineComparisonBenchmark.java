@@ -0,0 +1,46 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellCheckerEngine;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Compares the index build time, the retained heap and the suggestion latency of every {@link SpellCheckerEngine}
+ * on resources/dictionary.txt.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class EngineComparisonBenchmark {
+    private static final String DICTIONARY_PATH = "resources/dictionary.txt";
+    private static final String STOPWORDS_PATH = "resources/stopwords.txt";
+    private static final int QUERIES = 300;
+
+    public static void main(String[] args) throws IOException {
+        List<String> queries = SuggestionLatencyBenchmark.misspelledWords(QUERIES);
+        for (SpellCheckerEngine engine : SpellCheckerEngine.values()) {
+            long heapBefore = usedHeap();
+            long start = System.nanoTime();
+            SpellChecker spellChecker;
+            try (Reader dictionary = new FileReader(DICTIONARY_PATH);
+                 Reader stopwords = new FileReader(STOPWORDS_PATH)) {
+                spellChecker = engine.create(dictionary, stopwords);
+            }
+            long buildMillis = (System.nanoTime() - start) / 1_000_000;
+            long retainedBytes = usedHeap() - heapBefore;
+            System.out.printf("%-20s build %6d ms, retained heap %7.1f MB%n",
+                    engine, buildMillis, retainedBytes / (1024.0 * 1024.0));
+            SuggestionLatencyBenchmark.measure(engine.toString(), spellChecker, queries);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
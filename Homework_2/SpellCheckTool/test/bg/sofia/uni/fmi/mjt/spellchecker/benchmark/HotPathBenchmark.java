@@ -0,0 +1,122 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellCheckerEngine;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Regression baseline for the hot paths of every {@link SpellCheckerEngine}: construction from the resource files,
+ * findClosestWords for short, long and pathological words, and metadata and analyze on synthetic documents of
+ * growing size and misspelling rate. Uses {@link BenchmarkRunner}, see there for the methodology.
+ * The optional first argument only runs the benchmarks whose name contains it, e.g. {@code findClosestWords/INDEXED}.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class HotPathBenchmark {
+    private static final String DICTIONARY_PATH = "resources/dictionary.txt";
+    private static final String STOPWORDS_PATH = "resources/stopwords.txt";
+    private static final int SUGGESTIONS = 3;
+    private static final long[] METADATA_SIZES = {64L << 10, 1L << 20, 8L << 20};
+    private static final long[] ANALYZE_SIZES = {16L << 10, 128L << 10};
+    private static final double[] MISSPELLING_RATES = {0.01, 0.1};
+    private static final double STOPWORD_RATE = 0.3;
+    private static final Map<String, List<String>> QUERIES = new LinkedHashMap<>();
+
+    static {
+        QUERIES.put("short", List.of("teh", "wrk", "hte"));
+        QUERIES.put("long", List.of("internationalizaton", "counterrevolutionarys", "electroencephalograpy"));
+        QUERIES.put("pathological", List.of("a", "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaa", "inininininininininininin",
+                "1234567890", "qwertyuiopasdfghjklzxcvbnmqwertyuiopasdfghjklzxcvbnmqwertyuiopasdfghjklzxcvbnm"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(args.length > 0 ? args[0] : "");
+        Map<SpellCheckerEngine, SpellChecker> spellCheckers = new EnumMap<>(SpellCheckerEngine.class);
+        for (SpellCheckerEngine engine : SpellCheckerEngine.values()) {
+            runner.run("construction/" + engine, 1, 3, () -> create(engine));
+            spellCheckers.put(engine, create(engine));
+        }
+
+        for (SpellCheckerEngine engine : SpellCheckerEngine.values()) {
+            SpellChecker spellChecker = spellCheckers.get(engine);
+            for (Map.Entry<String, List<String>> kind : QUERIES.entrySet()) {
+                for (String word : kind.getValue()) {
+                    String name = "findClosestWords/" + engine + "/" + kind.getKey() + "/" + abbreviate(word);
+                    runner.run(name, 1, 3, () -> spellChecker.findClosestWords(word, SUGGESTIONS));
+                }
+            }
+        }
+
+        List<String> dictionary = Files.readAllLines(Path.of(DICTIONARY_PATH));
+        List<String> stopwords = Files.readAllLines(Path.of(STOPWORDS_PATH));
+        SpellChecker indexed = spellCheckers.get(SpellCheckerEngine.INDEXED);
+        for (long size : METADATA_SIZES) {
+            for (double rate : MISSPELLING_RATES) {
+                String text = document(dictionary, stopwords, size, rate);
+                runner.run(String.format("metadata/INDEXED/%dKB/%.0f%%", size >> 10, rate * 100), 2, 4,
+                        () -> indexed.metadata(new StringReader(text)));
+            }
+        }
+        for (SpellCheckerEngine engine : List.of(SpellCheckerEngine.INDEXED, SpellCheckerEngine.SYMSPELL)) {
+            SpellChecker spellChecker = spellCheckers.get(engine);
+            for (long size : ANALYZE_SIZES) {
+                for (double rate : MISSPELLING_RATES) {
+                    String text = document(dictionary, stopwords, size, rate);
+                    runner.run(String.format("analyze/%s/%dKB/%.0f%%", engine, size >> 10, rate * 100), 1, 3,
+                            () -> {
+                                spellChecker.analyze(new StringReader(text), Writer.nullWriter(), SUGGESTIONS);
+                                return text;
+                            });
+                }
+            }
+        }
+    }
+
+    static SpellChecker create(SpellCheckerEngine engine) throws IOException {
+        try (Reader dictionary = new FileReader(DICTIONARY_PATH);
+             Reader stopwords = new FileReader(STOPWORDS_PATH)) {
+            return engine.create(dictionary, stopwords);
+        }
+    }
+
+    /**
+     * Generates about {@code size} characters of lines made of dictionary words and stop words, where a
+     * {@code misspellingRate} fraction of the dictionary words is misspelled
+     */
+    static String document(List<String> dictionary, List<String> stopwords, long size,
+                          double misspellingRate) {
+        Random random = new Random(326);
+        StringBuilder text = new StringBuilder();
+        while (text.length() < size) {
+            int words = 5 + random.nextInt(15);
+            for (int i = 0; i < words; i++) {
+                String word;
+                if (random.nextDouble() < STOPWORD_RATE) {
+                    word = stopwords.get(random.nextInt(stopwords.size()));
+                } else {
+                    word = dictionary.get(random.nextInt(dictionary.size()));
+                    if (word.length() > 2 && random.nextDouble() < misspellingRate) {
+                        word = SuggestionLatencyBenchmark.misspell(word, random);
+                    }
+                }
+                text.append(word).append(i + 1 < words ? " " : System.lineSeparator());
+            }
+        }
+        return text.toString();
+    }
+
+    private static String abbreviate(String word) {
+        return word.length() > 24 ? word.substring(0, 21) + "..." : word;
+    }
+}
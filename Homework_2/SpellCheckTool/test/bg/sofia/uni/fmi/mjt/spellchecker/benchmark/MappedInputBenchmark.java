@@ -0,0 +1,75 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.AbstractSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.IndexedSpellChecker;
+
+import java.io.FileReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+/**
+ * Compares the Path overloads of analyze and metadata, which memory-map the text, with the Reader ones on a
+ * synthetic file of a few GB. Every operation runs once to warm up and is then measured {@link #ITERATIONS} times;
+ * the throughput is in MB of the text file per second. metadata(Reader) keeps every line of the text in memory,
+ * so it is skipped when it runs out of heap. The suggestions are disabled, so that the reading, tokenizing and
+ * writing are measured and not the scoring.
+ * Arguments: [size of the text in MB]. Run from the module directory so that resources/dictionary.txt and
+ * resources/stopwords.txt can be found.
+ */
+public class MappedInputBenchmark {
+    private static final String DICTIONARY_PATH = "resources/dictionary.txt";
+    private static final String STOPWORDS_PATH = "resources/stopwords.txt";
+    private static final int ITERATIONS = 2;
+
+    public static void main(String[] args) throws Exception {
+        long size = (args.length > 0 ? Long.parseLong(args[0]) : 2048) << 20;
+        AbstractSpellChecker spellChecker;
+        try (Reader dictionary = new FileReader(DICTIONARY_PATH);
+             Reader stopwords = new FileReader(STOPWORDS_PATH)) {
+            spellChecker = new IndexedSpellChecker(dictionary, stopwords);
+        }
+        Path text = Files.createTempFile("mapped-input", ".txt");
+        Path output = Files.createTempFile("mapped-output", ".txt");
+        try {
+            try (Writer writer = Files.newBufferedWriter(text)) {
+                new StreamingAnalyzeBenchmark.SyntheticDocument(size).transferTo(writer);
+            }
+            System.out.printf("%d MB text%n", Files.size(text) >> 20);
+            measure("metadata(Path)", size, () -> spellChecker.metadata(text));
+            try {
+                measure("metadata(Reader)", size, () -> spellChecker.metadata(Files.newBufferedReader(text)));
+            } catch (OutOfMemoryError error) {
+                System.out.printf("%-26s OutOfMemoryError%n", "metadata(Reader)");
+            }
+            measure("analyze(Path, Path)", size, () -> {
+                spellChecker.analyze(text, output, 0);
+                return output;
+            });
+            measure("analyzeStreaming(Reader)", size, () -> {
+                spellChecker.analyzeStreaming(Files.newBufferedReader(text), Files.newBufferedWriter(output), 0);
+                return output;
+            });
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static void measure(String name, long size, Callable<?> operation) throws Exception {
+        operation.call();
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            operation.call();
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        System.out.printf("%-26s mean %8.0f ms, best %8.0f ms, %7.1f MB/s%n", name, total / 1e6 / ITERATIONS,
+                best / 1e6, (size >> 20) / (total / 1e9 / ITERATIONS));
+    }
+}
@@ -0,0 +1,67 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.AbstractSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellCheckerEngine;
+import bg.sofia.uni.fmi.mjt.spellchecker.metrics.SpellCheckMetrics;
+import bg.sofia.uni.fmi.mjt.spellchecker.metrics.SpellCheckRecorder;
+
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Cost of the phase instrumentation: metadata, analyze and findClosestWords with the recorder disabled and with
+ * {@link SpellCheckMetrics} enabled, followed by the breakdown the metrics collected. Compare the disabled runs
+ * with the same names of {@link HotPathBenchmark} on a build without the instrumentation.
+ * The optional first argument only runs the benchmarks whose name contains it.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class MetricsOverheadBenchmark {
+    private static final int SUGGESTIONS = 3;
+    private static final int QUERIES = 200;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(args.length > 0 ? args[0] : "");
+        List<String> dictionary = Files.readAllLines(Path.of("resources/dictionary.txt"));
+        List<String> stopwords = Files.readAllLines(Path.of("resources/stopwords.txt"));
+        String metadataText = HotPathBenchmark.document(dictionary, stopwords, 1L << 20, 0.01);
+        String analyzeText = HotPathBenchmark.document(dictionary, stopwords, 16L << 10, 0.01);
+        List<String> queries = SuggestionLatencyBenchmark.misspelledWords(QUERIES);
+
+        for (SpellCheckerEngine engine : List.of(SpellCheckerEngine.INDEXED, SpellCheckerEngine.NAIVE)) {
+            AbstractSpellChecker spellChecker = (AbstractSpellChecker) HotPathBenchmark.create(engine);
+            for (boolean enabled : new boolean[] {false, true}) {
+                SpellCheckMetrics metrics = new SpellCheckMetrics();
+                spellChecker.setRecorder(enabled ? metrics : null);
+                String suffix = enabled ? "/recorded" : "/disabled";
+                runner.run("metadata/" + engine + "/1024KB/1%" + suffix, 2, 4,
+                        () -> spellChecker.metadata(new StringReader(metadataText)));
+                runner.run("analyze/" + engine + "/16KB/1%" + suffix, 1, 3, () -> {
+                    spellChecker.analyze(new StringReader(analyzeText), Writer.nullWriter(), SUGGESTIONS);
+                    return analyzeText;
+                });
+                runner.run("findClosestWords/" + engine + "/" + QUERIES + "x" + suffix, 1, 3,
+                        () -> queries.stream().map(word -> spellChecker.findClosestWords(word, SUGGESTIONS)).toList());
+                if (enabled && metrics.getTexts() + metrics.getSuggestions() > 0) {
+                    print(engine, metrics);
+                }
+            }
+        }
+    }
+
+    private static void print(SpellCheckerEngine engine, SpellCheckMetrics metrics) {
+        StringBuilder phases = new StringBuilder();
+        for (SpellCheckRecorder.Phase phase : SpellCheckRecorder.Phase.values()) {
+            phases.append(String.format(" %s %.1f ms", phase, metrics.phaseNanos(phase) / 1e6));
+        }
+        System.out.printf("  %s phases:%s%n", engine, phases);
+        System.out.printf("  %s %.0f tokens/s, %d suggestions p50 %d us p90 %d us p99 %d us max %d us, "
+                        + "candidates mean %.0f p50 %d p99 %d%n", engine, metrics.getTokensPerSecond(),
+                metrics.getSuggestions(), metrics.getSuggestionLatencyP50Micros(),
+                metrics.getSuggestionLatencyP90Micros(), metrics.getSuggestionLatencyP99Micros(),
+                metrics.getSuggestionLatencyMaxMicros(), metrics.getCandidatesMean(), metrics.getCandidatesP50(),
+                metrics.getCandidatesP99());
+    }
+}
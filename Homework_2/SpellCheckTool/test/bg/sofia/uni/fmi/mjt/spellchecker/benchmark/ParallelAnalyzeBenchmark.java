@@ -0,0 +1,78 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.AbstractSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.IndexedSpellChecker;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how analyzeParallel scales from 1 to all available cores against the sequential analyzeStreaming,
+ * and checks that every parallel report is identical to the sequential one.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class ParallelAnalyzeBenchmark {
+    private static final String DICTIONARY_PATH = "resources/dictionary.txt";
+    private static final String STOPWORDS_PATH = "resources/stopwords.txt";
+    private static final long DOCUMENT_SIZE = 64L << 10;
+    private static final int SUGGESTIONS_COUNT = 3;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        AbstractSpellChecker spellChecker;
+        try (Reader dictionary = new FileReader(DICTIONARY_PATH);
+             Reader stopwords = new FileReader(STOPWORDS_PATH)) {
+            spellChecker = new IndexedSpellChecker(dictionary, stopwords);
+        }
+        StringWriter[] expected = new StringWriter[1];
+        long sequentialMillis = measure(() -> {
+            expected[0] = new StringWriter();
+            spellChecker.analyzeStreaming(new StreamingAnalyzeBenchmark.SyntheticDocument(DOCUMENT_SIZE),
+                    expected[0], SUGGESTIONS_COUNT);
+        });
+        System.out.printf("%-22s %6d ms%n", "analyzeStreaming", sequentialMillis);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+            report(spellChecker, expected[0].toString(), parallelism, sequentialMillis);
+            if (parallelism < cores && parallelism * 2 > cores) {
+                report(spellChecker, expected[0].toString(), cores, sequentialMillis);
+            }
+        }
+    }
+
+    private static void report(AbstractSpellChecker spellChecker, String expected, int parallelism,
+                               long sequentialMillis) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            StringWriter[] output = new StringWriter[1];
+            long millis = measure(() -> {
+                output[0] = new StringWriter();
+                spellChecker.analyzeParallel(new StreamingAnalyzeBenchmark.SyntheticDocument(DOCUMENT_SIZE),
+                        output[0], SUGGESTIONS_COUNT, pool);
+            });
+            System.out.printf("%-22s %6d ms, speedup %5.2fx, identical output: %b%n",
+                    "analyzeParallel x" + parallelism, millis, (double) sequentialMillis / millis,
+                    expected.equals(output[0].toString()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the best time of {@link #ROUNDS} runs of {@code analysis}, after one warm-up run
+     */
+    private static long measure(Runnable analysis) {
+        analysis.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            analysis.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
+    }
+}
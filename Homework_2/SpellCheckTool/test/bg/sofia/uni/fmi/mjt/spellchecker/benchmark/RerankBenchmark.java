@@ -0,0 +1,122 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.AbstractSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.LevenshteinReranker;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Cost and effect of the Levenshtein reranking of the suggestions of the IndexedSpellChecker. For every rerank
+ * depth it reports the latency of findClosestWords, the cost of the reranking stage alone on the same candidates,
+ * with Myers' bit-parallel distance and with the dynamic programming recurrence, and how often the word that was
+ * misspelled is the first suggestion.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class RerankBenchmark {
+    private static final int SUGGESTIONS = 5;
+    private static final int QUERIES = 2000;
+    private static final int[] DEPTHS = {0, 8, 16, 32, 64};
+    private static final long SEED = 326;
+
+    public static void main(String[] args) throws Exception {
+        AbstractSpellChecker spellChecker = (AbstractSpellChecker) SuggestionLatencyBenchmark.create(false);
+        List<String> dictionary = Files.readAllLines(Path.of("resources/dictionary.txt"));
+        Random random = new Random(SEED);
+        List<String> originals = new ArrayList<>();
+        List<String> queries = new ArrayList<>();
+        while (queries.size() < QUERIES) {
+            String word = dictionary.get(random.nextInt(dictionary.size())).toLowerCase();
+            if (word.length() >= 3) {
+                originals.add(word);
+                queries.add(SuggestionLatencyBenchmark.misspell(word, random));
+            }
+        }
+
+        for (int depth : DEPTHS) {
+            if (depth == 0) {
+                spellChecker.disableReranking();
+            } else {
+                spellChecker.enableReranking(depth);
+            }
+            String name = depth == 0 ? "cosine only" : "rerank top " + depth;
+            SuggestionLatencyBenchmark.measure(name, spellChecker, queries);
+            int hits = 0;
+            for (int i = 0; i < queries.size(); i++) {
+                List<String> suggestions = spellChecker.findClosestWords(queries.get(i), SUGGESTIONS);
+                if (!suggestions.isEmpty() && suggestions.get(0).equals(originals.get(i))) {
+                    hits++;
+                }
+            }
+            System.out.printf("%-20s top-1 accuracy %5.1f%%%n", "", 100.0 * hits / queries.size());
+            if (depth > 0) {
+                measureStage(spellChecker, queries, depth);
+            }
+        }
+    }
+
+    /**
+     * Measures the reranking alone on the cosine candidates of every query
+     */
+    private static void measureStage(AbstractSpellChecker spellChecker, List<String> queries, int depth) {
+        spellChecker.disableReranking();
+        List<List<String>> candidates = new ArrayList<>();
+        long candidatesCount = 0;
+        for (String query : queries) {
+            candidates.add(spellChecker.findClosestWords(query, depth));
+            candidatesCount += candidates.get(candidates.size() - 1).size();
+        }
+        spellChecker.enableReranking(depth);
+        LevenshteinReranker reranker = spellChecker.reranker();
+        long myersNanos = Long.MAX_VALUE;
+        long dynamicNanos = Long.MAX_VALUE;
+        int blackhole = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < queries.size(); i++) {
+                blackhole += reranker.rerank(queries.get(i), candidates.get(i), SUGGESTIONS).size();
+            }
+            myersNanos = Math.min(myersNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (int i = 0; i < queries.size(); i++) {
+                blackhole += dynamicRerank(queries.get(i), candidates.get(i)).length;
+            }
+            dynamicNanos = Math.min(dynamicNanos, System.nanoTime() - start);
+        }
+        System.out.printf("%-20s stage %6.2f us/query, %5.1f ns/candidate (dynamic programming %5.1f ns/candidate)"
+                        + "%s%n", "", myersNanos / 1e3 / queries.size(), (double) myersNanos / candidatesCount,
+                (double) dynamicNanos / candidatesCount, blackhole < 0 ? "!" : "");
+    }
+
+    private static int[] dynamicRerank(String query, List<String> candidates) {
+        int[] distances = new int[candidates.size()];
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = dynamicDistance(query, candidates.get(i));
+        }
+        Arrays.sort(distances);
+        return distances;
+    }
+
+    private static int dynamicDistance(String first, String second) {
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= second.length(); j++) {
+                int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+            }
+            int[] recycled = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[second.length()];
+    }
+}
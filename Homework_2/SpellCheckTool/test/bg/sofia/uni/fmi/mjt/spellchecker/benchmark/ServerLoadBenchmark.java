@@ -0,0 +1,102 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.server.SpellCheckClient;
+import bg.sofia.uni.fmi.mjt.spellchecker.server.SpellCheckServer;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Local load generator for the spell check server: starts a server over the IndexedSpellChecker, then keeps
+ * {@code clients} threads sending requests through one pooled client for a fixed time per command, and reports
+ * the throughput and the latency percentiles of every command.
+ * Arguments: [clients] [workers] [seconds per command].
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class ServerLoadBenchmark {
+    private static final int SUGGESTIONS = 5;
+    private static final int QUERIES = 2000;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        SpellChecker spellChecker = SuggestionLatencyBenchmark.create(false);
+        List<String> queries = SuggestionLatencyBenchmark.misspelledWords(QUERIES);
+        String sentence = String.join(" ", queries.subList(0, 20));
+        String document = document(queries);
+
+        try (SpellCheckServer server = new SpellCheckServer(spellChecker, 0, workers)) {
+            server.start();
+            try (SpellCheckClient client = new SpellCheckClient("localhost", server.port(), clients)) {
+                System.out.printf("%d clients, %d workers, %d s per command%n", clients, workers, seconds);
+                run("closest-words", clients, seconds,
+                        i -> client.findClosestWords(queries.get(i % queries.size()), SUGGESTIONS));
+                run("metadata", clients, seconds, i -> client.metadata(new StringReader(sentence)));
+                run("analyze " + document.length() / 1024 + " KB", clients, seconds,
+                        i -> client.analyze(new StringReader(document), new StringWriter(), SUGGESTIONS));
+            }
+        }
+    }
+
+    private static void run(String name, int clients, int seconds, IntConsumer request) throws Exception {
+        for (int i = 0; i < clients; i++) {
+            request.accept(i);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long start = System.nanoTime();
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                int first = i * 7919;
+                results.add(executor.submit((Callable<long[]>) () -> {
+                    long[] nanos = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long requestStart = System.nanoTime();
+                        request.accept(first + count);
+                        if (count == nanos.length) {
+                            nanos = Arrays.copyOf(nanos, count * 2);
+                        }
+                        nanos[count++] = System.nanoTime() - requestStart;
+                    }
+                    return Arrays.copyOf(nanos, count);
+                }));
+            }
+            long[] all = new long[0];
+            for (Future<long[]> result : results) {
+                long[] nanos = result.get();
+                int size = all.length;
+                all = Arrays.copyOf(all, size + nanos.length);
+                System.arraycopy(nanos, 0, all, size, nanos.length);
+            }
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(all);
+            System.out.printf("%-16s %8.0f req/s, p50 %8.3f ms, p90 %8.3f ms, p99 %8.3f ms, max %8.3f ms%n", name,
+                    all.length / elapsed, SuggestionLatencyBenchmark.percentile(all, 0.50),
+                    SuggestionLatencyBenchmark.percentile(all, 0.90), SuggestionLatencyBenchmark.percentile(all, 0.99),
+                    all[all.length - 1] / 1e6);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static String document(List<String> queries) {
+        StringBuilder document = new StringBuilder();
+        for (int line = 0; line < 50; line++) {
+            document.append("The quick brown fox jumps over the lazy dog and ")
+                    .append(queries.get(line)).append(System.lineSeparator());
+        }
+        return document.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.IndexedSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.NaiveSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellChecker;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the cold start of the text dictionary with the one of a memory-mapped snapshot. Every start runs in a
+ * fresh JVM, which builds or maps the dictionary, answers one query and reports the elapsed time, its resident set
+ * size and its used heap.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class SnapshotStartupBenchmark {
+    private static final String DICTIONARY_PATH = "resources/dictionary.txt";
+    private static final String STOPWORDS_PATH = "resources/stopwords.txt";
+    private static final int RUNS = 3;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0) {
+            start(args);
+            return;
+        }
+        Path snapshot = Files.createTempFile("dictionary-snapshot", ".bin");
+        try {
+            long begin = System.nanoTime();
+            try (Reader dictionary = new FileReader(DICTIONARY_PATH);
+                 Reader stopwords = new FileReader(STOPWORDS_PATH)) {
+                new IndexedSpellChecker(dictionary, stopwords).writeSnapshot(snapshot);
+            }
+            System.out.printf("compiled a %.1f MB snapshot in %d ms%n", Files.size(snapshot) / (1024.0 * 1024.0),
+                    (System.nanoTime() - begin) / 1_000_000);
+            for (int i = 0; i < RUNS; i++) {
+                fork("naive");
+                fork("text");
+                fork("snapshot", snapshot.toString());
+            }
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private static void fork(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), SnapshotStartupBenchmark.class.getName()));
+        command.addAll(List.of(args));
+        new ProcessBuilder(command).inheritIO().start().waitFor();
+    }
+
+    private static void start(String[] args) throws IOException {
+        long begin = System.nanoTime();
+        SpellChecker spellChecker;
+        if (args[0].equals("snapshot")) {
+            spellChecker = IndexedSpellChecker.fromSnapshot(Path.of(args[1]));
+        } else {
+            try (Reader dictionary = new FileReader(DICTIONARY_PATH);
+                 Reader stopwords = new FileReader(STOPWORDS_PATH)) {
+                spellChecker = args[0].equals("naive")
+                        ? new NaiveSpellChecker(dictionary, stopwords)
+                        : new IndexedSpellChecker(dictionary, stopwords);
+            }
+        }
+        spellChecker.findClosestWords("speling", 5);
+        long millis = (System.nanoTime() - begin) / 1_000_000;
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("%-8s startup %6d ms, RSS %7.1f MB, used heap %7.1f MB%n", args[0], millis,
+                residentSetKilobytes() / 1024.0, (runtime.totalMemory() - runtime.freeMemory()) / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Returns the resident set size of this process, or -1 where /proc is not available
+     */
+    private static long residentSetKilobytes() throws IOException {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,125 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.AbstractSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.IndexedSpellChecker;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Random;
+
+/**
+ * Compares the time and the peak heap of analyze and analyzeStreaming on synthetic documents of growing size.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class StreamingAnalyzeBenchmark {
+    private static final String DICTIONARY_PATH = "resources/dictionary.txt";
+    private static final String STOPWORDS_PATH = "resources/stopwords.txt";
+    private static final long[] DOCUMENT_SIZES = {10L << 20, 50L << 20, 200L << 20};
+
+    public static void main(String[] args) throws IOException {
+        AbstractSpellChecker spellChecker;
+        try (Reader dictionary = new FileReader(DICTIONARY_PATH);
+             Reader stopwords = new FileReader(STOPWORDS_PATH)) {
+            spellChecker = new IndexedSpellChecker(dictionary, stopwords);
+        }
+        for (long size : DOCUMENT_SIZES) {
+            measure("analyzeStreaming", size, () ->
+                    spellChecker.analyzeStreaming(new SyntheticDocument(size), Writer.nullWriter(), 0));
+            try {
+                measure("analyze", size, () ->
+                        spellChecker.analyze(new SyntheticDocument(size), Writer.nullWriter(), 0));
+            } catch (OutOfMemoryError error) {
+                System.out.printf("%-17s %4d MB document: OutOfMemoryError%n", "analyze", size >> 20);
+            }
+        }
+    }
+
+    private static void measure(String name, long size, Runnable analysis) {
+        System.gc();
+        long baseline = usedHeap();
+        resetPeaks();
+        long start = System.nanoTime();
+        analysis.run();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("%-17s %4d MB document: %6d ms, peak heap above baseline %7.1f MB%n",
+                name, size >> 20, millis, (peakHeap() - baseline) / (1024.0 * 1024.0));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Generates {@code size} characters of text lines made of common words and a few misspellings.
+     */
+    static class SyntheticDocument extends Reader {
+        private static final String[] WORDS = {
+            "the", "spell", "checker", "reads", "every", "line", "of", "this", "document", "and",
+            "reports", "misspelled", "words", "like", "helllo", "wrold", "speling", "with", "suggestions"
+        };
+        private final Random random = new Random(326);
+        private final StringBuilder line = new StringBuilder();
+        private long remaining;
+        private int position;
+
+        SyntheticDocument(long size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (remaining <= 0 && position == line.length()) {
+                return -1;
+            }
+            int read = 0;
+            while (read < length && (remaining > 0 || position < line.length())) {
+                if (position == line.length()) {
+                    nextLine();
+                }
+                int count = Math.min(length - read, line.length() - position);
+                line.getChars(position, position + count, buffer, offset + read);
+                position += count;
+                read += count;
+            }
+            return read;
+        }
+
+        private void nextLine() {
+            line.setLength(0);
+            position = 0;
+            int words = 5 + random.nextInt(15);
+            for (int i = 0; i < words; i++) {
+                line.append(WORDS[random.nextInt(WORDS.length)]).append(i + 1 < words ? ' ' : '\n');
+            }
+            remaining -= line.length();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
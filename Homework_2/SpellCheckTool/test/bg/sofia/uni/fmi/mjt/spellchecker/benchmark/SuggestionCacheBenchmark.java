@@ -0,0 +1,97 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.AbstractSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellCheckerEngine;
+import bg.sofia.uni.fmi.mjt.spellchecker.SuggestionCache;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures analyze with and without a suggestion cache on a document whose misspellings repeat like in real text:
+ * they are drawn from a fixed set of misspelled words with Zipf-distributed frequencies. Every operation analyzes
+ * the document with a new, empty cache, so only the repetitions within the document are served from it.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class SuggestionCacheBenchmark {
+    private static final String DICTIONARY_PATH = "resources/dictionary.txt";
+    private static final String STOPWORDS_PATH = "resources/stopwords.txt";
+    private static final int DOCUMENT_SIZE = 512 << 10;
+    private static final double MISSPELLING_RATE = 0.1;
+    private static final int DISTINCT_MISSPELLINGS = 2000;
+    private static final int CACHE_CAPACITY = 256;
+    private static final int SUGGESTIONS = 3;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner(args.length > 0 ? args[0] : "");
+        String text = document(Files.readAllLines(Path.of(DICTIONARY_PATH)));
+        for (SpellCheckerEngine engine : List.of(SpellCheckerEngine.INDEXED, SpellCheckerEngine.SYMSPELL)) {
+            AbstractSpellChecker spellChecker = create(engine);
+            runner.run("analyze/" + engine + "/uncached", 1, 3, () -> analyze(spellChecker, text));
+            for (SuggestionCache.EvictionPolicy policy : SuggestionCache.EvictionPolicy.values()) {
+                runner.run("analyze/" + engine + "/" + policy, 1, 3, () -> {
+                    spellChecker.enableSuggestionCache(CACHE_CAPACITY, policy);
+                    return analyze(spellChecker, text);
+                });
+                SuggestionCache.Stats stats = spellChecker.suggestionCache().stats();
+                System.out.printf("    hit rate %.1f%%, %d evictions%n", stats.hitRate() * 100, stats.evictions());
+            }
+            spellChecker.disableSuggestionCache();
+        }
+    }
+
+    private static AbstractSpellChecker create(SpellCheckerEngine engine) throws IOException {
+        try (Reader dictionary = new FileReader(DICTIONARY_PATH);
+             Reader stopwords = new FileReader(STOPWORDS_PATH)) {
+            return engine.create(dictionary, stopwords);
+        }
+    }
+
+    private static Object analyze(AbstractSpellChecker spellChecker, String text) {
+        spellChecker.analyze(new StringReader(text), Writer.nullWriter(), SUGGESTIONS);
+        return text;
+    }
+
+    /**
+     * Generates lines of dictionary words where a {@link #MISSPELLING_RATE} fraction of the words is replaced by
+     * one of {@link #DISTINCT_MISSPELLINGS} misspelled words, the k-th most frequent of which appears with weight 1/k
+     */
+    private static String document(List<String> dictionary) {
+        Random random = new Random(326);
+        String[] misspellings = new String[DISTINCT_MISSPELLINGS];
+        double[] cumulativeWeights = new double[DISTINCT_MISSPELLINGS];
+        double totalWeight = 0;
+        for (int i = 0; i < DISTINCT_MISSPELLINGS; i++) {
+            String word;
+            do {
+                word = dictionary.get(random.nextInt(dictionary.size()));
+            } while (word.length() < 4);
+            misspellings[i] = SuggestionLatencyBenchmark.misspell(word, random);
+            totalWeight += 1.0 / (i + 1);
+            cumulativeWeights[i] = totalWeight;
+        }
+        StringBuilder text = new StringBuilder();
+        while (text.length() < DOCUMENT_SIZE) {
+            int words = 5 + random.nextInt(15);
+            for (int i = 0; i < words; i++) {
+                String word;
+                if (random.nextDouble() < MISSPELLING_RATE) {
+                    int rank = Arrays.binarySearch(cumulativeWeights, random.nextDouble() * totalWeight);
+                    word = misspellings[rank < 0 ? -rank - 1 : rank];
+                } else {
+                    word = dictionary.get(random.nextInt(dictionary.size()));
+                }
+                text.append(word).append(i + 1 < words ? " " : System.lineSeparator());
+            }
+        }
+        return text.toString();
+    }
+}
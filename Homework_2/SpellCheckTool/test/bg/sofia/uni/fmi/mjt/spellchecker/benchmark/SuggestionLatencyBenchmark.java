@@ -0,0 +1,90 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.IndexedSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.NaiveSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellChecker;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the latency distribution of findClosestWords on misspelled dictionary words.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ */
+public class SuggestionLatencyBenchmark {
+    private static final String DICTIONARY_PATH = "resources/dictionary.txt";
+    private static final String STOPWORDS_PATH = "resources/stopwords.txt";
+    private static final int SUGGESTIONS = 5;
+    private static final int QUERIES = 300;
+    private static final long SEED = 326;
+
+    public static void main(String[] args) throws IOException {
+        List<String> queries = misspelledWords(QUERIES);
+        queries.add("th");
+        queries.add("the");
+        measure("NaiveSpellChecker", create(true), queries);
+        measure("IndexedSpellChecker", create(false), queries);
+    }
+
+    static SpellChecker create(boolean naive) throws IOException {
+        try (Reader dictionary = new FileReader(DICTIONARY_PATH);
+             Reader stopwords = new FileReader(STOPWORDS_PATH)) {
+            return naive ? new NaiveSpellChecker(dictionary, stopwords) : new IndexedSpellChecker(dictionary, stopwords);
+        }
+    }
+
+    static List<String> misspelledWords(int count) throws IOException {
+        List<String> dictionary = Files.readAllLines(Path.of(DICTIONARY_PATH));
+        Random random = new Random(SEED);
+        List<String> words = new ArrayList<>();
+        while (words.size() < count) {
+            String word = dictionary.get(random.nextInt(dictionary.size())).toLowerCase();
+            if (word.length() < 3) {
+                continue;
+            }
+            words.add(misspell(word, random));
+        }
+        return words;
+    }
+
+    /**
+     * Deletes, replaces or swaps a random letter of {@code word}, which is at least two characters long
+     */
+    static String misspell(String word, Random random) {
+        int position = random.nextInt(word.length() - 1);
+        char letter = (char) ('a' + random.nextInt(26));
+        return switch (random.nextInt(3)) {
+            case 0 -> word.substring(0, position) + word.substring(position + 1);
+            case 1 -> word.substring(0, position) + letter + word.substring(position + 1);
+            default -> word.substring(0, position) + word.charAt(position + 1) + word.charAt(position)
+                    + word.substring(position + 2);
+        };
+    }
+
+    static void measure(String name, SpellChecker spellChecker, List<String> queries) {
+        for (String query : queries) {
+            spellChecker.findClosestWords(query, SUGGESTIONS);
+        }
+        long[] nanos = new long[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            long start = System.nanoTime();
+            spellChecker.findClosestWords(queries.get(i), SUGGESTIONS);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-20s p50 %8.3f ms, p99 %8.3f ms, max %8.3f ms%n", name,
+                percentile(nanos, 0.50), percentile(nanos, 0.99), nanos[nanos.length - 1] / 1e6);
+    }
+
+    static double percentile(long[] sortedNanos, double percentile) {
+        int position = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(position, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,124 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.IndexedSpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellChecker;
+import bg.sofia.uni.fmi.mjt.spellchecker.SpellCheckerRegistry;
+
+import java.io.FileReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the retained heap of many tenants served by a {@link SpellCheckerRegistry}, which share one base
+ * dictionary, with the same tenants as standalone instances, each with its own copy of the dictionary.
+ * Every tenant adds a few words and is queried from several threads, so that the per-thread scorers are created.
+ * Run from the module directory so that resources/dictionary.txt and resources/stopwords.txt can be found.
+ * <p>
+ * Usage: TenantFootprintBenchmark [tenants] [words per tenant] [threads]
+ */
+public class TenantFootprintBenchmark {
+    private static final String DICTIONARY_PATH = "resources/dictionary.txt";
+    private static final String STOPWORDS_PATH = "resources/stopwords.txt";
+    private static final int STANDALONE_TENANTS = 8;
+
+    public static void main(String[] args) throws Exception {
+        int tenants = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int wordsPerTenant = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        // the per-thread scorers live as long as the threads, so the pool is kept until everything is measured
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            measure(executor, tenants, wordsPerTenant, threads);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void measure(ExecutorService executor, int tenants, int wordsPerTenant, int threads)
+            throws Exception {
+        long heapBefore = usedHeap();
+        SpellCheckerRegistry registry = new SpellCheckerRegistry();
+        try (Reader dictionary = new FileReader(DICTIONARY_PATH);
+             Reader stopwords = new FileReader(STOPWORDS_PATH)) {
+            registry.registerBase("en", dictionary, stopwords);
+        }
+        long baseBytes = usedHeap() - heapBefore;
+        List<SpellChecker> shared = new ArrayList<>();
+        for (int tenant = 0; tenant < tenants; tenant++) {
+            shared.add(registry.registerTenant("tenant" + tenant, "en", tenantWords(tenant, wordsPerTenant), null));
+        }
+        query(executor, shared, threads);
+        long sharedBytes = usedHeap() - heapBefore;
+
+        List<SpellChecker> standalone = new ArrayList<>();
+        heapBefore = usedHeap();
+        for (int tenant = 0; tenant < STANDALONE_TENANTS; tenant++) {
+            try (Reader dictionary = new FileReader(DICTIONARY_PATH);
+                 Reader stopwords = new FileReader(STOPWORDS_PATH)) {
+                IndexedSpellChecker spellChecker = new IndexedSpellChecker(dictionary, stopwords);
+                spellChecker.addWords(tenantWords(tenant, wordsPerTenant));
+                standalone.add(spellChecker);
+            }
+        }
+        query(executor, standalone, threads);
+        long standaloneBytes = usedHeap() - heapBefore;
+
+        System.out.printf("base dictionary          %8.1f MB%n", mb(baseBytes));
+        System.out.printf("registry, %4d tenants   %8.1f MB, %8.1f KB per tenant over the base%n",
+                tenants, mb(sharedBytes), (sharedBytes - baseBytes) / 1024.0 / tenants);
+        System.out.printf("standalone, %4d tenants %8.1f MB, %8.1f KB per tenant%n",
+                STANDALONE_TENANTS, mb(standaloneBytes), standaloneBytes / 1024.0 / STANDALONE_TENANTS);
+        System.out.println(shared.size() + standalone.size() + " tenants kept alive");
+    }
+
+    private static List<String> tenantWords(int tenant, int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add("tenant" + Integer.toString(tenant, Character.MAX_RADIX) + "word"
+                    + Integer.toString(i, Character.MAX_RADIX));
+        }
+        return words;
+    }
+
+    /**
+     * Queries every spell checker from every thread of {@code executor}, which has exactly {@code threads} threads
+     */
+    private static void query(ExecutorService executor, List<SpellChecker> spellCheckers, int threads)
+            throws Exception {
+        CountDownLatch allStarted = new CountDownLatch(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            futures.add(executor.submit(() -> {
+                allStarted.countDown();
+                allStarted.await();
+                for (SpellChecker spellChecker : spellCheckers) {
+                    if (spellChecker.findClosestWords("helo", 1).isEmpty()) {
+                        throw new IllegalStateException("The dictionary was not loaded");
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,72 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.benchmark;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.StringReworker;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.BigramBitmaps;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.BigramIndex;
+import bg.sofia.uni.fmi.mjt.spellchecker.index.SimilarityScorer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares scoring by walking the postings with scoring blocks of bigram bitmaps in SIMD lanes on a single thread,
+ * and checks that both return the same words.
+ * Run from the module directory with the vector source folder compiled onto the classpath and with
+ * {@code --add-modules jdk.incubator.vector} so that the vector path is taken, without them the bitmaps are scored by
+ * the scalar loop.
+ */
+public class VectorScoringBenchmark {
+    private static final String DICTIONARY_PATH = "resources/dictionary.txt";
+    private static final int SUGGESTIONS = 5;
+    private static final int QUERIES = 2000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        StringReworker reworker = new StringReworker() { };
+        String[] words = Files.readAllLines(Path.of(DICTIONARY_PATH)).stream()
+                .map(reworker::cleanUpString)
+                .filter(x -> x.length() > 1)
+                .toArray(String[]::new);
+        BigramIndex index = BigramIndex.build(words);
+        List<String> queries = SuggestionLatencyBenchmark.misspelledWords(QUERIES).stream()
+                .map(reworker::cleanUpString)
+                .toList();
+
+        long start = System.nanoTime();
+        BigramBitmaps bitmaps = BigramBitmaps.build(index);
+        System.out.printf("vector supported %b, bitmaps built in %.1f ms%n", BigramBitmaps.isVectorSupported(),
+                (System.nanoTime() - start) / 1e6);
+
+        SimilarityScorer postings = new SimilarityScorer(index, true);
+        SimilarityScorer bitmapped = new SimilarityScorer(index, true, bitmaps);
+        for (String query : queries) {
+            if (!postings.findClosestWords(query, SUGGESTIONS).equals(bitmapped.findClosestWords(query, SUGGESTIONS))) {
+                throw new IllegalStateException("Bitmap ranking differs for " + query);
+            }
+        }
+        for (int round = 0; round < ROUNDS; round++) {
+            measure("postings", postings, queries);
+            measure("bitmaps", bitmapped, queries);
+        }
+    }
+
+    private static void measure(String name, SimilarityScorer scorer, List<String> queries) {
+        long candidatesBefore = scorer.scoredCandidates();
+        long[] nanos = new long[queries.size()];
+        long total = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            long start = System.nanoTime();
+            scorer.findClosestWords(queries.get(i), SUGGESTIONS);
+            nanos[i] = System.nanoTime() - start;
+            total += nanos[i];
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-8s candidates/query %8.0f, p50 %7.3f ms, p99 %7.3f ms, %7.0f suggestions/s/core%n",
+                name, (scorer.scoredCandidates() - candidatesBefore) / (double) queries.size(),
+                SuggestionLatencyBenchmark.percentile(nanos, 0.50), SuggestionLatencyBenchmark.percentile(nanos, 0.99),
+                queries.size() / (total / 1e9));
+    }
+}
@@ -0,0 +1,47 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BigramBitmapsTest {
+    private static final String[] dictionaryWords = {"abab", "abba", "baba", "abcd", "ab", "ba", "bababa"};
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildWithNullIndex() {
+        BigramBitmaps.build(null);
+    }
+
+    @Test
+    public void testLayersSumToGramCounts() {
+        BigramIndex index = BigramIndex.build(dictionaryWords);
+        BigramBitmaps bitmaps = BigramBitmaps.build(index);
+        int gramId = index.gramId(BigramIndex.gramKey('a', 'b'));
+        int layersCount = index.maxGramCount(gramId, 4);
+        assertEquals(2, layersCount);
+        assertEquals(1, bitmaps.blockCount(4));
+
+        int[] layers = new int[layersCount];
+        int[] weights = new int[layersCount];
+        for (int layer = 0; layer < layersCount; layer++) {
+            layers[layer] = bitmaps.layerStart(gramId, 4, layer);
+            weights[layer] = 3;
+        }
+        long[] planes = new long[3 * BigramBitmaps.BLOCK_LONGS];
+        long[] above = new long[BigramBitmaps.BLOCK_LONGS];
+        assertTrue(bitmaps.sumLayers(4, 0, layers, weights, layersCount, 3, 3, planes, above));
+        for (int number = 0; number < 4; number++) {
+            String word = index.word(bitmaps.word(4, number));
+            int expected = word.equals("abab") ? 6 : 3;
+            int sum = 0;
+            for (int plane = 0; plane < 3; plane++) {
+                sum |= (int) (planes[plane * BigramBitmaps.BLOCK_LONGS] >>> number & 1) << plane;
+            }
+            assertEquals(word, expected, sum);
+            assertEquals(word, expected > 3, (above[0] >>> number & 1) != 0);
+        }
+        assertFalse(bitmaps.sumLayers(4, 0, layers, weights, layersCount, 3, 6, planes, above));
+    }
+}
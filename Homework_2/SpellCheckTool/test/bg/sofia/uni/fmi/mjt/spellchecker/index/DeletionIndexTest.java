@@ -0,0 +1,69 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class DeletionIndexTest {
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildWithNullWords() {
+        DeletionIndex.build(null, 2, 7);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildWithPrefixNotLongerThanEditDistance() {
+        DeletionIndex.build(new String[] {"hello"}, 2, 2);
+    }
+
+    @Test
+    public void testEditDistanceCountsTranspositionsOnce() {
+        assertEquals(0, EditDistance.boundedDistance("hello", "hello", 2));
+        assertEquals(1, EditDistance.boundedDistance("hello", "hlelo", 2));
+        assertEquals(2, EditDistance.boundedDistance("hello", "hlleo", 2));
+        assertEquals(3, EditDistance.boundedDistance("hello", "world", 2));
+        assertEquals(3, EditDistance.boundedDistance("ca", "abc", 5));
+    }
+
+    @Test
+    public void testFindClosestWordsMatchesBruteForce() {
+        Random random = new Random(326);
+        String[] words = new String[3000];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = randomWord(random, 2 + random.nextInt(10));
+        }
+        TreeSet<String> dictionary = new TreeSet<>(List.of(words));
+        for (int maxEditDistance = 1; maxEditDistance <= 2; maxEditDistance++) {
+            DeletionIndex index = DeletionIndex.build(words, maxEditDistance, 4);
+            for (int i = 0; i < 300; i++) {
+                String query = randomWord(random, 1 + random.nextInt(11));
+                assertEquals(bruteForce(dictionary, query, maxEditDistance), index.findClosestWords(query, 10));
+            }
+        }
+    }
+
+    private static List<String> bruteForce(TreeSet<String> dictionary, String query, int maxEditDistance) {
+        List<String> found = new ArrayList<>();
+        for (String word : dictionary) {
+            if (EditDistance.boundedDistance(query, word, maxEditDistance) <= maxEditDistance) {
+                found.add(word);
+            }
+        }
+        found.sort(Comparator.comparingInt(
+                (String word) -> EditDistance.boundedDistance(query, word, maxEditDistance)));
+        return found.subList(0, Math.min(10, found.size()));
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(5)));
+        }
+        return word.toString();
+    }
+}
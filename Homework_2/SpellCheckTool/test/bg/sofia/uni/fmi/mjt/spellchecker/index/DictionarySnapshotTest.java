@@ -0,0 +1,150 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DictionarySnapshotTest {
+    private static final String[] dictionaryWords = {
+        "valio", "123", "hello", "you", "there", "nostradamus", "football", "ball12-3", "asdf",
+        "englishman", "new", "york", "pitch", "stupid", "fmi", "java", "banana", "bananas", "anna"
+    };
+    private static final Set<String> stopwords = Set.of("is", "a", "there's");
+    private static final WordAutomaton stopwordsAutomaton = WordAutomaton.build(stopwords.toArray(String[]::new));
+    private Path snapshotFile;
+
+    @Before
+    public void createSnapshotFile() throws IOException {
+        snapshotFile = Files.createTempFile("dictionary-snapshot", ".bin");
+    }
+
+    @After
+    public void deleteSnapshotFile() throws IOException {
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Test
+    public void testMapReturnsTheWrittenIndexWordsAndStopwords() {
+        BigramIndex index = BigramIndex.build(dictionaryWords);
+        WordAutomaton words = WordAutomaton.build(dictionaryWords);
+        DictionarySnapshot.write(snapshotFile, index, words, stopwordsAutomaton);
+        DictionarySnapshot snapshot = DictionarySnapshot.map(snapshotFile);
+        BigramIndex mapped = snapshot.index();
+
+        assertEquals(stopwords, Set.copyOf(snapshot.stopwords().words()));
+        assertEquals(words.words(), snapshot.words().words());
+        assertTrue(snapshot.words().contains("nostradamus"));
+        assertFalse(snapshot.words().contains("hell"));
+        assertEquals(index.wordCount(), mapped.wordCount());
+        assertEquals(index.gramCount(), mapped.gramCount());
+        assertEquals(index.maxWordLength(), mapped.maxWordLength());
+        assertEquals(index.lastPartition(), mapped.lastPartition());
+        for (int wordId = 0; wordId < index.wordCount(); wordId++) {
+            assertEquals(index.word(wordId), mapped.word(wordId));
+            assertEquals(wordId, mapped.wordId(index.word(wordId)));
+            assertEquals(index.wordLength(wordId), mapped.wordLength(wordId), 0);
+        }
+        assertFalse(mapped.containsWord("hell"));
+        assertFalse(mapped.containsWord("zzz"));
+        for (int gramId = 0; gramId < index.gramCount(); gramId++) {
+            for (int partition = 0; partition <= index.lastPartition() + 1; partition++) {
+                assertEquals(index.postingStart(gramId, partition), mapped.postingStart(gramId, partition));
+            }
+        }
+    }
+
+    @Test
+    public void testRewritingReplacesTheFileWithoutChangingMappedSnapshots() throws IOException {
+        DictionarySnapshot.write(snapshotFile, BigramIndex.build(dictionaryWords), WordAutomaton.build(dictionaryWords),
+                stopwordsAutomaton);
+        DictionarySnapshot previous = DictionarySnapshot.map(snapshotFile);
+        String[] changedWords = {"hello", "world"};
+        DictionarySnapshot.write(snapshotFile, BigramIndex.build(changedWords), WordAutomaton.build(changedWords),
+                stopwordsAutomaton);
+
+        assertTrue(previous.words().contains("nostradamus"));
+        assertEquals(dictionaryWords.length, previous.index().wordCount());
+        assertEquals(2, DictionarySnapshot.map(snapshotFile).index().wordCount());
+        String temporaryPrefix = snapshotFile.getFileName().toString();
+        try (var files = Files.list(snapshotFile.toAbsolutePath().getParent())) {
+            assertFalse(files.anyMatch(x -> x.getFileName().toString().startsWith(temporaryPrefix)
+                    && x.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    public void testMappedIndexRanksLikeTheBuiltIndex() {
+        Random random = new Random(326);
+        String[] words = new String[3000];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = randomWord(random, 2 + random.nextInt(12));
+        }
+        BigramIndex index = BigramIndex.build(words);
+        DictionarySnapshot.write(snapshotFile, index, WordAutomaton.build(words), WordAutomaton.build(new String[0]));
+        SimilarityScorer built = new SimilarityScorer(index);
+        SimilarityScorer mapped = new SimilarityScorer(DictionarySnapshot.map(snapshotFile).index());
+        for (int i = 0; i < 200; i++) {
+            String query = randomWord(random, 2 + random.nextInt(12));
+            assertEquals(built.findClosestWords(query, 5), mapped.findClosestWords(query, 5));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWriteRejectsMismatchedWords() {
+        DictionarySnapshot.write(snapshotFile, BigramIndex.build(dictionaryWords),
+                WordAutomaton.build(new String[] {"hello"}), stopwordsAutomaton);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMapRejectsOtherFiles() throws IOException {
+        Files.writeString(snapshotFile, "hello" + System.lineSeparator() + "world");
+        DictionarySnapshot.map(snapshotFile);
+    }
+
+    @Test
+    public void testMapRejectsOtherVersions() throws IOException {
+        DictionarySnapshot.write(snapshotFile, BigramIndex.build(dictionaryWords), WordAutomaton.build(dictionaryWords),
+                stopwordsAutomaton);
+        byte[] content = Files.readAllBytes(snapshotFile);
+        ByteBuffer.wrap(content).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(Integer.BYTES, DictionarySnapshot.FORMAT_VERSION + 1);
+        Files.write(snapshotFile, content);
+        try {
+            DictionarySnapshot.map(snapshotFile);
+            fail("Snapshot with another version was accepted");
+        } catch (IllegalArgumentException exception) {
+            assertTrue(exception.getMessage().contains("version"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMapRejectsTruncatedSnapshots() throws IOException {
+        DictionarySnapshot.write(snapshotFile, BigramIndex.build(dictionaryWords), WordAutomaton.build(dictionaryWords),
+                stopwordsAutomaton);
+        byte[] content = Files.readAllBytes(snapshotFile);
+        Files.write(snapshotFile, Arrays.copyOf(content, content.length / 2));
+        DictionarySnapshot.map(snapshotFile);
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(8)));
+        }
+        return word.toString();
+    }
+}
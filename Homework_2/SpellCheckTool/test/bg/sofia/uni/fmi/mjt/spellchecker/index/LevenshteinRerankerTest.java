@@ -0,0 +1,79 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class LevenshteinRerankerTest {
+    @Test
+    public void testDistanceMatchesDynamicProgramming() {
+        Random random = new Random(326);
+        String alphabet = "abcde\u00E9\u4E2D";
+        for (int round = 0; round < 2000; round++) {
+            String first = randomWord(random, alphabet, round % 10 == 0 ? 90 : 12);
+            String second = randomWord(random, alphabet, round % 10 == 0 ? 90 : 12);
+            assertEquals(first + " " + second, referenceDistance(first, second),
+                    LevenshteinReranker.distance(first, second));
+        }
+    }
+
+    @Test
+    public void testDistanceOfKnownWords() {
+        assertEquals(3, LevenshteinReranker.distance("kitten", "sitting"));
+        assertEquals(2, LevenshteinReranker.distance("hello", "hlelo"));
+        assertEquals(5, LevenshteinReranker.distance("", "hello"));
+        assertEquals(5, LevenshteinReranker.distance("hello", ""));
+        assertEquals(0, LevenshteinReranker.distance("a".repeat(64), "a".repeat(64)));
+        assertEquals(1, LevenshteinReranker.distance("a".repeat(64), "a".repeat(65)));
+    }
+
+    @Test
+    public void testRerankKeepsFirstStageOrderOnEqualDistance() {
+        LevenshteinReranker reranker = new LevenshteinReranker(8);
+        List<String> candidates = List.of("hello", "helo", "yellow", "hell", "help");
+        assertEquals(List.of("helo", "hell", "hello"), reranker.rerank("helol", candidates, 3));
+        assertEquals(List.of("helo", "hell", "hello", "help", "yellow"), reranker.rerank("helol", candidates, 10));
+        assertEquals(List.of(), reranker.rerank("helol", List.of(), 3));
+    }
+
+    @Test
+    public void testCandidatesCount() {
+        LevenshteinReranker reranker = new LevenshteinReranker(16);
+        assertEquals(16, reranker.candidatesCount(3));
+        assertEquals(20, reranker.candidatesCount(20));
+        assertEquals(0, reranker.candidatesCount(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveDepth() {
+        new LevenshteinReranker(0);
+    }
+
+    private static String randomWord(Random random, String alphabet, int maxLength) {
+        StringBuilder word = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return word.toString();
+    }
+
+    private static int referenceDistance(String first, String second) {
+        int[][] distances = new int[first.length() + 1][second.length() + 1];
+        for (int i = 0; i <= first.length(); i++) {
+            for (int j = 0; j <= second.length(); j++) {
+                if (i == 0 || j == 0) {
+                    distances[i][j] = i + j;
+                } else {
+                    int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                    distances[i][j] = Math.min(Math.min(distances[i - 1][j], distances[i][j - 1]) + 1,
+                            distances[i - 1][j - 1] + cost);
+                }
+            }
+        }
+        return distances[first.length()][second.length()];
+    }
+}
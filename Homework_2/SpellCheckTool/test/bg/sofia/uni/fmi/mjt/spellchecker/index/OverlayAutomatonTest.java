@@ -0,0 +1,91 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class OverlayAutomatonTest {
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfNullBase() {
+        OverlayAutomaton.of(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemoveNullWord() {
+        OverlayAutomaton.of(WordAutomaton.build(new String[] {"hello"})).withRemovedWords(new String[] {null});
+    }
+
+    @Test
+    public void testChangesDoNotAffectEarlierVersions() {
+        WordAutomaton base = WordAutomaton.build(new String[] {"hello", "you", "there"});
+        OverlayAutomaton original = OverlayAutomaton.of(base);
+        OverlayAutomaton changed = original.withAddedWords(new String[] {"java", "hello"})
+                .withRemovedWords(new String[] {"you", "python"});
+
+        assertSame(base, changed.base());
+        assertEquals(0, original.overlaySize());
+        assertTrue(original.contains("you"));
+        assertFalse(original.contains("java"));
+        assertFalse(changed.contains("you"));
+        assertTrue(changed.contains("java"));
+        assertTrue(changed.contains("hello"));
+        assertEquals(2, changed.overlaySize());
+        assertEquals(3, changed.wordCount());
+    }
+
+    @Test
+    public void testReAddingRemovedBaseWordClearsOverlay() {
+        OverlayAutomaton words = OverlayAutomaton.of(WordAutomaton.build(new String[] {"hello", "you"}))
+                .withRemovedWords(new String[] {"you"})
+                .withAddedWords(new String[] {"you"});
+        assertTrue(words.contains("you"));
+        assertEquals(0, words.overlaySize());
+    }
+
+    @Test
+    public void testOverlayMatchesCompactedAutomaton() {
+        Random random = new Random(326);
+        TreeSet<String> expected = new TreeSet<>();
+        for (int i = 0; i < 2000; i++) {
+            expected.add(randomWord(random));
+        }
+        OverlayAutomaton words = OverlayAutomaton.of(WordAutomaton.build(expected.toArray(String[]::new)));
+        for (int change = 0; change < 20; change++) {
+            String[] changed = new String[1 + random.nextInt(30)];
+            for (int i = 0; i < changed.length; i++) {
+                changed[i] = random.nextBoolean() ? randomWord(random) : expected.first();
+            }
+            if (random.nextBoolean()) {
+                words = words.withAddedWords(changed);
+                expected.addAll(List.of(changed));
+            } else {
+                words = words.withRemovedWords(changed);
+                expected.removeAll(List.of(changed));
+            }
+
+            assertEquals(expected.size(), words.wordCount());
+            for (int i = 0; i < 50; i++) {
+                String query = randomWord(random);
+                assertEquals(query, expected.contains(query), words.contains(query));
+            }
+        }
+        assertEquals(new ArrayList<>(expected), words.compacted().words());
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 2 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+}
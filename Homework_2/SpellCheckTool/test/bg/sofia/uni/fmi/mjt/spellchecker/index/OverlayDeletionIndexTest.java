@@ -0,0 +1,92 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class OverlayDeletionIndexTest {
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfNullBase() {
+        OverlayDeletionIndex.of(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemoveNullWord() {
+        OverlayDeletionIndex.of(DeletionIndex.build(new String[] {"hello"}, 2, 7))
+                .withRemovedWords(new String[] {"hello", null});
+    }
+
+    @Test
+    public void testChangesDoNotAffectEarlierVersions() {
+        DeletionIndex base = DeletionIndex.build(new String[] {"hello", "help", "you"}, 2, 7);
+        OverlayDeletionIndex original = OverlayDeletionIndex.of(base);
+        OverlayDeletionIndex changed = original.withAddedWords(new String[] {"hell", "hello"})
+                .withRemovedWords(new String[] {"help", "python"});
+
+        assertSame(base, changed.base());
+        assertEquals(0, original.overlaySize());
+        assertEquals(List.of("hello", "help"), original.findClosestWords("helo", 3));
+        assertEquals(List.of("hell", "hello"), changed.findClosestWords("helo", 3));
+        assertEquals(List.of("hell"), changed.findClosestWords("helo", 1));
+        assertTrue(changed.containsWord("hell"));
+        assertFalse(changed.containsWord("help"));
+        assertEquals(2, changed.overlaySize());
+        assertEquals(3, changed.wordCount());
+    }
+
+    @Test
+    public void testReAddingRemovedBaseWordClearsOverlay() {
+        OverlayDeletionIndex index = OverlayDeletionIndex.of(DeletionIndex.build(new String[] {"hello", "you"}, 2, 7))
+                .withRemovedWords(new String[] {"you"})
+                .withAddedWords(new String[] {"you"});
+        assertTrue(index.containsWord("you"));
+        assertEquals(0, index.overlaySize());
+    }
+
+    @Test
+    public void testFindClosestWordsMatchesCompactedIndex() {
+        Random random = new Random(326);
+        TreeSet<String> words = new TreeSet<>();
+        for (int i = 0; i < 2000; i++) {
+            words.add(randomWord(random));
+        }
+        OverlayDeletionIndex index = OverlayDeletionIndex.of(DeletionIndex.build(words.toArray(String[]::new), 2, 7));
+        for (int change = 0; change < 20; change++) {
+            String[] changed = new String[1 + random.nextInt(30)];
+            for (int i = 0; i < changed.length; i++) {
+                changed[i] = random.nextBoolean() ? randomWord(random) : words.first();
+            }
+            if (random.nextBoolean()) {
+                index = index.withAddedWords(changed);
+                words.addAll(List.of(changed));
+            } else {
+                index = index.withRemovedWords(changed);
+                words.removeAll(List.of(changed));
+            }
+
+            assertEquals(words.size(), index.wordCount());
+            DeletionIndex compacted = index.compacted();
+            for (int i = 0; i < 50; i++) {
+                String query = randomWord(random);
+                assertEquals(words.contains(query), index.containsWord(query));
+                assertEquals(query, compacted.findClosestWords(query, 5), index.findClosestWords(query, 5));
+            }
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 2 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class OverlayIndexTest {
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfNullBase() {
+        OverlayIndex.of(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddNullWord() {
+        OverlayIndex.of(BigramIndex.build(new String[] {"hello"})).withAddedWords(new String[] {"you", null});
+    }
+
+    @Test
+    public void testChangesDoNotAffectEarlierVersions() {
+        BigramIndex base = BigramIndex.build(new String[] {"hello", "you", "there"});
+        OverlayIndex original = OverlayIndex.of(base);
+        OverlayIndex changed = original.withAddedWords(new String[] {"java", "hello"})
+                .withRemovedWords(new String[] {"you", "python"});
+
+        assertSame(base, changed.base());
+        assertEquals(0, original.overlaySize());
+        assertTrue(original.containsWord("you"));
+        assertFalse(original.containsWord("java"));
+        assertFalse(changed.containsWord("you"));
+        assertTrue(changed.containsWord("java"));
+        assertTrue(changed.containsWord("hello"));
+        assertEquals(2, changed.overlaySize());
+        assertEquals(3, changed.wordCount());
+    }
+
+    @Test
+    public void testReAddingRemovedBaseWordClearsOverlay() {
+        OverlayIndex index = OverlayIndex.of(BigramIndex.build(new String[] {"hello", "you"}))
+                .withRemovedWords(new String[] {"you"})
+                .withAddedWords(new String[] {"you"});
+        assertTrue(index.containsWord("you"));
+        assertEquals(0, index.overlaySize());
+    }
+
+    @Test
+    public void testOverlayScorerMatchesCompactedIndex() {
+        Random random = new Random(326);
+        TreeSet<String> words = new TreeSet<>();
+        for (int i = 0; i < 2000; i++) {
+            words.add(randomWord(random));
+        }
+        BigramIndex base = BigramIndex.build(words.toArray(String[]::new));
+        SimilarityScorer baseScorer = new SimilarityScorer(base);
+        OverlayIndex index = OverlayIndex.of(base);
+        for (int change = 0; change < 20; change++) {
+            String[] changed = new String[1 + random.nextInt(30)];
+            for (int i = 0; i < changed.length; i++) {
+                changed[i] = random.nextBoolean() ? randomWord(random) : words.first();
+            }
+            if (random.nextBoolean()) {
+                index = index.withAddedWords(changed);
+                words.addAll(List.of(changed));
+            } else {
+                index = index.withRemovedWords(changed);
+                words.removeAll(List.of(changed));
+            }
+
+            assertEquals(words.size(), index.wordCount());
+            SimilarityScorer compactedScorer = new SimilarityScorer(index.compacted());
+            OverlayScorer overlayScorer = new OverlayScorer(index, baseScorer);
+            for (int i = 0; i < 50; i++) {
+                String query = randomWord(random);
+                assertEquals(words.contains(query), index.containsWord(query));
+                assertEquals(query, compactedScorer.findClosestWords(query, 5),
+                        overlayScorer.findClosestWords(query, 5));
+            }
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 2 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+}
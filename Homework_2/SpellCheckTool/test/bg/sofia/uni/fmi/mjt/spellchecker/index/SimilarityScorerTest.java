@@ -0,0 +1,137 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimilarityScorerTest {
+    private static final String[] dictionaryWords = {
+        "valio", "123", "hello", "you", "there", "nostradamus", "football", "ball12-3", "asdf",
+        "englishman", "new", "york", "pitch", "stupid", "fmi", "java", "banana", "bananas", "anna"
+    };
+    private BigramIndex index;
+
+    @Before
+    public void buildIndex() {
+        index = BigramIndex.build(dictionaryWords);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateScorerWithNullIndex() {
+        new SimilarityScorer(null);
+    }
+
+    @Test
+    public void testFindClosestWordsOrdersTiesByWord() {
+        SimilarityScorer scorer = new SimilarityScorer(index);
+        assertEquals(List.of("ball12-3", "football", "hello", "valio"), scorer.findClosestWords("ball", 4));
+    }
+
+    @Test
+    public void testFindClosestWordsWithUnknownGrams() {
+        SimilarityScorer scorer = new SimilarityScorer(index);
+        assertTrue(scorer.findClosestWords("qqqq", 3).isEmpty());
+        assertTrue(scorer.findClosestWords("q", 3).isEmpty());
+    }
+
+    @Test
+    public void testPruningMatchesExhaustiveRanking() {
+        Random random = new Random(326);
+        String[] words = new String[5000];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = randomWord(random, 2 + random.nextInt(14));
+        }
+        BigramIndex randomIndex = BigramIndex.build(words);
+        SimilarityScorer pruned = new SimilarityScorer(randomIndex, true);
+        SimilarityScorer exhaustive = new SimilarityScorer(randomIndex, false);
+        for (int i = 0; i < 500; i++) {
+            String query = randomWord(random, 2 + random.nextInt(16));
+            int n = 1 + random.nextInt(10);
+            assertEquals(query, exhaustive.findClosestWords(query, n), pruned.findClosestWords(query, n));
+        }
+        assertTrue(pruned.scoredCandidates() < exhaustive.scoredCandidates());
+    }
+
+    @Test
+    public void testLongWordsShareTheLastPartition() {
+        Random random = new Random(328);
+        String[] words = new String[2000];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = randomWord(random, 2 + random.nextInt(120), 4);
+        }
+        words[0] = randomWord(random, 100_000, 4);
+        BigramIndex longIndex = BigramIndex.build(words);
+        assertEquals(100_000, longIndex.maxWordLength());
+        assertEquals(BigramIndex.MAX_PARTITIONED_LENGTH, longIndex.lastPartition());
+
+        SimilarityScorer pruned = new SimilarityScorer(longIndex, true);
+        SimilarityScorer exhaustive = new SimilarityScorer(longIndex, false);
+        for (int i = 0; i < 300; i++) {
+            String query = randomWord(random, 2 + random.nextInt(150), 4);
+            int n = 1 + random.nextInt(10);
+            assertEquals(query, exhaustive.findClosestWords(query, n), pruned.findClosestWords(query, n));
+        }
+        assertEquals(List.of(words[0]), pruned.findClosestWords(words[0], 1));
+    }
+
+    @Test
+    public void testPruningKeepsTiesOnTheWorstScore() {
+        BigramIndex tiedIndex = BigramIndex.build(new String[] {"abz", "aby", "abx", "abw", "zzab", "abab"});
+        SimilarityScorer pruned = new SimilarityScorer(tiedIndex, true);
+        SimilarityScorer exhaustive = new SimilarityScorer(tiedIndex, false);
+        for (int n = 1; n <= 6; n++) {
+            assertEquals(exhaustive.findClosestWords("ab", n), pruned.findClosestWords("ab", n));
+        }
+        assertEquals(List.of("abab", "abw", "abx"), pruned.findClosestWords("ab", 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateScorerWithBitmapsOfAnotherIndex() {
+        new SimilarityScorer(index, true, BigramBitmaps.build(BigramIndex.build(dictionaryWords)));
+    }
+
+    @Test
+    public void testBitmapsMatchPostingsRanking() {
+        Random random = new Random(327);
+        String[] words = new String[3000];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = randomWord(random, 2 + random.nextInt(70), 3);
+        }
+        BigramIndex randomIndex = BigramIndex.build(words);
+        BigramBitmaps bitmaps = BigramBitmaps.build(randomIndex);
+        SimilarityScorer postings = new SimilarityScorer(randomIndex, false);
+        SimilarityScorer pruned = new SimilarityScorer(randomIndex, true, bitmaps);
+        SimilarityScorer exhaustive = new SimilarityScorer(randomIndex, false, bitmaps);
+        BitSet excludedWords = new BitSet();
+        for (int i = 0; i < randomIndex.wordCount(); i += 3) {
+            excludedWords.set(i);
+        }
+        for (int i = 0; i < 300; i++) {
+            String query = randomWord(random, 2 + random.nextInt(80), 3);
+            int n = 1 + random.nextInt(10);
+            List<String> expected = postings.findClosestWords(query, n);
+            assertEquals(query, expected, pruned.findClosestWords(query, n));
+            assertEquals(query, expected, exhaustive.findClosestWords(query, n));
+            assertEquals(query, postings.findClosestScoredWords(query, n, excludedWords),
+                    pruned.findClosestScoredWords(query, n, excludedWords));
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        return randomWord(random, length, 8);
+    }
+
+    private static String randomWord(Random random, int length, int letters) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(letters)));
+        }
+        return word.toString();
+    }
+}
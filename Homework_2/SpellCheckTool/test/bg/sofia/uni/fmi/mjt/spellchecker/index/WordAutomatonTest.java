@@ -0,0 +1,80 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WordAutomatonTest {
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildWithNullWords() {
+        WordAutomaton.build(null);
+    }
+
+    @Test
+    public void testContains() {
+        WordAutomaton automaton = WordAutomaton.build(new String[] {"hello", "help", "hell", "you", "help"});
+        assertEquals(4, automaton.wordCount());
+        assertTrue(automaton.contains("hell"));
+        assertTrue(automaton.contains("help"));
+        assertFalse(automaton.contains("hel"));
+        assertFalse(automaton.contains("helps"));
+        assertFalse(automaton.contains(""));
+        assertFalse(automaton.contains("yo"));
+    }
+
+    @Test
+    public void testEmptyWordAndEmptyAutomaton() {
+        assertTrue(WordAutomaton.build(new String[] {"", "a"}).contains(""));
+        WordAutomaton empty = WordAutomaton.build(new String[0]);
+        assertFalse(empty.contains(""));
+        assertTrue(empty.wordsWithPrefix("", 10).isEmpty());
+    }
+
+    @Test
+    public void testSharedSuffixesAreMerged() {
+        WordAutomaton automaton = WordAutomaton.build(new String[] {"tap", "taps", "top", "tops"});
+        assertEquals(5, automaton.stateCount());
+        assertEquals(5, automaton.transitionCount());
+    }
+
+    @Test
+    public void testWordsWithPrefix() {
+        WordAutomaton automaton = WordAutomaton.build(new String[] {"java", "javascript", "jam", "jar", "kotlin"});
+        assertEquals(List.of("jam", "jar", "java", "javascript"), automaton.wordsWithPrefix("ja", 10));
+        assertEquals(List.of("jam", "jar"), automaton.wordsWithPrefix("ja", 2));
+        assertEquals(List.of("java", "javascript"), automaton.wordsWithPrefix("java", 10));
+        assertTrue(automaton.wordsWithPrefix("python", 10).isEmpty());
+    }
+
+    @Test
+    public void testMatchesSortedSetOfRandomWords() {
+        Random random = new Random(326);
+        TreeSet<String> words = new TreeSet<>();
+        for (int i = 0; i < 3000; i++) {
+            words.add(randomWord(random));
+        }
+        WordAutomaton automaton = WordAutomaton.build(words.toArray(String[]::new));
+        assertEquals(new ArrayList<>(words), automaton.wordsWithPrefix("", words.size()));
+        for (int i = 0; i < 3000; i++) {
+            String word = randomWord(random);
+            assertEquals(word, words.contains(word), automaton.contains(word));
+        }
+        assertTrue(automaton.transitionCount() < words.size() * 3);
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 1 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+}
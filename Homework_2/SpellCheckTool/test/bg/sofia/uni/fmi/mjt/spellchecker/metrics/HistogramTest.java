@@ -0,0 +1,62 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+    @Test
+    public void testSmallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 10; value++) {
+            histogram.record(value);
+        }
+        assertEquals(10, histogram.count());
+        assertEquals(5, histogram.percentile(0.5));
+        assertEquals(9, histogram.percentile(0.9));
+        assertEquals(10, histogram.percentile(1));
+        assertEquals(5.5, histogram.mean(), 1e-9);
+    }
+
+    @Test
+    public void testLargeValuesAreWithinRelativeError() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+        for (double percentile : new double[] {0.5, 0.9, 0.99}) {
+            double exact = percentile * 100_000 * 1000;
+            long estimate = histogram.percentile(percentile);
+            assertTrue(percentile + ": " + estimate, estimate >= exact && estimate <= exact * (1 + 1.0 / 32));
+        }
+        assertEquals(100_000_000, histogram.max());
+        assertEquals(100_000_000, histogram.percentile(1));
+    }
+
+    @Test
+    public void testExtremeAndNegativeValues() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.percentile(0.5));
+        assertEquals(Long.MAX_VALUE, histogram.percentile(1));
+    }
+
+    @Test
+    public void testResetAndEmptyHistogram() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.percentile(0.99));
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.percentile(0.5));
+        assertEquals(0, histogram.mean(), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new Histogram().percentile(1.5);
+    }
+}
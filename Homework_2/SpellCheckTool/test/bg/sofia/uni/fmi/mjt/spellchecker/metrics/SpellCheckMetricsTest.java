@@ -0,0 +1,67 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.metrics;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpellCheckMetricsTest {
+    @Test
+    public void testAggregatesMeasurements() {
+        SpellCheckMetrics metrics = new SpellCheckMetrics();
+        metrics.recordPhase(SpellCheckRecorder.Phase.TOKENIZE, 2_000_000);
+        metrics.recordPhase(SpellCheckRecorder.Phase.TOKENIZE, 3_000_000);
+        metrics.recordText(500_000_000, 1000);
+        metrics.recordText(500_000_000, 1000);
+        metrics.recordSuggestion(100_000, 10);
+        metrics.recordSuggestion(300_000, 30);
+
+        assertEquals(5, metrics.getTokenizeMillis());
+        assertEquals(0, metrics.getSuggestMillis());
+        assertEquals(2, metrics.getTexts());
+        assertEquals(2000, metrics.getTokensPerSecond(), 1e-9);
+        assertEquals(2, metrics.getSuggestions());
+        assertEquals(300, metrics.getSuggestionLatencyMaxMicros());
+        assertTrue(metrics.getSuggestionLatencyP50Micros() >= 100 && metrics.getSuggestionLatencyP50Micros() < 104);
+        assertEquals(20, metrics.getCandidatesMean(), 1e-9);
+        assertEquals(30, metrics.getCandidatesMax());
+
+        metrics.reset();
+        assertEquals(0, metrics.getTokenizeMillis());
+        assertEquals(0, metrics.getSuggestions());
+        assertEquals(0, metrics.getTokensPerSecond(), 1e-9);
+    }
+
+    @Test
+    public void testRegisterExposesMetricsThroughJmx() throws Exception {
+        SpellCheckMetrics metrics = new SpellCheckMetrics();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = metrics.register("test, with \"quotes\"");
+        try {
+            metrics.recordSuggestion(2_000_000, 7);
+            assertEquals(1L, server.getAttribute(name, "Suggestions"));
+            assertEquals(7L, server.getAttribute(name, "CandidatesMax"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "Suggestions"));
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRegisterTwice() {
+        SpellCheckMetrics metrics = new SpellCheckMetrics();
+        metrics.register("twice");
+        try {
+            metrics.register("twice");
+        } finally {
+            metrics.unregister();
+        }
+    }
+}
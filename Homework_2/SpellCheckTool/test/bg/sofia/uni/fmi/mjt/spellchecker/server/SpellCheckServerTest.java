@@ -0,0 +1,187 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.server;
+
+import bg.sofia.uni.fmi.mjt.spellchecker.IndexedSpellChecker;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+public class SpellCheckServerTest {
+    private static final String dictionaryWords = """
+            valio
+            123
+            hello
+            you
+            there
+            Nostradamus
+            football
+            ball12-3
+            EnglishMan
+            New
+            York
+            pitch
+            stupid
+            FMI
+            JAVA
+            """;
+    private static final String stopwords = """
+            is
+            a
+            in
+            the
+            """;
+    private IndexedSpellChecker spellChecker;
+    private SpellCheckServer server;
+    private SpellCheckClient client;
+
+    @Before
+    public void startServer() {
+        spellChecker = new IndexedSpellChecker(new StringReader(dictionaryWords), new StringReader(stopwords));
+        server = new SpellCheckServer(spellChecker, 0, 2);
+        server.start();
+        client = new SpellCheckClient("localhost", server.port(), 3);
+    }
+
+    @After
+    public void stopServer() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void testFindClosestWordsMatchesLocalSpellChecker() {
+        for (String word : List.of("valioo", "footbal", "javaa", "q", "")) {
+            assertEquals(word, spellChecker.findClosestWords(word, 3), client.findClosestWords(word, 3));
+        }
+    }
+
+    @Test
+    public void testMetadataMatchesLocalSpellChecker() {
+        String text = "Studying JaVa in fmi feels like" + System.lineSeparator() + "englishMan in NEW YORK";
+        assertEquals(spellChecker.metadata(new StringReader(text)), client.metadata(new StringReader(text)));
+    }
+
+    @Test
+    public void testAnalyzeStreamsWholeReport() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append("Studying JaVa in fmi, ").append(i).append(" footbal \uD83D\uDE00 ")
+                    .append(System.lineSeparator());
+        }
+        StringWriter expected = new StringWriter();
+        spellChecker.analyzeStreaming(new StringReader(text.toString()), expected, 2);
+        StringWriter output = new StringWriter();
+        client.analyze(new StringReader(text.toString()), output, 2);
+        assertEquals(expected.toString(), output.toString());
+    }
+
+    @Test
+    public void testReportLargerThanSocketBuffersIsReceivedWhileTextIsSent() {
+        String text = "footbal valioo javaa\n".repeat(600_000);
+        StringWriter expected = new StringWriter();
+        spellChecker.analyzeStreaming(new StringReader(text), expected, 2);
+        StringWriter output = new StringWriter();
+        client.analyze(new StringReader(text), output, 2);
+        assertEquals(expected.toString(), output.toString());
+    }
+
+    @Test
+    public void testTextLargerThanFrameIsSentInChunks() {
+        String text = "valioo ".repeat(Protocol.MAX_DATA_CHARS) + "a".repeat(Protocol.MAX_DATA_CHARS - 1)
+                + "\uD83D\uDE00 footbal";
+        assertEquals(spellChecker.metadata(new StringReader(text)), client.metadata(new StringReader(text)));
+    }
+
+    @Test
+    public void testRejectedRequestTextIsSkipped() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.port()))) {
+            Protocol.write(channel, Protocol.frame(Protocol.ANALYZE, -1));
+            for (int i = 0; i < 100; i++) {
+                Protocol.write(channel, Protocol.frame(Protocol.DATA, "footbal ".repeat(100)));
+            }
+            Protocol.write(channel, Protocol.frame(Protocol.END, new byte[0]));
+            assertEquals(Protocol.INVALID_ARGUMENT, Protocol.read(channel).type());
+            writeRequest(channel, Protocol.CLOSEST_WORDS, 1, "footbal");
+            assertEquals("football", Protocol.read(channel).text());
+            assertEquals(Protocol.END, Protocol.read(channel).type());
+        }
+    }
+
+    @Test
+    public void testInvalidArgumentDoesNotBreakConnection() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.port()))) {
+            writeRequest(channel, Protocol.CLOSEST_WORDS, -1, "valio");
+            Protocol.Frame frame = Protocol.read(channel);
+            assertEquals(Protocol.INVALID_ARGUMENT, frame.type());
+            assertEquals("Number of suggestions is non-negative", frame.text());
+            writeRequest(channel, Protocol.CLOSEST_WORDS, 1, "valioo");
+            assertEquals("valio", Protocol.read(channel).text());
+            assertEquals(Protocol.END, Protocol.read(channel).type());
+        }
+    }
+
+    @Test
+    public void testPipelinedRequestsAreAnsweredInOrder() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.port()))) {
+            List<String> words = List.of("valioo", "footbal", "javaa", "hellp");
+            for (String word : words) {
+                writeRequest(channel, Protocol.CLOSEST_WORDS, 1, word);
+            }
+            for (String word : words) {
+                assertEquals(spellChecker.findClosestWords(word, 1).get(0), Protocol.read(channel).text());
+                assertEquals(Protocol.END, Protocol.read(channel).type());
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentClientsShareConnectionPool() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit((Callable<Void>) () -> {
+                    for (int round = 0; round < 50; round++) {
+                        assertEquals(List.of("football"), client.findClosestWords("footbal", 1));
+                        String text = "hello footbal " + round;
+                        assertEquals(spellChecker.metadata(new StringReader(text)),
+                                client.metadata(new StringReader(text)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosedClientRejectsCalls() {
+        client.close();
+        client.findClosestWords("valio", 1);
+    }
+
+    private static void writeRequest(SocketChannel channel, byte command, int argument, String text)
+            throws IOException {
+        Protocol.write(channel, Protocol.frame(command, argument));
+        Protocol.write(channel, Protocol.frame(Protocol.DATA, text));
+        Protocol.write(channel, Protocol.frame(Protocol.END, new byte[0]));
+    }
+}
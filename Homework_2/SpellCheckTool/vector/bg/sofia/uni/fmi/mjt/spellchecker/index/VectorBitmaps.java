@@ -0,0 +1,69 @@
+package bg.sofia.uni.fmi.mjt.spellchecker.index;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The block kernel of {@link BigramBitmaps} in the lanes of long vectors: every lane holds 64 words of the block.
+ * Only lanewise AND, OR and XOR and whole vector loads and stores are used, no gathers and no masks.
+ * <p>
+ * This is the only class which refers to jdk.incubator.vector. It lives in the optional vector source folder, which
+ * is compiled with {@code --add-modules jdk.incubator.vector} onto the classpath of the module, and is loaded by
+ * name by {@link BigramBitmaps} only when the module is resolved.
+ */
+final class VectorBitmaps implements BlockKernel {
+    private static final VectorSpecies<Long> SPECIES =
+            LongVector.SPECIES_PREFERRED.length() > BigramBitmaps.BLOCK_LONGS
+                    ? LongVector.SPECIES_512
+                    : LongVector.SPECIES_PREFERRED;
+
+    VectorBitmaps() {
+    }
+
+    @Override
+    public int lanes() {
+        return LongVector.SPECIES_PREFERRED.length();
+    }
+
+    @Override
+    public boolean sumLayers(long[] bitmaps, int offset, int[] layers, int[] weights, int layersCount,
+                             int planesCount, int limit, long[] planes, long[] above) {
+        boolean aboveLimit = false;
+        LongVector zero = LongVector.zero(SPECIES);
+        for (int lane = 0; lane < BigramBitmaps.BLOCK_LONGS; lane += SPECIES.length()) {
+            for (int plane = 0; plane < planesCount; plane++) {
+                zero.intoArray(planes, plane * BigramBitmaps.BLOCK_LONGS + lane);
+            }
+            for (int layer = 0; layer < layersCount; layer++) {
+                LongVector bits = LongVector.fromArray(SPECIES, bitmaps, layers[layer] + offset + lane);
+                for (int weightBit = 0; weights[layer] >>> weightBit != 0; weightBit++) {
+                    if ((weights[layer] >>> weightBit & 1) == 0) {
+                        continue;
+                    }
+                    LongVector carry = bits;
+                    for (int plane = weightBit; plane < planesCount; plane++) {
+                        int position = plane * BigramBitmaps.BLOCK_LONGS + lane;
+                        LongVector sum = LongVector.fromArray(SPECIES, planes, position);
+                        sum.lanewise(VectorOperators.XOR, carry).intoArray(planes, position);
+                        carry = carry.and(sum);
+                    }
+                }
+            }
+            LongVector greater = zero;
+            LongVector equal = LongVector.broadcast(SPECIES, -1L);
+            for (int plane = planesCount - 1; plane >= 0; plane--) {
+                LongVector bits = LongVector.fromArray(SPECIES, planes, plane * BigramBitmaps.BLOCK_LONGS + lane);
+                if ((limit >>> plane & 1) == 0) {
+                    greater = greater.or(equal.and(bits));
+                    equal = equal.and(bits.not());
+                } else {
+                    equal = equal.and(bits);
+                }
+            }
+            greater.intoArray(above, lane);
+            aboveLimit |= greater.reduceLanes(VectorOperators.OR) != 0;
+        }
+        return aboveLimit;
+    }
+}